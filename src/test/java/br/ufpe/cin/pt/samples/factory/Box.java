@@ -0,0 +1,13 @@
+package br.ufpe.cin.pt.samples.factory;
+
+public class Box {
+    Item item;
+
+    Box(Item i) {
+        item = i;
+    }
+
+    Item get() {
+        return item;
+    }
+}
@@ -0,0 +1,9 @@
+package br.ufpe.cin.pt.samples.factory;
+
+public class Factory {
+    Box make(Object p) {
+        Item it = new Item();
+        it.payload = p;
+        return new Box(it);
+    }
+}
@@ -0,0 +1,5 @@
+package br.ufpe.cin.pt.samples.factory;
+
+public class Item {
+    Object payload;
+}
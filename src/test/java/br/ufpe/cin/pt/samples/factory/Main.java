@@ -0,0 +1,15 @@
+package br.ufpe.cin.pt.samples.factory;
+
+public class Main {
+    public static void main(String[] args) {
+        Factory f1 = new Factory();
+        Factory f2 = new Factory();
+        Object a = new Object();
+        Object b = new Object();
+        Box b1 = f1.make(a);
+        Box b2 = f2.make(b);
+        Item i1 = b1.get();
+        Object x = i1.payload;
+        System.out.println(x.equals(b2.get().payload));
+    }
+}
@@ -0,0 +1,18 @@
+package br.ufpe.cin.pt.samples.summary;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class Main {
+    public static void main(String[] args) {
+        Object a = new Object();
+        Object b = new Object();
+        List<Object> list = new ArrayList<>();
+        list.add(a);
+        Object got = list.get(0);
+        List<Object> single = Collections.singletonList(b);
+        Object only = single.get(0);
+        System.out.println(got.equals(only));
+    }
+}
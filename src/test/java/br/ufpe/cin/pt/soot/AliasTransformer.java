@@ -2,6 +2,7 @@ package br.ufpe.cin.pt.soot;
 
 import java.util.Map;
 
+import br.ufpe.cin.pt.soot.pta.NamedPTA;
 import br.ufpe.cin.pt.soot.pta.PTA;
 import soot.Body;
 import soot.Local;
@@ -76,6 +77,45 @@ public final class AliasTransformer extends SceneTransformer {
             return Result.NOT_PROCESSED;
         }
 
+        Local[] locals = findLocals(method);
+        if (locals == null) {
+            return Result.PROBLEM_WITH_LOCALS_IDENTIFICATION;
+        }
+        if (pta == null) {
+            return Result.PTA_UNAVAILABLE;
+        }
+        return pta.hasIntersectingObjects(locals[0], locals[1]) ? Result.PTA_SUGGESTS_ALIAS : Result.PTA_NO_EVIDENCE_OF_ALIAS;
+    }
+
+    /**
+     * Signature of the target method if both locals are found in it, else null. Must run while
+     * the Scene is alive; {@link #answerFrozen} then completes the query without it.
+     */
+    public String resolveTarget() {
+        SootMethod method = Scene.v().getSootClass(targetClass).getMethodByName(targetMethod);
+        return findLocals(method) == null ? null : method.getSignature();
+    }
+
+    /** Drops the live PTA, e.g. once the run is frozen, so the transformer no longer pins the solver. */
+    public void releasePTA() {
+        this.pta = null;
+    }
+
+    /** Answers the query by name from a Scene-free PTA, given the result of {@link #resolveTarget()}. */
+    public Result answerFrozen(String targetSignature, NamedPTA frozen) {
+        if (targetSignature == null) {
+            result = Result.PROBLEM_WITH_LOCALS_IDENTIFICATION;
+        } else if (frozen == null) {
+            result = Result.PTA_UNAVAILABLE;
+        } else {
+            result = frozen.hasIntersectingObjects(targetSignature, local1, local2)
+                    ? Result.PTA_SUGGESTS_ALIAS : Result.PTA_NO_EVIDENCE_OF_ALIAS;
+        }
+        return result;
+    }
+
+    /** The two target locals of the method's body, or null if either is missing. */
+    private Local[] findLocals(SootMethod method) {
         Body body = method.retrieveActiveBody();
         Local l1 = null;
         Local l2 = null;
@@ -85,13 +125,7 @@ public final class AliasTransformer extends SceneTransformer {
             if (this.local1.equals(name)) l1 = l;
             else if (this.local2.equals(name)) l2 = l;
         }
-        if (l1 == null || l2 == null) {
-            return Result.PROBLEM_WITH_LOCALS_IDENTIFICATION;
-        }
-        if (pta == null) {
-            return Result.PTA_UNAVAILABLE;
-        }
-        return pta.hasIntersectingObjects(l1, l2) ? Result.PTA_SUGGESTS_ALIAS : Result.PTA_NO_EVIDENCE_OF_ALIAS;
+        return l1 == null || l2 == null ? null : new Local[] {l1, l2};
     }
 
     private boolean isTargetType(Local local) {
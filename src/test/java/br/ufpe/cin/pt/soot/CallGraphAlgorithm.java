@@ -5,12 +5,17 @@ public enum CallGraphAlgorithm {
     SOOT_RTA("soot::RTA"),
     SOOT_VTA("soot::VTA"),
     SOOT_SPARK("soot::SPARK"),
+    SOOT_SPARK_TYPES("soot::SPARK-types"),
+    SOOT_SPARK_FIELDS("soot::SPARK-fields"),
+    SOOT_SPARK_COARSE("soot::SPARK-coarse"),
     QILIN_INSENS("qilin::INSENS"),
+    QILIN_INSENS_MH("qilin::INSENS-mh"),
     QILIN_1C("qilin::1C"),
     QILIN_1O("qilin::1O"),
     QILIN_1T("qilin::1T"),
     QILIN_2C("qilin::2C"),
     QILIN_2O("qilin::2O"),
+    QILIN_2O_MH("qilin::2O-mh"),
     QILIN_2T("qilin::2T"),
     QILIN_2H("qilin::2H"),
     QILIN_2HT("qilin::2HT"),
@@ -1,6 +1,23 @@
 package br.ufpe.cin.pt.soot;
 
+import br.ufpe.cin.pt.soot.callgraph.CallGraphSeed;
+import br.ufpe.cin.pt.soot.callgraph.CallGraphSnapshot;
+import br.ufpe.cin.pt.soot.callgraph.ReachabilityIndex;
+import br.ufpe.cin.pt.soot.history.HistoryStore;
+import br.ufpe.cin.pt.soot.history.RunRecord;
+import br.ufpe.cin.pt.soot.metrics.ContextProfiler;
+import br.ufpe.cin.pt.soot.metrics.HotPointerReport;
+import br.ufpe.cin.pt.soot.metrics.PrecisionMetrics;
+import br.ufpe.cin.pt.soot.pta.ContextPolicy;
 import br.ufpe.cin.pt.soot.pta.PTASingleton;
+import br.ufpe.cin.pt.soot.pta.WarmStart;
+import br.ufpe.cin.pt.soot.select.ProgramFeatures;
+import br.ufpe.cin.pt.soot.store.DedupStats;
+import br.ufpe.cin.pt.soot.store.FrozenPTA;
+import br.ufpe.cin.pt.soot.store.MappedPointsToStore;
+import br.ufpe.cin.pt.soot.store.PointsToExtractor;
+import br.ufpe.cin.pt.soot.store.PointsToRelation;
+import br.ufpe.cin.pt.soot.summary.LibrarySummaries;
 import driver.PTAFactory;
 import driver.PTAPattern;
 import qilin.CoreConfig;
@@ -10,18 +27,36 @@ import soot.*;
 import soot.options.Options;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 public class Driver {
+    private static final String MERGE_HEAP_SUFFIX = "-mh";
+    /** Qilin patterns with a uniform k-limited selector; the selective ones choose contexts in a pre-analysis. */
+    private static final Pattern K_LIMITED = Pattern.compile("[1-3](c|o|t|h|ht)");
+
+    private RunReport report;
+
     /**
      * Runs Soot with the given call graph / points-to configuration and
      * returns the may-alias result.
      */
     public AliasTransformer.Result runAnalysis(TestConfiguration config) {
-        G.reset();
+        if (config.hotPointers != null && config.algorithm == CallGraphAlgorithm.SOOT_CHA) {
+            throw new IllegalArgumentException("A hot pointer report needs points-to sets, which CHA does not have");
+        }
         boolean isQilin = config.algorithm.getName().startsWith("qilin");
+        if (config.sparkOptions != null && (isQilin || config.algorithm == CallGraphAlgorithm.SOOT_CHA)) {
+            throw new IllegalArgumentException("Spark options need a Spark-based algorithm, not " + config.algorithm);
+        }
+        G.reset();
+        report = new RunReport(config.algorithm);
         if (isQilin) {
             // Configure Qilin's view of the application first (APP_PATH, LIB_PATH, JRE, MAIN_CLASS, INCLUDE/EXCLUDE).
             configureQilin(config);
@@ -30,17 +65,44 @@ public class Driver {
             setCallGraph(config.algorithm);
         } else {
             // Pure Soot configuration for CHA/RTA/VTA/SPARK.
-            setSootOptionsForSoot();
+            setSootOptionsForSoot(config);
             setCallGraph(config.algorithm);
+            if (config.sparkOptions != null) {
+                config.sparkOptions.apply();
+            }
         }
         try {
+            long start = System.nanoTime();
             Scene.v().loadNecessaryClasses();
             Scene.v().setEntryPoints(getEntryPoints(config.entryClass, config.entryMethod));
+            report.addPhase("load", elapsedMillis(start));
+            boolean installSummaries = config.summaryFile != null && config.summaryFile.exists();
+            if (installSummaries) {
+                report.addMetric("summaries.installed", LibrarySummaries.install(config.summaryFile));
+            }
+            if (config.jimplifyThreads > 0) {
+                jimplify(config.jimplifyThreads);
+            }
             AliasTransformer transformer = null;
+            ContextPolicy policy = config.contextPolicy != null ? loadPolicy(config) : null;
+            WarmStart warmStart = config.warmStart ? planWarmStart(config) : null;
+            start = System.nanoTime();
+            PTA qilinPTA = null;
             if (isQilin) {
                 PTA pta = createQilinPTA(config.algorithm);
+                if (policy != null) {
+                    policy.install(pta);
+                }
+                if (warmStart != null) {
+                    warmStart.install(pta);
+                }
                 pta.run();
-                PTASingleton.configureQilinPTA(pta);
+                qilinPTA = pta;
+                PTASingleton.configureQilinPTA(pta, isContextSensitive(config.algorithm));
+                transformer = new AliasTransformer(config, PTASingleton.getInstance());
+            }
+            else if (config.callGraphSeed != null) {
+                seedCallGraph(config);
                 transformer = new AliasTransformer(config, PTASingleton.getInstance());
             }
             else {
@@ -48,18 +110,268 @@ public class Driver {
                 PTASingleton.configureSootPTA(Scene.v().getPointsToAnalysis());
                 transformer = new AliasTransformer(config, PTASingleton.getInstance());
             }
+            report.addPhase("solve", elapsedMillis(start));
+            report.addMetric("reachableMethods", PTASingleton.getInstance().getReachableMethods().size());
+            if (policy != null) {
+                reportPolicy(policy);
+            }
+            if (config.contextProfile != null) {
+                profileContexts(qilinPTA, config.contextProfile);
+            }
+            if (config.warmStartPlan != null) {
+                writeWarmStartPlan(config.warmStartPlan, config);
+            }
+            if (config.summaryFile != null && !installSummaries) {
+                start = System.nanoTime();
+                report.addMetric("summaries.derived",
+                        LibrarySummaries.derive(config.summaryClasses, config.summaryFile));
+                report.addPhase("summarize", elapsedMillis(start));
+            }
+            if (config.precisionMetrics) {
+                start = System.nanoTime();
+                PrecisionMetrics.collect(PTASingleton.getInstance()).addTo(report);
+                report.addPhase("metrics", elapsedMillis(start));
+            }
+            if (config.programFeatures) {
+                start = System.nanoTime();
+                ProgramFeatures.extract(PTASingleton.getInstance()).addTo(report);
+                report.addPhase("features", elapsedMillis(start));
+            }
+            if (config.hotPointers != null) {
+                start = System.nanoTime();
+                HotPointerReport hot = HotPointerReport.collect(PTASingleton.getInstance(), 100);
+                hot.write(config.hotPointers);
+                hot.addTo(report);
+                report.addPhase("hotPointers", elapsedMillis(start));
+            }
+            if (config.pointsToExport != null) {
+                exportPointsTo(config.pointsToExport);
+            }
+            if (config.callGraphExport != null || config.reachabilityIndex != null) {
+                start = System.nanoTime();
+                CallGraphSnapshot callGraph = CallGraphSnapshot.of(PTASingleton.getInstance());
+                if (config.callGraphExport != null) {
+                    callGraph.write(config.callGraphExport);
+                    report.addPhase("cgExport", elapsedMillis(start));
+                    report.addMetric("cgExport.edges", callGraph.edgeCount());
+                }
+                if (config.reachabilityIndex != null) {
+                    // Without an export, taking the snapshot counts towards the index.
+                    if (config.callGraphExport != null) start = System.nanoTime();
+                    ReachabilityIndex reachability = ReachabilityIndex.build(callGraph);
+                    reachability.write(config.reachabilityIndex);
+                    report.addPhase("reachability", elapsedMillis(start));
+                    report.addMetric("reachability.components", reachability.componentCount());
+                }
+            }
+            if (config.freeze) {
+                String target = transformer.resolveTarget();
+                FrozenPTA frozen = freeze();
+                // Nothing in this frame may pin the solver once queryFrozen tears the Scene down.
+                transformer.releasePTA();
+                qilinPTA = null;
+                policy = null;
+                warmStart = null;
+                return recorded(config, queryFrozen(transformer, target, frozen));
+            }
+            start = System.nanoTime();
             PackManager.v().getPack("wjtp").add(new Transform("wjtp.ptcheck", transformer));
             PackManager.v().getPack("wjtp").apply();
-            return transformer.getResult();
+            report.addPhase("query", elapsedMillis(start));
+            return recorded(config, transformer.getResult());
         } catch (Exception e) {
             throw new RuntimeException("Soot run failed for " + config.algorithm, e);
         }
     }
 
+    /** Phase timings and metrics of the last {@link #runAnalysis(TestConfiguration)} call. */
+    public RunReport getReport() {
+        return report;
+    }
+
+    /** Appends the finished run to the configured history; the peak heap is this JVM's so far. */
+    private AliasTransformer.Result recorded(TestConfiguration config, AliasTransformer.Result result) {
+        if (config.history != null) {
+            HistoryStore.open(config.history).append(
+                    RunRecord.of(config.getScenario(), "OK", report, RunWorker.peakHeapMB()));
+        }
+        return result;
+    }
+
+    /** Ranks methods, allocation sites and cs-pointers of a Qilin run by context use and dumps the profile. */
+    private void profileContexts(PTA pta, File dump) {
+        if (pta == null) {
+            throw new IllegalArgumentException("Context profiling needs a Qilin algorithm");
+        }
+        long start = System.nanoTime();
+        ContextProfiler profile = ContextProfiler.profile(pta, 1000);
+        profile.write(dump);
+        report.addPhase("profile", elapsedMillis(start));
+        report.addMetric("profile.contexts", profile.contextCount());
+        report.addMetric("profile.csPointers", profile.csPointerCount());
+        report.addMetric("profile.heapContexts", profile.heapContextCount());
+    }
+
+    /** Reads the run's context policy and checks that its algorithm can apply it. */
+    private ContextPolicy loadPolicy(TestConfiguration config) {
+        if (!config.algorithm.name.startsWith("qilin")) {
+            throw new IllegalArgumentException("A context policy needs a Qilin algorithm, not " + config.algorithm);
+        }
+        ContextPolicy policy = ContextPolicy.read(config.contextPolicy);
+        policy.checkApplicable(qilinPtaPatternFor(config.algorithm));
+        report.addMetric("policy.rules", policy.getRules().size());
+        return policy;
+    }
+
+    /**
+     * Counts the reachable methods the policy made context-sensitive, made insensitive, or left to
+     * the algorithm because no rule matched.
+     */
+    private void reportPolicy(ContextPolicy policy) {
+        long sensitive = 0, insensitive = 0, unmatched = 0;
+        for (SootMethod m : PTASingleton.getInstance().getReachableMethods()) {
+            ContextPolicy.Rule rule = policy.ruleFor(m);
+            if (rule == null) unmatched++;
+            else if (rule.depth == 0) insensitive++;
+            else sensitive++;
+        }
+        report.addMetric("policy.sensitiveMethods", sensitive);
+        report.addMetric("policy.insensitiveMethods", insensitive);
+        report.addMetric("policy.unmatchedMethods", unmatched);
+    }
+
+    /**
+     * Solves QILIN_INSENS on the same scenario in a forked run, so the pre-solve leaves no Qilin
+     * state behind in this JVM, and reads the context pruning of {@code config}'s algorithm from the
+     * plan it writes (see {@link WarmStart}). The fork is timed as its own phase, not as part of the
+     * solve.
+     */
+    private WarmStart planWarmStart(TestConfiguration config) {
+        CallGraphAlgorithm algorithm = config.algorithm;
+        String pattern = algorithm.name.startsWith("qilin") ? qilinPtaPatternFor(algorithm) : "";
+        if (!K_LIMITED.matcher(pattern).matches()) {
+            throw new IllegalArgumentException("Warm start needs a k-limited Qilin algorithm, not " + algorithm);
+        }
+        File planFile;
+        try {
+            planFile = File.createTempFile("warmstart", ".tsv");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create the warm start plan file", e);
+        }
+        try {
+            TestConfiguration preSolve = new TestConfiguration(config.entryClass, config.entryMethod,
+                    config.targetClass, config.targetMethod, config.local1, config.local2, config.targetType)
+                    .setCallGraph(CallGraphAlgorithm.QILIN_INSENS)
+                    .setWarmStartPlan(planFile);
+            if (config.applicationPath != null || config.libraryPath != null) {
+                preSolve.setApplicationPath(config.applicationPath, config.libraryPath);
+            }
+            if (config.summaryFile != null && config.summaryFile.exists()) {
+                preSolve.setLibrarySummaries(config.summaryFile, config.summaryClasses);
+            }
+            ForkedRun.Outcome outcome = new ForkedRun(preSolve).execute();
+            if (outcome.status != ForkedRun.Status.OK) {
+                throw new IllegalStateException("Warm start pre-solve failed: " + outcome);
+            }
+            WarmStart plan = WarmStart.read(planFile, pattern.endsWith("c") || pattern.contains("h"));
+            report.addPhase("warmStart", outcome.wallMillis);
+            report.addMetric("warmStart.reachableMethods", plan.getReachableMethodCount());
+            report.addMetric("warmStart.prunedMethods", plan.getPrunedMethods().size());
+            return plan;
+        } finally {
+            planFile.delete();
+        }
+    }
+
+    /** Writes the pruning plans of a QILIN_INSENS run for a warm-started run in another JVM. */
+    private void writeWarmStartPlan(File file, TestConfiguration config) {
+        if (config.algorithm != CallGraphAlgorithm.QILIN_INSENS) {
+            throw new IllegalArgumentException("A warm start plan needs QILIN_INSENS, not " + config.algorithm);
+        }
+        long start = System.nanoTime();
+        WarmStart.write(PTASingleton.getInstance(), file);
+        report.addPhase("warmStartPlan", elapsedMillis(start));
+    }
+
+    /** Installs the stored call graph and runs Spark over it; replaces the cg pack for seeded runs. */
+    private void seedCallGraph(TestConfiguration config) {
+        if (config.algorithm != CallGraphAlgorithm.SOOT_SPARK) {
+            throw new IllegalArgumentException("Call graph seeding needs SOOT_SPARK, not " + config.algorithm);
+        }
+        CallGraphSnapshot seed = CallGraphSnapshot.read(config.callGraphSeed);
+        report.addMetric("seed.edges", seed.edgeCount());
+        report.addMetric("seed.unresolvedEdges", CallGraphSeed.install(seed));
+        PTASingleton.configureSootPTA(CallGraphSeed.solveSpark());
+    }
+
+    /** Pre-jimplify stage: builds all candidate bodies in parallel and records how busy the threads were. */
+    private void jimplify(int threads) {
+        Jimplifier.Stats stats = new Jimplifier(threads).run();
+        report.addPhase("jimplify", stats.wallMillis);
+        report.addMetric("jimplify.threads", stats.threads);
+        report.addMetric("jimplify.methods", stats.methods);
+        report.addMetric("jimplify.failed", stats.failed);
+        report.addMetric("jimplify.busyMillis", stats.busyMillis);
+        report.addMetric("jimplify.parallelism", stats.parallelism());
+    }
+
+    /** Freezes the solved analysis and samples the heap while the live solver is still reachable. */
+    private FrozenPTA freeze() {
+        long start = System.nanoTime();
+        FrozenPTA frozen = FrozenPTA.freeze(PTASingleton.getInstance());
+        report.addPhase("freeze", elapsedMillis(start));
+        report.addMetric("freeze.pointers", frozen.getRelation().pointerCount());
+        report.addMetric("freeze.callEdges", frozen.callEdgeCount());
+        report.addMetric("freeze.heapBeforeMB", usedHeapMB());
+        return frozen;
+    }
+
+    /**
+     * Tears down Soot's global state and Qilin's configuration, samples the heap after a GC, and
+     * answers the query from the frozen index. The caller must have dropped its own references to
+     * the solver; Qilin static state outside {@code G} and {@code PTAConfig} is not reset.
+     */
+    private AliasTransformer.Result queryFrozen(AliasTransformer transformer, String target, FrozenPTA frozen) {
+        PTASingleton.release();
+        G.reset();
+        PTAConfig.reset();
+        report.addMetric("freeze.heapAfterMB", usedHeapMB());
+        long start = System.nanoTime();
+        AliasTransformer.Result result = transformer.answerFrozen(target, frozen);
+        report.addPhase("query", elapsedMillis(start));
+        return result;
+    }
+
+    private static long usedHeapMB() {
+        Runtime rt = Runtime.getRuntime();
+        System.gc();
+        return (rt.totalMemory() - rt.freeMemory()) >> 20;
+    }
+
+    /**
+     * Writes the solved relation to a memory-mapped store for offline querying. The deduplication
+     * metrics land in this algorithm's report, so runs over several algorithms can be compared.
+     */
+    private void exportPointsTo(File file) {
+        long start = System.nanoTime();
+        PointsToRelation relation = PointsToExtractor.extract(PTASingleton.getInstance());
+        long bytes = MappedPointsToStore.write(relation, file);
+        report.addPhase("export", elapsedMillis(start));
+        report.addMetric("export.pointers", relation.pointerCount());
+        report.addMetric("export.sites", relation.siteCount());
+        report.addMetric("export.bytes", bytes);
+        DedupStats dedup = relation.dedupStats();
+        report.addMetric("export.uniqueSets", dedup.uniqueSets);
+        report.addMetric("export.dedupRatio", dedup.ratio());
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
     /** Soot configuration for pure Soot PTAs (CHA, RTA, VTA, SPARK). */
-    private void setSootOptionsForSoot() {
-        String classpath = buildClassPath();
-        String processDir = new File("target/test-classes").getAbsolutePath();
+    private void setSootOptionsForSoot(TestConfiguration config) {
+        String classpath = buildClassPath(config);
 
         Options.v().set_no_bodies_for_excluded(true);
         Options.v().set_allow_phantom_refs(true);
@@ -68,7 +380,7 @@ public class Driver {
         Options.v().set_output_format(Options.output_format_none);
         Options.v().set_whole_program(true);
         Options.v().set_soot_classpath(classpath);
-        Options.v().set_process_dir(Arrays.asList(new String[]{processDir}));
+        Options.v().set_process_dir(applicationPath(config));
         Options.v().set_full_resolver(true);
         Options.v().set_keep_line_number(true);
         Options.v().set_prepend_classpath(true);
@@ -85,8 +397,8 @@ public class Driver {
         PTAConfig cfg = PTAConfig.v();
         PTAConfig.ApplicationConfiguration app = cfg.getAppConfig();
 
-        // Process only the application path that Qilin is configured to analyse.
-        Options.v().set_process_dir(Collections.singletonList(app.APP_PATH));
+        // Process only the application path that Qilin is configured to analyse (one or more entries).
+        Options.v().set_process_dir(Arrays.asList(app.APP_PATH.split(File.pathSeparator)));
 
         if (app.MAIN_CLASS != null) {
             Options.v().set_main_class(app.MAIN_CLASS);
@@ -133,6 +445,24 @@ public class Driver {
                 Options.v().setPhaseOption("cg.spark", "enabled:true");
                 Options.v().setPhaseOption("cg.spark", "on-fly-cg:true");
                 break;
+            case SOOT_SPARK_TYPES:
+                Options.v().setPhaseOption("cg.spark", "enabled:true");
+                Options.v().setPhaseOption("cg.spark", "on-fly-cg:true");
+                Options.v().setPhaseOption("cg.spark", "types-for-sites:true");  // one abstract object per type
+                break;
+            case SOOT_SPARK_FIELDS:
+                Options.v().setPhaseOption("cg.spark", "enabled:true");
+                Options.v().setPhaseOption("cg.spark", "on-fly-cg:true");
+                Options.v().setPhaseOption("cg.spark", "field-based:true");  // one node per field, base objects ignored
+                break;
+            case SOOT_SPARK_COARSE:
+                Options.v().setPhaseOption("cg.spark", "enabled:true");
+                Options.v().setPhaseOption("cg.spark", "on-fly-cg:true");
+                Options.v().setPhaseOption("cg.spark", "types-for-sites:true");
+                Options.v().setPhaseOption("cg.spark", "field-based:true");
+                Options.v().setPhaseOption("cg.spark", "merge-stringbuffer:true");  // Soot's default, kept explicit
+                Options.v().setPhaseOption("cg.spark", "string-constants:false");   // likewise
+                break;
             case SOOT_RTA:
                 Options.v().setPhaseOption("cg.spark", "enabled:true");
                 Options.v().setPhaseOption("cg.spark", "rta:true");
@@ -144,11 +474,13 @@ public class Driver {
                 Options.v().setPhaseOption("cg.spark", "on-fly-cg:false");
                 break;
             case QILIN_INSENS:
+            case QILIN_INSENS_MH:
             case QILIN_1C:
             case QILIN_1O:
             case QILIN_1T:
             case QILIN_2C:
             case QILIN_2O:
+            case QILIN_2O_MH:
             case QILIN_2T:
             case QILIN_2H:
             case QILIN_2HT:
@@ -186,19 +518,24 @@ public class Driver {
      */
     private static void configureQilin(TestConfiguration config) {
         CoreConfig.ApplicationConfiguration app = PTAConfig.v().getAppConfig();
-        app.APP_PATH = new File("target/test-classes").getAbsolutePath();
-        app.LIB_PATH = buildLibPath();
+        app.APP_PATH = String.join(File.pathSeparator, applicationPath(config));
+        app.LIB_PATH = buildLibPath(config);
         app.JRE = System.getProperty("java.home");  // JRE base dir (Main.getJreJars expects this)
         app.MAIN_CLASS = config.entryClass;
         app.INCLUDE = getIncludeList();
         app.EXCLUDE = Arrays.asList("sun.misc.*");
     }
 
-    /** Library path for Qilin (-libpath): classpath minus app dir (java.class.path + rt + jce). */
-    private static String buildLibPath() {
+    /** Library path for Qilin (-libpath): classpath minus app dir (configured libraries + java.class.path + rt + jce). */
+    private static String buildLibPath(TestConfiguration config) {
         String cp = System.getProperty("java.class.path");
         StringBuilder sb = new StringBuilder();
+        for (String lib : libraryPath(config)) {
+            if (sb.length() > 0) sb.append(File.pathSeparator);
+            sb.append(lib);
+        }
         if (cp != null && !cp.isEmpty()) {
+            if (sb.length() > 0) sb.append(File.pathSeparator);
             sb.append(cp);
         }
         String rt = pathToRT();
@@ -222,13 +559,27 @@ public class Driver {
         String pattern = qilinPtaPatternFor(algorithm);
         PTAConfig.reset();
         PTAConfig.v().getPtaConfig().ptaPattern = new PTAPattern(pattern);
+        // "-mh" variants merge StringBuilder, StringBuffer and Throwable objects by type (Qilin's -mh)
+        PTAConfig.v().getPtaConfig().mergeHeap = algorithm.name.endsWith(MERGE_HEAP_SUFFIX);
         return PTAFactory.createPTA(PTAConfig.v().getPtaConfig().ptaPattern);
     }
 
-    /** Returns the Qilin PTAPattern string for the given algorithm (e.g. QILIN_INSENS → "insens"). */
+    /**
+     * Returns the Qilin PTAPattern string for the given algorithm (e.g. QILIN_INSENS → "insens",
+     * QILIN_2O_MH → "2o"); heap merging is a separate setting, not part of the pattern.
+     */
     private static String qilinPtaPatternFor(CallGraphAlgorithm algorithm) {
         assert(algorithm.name.startsWith("qilin"));
-        return algorithm.name.replaceAll("qilin::", "").toLowerCase();
+        String variant = algorithm.name.replaceAll("qilin::", "");
+        if (variant.endsWith(MERGE_HEAP_SUFFIX)) {
+            variant = variant.substring(0, variant.length() - MERGE_HEAP_SUFFIX.length());
+        }
+        return variant.toLowerCase();
+    }
+
+    /** False for the insensitive patterns (QILIN_INSENS and QILIN_INSENS_MH), which only know the empty context. */
+    private static boolean isContextSensitive(CallGraphAlgorithm algorithm) {
+        return !qilinPtaPatternFor(algorithm).equals("insens");
     }
 
     /** Include list so these packages are treated as application classes (SVFA pattern). */
@@ -252,10 +603,34 @@ public class Driver {
         return Collections.singletonList(mainMethod);
     }
 
-    private static String buildClassPath() {
-        String testClasses = new File("target/test-classes").getAbsolutePath();
+    /** Absolute application entries: the configured path, or {@code target/test-classes}. */
+    private static List<String> applicationPath(TestConfiguration config) {
+        if (config.applicationPath == null || config.applicationPath.isEmpty()) {
+            return Collections.singletonList(new File("target/test-classes").getAbsolutePath());
+        }
+        List<String> paths = new ArrayList<>();
+        for (File f : config.applicationPath) {
+            paths.add(f.getAbsolutePath());
+        }
+        return paths;
+    }
+
+    private static List<String> libraryPath(TestConfiguration config) {
+        List<String> paths = new ArrayList<>();
+        if (config.libraryPath != null) {
+            for (File f : config.libraryPath) {
+                paths.add(f.getAbsolutePath());
+            }
+        }
+        return paths;
+    }
+
+    private static String buildClassPath(TestConfiguration config) {
         StringBuilder sb = new StringBuilder();
-        sb.append(testClasses);//.append(File.pathSeparator).append(testClasses);
+        sb.append(String.join(File.pathSeparator, applicationPath(config)));
+        for (String lib : libraryPath(config)) {
+            sb.append(File.pathSeparator).append(lib);
+        }
         String rt = pathToRT();
         if (rt != null) {
             sb.append(File.pathSeparator).append(rt);
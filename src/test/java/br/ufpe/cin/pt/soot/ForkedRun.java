@@ -0,0 +1,193 @@
+package br.ufpe.cin.pt.soot;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs one {@link Driver} analysis in a fresh child JVM ({@link RunWorker}) with its own heap limit
+ * and a wall-clock timeout. Every run starts from clean Soot and Qilin static state, and a run that
+ * exhausts its heap or its time fails alone instead of taking the caller down.
+ */
+public final class ForkedRun {
+
+    public enum Status { OK, TIMEOUT, OUT_OF_MEMORY, FAILED }
+
+    /** What the child reported, or why it did not. */
+    public static final class Outcome {
+        public final Status status;
+        public final AliasTransformer.Result result;  // null unless OK
+        public final RunReport report;                // empty unless OK
+        public final long peakHeapMB;                 // -1 unless OK
+        public final long wallMillis;
+        public final String error;                    // last output line for failures
+
+        public Outcome(Status status, AliasTransformer.Result result, RunReport report, long peakHeapMB,
+                long wallMillis, String error) {
+            this.status = status;
+            this.result = result;
+            this.report = report;
+            this.peakHeapMB = peakHeapMB;
+            this.wallMillis = wallMillis;
+            this.error = error;
+        }
+
+        @Override
+        public String toString() {
+            return status == Status.OK
+                    ? String.format("%s in %d ms, peak heap %d MB", result, wallMillis, peakHeapMB)
+                    : String.format("%s after %d ms: %s", status, wallMillis, error);
+        }
+    }
+
+    private final TestConfiguration config;
+    private int heapMB = 4096;
+    private long timeoutSeconds = 1800;
+    private String javaCommand = new File(new File(System.getProperty("java.home"), "bin"), "java").getPath();
+
+    public ForkedRun(TestConfiguration config) {
+        this.config = config;
+    }
+
+    /** Maximum heap of the child ({@code -Xmx}). */
+    public ForkedRun setHeapMB(int heapMB) {
+        this.heapMB = heapMB;
+        return this;
+    }
+
+    /** Wall-clock limit, after which the child is killed. */
+    public ForkedRun setTimeoutSeconds(long timeoutSeconds) {
+        this.timeoutSeconds = timeoutSeconds;
+        return this;
+    }
+
+    /** Java launcher of the child; defaults to the one running this JVM. */
+    public ForkedRun setJavaCommand(String javaCommand) {
+        this.javaCommand = javaCommand;
+        return this;
+    }
+
+    public int getHeapMB() {
+        return heapMB;
+    }
+
+    public TestConfiguration getConfiguration() {
+        return config;
+    }
+
+    /** Child command line: this JVM's class path, the heap limit, exit on OOM. */
+    List<String> command() {
+        List<String> cmd = new ArrayList<>();
+        cmd.add(javaCommand);
+        cmd.add("-Xmx" + heapMB + "m");
+        cmd.add("-XX:+ExitOnOutOfMemoryError");
+        cmd.add("-cp");
+        cmd.add(System.getProperty("java.class.path"));
+        cmd.add(RunWorker.class.getName());
+        cmd.addAll(RunWorker.toArgs(config));
+        return cmd;
+    }
+
+    /** Starts the child and blocks until it reports, fails or times out. */
+    public Outcome execute() {
+        long start = System.nanoTime();
+        Process process;
+        try {
+            process = new ProcessBuilder(command()).redirectErrorStream(true).start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start worker JVM", e);
+        }
+        OutputCollector output = new OutputCollector(process);
+        output.start();
+        try {
+            boolean finished = process.waitFor(timeoutSeconds, TimeUnit.SECONDS);
+            if (!finished) {
+                process.destroyForcibly().waitFor();
+            }
+            output.join();
+            long wall = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (!finished) {
+                return new Outcome(Status.TIMEOUT, null, new RunReport(config.algorithm), -1, wall,
+                        "no result after " + timeoutSeconds + " s");
+            }
+            if (output.resultLine != null) {
+                return parse(output.resultLine, config.algorithm, wall);
+            }
+            Status status = output.outOfMemory ? Status.OUT_OF_MEMORY : Status.FAILED;
+            return new Outcome(status, null, new RunReport(config.algorithm), -1, wall,
+                    "exit " + process.exitValue() + ": " + output.lastLine);
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for worker JVM", e);
+        }
+    }
+
+    /** Rebuilds the outcome from a {@link RunWorker} result line. */
+    static Outcome parse(String line, CallGraphAlgorithm algorithm, long wallMillis) {
+        RunReport report = new RunReport(algorithm);
+        AliasTransformer.Result result = null;
+        long peak = -1;
+        String[] fields = line.split("\t");
+        for (int i = 1; i < fields.length; i++) {
+            int eq = fields[i].indexOf('=');
+            String key = fields[i].substring(0, eq);
+            String value = fields[i].substring(eq + 1);
+            if (key.equals("result")) {
+                result = AliasTransformer.Result.valueOf(value);
+            } else if (key.equals("peakHeapMB")) {
+                peak = Long.parseLong(value);
+            } else if (key.startsWith("phase.")) {
+                report.addPhase(key.substring(6), Long.parseLong(value));
+            } else if (key.startsWith("metric.")) {
+                report.addMetric(key.substring(7), parseNumber(value));
+            }
+        }
+        return new Outcome(Status.OK, result, report, peak, wallMillis, null);
+    }
+
+    private static Number parseNumber(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return Double.parseDouble(value);
+        }
+    }
+
+    /** Drains the child's output so it never blocks, keeping the result line and the last line. */
+    private static final class OutputCollector extends Thread {
+        private final Process process;
+        volatile String resultLine;
+        volatile String lastLine = "";
+        volatile boolean outOfMemory;
+
+        OutputCollector(Process process) {
+            this.process = process;
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try (BufferedReader in = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (line.startsWith(RunWorker.RESULT_PREFIX + "\t")) {
+                        resultLine = line;
+                    } else if (!line.trim().isEmpty()) {
+                        lastLine = line.trim();
+                        if (line.contains("OutOfMemoryError")) outOfMemory = true;
+                    }
+                }
+            } catch (IOException e) {
+                lastLine = "output lost: " + e.getMessage();
+            }
+        }
+    }
+}
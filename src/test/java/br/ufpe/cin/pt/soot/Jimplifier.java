@@ -0,0 +1,112 @@
+package br.ufpe.cin.pt.soot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import soot.Scene;
+import soot.SootClass;
+import soot.SootMethod;
+
+/**
+ * Builds the active bodies of all candidate methods in the Scene on a thread pool, before the
+ * single-threaded Spark/Qilin solve starts. Both PTAs call {@code retrieveActiveBody()} while
+ * building the PAG; with the bodies already in place that call becomes a lookup.
+ * <p>
+ * Candidates are the concrete methods of non-phantom classes resolved at {@link SootClass#BODIES}
+ * level. This is the same unit of work Soot's own {@code PackManager.retrieveAllBodies()} runs in
+ * parallel, so body construction is safe to do concurrently once the classes are resolved.
+ */
+public final class Jimplifier {
+
+    /** Outcome of a {@link #run()}: how many bodies were built and how long it took. */
+    public static final class Stats {
+        public final int threads;
+        public final int methods;
+        public final int failed;
+        /** Wall-clock time of the parallel stage. */
+        public final long wallMillis;
+        /**
+         * Sum of the per-method build times as measured on the pool threads. These include time lost
+         * to contention between the threads, so this is not what a serial build would take.
+         */
+        public final long busyMillis;
+
+        Stats(int threads, int methods, int failed, long wallMillis, long busyMillis) {
+            this.threads = threads;
+            this.methods = methods;
+            this.failed = failed;
+            this.wallMillis = wallMillis;
+            this.busyMillis = busyMillis;
+        }
+
+        /**
+         * Average number of threads busy building bodies over the stage (busy time over wall time).
+         * An upper bound on the speedup over a serial build, not a measurement of it.
+         */
+        public double parallelism() {
+            return wallMillis == 0 ? 1.0 : (double) busyMillis / wallMillis;
+        }
+    }
+
+    private final int threads;
+
+    public Jimplifier(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads should be at least 1, got " + threads);
+        }
+        this.threads = threads;
+    }
+
+    public Stats run() {
+        List<SootMethod> candidates = candidateMethods();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicLong busyNanos = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        try {
+            for (SootMethod m : candidates) {
+                pool.execute(() -> {
+                    long t = System.nanoTime();
+                    try {
+                        m.retrieveActiveBody();
+                    } catch (RuntimeException e) {
+                        // Left for the solver to retry on demand (and report) as it would without this stage.
+                        failed.incrementAndGet();
+                    }
+                    busyNanos.addAndGet(System.nanoTime() - t);
+                });
+            }
+        } finally {
+            pool.shutdown();
+        }
+        try {
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while building method bodies", e);
+        }
+        long wall = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        return new Stats(threads, candidates.size(), failed.get(), wall,
+                TimeUnit.NANOSECONDS.toMillis(busyNanos.get()));
+    }
+
+    /** Snapshot of the methods to jimplify; the class chain must not be iterated while bodies are being built. */
+    private static List<SootMethod> candidateMethods() {
+        List<SootMethod> result = new ArrayList<>();
+        for (SootClass c : new ArrayList<>(Scene.v().getClasses())) {
+            if (c.isPhantom() || c.resolvingLevel() < SootClass.BODIES) continue;
+            for (SootMethod m : new ArrayList<>(c.getMethods())) {
+                if (m.isConcrete() && !m.hasActiveBody()) {
+                    result.add(m);
+                }
+            }
+        }
+        return result;
+    }
+}
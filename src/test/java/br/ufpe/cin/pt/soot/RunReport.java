@@ -0,0 +1,79 @@
+package br.ufpe.cin.pt.soot;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Phase timings (in milliseconds) and named metrics collected by a single {@link Driver} run.
+ * Phases and metrics keep their insertion order, so the report reads in pipeline order.
+ */
+public class RunReport {
+    private final CallGraphAlgorithm algorithm;
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+    private final Map<String, Number> metrics = new LinkedHashMap<>();
+
+    public RunReport(CallGraphAlgorithm algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public CallGraphAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public void addPhase(String name, long millis) {
+        phases.put(name, millis);
+    }
+
+    public void addMetric(String name, Number value) {
+        metrics.put(name, value);
+    }
+
+    /** Duration of the given phase, or -1 if the phase did not run. */
+    public long getPhase(String name) {
+        Long millis = phases.get(name);
+        return millis == null ? -1 : millis;
+    }
+
+    /** Value of the given metric, or null if it was not recorded. */
+    public Number getMetric(String name) {
+        return metrics.get(name);
+    }
+
+    /** Sum of the recorded phases, which is what cost models predict; excludes JVM startup for forked runs. */
+    public long totalMillis() {
+        long total = 0;
+        for (long millis : phases.values()) {
+            total += millis;
+        }
+        return total;
+    }
+
+    public Map<String, Long> getPhases() {
+        return Collections.unmodifiableMap(phases);
+    }
+
+    public Map<String, Number> getMetrics() {
+        return Collections.unmodifiableMap(metrics);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Run report for ").append(algorithm == null ? "?" : algorithm.getName()).append('\n');
+        for (Map.Entry<String, Long> e : phases.entrySet()) {
+            sb.append(String.format("  %-32s %10d ms%n", e.getKey(), e.getValue()));
+        }
+        for (Map.Entry<String, Number> e : metrics.entrySet()) {
+            sb.append(String.format("  %-32s %13s%n", e.getKey(), format(e.getValue())));
+        }
+        return sb.toString();
+    }
+
+    private static String format(Number value) {
+        if (value instanceof Double || value instanceof Float) {
+            return String.format("%.2f", value.doubleValue());
+        }
+        return String.valueOf(value);
+    }
+}
@@ -0,0 +1,186 @@
+package br.ufpe.cin.pt.soot;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import br.ufpe.cin.pt.soot.spark.SparkOptions;
+
+/**
+ * Entry point of the child JVM started by {@link ForkedRun}: runs one {@link Driver} analysis and
+ * prints its outcome as a single {@value #RESULT_PREFIX} line on stdout, so the parent never has
+ * to share Soot's or Qilin's static state with the run.
+ * <p>
+ * Arguments are {@code key=value} pairs (see {@link #toArgs}); the line is a tab-separated list of
+ * {@code result=}, {@code phase.<name>=}, {@code metric.<name>=} and {@code peakHeapMB=} pairs.
+ */
+public final class RunWorker {
+
+    public static final String RESULT_PREFIX = "PTRUN";
+
+    private static final Set<String> KEYS = new HashSet<>(Arrays.asList("algorithm", "spark", "entryClass",
+            "entryMethod", "targetClass", "targetMethod", "local1", "local2", "targetType", "app", "lib", "metrics",
+            "features", "warmStart", "warmStartPlan", "freeze", "jimplifyThreads", "summaries", "summaryClasses", "policy", "profile",
+            "hotPointers", "export", "cgExport", "cgSeed", "reachability", "history"));
+
+    private RunWorker() {
+    }
+
+    public static void main(String[] args) {
+        TestConfiguration config = fromArgs(args);
+        Driver driver = new Driver();
+        AliasTransformer.Result result = driver.runAnalysis(config);
+        StringBuilder line = new StringBuilder(RESULT_PREFIX);
+        line.append("\tresult=").append(result.name());
+        for (Map.Entry<String, Long> e : driver.getReport().getPhases().entrySet()) {
+            line.append("\tphase.").append(e.getKey()).append('=').append(e.getValue());
+        }
+        for (Map.Entry<String, Number> e : driver.getReport().getMetrics().entrySet()) {
+            line.append("\tmetric.").append(e.getKey()).append('=').append(e.getValue());
+        }
+        line.append("\tpeakHeapMB=").append(peakHeapMB());
+        System.out.println(line);
+        System.out.flush();
+        System.exit(0);  // Soot and Qilin may leave non-daemon threads behind
+    }
+
+    /** Sum of the peak usage of every heap pool: an upper bound on the peak heap of the run. */
+    static long peakHeapMB() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak >> 20;
+    }
+
+    /**
+     * Worker arguments for the configuration, one per option that is set. Every option of
+     * {@link TestConfiguration} is forwarded, so a forked run does exactly what the same
+     * configuration does in-process; files are passed by absolute path.
+     */
+    static List<String> toArgs(TestConfiguration config) {
+        List<String> args = new ArrayList<>();
+        args.add("algorithm=" + config.algorithm.name());
+        if (config.sparkOptions != null) args.add("spark=" + config.sparkOptions);
+        args.add("entryClass=" + config.entryClass);
+        args.add("entryMethod=" + config.entryMethod);
+        args.add("targetClass=" + config.targetClass);
+        args.add("targetMethod=" + config.targetMethod);
+        args.add("local1=" + config.local1);
+        args.add("local2=" + config.local2);
+        args.add("targetType=" + config.targetType);
+        if (config.applicationPath != null) args.add("app=" + join(config.applicationPath));
+        if (config.libraryPath != null) args.add("lib=" + join(config.libraryPath));
+        if (config.precisionMetrics) args.add("metrics=true");
+        if (config.programFeatures) args.add("features=true");
+        if (config.warmStart) args.add("warmStart=true");
+        if (config.warmStartPlan != null) args.add("warmStartPlan=" + path(config.warmStartPlan));
+        if (config.freeze) args.add("freeze=true");
+        if (config.jimplifyThreads > 0) args.add("jimplifyThreads=" + config.jimplifyThreads);
+        if (config.summaryFile != null) {
+            args.add("summaries=" + path(config.summaryFile));
+            if (config.summaryClasses != null) args.add("summaryClasses=" + String.join(",", config.summaryClasses));
+        }
+        if (config.contextPolicy != null) args.add("policy=" + path(config.contextPolicy));
+        if (config.contextProfile != null) args.add("profile=" + path(config.contextProfile));
+        if (config.hotPointers != null) args.add("hotPointers=" + path(config.hotPointers));
+        if (config.pointsToExport != null) args.add("export=" + path(config.pointsToExport));
+        if (config.callGraphExport != null) args.add("cgExport=" + path(config.callGraphExport));
+        if (config.callGraphSeed != null) args.add("cgSeed=" + path(config.callGraphSeed));
+        if (config.reachabilityIndex != null) args.add("reachability=" + path(config.reachabilityIndex));
+        if (config.history != null) args.add("history=" + path(config.history));
+        return args;
+    }
+
+    static TestConfiguration fromArgs(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) throw new IllegalArgumentException("Expected key=value, got " + arg);
+            if (!KEYS.contains(arg.substring(0, eq))) throw new IllegalArgumentException("Unknown worker option " + arg);
+            values.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        TestConfiguration config = new TestConfiguration(values.get("entryClass"), values.get("entryMethod"),
+                values.get("targetClass"), values.get("targetMethod"), values.get("local1"), values.get("local2"),
+                values.get("targetType"))
+                .setCallGraph(CallGraphAlgorithm.valueOf(values.get("algorithm")))
+                .setPrecisionMetrics(Boolean.parseBoolean(values.get("metrics")))
+                .setProgramFeatures(Boolean.parseBoolean(values.get("features")))
+                .setWarmStart(Boolean.parseBoolean(values.get("warmStart")));
+        if (values.containsKey("app") || values.containsKey("lib")) {
+            config.setApplicationPath(split(values.get("app")), split(values.get("lib")));
+        }
+        if (values.containsKey("jimplifyThreads")) {
+            config.setJimplifyThreads(Integer.parseInt(values.get("jimplifyThreads")));
+        }
+        if (values.containsKey("spark")) {
+            config.setSparkOptions(SparkOptions.parse(values.get("spark")));
+        }
+        config.setFreeze(Boolean.parseBoolean(values.get("freeze")));
+        if (values.containsKey("summaries")) {
+            String classes = values.get("summaryClasses");
+            config.setLibrarySummaries(new File(values.get("summaries")),
+                    classes == null ? null : Arrays.asList(classes.split(",")));
+        }
+        if (values.containsKey("warmStartPlan")) {
+            config.setWarmStartPlan(new File(values.get("warmStartPlan")));
+        }
+        if (values.containsKey("policy")) {
+            config.setContextPolicy(new File(values.get("policy")));
+        }
+        if (values.containsKey("profile")) {
+            config.setContextProfile(new File(values.get("profile")));
+        }
+        if (values.containsKey("hotPointers")) {
+            config.setHotPointerReport(new File(values.get("hotPointers")));
+        }
+        if (values.containsKey("export")) {
+            config.setPointsToExport(new File(values.get("export")));
+        }
+        if (values.containsKey("cgExport")) {
+            config.setCallGraphExport(new File(values.get("cgExport")));
+        }
+        if (values.containsKey("cgSeed")) {
+            config.setCallGraphSeed(new File(values.get("cgSeed")));
+        }
+        if (values.containsKey("reachability")) {
+            config.setReachabilityIndex(new File(values.get("reachability")));
+        }
+        if (values.containsKey("history")) {
+            config.setHistory(new File(values.get("history")));
+        }
+        return config;
+    }
+
+    private static String path(File file) {
+        return file.getAbsolutePath();
+    }
+
+    private static String join(List<File> files) {
+        StringBuilder sb = new StringBuilder();
+        for (File f : files) {
+            if (sb.length() > 0) sb.append(File.pathSeparator);
+            sb.append(f.getAbsolutePath());
+        }
+        return sb.toString();
+    }
+
+    private static List<File> split(String path) {
+        List<File> files = new ArrayList<>();
+        if (path == null || path.isEmpty()) return files;
+        for (String entry : Arrays.asList(path.split(File.pathSeparator))) {
+            files.add(new File(entry));
+        }
+        return files;
+    }
+}
@@ -1,5 +1,10 @@
 package br.ufpe.cin.pt.soot;
 
+import java.io.File;
+import java.util.List;
+
+import br.ufpe.cin.pt.soot.spark.SparkOptions;
+
 public class TestConfiguration {
     String entryClass;
     String entryMethod;
@@ -7,8 +12,27 @@ public class TestConfiguration {
     String targetMethod;
     String targetType;  // fully-qualified type name of the locals to check (e.g. Point)
     CallGraphAlgorithm algorithm;
+    SparkOptions sparkOptions;  // null = Soot's defaults; Spark-based algorithms only, the Driver rejects them for CHA and Qilin
     String local1;
     String local2;
+    int jimplifyThreads;  // 0 = bodies are built on demand by the PTA (no pre-jimplify stage)
+    File summaryFile;     // library stub mode: summaries are derived into this file, or installed from it if it exists
+    List<String> summaryClasses;
+    File pointsToExport;  // memory-mapped store of the solved relation, written after the solve
+    File callGraphExport; // call graph snapshot of the run, written after the solve
+    File callGraphSeed;   // SOOT_SPARK only: fixed call graph from an earlier run's export
+    File reachabilityIndex;  // ReachabilityIndex of the run's call graph, written after the solve
+    boolean precisionMetrics;  // PrecisionMetrics recorded in the run report after the solve
+    boolean programFeatures;   // ProgramFeatures recorded in the run report after the solve
+    boolean warmStart;    // k-limited Qilin only: contexts pruned from a QILIN_INSENS pre-solve (see WarmStart)
+    File warmStartPlan;   // QILIN_INSENS only: WarmStart plans written after the solve, for a warm-started run
+    File contextPolicy;   // k-limited Qilin only: per-method context depths (see ContextPolicy)
+    File contextProfile;  // Qilin only: ContextProfiler dump, written after the solve
+    File hotPointers;     // HotPointerReport dump, written after the solve
+    boolean freeze;       // answer the query from a FrozenPTA after the Scene has been torn down
+    List<File> applicationPath;  // null = target/test-classes
+    List<File> libraryPath;      // extra library jars, resolved but not analysed as application code
+    File history;         // HistoryStore file the run is appended to
 
     public TestConfiguration(String entryClass, String entryMethod, String targetClass, String targetMethod, String local1, String local2, String targetType) {
         this.entryClass = entryClass;
@@ -20,8 +44,181 @@ public class TestConfiguration {
         this.targetType = targetType;
     }
 
+    /** Independent copy with every option, e.g. to run one scenario with several algorithms. */
+    public TestConfiguration copy() {
+        TestConfiguration c = new TestConfiguration(entryClass, entryMethod, targetClass, targetMethod, local1, local2, targetType);
+        c.algorithm = algorithm;
+        c.sparkOptions = sparkOptions;
+        c.jimplifyThreads = jimplifyThreads;
+        c.summaryFile = summaryFile;
+        c.summaryClasses = summaryClasses;
+        c.pointsToExport = pointsToExport;
+        c.callGraphExport = callGraphExport;
+        c.callGraphSeed = callGraphSeed;
+        c.reachabilityIndex = reachabilityIndex;
+        c.precisionMetrics = precisionMetrics;
+        c.programFeatures = programFeatures;
+        c.warmStart = warmStart;
+        c.warmStartPlan = warmStartPlan;
+        c.contextPolicy = contextPolicy;
+        c.contextProfile = contextProfile;
+        c.hotPointers = hotPointers;
+        c.freeze = freeze;
+        c.applicationPath = applicationPath;
+        c.libraryPath = libraryPath;
+        c.history = history;
+        return c;
+    }
+
     public TestConfiguration setCallGraph(CallGraphAlgorithm cg) {
         this.algorithm = cg;
         return this;
     }
-}
\ No newline at end of file
+
+    /**
+     * Propagator, set implementation and simplifications of Spark (SOOT_SPARK and its variants,
+     * SOOT_RTA, SOOT_VTA and seeded runs, which apply every option); CHA and Qilin runs reject them.
+     */
+    public TestConfiguration setSparkOptions(SparkOptions options) {
+        this.sparkOptions = options;
+        return this;
+    }
+
+    /**
+     * Analyses the given directories or jars as the application instead of {@code target/test-classes},
+     * with {@code libraries} on the class path. The entry class must be on one of the two paths.
+     */
+    public TestConfiguration setApplicationPath(List<File> application, List<File> libraries) {
+        this.applicationPath = application;
+        this.libraryPath = libraries;
+        return this;
+    }
+
+    /** Builds all method bodies on the given number of threads before the solver runs (0 disables the stage). */
+    public TestConfiguration setJimplifyThreads(int threads) {
+        this.jimplifyThreads = threads;
+        return this;
+    }
+
+    /**
+     * Library stub mode for the classes matching {@code classPatterns} (e.g. {@code java.io.*}).
+     * If {@code file} does not exist the run analyses the full library and derives the summaries into it;
+     * otherwise the stored summaries replace the library bodies. A null file disables the mode.
+     */
+    public TestConfiguration setLibrarySummaries(File file, List<String> classPatterns) {
+        this.summaryFile = file;
+        this.summaryClasses = classPatterns;
+        return this;
+    }
+
+    /** Writes the solved points-to relation to a memory-mapped store (see {@code MappedPointsToStore}). */
+    public TestConfiguration setPointsToExport(File file) {
+        this.pointsToExport = file;
+        return this;
+    }
+
+    /** Writes the run's call graph as stable edges (see {@code CallGraphSnapshot}). */
+    public TestConfiguration setCallGraphExport(File file) {
+        this.callGraphExport = file;
+        return this;
+    }
+
+    /** Condenses the run's call graph into a {@code ReachabilityIndex} and writes it to {@code file}. */
+    public TestConfiguration setReachabilityIndex(File file) {
+        this.reachabilityIndex = file;
+        return this;
+    }
+
+    /**
+     * Runs Spark over the call graph stored in {@code file} (written by {@link #setCallGraphExport}
+     * in an earlier run of any algorithm) instead of building one on the fly. Only valid with SOOT_SPARK.
+     */
+    public TestConfiguration setCallGraphSeed(File file) {
+        this.callGraphSeed = file;
+        return this;
+    }
+
+    /** Records polymorphic calls, may-fail casts, call edges and set sizes in the run report after the solve. */
+    public TestConfiguration setPrecisionMetrics(boolean enabled) {
+        this.precisionMetrics = enabled;
+        return this;
+    }
+
+    /** Records the size and shape features the {@code AlgorithmSelector} predicts costs from (see {@code ProgramFeatures}). */
+    public TestConfiguration setProgramFeatures(boolean enabled) {
+        this.programFeatures = enabled;
+        return this;
+    }
+
+    /**
+     * Solves QILIN_INSENS first and analyses the methods it shows contexts cannot refine under the
+     * empty context only (see {@code WarmStart}). Only valid with the uniform k-limited Qilin
+     * algorithms (1C to 3HT); pruning totals go to the run report.
+     */
+    public TestConfiguration setWarmStart(boolean enabled) {
+        this.warmStart = enabled;
+        return this;
+    }
+
+    /**
+     * Writes the context pruning plans of this QILIN_INSENS run to {@code file} (see
+     * {@code WarmStart.write}); warm-started runs fork such a run as their pre-solve.
+     */
+    public TestConfiguration setWarmStartPlan(File file) {
+        this.warmStartPlan = file;
+        return this;
+    }
+
+    /**
+     * Applies the per-method context depths of the policy in {@code file} (see {@code ContextPolicy})
+     * to a k-limited Qilin run. The algorithm must have the policy's context kind and at least its
+     * deepest rule's depth; how many methods got contexts goes to the run report.
+     */
+    public TestConfiguration setContextPolicy(File file) {
+        this.contextPolicy = file;
+        return this;
+    }
+
+    /**
+     * Profiles a Qilin run's contexts (see {@code ContextProfiler}) and writes the tab-separated
+     * dump to {@code file}; totals go to the run report. Fails for non-Qilin algorithms.
+     */
+    public TestConfiguration setContextProfile(File file) {
+        this.contextProfile = file;
+        return this;
+    }
+
+    /**
+     * Writes the points-to set size histogram and the pointers with the largest estimated propagation
+     * work (see {@code HotPointerReport}) to {@code file}; totals go to the run report.
+     */
+    public TestConfiguration setHotPointerReport(File file) {
+        this.hotPointers = file;
+        return this;
+    }
+
+    /** Appends every successful run to the run history in {@code file} (see {@code HistoryStore}). */
+    public TestConfiguration setHistory(File file) {
+        this.history = file;
+        return this;
+    }
+
+    public CallGraphAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    /** Stable name of what is analysed and queried, e.g. {@code PointTest.testPoints:point1/point2}. */
+    public String getScenario() {
+        String target = targetClass.substring(targetClass.lastIndexOf('.') + 1);
+        return target + "." + targetMethod + ":" + local1 + "/" + local2;
+    }
+
+    /**
+     * Freezes the solved analysis into compact arrays (see {@code FrozenPTA}), resets Soot's global
+     * state and answers the alias query from the frozen index.
+     */
+    public TestConfiguration setFreeze(boolean freeze) {
+        this.freeze = freeze;
+        return this;
+    }
+}
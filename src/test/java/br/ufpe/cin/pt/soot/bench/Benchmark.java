@@ -0,0 +1,126 @@
+package br.ufpe.cin.pt.soot.bench;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A real-world workload: application jars analysed as application code, plus the library jars
+ * they need on the class path. Jars are resolved from a local Maven repository, so the suite runs
+ * offline on whatever the build already downloaded.
+ */
+public final class Benchmark {
+
+    private final String name;
+    private final List<File> application;
+    private final List<File> libraries;
+
+    public Benchmark(String name, List<File> application, List<File> libraries) {
+        this.name = name;
+        this.application = new ArrayList<>(application);
+        this.libraries = new ArrayList<>(libraries);
+    }
+
+    /** {@code ~/.m2/repository}, or {@code maven.repo.local} when set. */
+    public static File localRepository() {
+        String custom = System.getProperty("maven.repo.local");
+        return custom != null ? new File(custom) : new File(System.getProperty("user.home"), ".m2/repository");
+    }
+
+    /**
+     * Benchmark over Maven coordinates ({@code group:artifact[:version]}); the first is the application,
+     * the rest are libraries. Without a version the highest version present in {@code repository} is
+     * used. Coordinates that cannot be resolved become missing files; see {@link #isAvailable()}.
+     */
+    public static Benchmark maven(File repository, String name, String application, String... libraries) {
+        List<File> libs = new ArrayList<>();
+        for (String lib : libraries) {
+            libs.add(resolve(repository, lib));
+        }
+        return new Benchmark(name, Collections.singletonList(resolve(repository, application)), libs);
+    }
+
+    /** Jar of the coordinate in the repository (which may not exist). */
+    public static File resolve(File repository, String coordinate) {
+        String[] parts = coordinate.split(":");
+        if (parts.length < 2 || parts.length > 3) {
+            throw new IllegalArgumentException("Expected group:artifact[:version], got " + coordinate);
+        }
+        File artifactDir = new File(repository, parts[0].replace('.', '/') + "/" + parts[1]);
+        String version = parts.length == 3 ? parts[2] : highestVersion(artifactDir);
+        if (version == null) {
+            return new File(artifactDir, "missing/" + parts[1] + ".jar");
+        }
+        return new File(artifactDir, version + "/" + parts[1] + "-" + version + ".jar");
+    }
+
+    /** Highest version directory holding a jar, comparing dot-separated numeric parts; null if none. */
+    static String highestVersion(File artifactDir) {
+        File[] versions = artifactDir.listFiles(File::isDirectory);
+        if (versions == null) return null;
+        String best = null;
+        for (File v : versions) {
+            if (!new File(v, artifactDir.getName() + "-" + v.getName() + ".jar").isFile()) continue;
+            if (best == null || compareVersions(v.getName(), best) > 0) best = v.getName();
+        }
+        return best;
+    }
+
+    static int compareVersions(String a, String b) {
+        String[] x = a.split("[.-]");
+        String[] y = b.split("[.-]");
+        for (int i = 0; i < Math.max(x.length, y.length); i++) {
+            String p = i < x.length ? x[i] : "0";
+            String q = i < y.length ? y[i] : "0";
+            int c;
+            if (p.matches("\\d+") && q.matches("\\d+")) {
+                c = Long.compare(Long.parseLong(p), Long.parseLong(q));
+            } else {
+                c = p.compareTo(q);
+            }
+            if (c != 0) return c;
+        }
+        return 0;
+    }
+
+    /**
+     * The default suite: JUnit (with Hamcrest), Hamcrest, Guava and Soot from the local repository.
+     * Entries whose jars are not there are kept but unavailable.
+     */
+    public static List<Benchmark> defaults() {
+        File repo = localRepository();
+        return Arrays.asList(
+                maven(repo, "hamcrest", "org.hamcrest:hamcrest-core"),
+                maven(repo, "junit", "junit:junit", "org.hamcrest:hamcrest-core"),
+                maven(repo, "guava", "com.google.guava:guava", "com.google.guava:failureaccess"),
+                maven(repo, "soot", "org.soot-oss:soot", "com.google.guava:guava", "org.ow2.asm:asm",
+                        "org.slf4j:slf4j-api", "de.upb.cs.swt:heros", "de.upb.cs.swt:axml"));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<File> getApplication() {
+        return Collections.unmodifiableList(application);
+    }
+
+    public List<File> getLibraries() {
+        return Collections.unmodifiableList(libraries);
+    }
+
+    /** True when every application jar exists; missing libraries only make more references phantom. */
+    public boolean isAvailable() {
+        for (File f : application) {
+            if (!f.exists()) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return name + " " + application;
+    }
+}
@@ -0,0 +1,198 @@
+package br.ufpe.cin.pt.soot.bench;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import br.ufpe.cin.pt.soot.CallGraphAlgorithm;
+import br.ufpe.cin.pt.soot.ForkedRun;
+import br.ufpe.cin.pt.soot.TestConfiguration;
+import br.ufpe.cin.pt.soot.history.HistoryStore;
+import br.ufpe.cin.pt.soot.history.RunRecord;
+
+/**
+ * Runs a subset of algorithms over {@link Benchmark}s, each run in its own JVM ({@link ForkedRun})
+ * under a heap and a time budget, and tabulates solve time, peak heap, reachable methods and the
+ * application precision metrics. The table (see {@link #writeTsv}) is the per-release baseline.
+ * <p>
+ * The entry point of each benchmark is an {@link EntryHarness} generated under
+ * {@code <workDir>/<benchmark>}; it is reused while its main class exists. The alias query of these
+ * runs is meaningless and reported as a locals-identification problem.
+ */
+public final class BenchmarkSuite {
+
+    /** One benchmark analysed by one algorithm. */
+    public static final class Row {
+        public final String benchmark;
+        public final CallGraphAlgorithm algorithm;
+        public final ForkedRun.Outcome outcome;
+
+        Row(String benchmark, CallGraphAlgorithm algorithm, ForkedRun.Outcome outcome) {
+            this.benchmark = benchmark;
+            this.algorithm = algorithm;
+            this.outcome = outcome;
+        }
+
+        /** Metric of the run, or -1 if the run failed or did not record it. */
+        public double metric(String name) {
+            Number value = outcome.report.getMetric(name);
+            return value == null ? -1 : value.doubleValue();
+        }
+
+        public long solveMillis() {
+            return outcome.report.getPhase("solve");
+        }
+    }
+
+    static final String[] COLUMNS = {"reachableMethods", "metrics.app.callEdges",
+            "metrics.app.polymorphicCallSites", "metrics.app.mayFailCasts", "metrics.app.avgPointsTo"};
+
+    private final List<CallGraphAlgorithm> algorithms;
+    private File workDir = new File("target/benchmarks");
+    private int heapMB = 4096;
+    private long timeoutSeconds = 1800;
+    private HistoryStore history;
+    private final List<Row> rows = new ArrayList<>();
+    private final List<String> skipped = new ArrayList<>();
+
+    public BenchmarkSuite(List<CallGraphAlgorithm> algorithms) {
+        this.algorithms = new ArrayList<>(algorithms);
+    }
+
+    /** Where harnesses are generated; defaults to {@code target/benchmarks}. */
+    public BenchmarkSuite setWorkDir(File workDir) {
+        this.workDir = workDir;
+        return this;
+    }
+
+    /** Heap budget of each run ({@code -Xmx} of the worker JVM). */
+    public BenchmarkSuite setHeapMB(int heapMB) {
+        this.heapMB = heapMB;
+        return this;
+    }
+
+    /** Time budget of each run; the worker is killed and the row marked TIMEOUT after it. */
+    public BenchmarkSuite setTimeoutSeconds(long timeoutSeconds) {
+        this.timeoutSeconds = timeoutSeconds;
+        return this;
+    }
+
+    /** Appends every run, failed ones included, to the history as scenario {@code bench:<name>}. */
+    public BenchmarkSuite setHistory(HistoryStore history) {
+        this.history = history;
+        return this;
+    }
+
+    /** Runs every available benchmark with every algorithm; unavailable ones are listed by {@link #getSkipped()}. */
+    public List<Row> run(List<Benchmark> benchmarks) {
+        for (Benchmark benchmark : benchmarks) {
+            if (!benchmark.isAvailable()) {
+                skipped.add(benchmark.getName());
+                continue;
+            }
+            File classes = prepare(benchmark);
+            for (CallGraphAlgorithm algorithm : algorithms) {
+                ForkedRun.Outcome outcome = new ForkedRun(configuration(benchmark, classes, algorithm))
+                        .setHeapMB(heapMB)
+                        .setTimeoutSeconds(timeoutSeconds)
+                        .execute();
+                rows.add(new Row(benchmark.getName(), algorithm, outcome));
+                if (history != null) {
+                    history.append(RunRecord.of("bench:" + benchmark.getName(), outcome.status.name(),
+                            outcome.report, outcome.peakHeapMB));
+                }
+            }
+        }
+        return getRows();
+    }
+
+    /** Generates the benchmark's harness unless it is already there; returns its classes directory. */
+    File prepare(Benchmark benchmark) {
+        File dir = new File(workDir, benchmark.getName());
+        File classes = new File(dir, "classes");
+        String main = EntryHarness.mainClass(benchmark.getName());
+        if (!new File(classes, main.replace('.', File.separatorChar) + ".class").isFile()) {
+            new EntryHarness().generate(benchmark.getName(), benchmark.getApplication(), benchmark.getLibraries(),
+                    new File(dir, "src"), classes);
+        }
+        return classes;
+    }
+
+    /** Harness first on the application path, then the benchmark's jars; precision metrics on. */
+    static TestConfiguration configuration(Benchmark benchmark, File harnessClasses, CallGraphAlgorithm algorithm) {
+        String main = EntryHarness.mainClass(benchmark.getName());
+        List<File> application = new ArrayList<>();
+        application.add(harnessClasses);
+        application.addAll(benchmark.getApplication());
+        return new TestConfiguration(main, "main", main, "main", "args", "args", "java.lang.String[]")
+                .setCallGraph(algorithm)
+                .setApplicationPath(application, benchmark.getLibraries())
+                .setPrecisionMetrics(true);
+    }
+
+    public List<Row> getRows() {
+        return Collections.unmodifiableList(rows);
+    }
+
+    /** Benchmarks whose application jars are not in the local repository. */
+    public List<String> getSkipped() {
+        return Collections.unmodifiableList(skipped);
+    }
+
+    /** Tab-separated table with a header line; failed runs keep their status and error. */
+    public void writeTsv(File file) {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) parent.mkdirs();
+        try (BufferedWriter out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            StringBuilder header = new StringBuilder("benchmark\talgorithm\tstatus\tsolveMs\twallMs\tpeakHeapMB");
+            for (String column : COLUMNS) {
+                header.append('\t').append(column);
+            }
+            out.write(header.append("\terror").toString());
+            out.newLine();
+            for (Row r : rows) {
+                StringBuilder line = new StringBuilder();
+                line.append(r.benchmark).append('\t').append(r.algorithm.getName()).append('\t')
+                        .append(r.outcome.status).append('\t').append(r.solveMillis()).append('\t')
+                        .append(r.outcome.wallMillis).append('\t').append(r.outcome.peakHeapMB);
+                for (String column : COLUMNS) {
+                    line.append('\t').append(format(r.outcome.report.getMetric(column)));
+                }
+                line.append('\t').append(r.outcome.error == null ? "" : r.outcome.error.replace('\t', ' '));
+                out.write(line.toString());
+                out.newLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write benchmark table to " + file, e);
+        }
+    }
+
+    private static String format(Number value) {
+        if (value == null) return "";
+        if (value instanceof Double || value instanceof Float) return String.format("%.2f", value.doubleValue());
+        return String.valueOf(value);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-10s %-22s %-13s %10s %9s %10s %10s %8s%n", "benchmark", "algorithm", "status",
+                "solve ms", "heap MB", "reachable", "poly calls", "avg pts"));
+        for (Row r : rows) {
+            sb.append(String.format("%-10s %-22s %-13s %10d %9d %10.0f %10.0f %8.2f%n", r.benchmark,
+                    r.algorithm.getName(), r.outcome.status, r.solveMillis(), r.outcome.peakHeapMB,
+                    r.metric("reachableMethods"), r.metric("metrics.app.polymorphicCallSites"),
+                    r.metric("metrics.app.avgPointsTo")));
+        }
+        if (!skipped.isEmpty()) {
+            sb.append("not in the local repository: ").append(skipped).append(String.format("%n"));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,191 @@
+package br.ufpe.cin.pt.soot.bench;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import br.ufpe.cin.pt.soot.CallGraphAlgorithm;
+import br.ufpe.cin.pt.soot.ForkedRun;
+import br.ufpe.cin.pt.soot.TestConfiguration;
+import br.ufpe.cin.pt.soot.history.HistoryStore;
+import br.ufpe.cin.pt.soot.history.RunRecord;
+
+/**
+ * Benchmarks the coarse-heap variants against the algorithm each one coarsens, on the given
+ * scenarios: Spark with a type-based heap, field-based fields, or both (against SOOT_SPARK), and
+ * Qilin with merged builder and exception objects (against QILIN_INSENS and QILIN_2O).
+ * <p>
+ * Every run is forked, with precision metrics on, and each base run is shared by its variants.
+ * A row shows what the coarsening buys in solve time and peak heap, and whether the alias answer
+ * of the scenario changed.
+ */
+public final class CoarseningStudy {
+
+    /** One variant against its base on one scenario. */
+    public static final class Row {
+        public final String scenario;
+        public final CallGraphAlgorithm variant;
+        public final ForkedRun.Outcome outcome;
+        public final ForkedRun.Outcome base;
+
+        Row(String scenario, CallGraphAlgorithm variant, ForkedRun.Outcome outcome, ForkedRun.Outcome base) {
+            this.scenario = scenario;
+            this.variant = variant;
+            this.outcome = outcome;
+            this.base = base;
+        }
+
+        public boolean isComplete() {
+            return outcome.status == ForkedRun.Status.OK && base.status == ForkedRun.Status.OK;
+        }
+
+        /** Variant solve time over base solve time; -1 unless both runs succeeded. */
+        public double timeRatio() {
+            return isComplete() ? ratio(outcome.report.getPhase("solve"), base.report.getPhase("solve")) : -1;
+        }
+
+        /** Variant peak heap over base peak heap; -1 unless both runs succeeded. */
+        public double heapRatio() {
+            return isComplete() ? ratio(outcome.peakHeapMB, base.peakHeapMB) : -1;
+        }
+
+        public boolean isAnswerChanged() {
+            return isComplete() && outcome.result != base.result;
+        }
+
+        /** Average application points-to set size of the variant over the base's; -1 if not measured. */
+        public double pointsToRatio() {
+            if (!isComplete()) return -1;
+            Number v = outcome.report.getMetric("metrics.app.avgPointsTo");
+            Number b = base.report.getMetric("metrics.app.avgPointsTo");
+            return v == null || b == null ? -1 : ratio(v.doubleValue(), b.doubleValue());
+        }
+
+        private static double ratio(double a, double b) {
+            return b <= 0 ? (a <= 0 ? 1 : Double.POSITIVE_INFINITY) : a / b;
+        }
+    }
+
+    private final List<CallGraphAlgorithm> variants;
+    private int heapMB = 4096;
+    private long timeoutSeconds = 1800;
+    private HistoryStore history;
+    private final List<Row> rows = new ArrayList<>();
+
+    /** Study of every coarse variant. */
+    public CoarseningStudy() {
+        this(variants());
+    }
+
+    public CoarseningStudy(List<CallGraphAlgorithm> variants) {
+        for (CallGraphAlgorithm v : variants) {
+            if (baseOf(v) == null) throw new IllegalArgumentException(v + " is not a coarse variant");
+        }
+        this.variants = new ArrayList<>(variants);
+    }
+
+    /** The coarse variants, in the order of {@link CallGraphAlgorithm}. */
+    public static List<CallGraphAlgorithm> variants() {
+        return Arrays.asList(CallGraphAlgorithm.SOOT_SPARK_TYPES, CallGraphAlgorithm.SOOT_SPARK_FIELDS,
+                CallGraphAlgorithm.SOOT_SPARK_COARSE, CallGraphAlgorithm.QILIN_INSENS_MH, CallGraphAlgorithm.QILIN_2O_MH);
+    }
+
+    /** The algorithm a coarse variant coarsens, or null if it is not one. */
+    public static CallGraphAlgorithm baseOf(CallGraphAlgorithm variant) {
+        switch (variant) {
+            case SOOT_SPARK_TYPES:
+            case SOOT_SPARK_FIELDS:
+            case SOOT_SPARK_COARSE: return CallGraphAlgorithm.SOOT_SPARK;
+            case QILIN_INSENS_MH: return CallGraphAlgorithm.QILIN_INSENS;
+            case QILIN_2O_MH: return CallGraphAlgorithm.QILIN_2O;
+            default: return null;
+        }
+    }
+
+    /** Heap budget of each run ({@code -Xmx} of the worker JVM). */
+    public CoarseningStudy setHeapMB(int heapMB) {
+        this.heapMB = heapMB;
+        return this;
+    }
+
+    /** Time budget of each run; the worker is killed and the run marked TIMEOUT after it. */
+    public CoarseningStudy setTimeoutSeconds(long timeoutSeconds) {
+        this.timeoutSeconds = timeoutSeconds;
+        return this;
+    }
+
+    /** Appends every run, base runs included, to the history. */
+    public CoarseningStudy setHistory(HistoryStore history) {
+        this.history = history;
+        return this;
+    }
+
+    public List<Row> run(List<TestConfiguration> scenarios) {
+        for (TestConfiguration scenario : scenarios) {
+            Map<CallGraphAlgorithm, ForkedRun.Outcome> bases = new HashMap<>();
+            for (CallGraphAlgorithm variant : variants) {
+                ForkedRun.Outcome base = bases.computeIfAbsent(baseOf(variant), b -> execute(scenario, b));
+                rows.add(new Row(scenario.getScenario(), variant, execute(scenario, variant), base));
+            }
+        }
+        return getRows();
+    }
+
+    private ForkedRun.Outcome execute(TestConfiguration scenario, CallGraphAlgorithm algorithm) {
+        ForkedRun.Outcome outcome = new ForkedRun(scenario.copy().setCallGraph(algorithm).setPrecisionMetrics(true))
+                .setHeapMB(heapMB)
+                .setTimeoutSeconds(timeoutSeconds)
+                .execute();
+        if (history != null) {
+            history.append(RunRecord.of(scenario.getScenario(), outcome.status.name(), outcome.report, outcome.peakHeapMB));
+        }
+        return outcome;
+    }
+
+    public List<Row> getRows() {
+        return Collections.unmodifiableList(rows);
+    }
+
+    /** Tab-separated table with a header line; ratios are -1 for rows with a failed run. */
+    public void writeTsv(File file) {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) parent.mkdirs();
+        try (BufferedWriter out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            out.write("scenario\tvariant\tbase\tstatus\tbaseStatus\tsolveMs\tbaseSolveMs\tpeakHeapMB\tbasePeakHeapMB"
+                    + "\ttimeRatio\theapRatio\tpointsToRatio\tresult\tbaseResult");
+            out.newLine();
+            for (Row r : rows) {
+                out.write(String.format("%s\t%s\t%s\t%s\t%s\t%d\t%d\t%d\t%d\t%.3f\t%.3f\t%.3f\t%s\t%s", r.scenario,
+                        r.variant.getName(), baseOf(r.variant).getName(), r.outcome.status, r.base.status,
+                        r.outcome.report.getPhase("solve"), r.base.report.getPhase("solve"), r.outcome.peakHeapMB,
+                        r.base.peakHeapMB, r.timeRatio(), r.heapRatio(), r.pointsToRatio(), r.outcome.result,
+                        r.base.result));
+                out.newLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write coarsening table to " + file, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-34s %-20s %-13s %7s %7s %7s %s%n", "scenario", "variant", "status", "time", "heap",
+                "pts", "answer"));
+        for (Row r : rows) {
+            sb.append(String.format("%-34s %-20s %-13s %7.2f %7.2f %7.2f %s%n", r.scenario, r.variant.getName(),
+                    r.isComplete() ? "OK" : r.outcome.status + "/" + r.base.status, r.timeRatio(), r.heapRatio(),
+                    r.pointsToRatio(), r.isAnswerChanged() ? r.base.result + " -> " + r.outcome.result : "same"));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,284 @@
+package br.ufpe.cin.pt.soot.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+/**
+ * Generated entry point for a library: a {@code main} that plays the most general client of the
+ * application jars. Every public constructor and public method of every public class is called
+ * once; arguments and receivers are read from a single object pool and cast to the declared type,
+ * and every object returned goes back into the pool. Spark and Qilin filter the pool by the casts,
+ * so each call sees the objects of compatible types that the harness can ever create.
+ * <p>
+ * Each application class gets its own harness class {@code H<n>}. The few whose calls do not
+ * compile (inference corner cases, name clashes, types hidden by the JDK) are dropped, and the
+ * rest is compiled again.
+ */
+public final class EntryHarness {
+
+    public static final String PACKAGE_PREFIX = "br.ufpe.cin.pt.generated.bench";
+
+    private int maxClasses = 2000;
+    private int maxCallsPerClass = 50;
+
+    public EntryHarness setMaxClasses(int maxClasses) {
+        this.maxClasses = maxClasses;
+        return this;
+    }
+
+    public EntryHarness setMaxCallsPerClass(int maxCallsPerClass) {
+        this.maxCallsPerClass = maxCallsPerClass;
+        return this;
+    }
+
+    public static String mainClass(String benchmark) {
+        return PACKAGE_PREFIX + "." + packageSafe(benchmark) + ".Harness";
+    }
+
+    /**
+     * Generates and compiles the harness of the application entries into {@code outDir} and
+     * returns the number of application classes it exercises.
+     */
+    public int generate(String benchmark, List<File> application, List<File> libraries, File sourceDir, File outDir) {
+        String pkg = PACKAGE_PREFIX + "." + packageSafe(benchmark);
+        Map<String, String> units = new LinkedHashMap<>();
+        List<URL> urls = new ArrayList<>();
+        for (File f : concat(application, libraries)) {
+            try {
+                urls.add(f.toURI().toURL());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        try (URLClassLoader loader = new URLClassLoader(urls.toArray(new URL[0]), null)) {
+            for (String className : classNames(application)) {
+                if (units.size() >= maxClasses) break;
+                Class<?> c;
+                try {
+                    c = Class.forName(className, false, loader);
+                } catch (Throwable t) {
+                    continue;  // missing dependencies or broken classes: not part of the harness
+                }
+                String body;
+                try {
+                    body = harnessBody(c);
+                } catch (Throwable t) {
+                    continue;  // signatures mention classes that cannot be loaded
+                }
+                if (body != null) {
+                    String name = "H" + units.size();
+                    units.put(name, "package " + pkg + ";\n\nclass " + name + " {\n    static void run() {\n"
+                            + body + "    }\n}\n");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not scan application of " + benchmark, e);
+        }
+        File dir = new File(sourceDir, pkg.replace('.', File.separatorChar));
+        // javac reports some errors only once earlier phases pass, so dropping can take a few rounds
+        while (true) {
+            Set<String> failed = compile(pkg, units, concat(application, libraries), dir, outDir);
+            if (failed.isEmpty()) return units.size();
+            units.keySet().removeAll(failed);
+        }
+    }
+
+    private String harnessBody(Class<?> c) {
+        if (!usable(c) || c.isAnonymousClass() || c.isLocalClass() || c.isSynthetic()
+                || (c.isMemberClass() && !Modifier.isStatic(c.getModifiers()))) {
+            return null;
+        }
+        String type = c.getCanonicalName();
+        StringBuilder sb = new StringBuilder();
+        int calls = 0;
+        if (!Modifier.isAbstract(c.getModifiers()) && !c.isEnum()) {
+            for (Constructor<?> ctor : sorted(c.getConstructors())) {
+                if (calls >= maxCallsPerClass) break;
+                if (!usable(ctor)) continue;
+                sb.append("        try { Harness.keep(new ").append(type).append(arguments(ctor)).append("); } catch (Throwable t) { }\n");
+                calls++;
+            }
+        }
+        for (Method m : sorted(c.getDeclaredMethods())) {
+            if (calls >= maxCallsPerClass) break;
+            if (!Modifier.isPublic(m.getModifiers()) || m.isSynthetic() || m.isBridge() || !usable(m)) continue;
+            String target = Modifier.isStatic(m.getModifiers())
+                    ? type : "((" + type + ") Harness.any())";
+            String call = target + "." + m.getName() + arguments(m);
+            Class<?> ret = m.getReturnType();
+            if (!ret.isPrimitive() && usable(ret)) {
+                call = "Harness.keep(" + call + ")";
+            }
+            sb.append("        try { ").append(call).append("; } catch (Throwable t) { }\n");
+            calls++;
+        }
+        return calls == 0 ? null : sb.toString();
+    }
+
+    private static <T extends Executable> List<T> sorted(T[] members) {
+        List<T> list = new ArrayList<>(Arrays.asList(members));
+        list.sort((a, b) -> a.toString().compareTo(b.toString()));
+        return list;
+    }
+
+    private static boolean usable(Executable e) {
+        for (Class<?> p : e.getParameterTypes()) {
+            if (!usable(p)) return false;
+        }
+        return true;
+    }
+
+    /** Nameable from another package: public all the way out, with a canonical name. */
+    private static boolean usable(Class<?> c) {
+        if (c.isPrimitive()) return true;
+        if (c.isArray()) return usable(c.getComponentType());
+        if (!Modifier.isPublic(c.getModifiers()) || c.getCanonicalName() == null) return false;
+        return c.getEnclosingClass() == null || usable(c.getEnclosingClass());
+    }
+
+    private static String arguments(Executable e) {
+        StringBuilder sb = new StringBuilder("(");
+        Class<?>[] params = e.getParameterTypes();
+        for (int i = 0; i < params.length; i++) {
+            if (i > 0) sb.append(", ");
+            Class<?> p = params[i];
+            if (p == boolean.class) sb.append("false");
+            else if (p.isPrimitive()) sb.append("(").append(p.getName()).append(") 0");
+            else sb.append("(").append(p.getCanonicalName()).append(") Harness.any()");
+        }
+        return sb.append(")").toString();
+    }
+
+    /** Writes the harness and compiles it; returns the harness classes that failed to compile. */
+    private static Set<String> compile(String pkg, Map<String, String> units, List<File> classpath, File dir, File outDir) {
+        JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+        if (javac == null) {
+            throw new IllegalStateException("Generating a harness needs a JDK; no system Java compiler found");
+        }
+        dir.mkdirs();
+        outDir.mkdirs();
+        List<File> files = new ArrayList<>();
+        StringBuilder main = new StringBuilder("package " + pkg + ";\n\npublic class Harness {\n"
+                + "    private static final Object[] pool = new Object[1];\n\n"
+                + "    static Object any() {\n        return pool[0];\n    }\n\n"
+                + "    static void keep(Object o) {\n        pool[0] = o;\n    }\n\n"
+                + "    public static void main(String[] args) {\n"
+                + "        keep(args);\n");
+        try {
+            for (Map.Entry<String, String> unit : units.entrySet()) {
+                File file = new File(dir, unit.getKey() + ".java");
+                Files.write(file.toPath(), unit.getValue().getBytes(StandardCharsets.UTF_8));
+                files.add(file);
+                main.append("        ").append(unit.getKey()).append(".run();\n");
+            }
+            main.append("    }\n}\n");
+            File file = new File(dir, "Harness.java");
+            Files.write(file.toPath(), main.toString().getBytes(StandardCharsets.UTF_8));
+            files.add(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write harness to " + dir, e);
+        }
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        List<String> options = Arrays.asList("-nowarn", "-proc:none", "-encoding", "UTF-8", "-source", "1.8",
+                "-target", "1.8", "-Xmaxerrs", "100000", "-d", outDir.getPath(), "-classpath", join(classpath));
+        Set<String> failed = new HashSet<>();
+        try (StandardJavaFileManager fm = javac.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+            boolean ok = javac.getTask(null, fm, diagnostics, options, null, fm.getJavaFileObjectsFromFiles(files)).call();
+            if (ok) return failed;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        for (Diagnostic<? extends JavaFileObject> d : diagnostics.getDiagnostics()) {
+            if (d.getKind() == Diagnostic.Kind.ERROR && d.getSource() != null) {
+                String name = new File(d.getSource().toUri()).getName().replace(".java", "");
+                if (name.equals("Harness")) {
+                    throw new IllegalStateException("Harness main does not compile: " + d.getMessage(null));
+                }
+                failed.add(name);
+            }
+        }
+        if (failed.isEmpty()) {
+            throw new IllegalStateException("Harness does not compile: " + diagnostics.getDiagnostics());
+        }
+        return failed;
+    }
+
+    /** Binary names of the classes in the jars and directories, sorted. */
+    static Set<String> classNames(List<File> entries) throws IOException {
+        Set<String> names = new TreeSet<>();
+        for (File entry : entries) {
+            if (entry.isDirectory()) {
+                Path root = entry.toPath();
+                try (Stream<Path> files = Files.walk(root)) {
+                    files.filter(p -> p.toString().endsWith(".class"))
+                            .forEach(p -> names.add(className(root.relativize(p).toString().replace(File.separatorChar, '/'))));
+                }
+            } else if (entry.isFile()) {
+                try (JarFile jar = new JarFile(entry)) {
+                    Enumeration<JarEntry> jarEntries = jar.entries();
+                    while (jarEntries.hasMoreElements()) {
+                        String name = jarEntries.nextElement().getName();
+                        if (name.endsWith(".class") && !name.startsWith("META-INF/")) {
+                            names.add(className(name));
+                        }
+                    }
+                }
+            }
+        }
+        names.removeIf(n -> n.endsWith("module-info") || n.endsWith("package-info"));
+        return names;
+    }
+
+    private static String className(String path) {
+        return path.substring(0, path.length() - ".class".length()).replace('/', '.');
+    }
+
+    private static String packageSafe(String name) {
+        String safe = name.toLowerCase().replaceAll("[^a-z0-9_]", "_");
+        return Character.isJavaIdentifierStart(safe.charAt(0)) ? safe : "_" + safe;
+    }
+
+    private static List<File> concat(List<File> a, List<File> b) {
+        List<File> all = new ArrayList<>(a);
+        all.addAll(b);
+        return all;
+    }
+
+    private static String join(List<File> files) {
+        StringBuilder sb = new StringBuilder();
+        for (File f : files) {
+            if (sb.length() > 0) sb.append(File.pathSeparator);
+            sb.append(f.getAbsolutePath());
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,135 @@
+package br.ufpe.cin.pt.soot.bench;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import br.ufpe.cin.pt.soot.CallGraphAlgorithm;
+import br.ufpe.cin.pt.soot.ForkedRun;
+import br.ufpe.cin.pt.soot.TestConfiguration;
+import br.ufpe.cin.pt.soot.store.MappedPointsToStore;
+import br.ufpe.cin.pt.soot.store.PointsToDiff;
+
+/**
+ * Checks that warm-started runs ({@link TestConfiguration#setWarmStart}) compute exactly what cold
+ * runs do: each scenario and algorithm runs forked twice, cold and warm, both export their
+ * points-to relation, and the relations are diffed ({@link PointsToDiff}). A row also shows the
+ * solve time of both runs, the time of the insensitive pre-solve, and how many methods were pruned.
+ */
+public final class WarmStartValidation {
+
+    /** One algorithm on one scenario, cold against warm. */
+    public static final class Row {
+        public final String scenario;
+        public final CallGraphAlgorithm algorithm;
+        public final ForkedRun.Outcome cold;
+        public final ForkedRun.Outcome warm;
+        public final int changedPointers;  // -1 unless both runs succeeded
+
+        Row(String scenario, CallGraphAlgorithm algorithm, ForkedRun.Outcome cold, ForkedRun.Outcome warm,
+            int changedPointers) {
+            this.scenario = scenario;
+            this.algorithm = algorithm;
+            this.cold = cold;
+            this.warm = warm;
+            this.changedPointers = changedPointers;
+        }
+
+        public boolean isComplete() {
+            return cold.status == ForkedRun.Status.OK && warm.status == ForkedRun.Status.OK;
+        }
+
+        /** Whether both runs succeeded with the same relation and the same alias answer. */
+        public boolean isIdentical() {
+            return isComplete() && changedPointers == 0 && cold.result == warm.result;
+        }
+
+        /** Methods the warm run analysed under the empty context only; -1 if it failed. */
+        public long prunedMethods() {
+            Number pruned = warm.status == ForkedRun.Status.OK ? warm.report.getMetric("warmStart.prunedMethods") : null;
+            return pruned == null ? -1 : pruned.longValue();
+        }
+    }
+
+    private final List<CallGraphAlgorithm> algorithms;
+    private File workDir = new File("target/warm-start");
+    private int heapMB = 4096;
+    private long timeoutSeconds = 1800;
+    private final List<Row> rows = new ArrayList<>();
+
+    public WarmStartValidation(List<CallGraphAlgorithm> algorithms) {
+        this.algorithms = new ArrayList<>(algorithms);
+    }
+
+    /** Where the runs export their relations; defaults to {@code target/warm-start}. */
+    public WarmStartValidation setWorkDir(File workDir) {
+        this.workDir = workDir;
+        return this;
+    }
+
+    /** Heap budget of each run ({@code -Xmx} of the worker JVM). */
+    public WarmStartValidation setHeapMB(int heapMB) {
+        this.heapMB = heapMB;
+        return this;
+    }
+
+    /** Time budget of each run; the worker is killed and the run marked TIMEOUT after it. */
+    public WarmStartValidation setTimeoutSeconds(long timeoutSeconds) {
+        this.timeoutSeconds = timeoutSeconds;
+        return this;
+    }
+
+    public List<Row> run(List<TestConfiguration> scenarios) {
+        for (TestConfiguration scenario : scenarios) {
+            for (CallGraphAlgorithm algorithm : algorithms) {
+                TestConfiguration config = scenario.copy().setCallGraph(algorithm);
+                File coldExport = new File(workDir, "cold-" + rows.size() + ".pts");
+                File warmExport = new File(workDir, "warm-" + rows.size() + ".pts");
+                ForkedRun.Outcome cold = execute(config.copy().setPointsToExport(coldExport));
+                ForkedRun.Outcome warm = execute(config.copy().setWarmStart(true).setPointsToExport(warmExport));
+                int changed = -1;
+                if (cold.status == ForkedRun.Status.OK && warm.status == ForkedRun.Status.OK) {
+                    changed = PointsToDiff.compute(MappedPointsToStore.read(coldExport), MappedPointsToStore.read(warmExport))
+                            .total().changed();
+                }
+                coldExport.delete();
+                warmExport.delete();
+                rows.add(new Row(scenario.getScenario(), algorithm, cold, warm, changed));
+            }
+        }
+        return getRows();
+    }
+
+    private ForkedRun.Outcome execute(TestConfiguration config) {
+        workDir.mkdirs();
+        return new ForkedRun(config).setHeapMB(heapMB).setTimeoutSeconds(timeoutSeconds).execute();
+    }
+
+    public List<Row> getRows() {
+        return Collections.unmodifiableList(rows);
+    }
+
+    /** Whether every row is identical; false before any run. */
+    public boolean isIdentical() {
+        if (rows.isEmpty()) return false;
+        for (Row r : rows) {
+            if (!r.isIdentical()) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-34s %-14s %-13s %9s %9s %9s %7s %s%n", "scenario", "algorithm", "status", "cold ms",
+                "warm ms", "pre ms", "pruned", "changed"));
+        for (Row r : rows) {
+            sb.append(String.format("%-34s %-14s %-13s %9d %9d %9d %7d %d%n", r.scenario, r.algorithm.getName(),
+                    r.isComplete() ? "OK" : r.cold.status + "/" + r.warm.status, r.cold.report.getPhase("solve"),
+                    r.warm.report.getPhase("solve"), r.warm.report.getPhase("warmStart"), r.prunedMethods(),
+                    r.changedPointers));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,195 @@
+package br.ufpe.cin.pt.soot.callgraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import br.ufpe.cin.pt.soot.store.PointsToDiff;
+
+/**
+ * Edge-level diff between two {@link CallGraphSnapshot call graphs}, e.g. CHA (left) against
+ * Spark (right). Edges are matched by (caller, call site, callee, kind), the order the snapshots
+ * keep them in, with one sorted merge over both edge arrays. Edges found on one side only are grouped by call site, so an imprecise run's extra
+ * edges are attributed to the polymorphic calls that produced them; {@link #link} then attaches
+ * the points-to change of each site's receiver.
+ */
+public final class CallGraphDiff {
+
+    /** Edges one run has at a call site and the other run lacks. */
+    public static final class SiteDelta {
+        public final String caller;
+        public final int site;
+        /** Receiver local of the call, or null for static calls. */
+        public final String receiver;
+        public final int leftTargets;
+        public final int rightTargets;
+        private final List<String> callees = new ArrayList<>();
+        private PointsToDiff.Kind receiverKind;
+        private int receiverLeftSize = -1;
+        private int receiverRightSize = -1;
+
+        SiteDelta(String caller, int site, String receiver, int leftTargets, int rightTargets) {
+            this.caller = caller;
+            this.site = site;
+            this.receiver = receiver;
+            this.leftTargets = leftTargets;
+            this.rightTargets = rightTargets;
+        }
+
+        /** Callees present on one side only. */
+        public List<String> getCallees() {
+            return Collections.unmodifiableList(callees);
+        }
+
+        /** Whether the site has more than one callee in the run that has the extra edges. */
+        public boolean isPolymorphic() {
+            return Math.max(leftTargets, rightTargets) > 1;
+        }
+
+        /** Points-to change of the receiver, or null until {@link CallGraphDiff#link} found it. */
+        public PointsToDiff.Kind getReceiverKind() {
+            return receiverKind;
+        }
+
+        public int getReceiverLeftSize() {
+            return receiverLeftSize;
+        }
+
+        public int getReceiverRightSize() {
+            return receiverRightSize;
+        }
+
+        @Override
+        public String toString() {
+            String s = String.format("%s@%d: %d -> %d targets, %d differ", caller, site, leftTargets, rightTargets,
+                    callees.size());
+            if (receiver != null) {
+                s += ", receiver " + receiver;
+                if (receiverKind != null) {
+                    s += String.format(" %s (%d -> %d)", receiverKind, receiverLeftSize, receiverRightSize);
+                }
+            }
+            return s;
+        }
+    }
+
+    private final CallGraphSnapshot left;
+    private final CallGraphSnapshot right;
+    private int common;
+    private final List<SiteDelta> onlyLeft = new ArrayList<>();
+    private final List<SiteDelta> onlyRight = new ArrayList<>();
+
+    private CallGraphDiff(CallGraphSnapshot left, CallGraphSnapshot right) {
+        this.left = left;
+        this.right = right;
+    }
+
+    public static CallGraphDiff compute(CallGraphSnapshot left, CallGraphSnapshot right) {
+        CallGraphDiff diff = new CallGraphDiff(left, right);
+        int i = 0, j = 0;
+        while (i < left.edgeCount() || j < right.edgeCount()) {
+            int cmp;
+            if (i == left.edgeCount()) cmp = 1;
+            else if (j == right.edgeCount()) cmp = -1;
+            else cmp = compareEdges(left, i, right, j);
+            if (cmp == 0) {
+                diff.common++;
+                i++;
+                j++;
+            } else if (cmp < 0) {
+                diff.record(diff.onlyLeft, left, i++);
+            } else {
+                diff.record(diff.onlyRight, right, j++);
+            }
+        }
+        return diff;
+    }
+
+    /** Appends the edge's callee to its call site's delta; edges of one site arrive consecutively. */
+    private void record(List<SiteDelta> deltas, CallGraphSnapshot side, int edge) {
+        String caller = side.method(side.caller(edge));
+        int site = side.site(edge);
+        SiteDelta last = deltas.isEmpty() ? null : deltas.get(deltas.size() - 1);
+        if (last == null || last.site != site || !last.caller.equals(caller)) {
+            last = new SiteDelta(caller, site, side.receiver(edge), targets(left, caller, site), targets(right, caller, site));
+            deltas.add(last);
+        }
+        last.callees.add(side.method(side.callee(edge)));
+    }
+
+    private static int targets(CallGraphSnapshot side, String caller, int site) {
+        int m = side.method(caller);
+        return m < 0 ? 0 : side.targetCount(m, site);
+    }
+
+    private static int compareEdges(CallGraphSnapshot a, int i, CallGraphSnapshot b, int j) {
+        int cmp = a.method(a.caller(i)).compareTo(b.method(b.caller(j)));
+        if (cmp != 0) return cmp;
+        cmp = Integer.compare(a.site(i), b.site(j));
+        if (cmp != 0) return cmp;
+        cmp = a.method(a.callee(i)).compareTo(b.method(b.callee(j)));
+        if (cmp != 0) return cmp;
+        return a.kind(i).compareTo(b.kind(j));
+    }
+
+    /** Attaches the points-to change of every delta's receiver, when {@code pointsTo} has it. */
+    public CallGraphDiff link(PointsToDiff pointsTo) {
+        for (List<SiteDelta> deltas : Arrays.asList(onlyLeft, onlyRight)) {
+            for (SiteDelta d : deltas) {
+                if (d.receiver == null) continue;
+                int p = pointsTo.indexOf(d.caller, d.receiver);
+                if (p < 0) continue;
+                d.receiverKind = pointsTo.kind(p);
+                d.receiverLeftSize = pointsTo.leftSize(p);
+                d.receiverRightSize = pointsTo.rightSize(p);
+            }
+        }
+        return this;
+    }
+
+    public int commonEdges() {
+        return common;
+    }
+
+    /** Call sites where the left run has edges the right run lacks, in (caller, site) order. */
+    public List<SiteDelta> onlyLeft() {
+        return Collections.unmodifiableList(onlyLeft);
+    }
+
+    /** Call sites where the right run has edges the left run lacks, in (caller, site) order. */
+    public List<SiteDelta> onlyRight() {
+        return Collections.unmodifiableList(onlyRight);
+    }
+
+    public static int edgeCount(List<SiteDelta> deltas) {
+        int n = 0;
+        for (SiteDelta d : deltas) n += d.callees.size();
+        return n;
+    }
+
+    /** Sites with the most differing edges first. */
+    public static List<SiteDelta> largest(List<SiteDelta> deltas, int limit) {
+        List<SiteDelta> result = new ArrayList<>(deltas);
+        result.sort((a, b) -> Integer.compare(b.callees.size(), a.callees.size()));
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    /** Totals plus the {@code topSites} sites with the most differing edges on each side. */
+    public String format(int topSites) {
+        String nl = System.lineSeparator();
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("edges %d -> %d, %d common, %d only left at %d sites, %d only right at %d sites%n",
+                left.edgeCount(), right.edgeCount(), common, edgeCount(onlyLeft), onlyLeft.size(),
+                edgeCount(onlyRight), onlyRight.size()));
+        sb.append(String.format("reachable methods %d -> %d%n", left.methodCount(), right.methodCount()));
+        for (SiteDelta d : largest(onlyLeft, topSites)) sb.append("  - ").append(d).append(nl);
+        for (SiteDelta d : largest(onlyRight, topSites)) sb.append("  + ").append(d).append(nl);
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return format(10);
+    }
+}
@@ -0,0 +1,155 @@
+package br.ufpe.cin.pt.soot.callgraph;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import soot.Kind;
+import soot.MethodOrMethodContext;
+import soot.PhaseOptions;
+import soot.Scene;
+import soot.SootMethod;
+import soot.Unit;
+import soot.jimple.Stmt;
+import soot.jimple.spark.pag.MethodPAG;
+import soot.jimple.spark.pag.PAG;
+import soot.jimple.spark.solver.EBBCollapser;
+import soot.jimple.spark.solver.PropAlias;
+import soot.jimple.spark.solver.PropCycle;
+import soot.jimple.spark.solver.PropIter;
+import soot.jimple.spark.solver.PropMerge;
+import soot.jimple.spark.solver.PropWorklist;
+import soot.jimple.spark.solver.Propagator;
+import soot.jimple.spark.solver.SCCCollapser;
+import soot.jimple.toolkits.callgraph.CallGraph;
+import soot.jimple.toolkits.callgraph.Edge;
+import soot.jimple.toolkits.callgraph.ReachableMethods;
+import soot.options.SparkOptions;
+import soot.util.queue.QueueReader;
+
+/**
+ * Runs Spark over a fixed call graph taken from another run, so call graph and points-to precision
+ * can be varied independently (e.g. Spark's PAG over Qilin 2O's or CHA's call graph).
+ * <p>
+ * {@link #install} turns a {@link CallGraphSnapshot} back into Soot edges. Call sites are found by
+ * their invoke ordinal, which matches as long as both runs build bodies the same way (same Soot
+ * options); edges whose methods or statements cannot be found are skipped and counted.
+ * {@link #solveSpark} then builds the PAG for the methods reachable in that call graph and solves
+ * it as Spark would, honouring the run's {@code cg.spark} options (see
+ * {@link br.ufpe.cin.pt.soot.spark.SparkOptions}), but without on-the-fly call graph construction,
+ * so the seed is neither extended nor replaced: the run's reachable methods and edges are the
+ * seed's, from the entry points.
+ */
+public final class CallGraphSeed {
+
+    private CallGraphSeed() {
+    }
+
+    /** Sets the snapshot as the Scene's call graph and returns the number of edges that could not be resolved. */
+    public static int install(CallGraphSnapshot seed) {
+        CallGraph cg = new CallGraph();
+        Map<String, List<Unit>> invokes = new HashMap<>();
+        int unresolved = 0;
+        for (int e = 0; e < seed.edgeCount(); e++) {
+            SootMethod src = Scene.v().grabMethod(seed.method(seed.caller(e)));
+            SootMethod tgt = Scene.v().grabMethod(seed.method(seed.callee(e)));
+            if (src == null || tgt == null) {
+                unresolved++;
+                continue;
+            }
+            Unit unit = null;
+            if (seed.site(e) != CallGraphSnapshot.NO_SITE) {
+                List<Unit> units = invokes.computeIfAbsent(src.getSignature(), k -> invokingUnits(src));
+                if (seed.site(e) >= units.size()) {
+                    unresolved++;
+                    continue;
+                }
+                unit = units.get(seed.site(e));
+            }
+            cg.addEdge(new Edge(src, (Stmt) unit, tgt, Kind.valueOf(seed.kind(e))));
+        }
+        Scene.v().setCallGraph(cg);
+        return unresolved;
+    }
+
+    /**
+     * Builds and solves Spark's PAG over the Scene's current call graph and makes it the Scene's PTA.
+     * The PAG is built here rather than by Spark's {@code ContextInsensitiveBuilder}, which without
+     * on-the-fly call graph construction starts a CHA {@code CallGraphBuilder} that replaces the
+     * Scene's call graph; the reachable methods are those of the seed, from the entry points. The
+     * remaining steps are {@code SparkTransformer}'s, driven by the {@code cg.spark} options: the
+     * SCC and offline simplifications, merging, and the configured propagator.
+     */
+    public static PAG solveSpark() {
+        Map<String, String> options = new HashMap<>(PhaseOptions.v().getPhaseOptions("cg.spark"));
+        options.put("enabled", "true");
+        options.put("on-fly-cg", "false");
+        SparkOptions opts = new SparkOptions(options);
+        PAG pag = new PAG(opts);
+        CallGraph cg = Scene.v().getCallGraph();
+        ReachableMethods reachable = new ReachableMethods(cg, new ArrayList<>(Scene.v().getEntryPoints()));
+        reachable.update();
+        QueueReader<MethodOrMethodContext> methods = reachable.listener();
+        while (methods.hasNext()) {
+            SootMethod m = methods.next().method();
+            if (m.isConcrete() || m.isNative()) {
+                MethodPAG mpag = MethodPAG.v(pag, m);
+                mpag.build();
+                mpag.addToPAG(null);
+            }
+            Iterator<Edge> out = cg.edgesOutOf(m);
+            while (out.hasNext()) {
+                pag.addCallTarget(out.next());
+            }
+        }
+        Scene.v().setReachableMethods(reachable);
+        pag.getTypeManager().makeTypeMask();
+        if (opts.simplify_sccs() || opts.vta()) {
+            new SCCCollapser(pag, opts.ignore_types_for_sccs()).collapse();
+        }
+        if (opts.simplify_offline()) {
+            new EBBCollapser(pag).collapse();
+        }
+        pag.cleanUpMerges();
+        Propagator propagator = propagator(opts, pag);
+        if (propagator != null) {
+            propagator.propagate();
+        }
+        Scene.v().setPointsToAnalysis(pag);
+        return pag;
+    }
+
+    /** The propagator {@code SparkTransformer} would pick for the options, or null for {@code none}. */
+    private static Propagator propagator(SparkOptions opts, PAG pag) {
+        switch (opts.propagator()) {
+            case SparkOptions.propagator_iter:
+                return new PropIter(pag);
+            case SparkOptions.propagator_worklist:
+                return new PropWorklist(pag);
+            case SparkOptions.propagator_cycle:
+                return new PropCycle(pag);
+            case SparkOptions.propagator_merge:
+                return new PropMerge(pag);
+            case SparkOptions.propagator_alias:
+                return new PropAlias(pag);
+            case SparkOptions.propagator_none:
+                return null;
+            default:
+                throw new IllegalArgumentException("Unknown Spark propagator " + opts.propagator());
+        }
+    }
+
+    /** Invoking statements of the method's body in unit order, i.e. indexed by call-site ordinal. */
+    private static List<Unit> invokingUnits(SootMethod m) {
+        List<Unit> units = new ArrayList<>();
+        if (!m.isConcrete()) return units;
+        for (Unit u : m.retrieveActiveBody().getUnits()) {
+            if (((Stmt) u).containsInvokeExpr()) {
+                units.add(u);
+            }
+        }
+        return units;
+    }
+}
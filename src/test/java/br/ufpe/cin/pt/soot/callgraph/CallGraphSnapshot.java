@@ -0,0 +1,320 @@
+package br.ufpe.cin.pt.soot.callgraph;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import br.ufpe.cin.pt.soot.pta.PTA;
+import soot.Local;
+import soot.Scene;
+import soot.SootMethod;
+import soot.Unit;
+import soot.Value;
+import soot.jimple.InstanceInvokeExpr;
+import soot.jimple.Stmt;
+import soot.jimple.toolkits.callgraph.CallGraph;
+import soot.jimple.toolkits.callgraph.Edge;
+
+/**
+ * Call graph of one run as sorted edge arrays, named by stable strings only: caller signature,
+ * call site, callee signature and Soot edge kind. A call site is the ordinal of the invoking
+ * statement among the invoking statements of the caller's body, so {@code caller@3} names the
+ * same call in every algorithm's run; edges without a statement (e.g. static initialisers) use
+ * {@link #NO_SITE}. Each edge also keeps the receiver local of an instance call, which links
+ * the call site to a pointer in the points-to relation.
+ * <p>
+ * Edges are sorted by (caller, site, callee). Methods are sorted by signature, so the edge
+ * order is the same whichever run produced the snapshot.
+ */
+public final class CallGraphSnapshot {
+
+    public static final int NO_SITE = -1;
+
+    private static final String HEADER = "# pt call graph v1";
+
+    private final String[] methods;
+    private final int[] entryPoints;
+    private final int[] callers;
+    private final int[] sites;
+    private final int[] callees;
+    private final String[] kinds;
+    private final String[] receivers;
+
+    private CallGraphSnapshot(String[] methods, int[] entryPoints, int[] callers, int[] sites, int[] callees,
+                              String[] kinds, String[] receivers) {
+        this.methods = methods;
+        this.entryPoints = entryPoints;
+        this.callers = callers;
+        this.sites = sites;
+        this.callees = callees;
+        this.kinds = kinds;
+        this.receivers = receivers;
+    }
+
+    /** Reads the call graph between the reachable methods of a solved PTA. */
+    public static CallGraphSnapshot of(PTA pta) {
+        Builder b = new Builder();
+        for (SootMethod m : Scene.v().getEntryPoints()) {
+            b.entryPoint(m.getSignature());
+        }
+        CallGraph cg = pta.getCallGraph();
+        for (SootMethod m : pta.getReachableMethods()) {
+            b.method(m.getSignature());
+            Map<Unit, Integer> ordinals = invokeOrdinals(m);
+            Iterator<Edge> edges = cg.edgesOutOf(m);
+            while (edges.hasNext()) {
+                Edge e = edges.next();
+                Integer site = e.srcUnit() == null ? null : ordinals.get(e.srcUnit());
+                b.edge(m.getSignature(), site == null ? NO_SITE : site, e.tgt().getSignature(),
+                        e.kind().name(), receiver(e.srcStmt()));
+            }
+        }
+        return b.build();
+    }
+
+    /** Ordinal of every invoking statement in the method's body, in unit order. */
+    static Map<Unit, Integer> invokeOrdinals(SootMethod m) {
+        Map<Unit, Integer> ordinals = new IdentityHashMap<>();
+        if (!m.hasActiveBody()) return ordinals;
+        for (Unit u : m.getActiveBody().getUnits()) {
+            if (((Stmt) u).containsInvokeExpr()) {
+                ordinals.put(u, ordinals.size());
+            }
+        }
+        return ordinals;
+    }
+
+    private static String receiver(Stmt stmt) {
+        if (stmt == null || !stmt.containsInvokeExpr() || !(stmt.getInvokeExpr() instanceof InstanceInvokeExpr)) {
+            return null;
+        }
+        Value base = ((InstanceInvokeExpr) stmt.getInvokeExpr()).getBase();
+        return base instanceof Local ? ((Local) base).getName() : null;
+    }
+
+    public int methodCount() {
+        return methods.length;
+    }
+
+    public String method(int id) {
+        return methods[id];
+    }
+
+    /** Method id of the signature, or -1 if it is not reachable in this run. */
+    public int method(String signature) {
+        int m = Arrays.binarySearch(methods, signature);
+        return m < 0 ? -1 : m;
+    }
+
+    /** Method ids of the run's entry points. */
+    public int[] entryPoints() {
+        return entryPoints.clone();
+    }
+
+    /** Entry points by signature, in signature order. */
+    public List<String> entryPointSignatures() {
+        List<String> result = new ArrayList<>();
+        for (int m : entryPoints) {
+            result.add(methods[m]);
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    public int edgeCount() {
+        return callers.length;
+    }
+
+    public int caller(int edge) {
+        return callers[edge];
+    }
+
+    public int site(int edge) {
+        return sites[edge];
+    }
+
+    public int callee(int edge) {
+        return callees[edge];
+    }
+
+    /** Name of the Soot {@code Kind} of the edge. */
+    public String kind(int edge) {
+        return kinds[edge];
+    }
+
+    /** Receiver local of the call, or null for static calls and edges without a statement. */
+    public String receiver(int edge) {
+        return receivers[edge];
+    }
+
+    /** Stable name of the edge's call site, {@code <caller signature>@<ordinal>}. */
+    public String callSite(int edge) {
+        return methods[callers[edge]] + "@" + sites[edge];
+    }
+
+    /**
+     * First edge of the method; the edges out of method {@code m} are
+     * {@code [firstEdge(m), firstEdge(m + 1))}, and {@code m} may be {@link #methodCount()}.
+     */
+    public int firstEdge(int method) {
+        int lo = 0;
+        int hi = callers.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (callers[mid] < method) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /** Number of distinct callees of the call site; edges differing only in kind count once. */
+    public int targetCount(int caller, int site) {
+        int n = 0;
+        int last = -1;
+        for (int e = firstEdge(caller); e < callers.length && callers[e] == caller; e++) {
+            if (sites[e] == site && callees[e] != last) {
+                n++;
+                last = callees[e];
+            }
+        }
+        return n;
+    }
+
+    /** Writes one tab-separated line per method, entry point and edge. */
+    public void write(File file) {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) parent.mkdirs();
+        try (BufferedWriter out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            out.write(HEADER);
+            out.newLine();
+            for (String m : methods) {
+                out.write("method\t" + m);
+                out.newLine();
+            }
+            for (int m : entryPoints) {
+                out.write("entry\t" + methods[m]);
+                out.newLine();
+            }
+            for (int e = 0; e < callers.length; e++) {
+                out.write("edge\t" + methods[callers[e]] + "\t" + sites[e] + "\t" + methods[callees[e]]
+                        + "\t" + kinds[e] + "\t" + (receivers[e] == null ? "-" : receivers[e]));
+                out.newLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write call graph to " + file, e);
+        }
+    }
+
+    public static CallGraphSnapshot read(File file) {
+        Builder b = new Builder();
+        try (BufferedReader in = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            int lineNo = 0;
+            while ((line = in.readLine()) != null) {
+                lineNo++;
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] parts = line.split("\t");
+                switch (parts[0]) {
+                    case "method":
+                        b.method(parts[1]);
+                        break;
+                    case "entry":
+                        b.entryPoint(parts[1]);
+                        break;
+                    case "edge":
+                        b.edge(parts[1], Integer.parseInt(parts[2]), parts[3], parts[4],
+                                "-".equals(parts[5]) ? null : parts[5]);
+                        break;
+                    default:
+                        throw new IllegalArgumentException(file + ":" + lineNo + ": unknown entry '" + parts[0] + "'");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read call graph from " + file, e);
+        }
+        return b.build();
+    }
+
+    /** Collects methods and edges in any order; {@link #build()} sorts and deduplicates. */
+    public static final class Builder {
+        private final TreeSet<String> methods = new TreeSet<>();
+        private final List<String> entryPoints = new ArrayList<>();
+        private final List<String[]> edges = new ArrayList<>();
+
+        public Builder method(String signature) {
+            methods.add(signature);
+            return this;
+        }
+
+        public Builder entryPoint(String signature) {
+            methods.add(signature);
+            entryPoints.add(signature);
+            return this;
+        }
+
+        /** Adds an edge; both ends become methods of the snapshot. {@code receiver} may be null. */
+        public Builder edge(String caller, int site, String callee, String kind, String receiver) {
+            methods.add(caller);
+            methods.add(callee);
+            edges.add(new String[] {caller, Integer.toString(site), callee, kind, receiver});
+            return this;
+        }
+
+        public CallGraphSnapshot build() {
+            String[] sorted = methods.toArray(new String[0]);
+            List<int[]> keyed = new ArrayList<>(edges.size());
+            for (int i = 0; i < edges.size(); i++) {
+                String[] e = edges.get(i);
+                keyed.add(new int[] {Arrays.binarySearch(sorted, e[0]), Integer.parseInt(e[1]),
+                        Arrays.binarySearch(sorted, e[2]), i});
+            }
+            keyed.sort(Comparator.<int[]>comparingInt(k -> k[0]).thenComparingInt(k -> k[1])
+                    .thenComparingInt(k -> k[2]).thenComparing(k -> edges.get(k[3])[3]));
+            List<int[]> unique = new ArrayList<>();
+            for (int[] k : keyed) {
+                int[] last = unique.isEmpty() ? null : unique.get(unique.size() - 1);
+                if (last != null && last[0] == k[0] && last[1] == k[1] && last[2] == k[2]
+                        && edges.get(last[3])[3].equals(edges.get(k[3])[3])) {
+                    continue;
+                }
+                unique.add(k);
+            }
+            int n = unique.size();
+            int[] callers = new int[n];
+            int[] sites = new int[n];
+            int[] callees = new int[n];
+            String[] kinds = new String[n];
+            String[] receivers = new String[n];
+            for (int i = 0; i < n; i++) {
+                int[] k = unique.get(i);
+                callers[i] = k[0];
+                sites[i] = k[1];
+                callees[i] = k[2];
+                kinds[i] = edges.get(k[3])[3];
+                receivers[i] = edges.get(k[3])[4];
+            }
+            TreeSet<Integer> entries = new TreeSet<>();
+            for (String e : entryPoints) {
+                entries.add(Arrays.binarySearch(sorted, e));
+            }
+            int[] entryIds = new int[entries.size()];
+            int i = 0;
+            for (int e : entries) {
+                entryIds[i++] = e;
+            }
+            return new CallGraphSnapshot(sorted, entryIds, callers, sites, callees, kinds, receivers);
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package br.ufpe.cin.pt.soot.callgraph;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Method reachability over a {@link CallGraphSnapshot}, answered in constant time. Strongly
+ * connected components are condensed (iterative Tarjan) and each component stores the set of
+ * components it reaches as a bitset, computed in one pass over the condensation in reverse
+ * topological order.
+ * <p>
+ * The index can be restricted to the methods accepted by a predicate, e.g. application code
+ * only: paths then run through accepted methods only, and excluded methods reach nothing and
+ * are reached by nothing. Every method reaches itself. The closure takes
+ * {@code components² / 8} bytes, which suits call graphs up to roughly 10⁵ components;
+ * {@link #build} rejects graphs whose closure does not fit in one array.
+ */
+public final class ReachabilityIndex {
+
+    private static final int MAGIC = 0x50545249;  // "PTRI"
+    private static final int VERSION = 1;
+    private static final int EXCLUDED = -1;
+    /** Largest closure array the JVM allocates; about 370k components fill it. */
+    private static final int MAX_CLOSURE_WORDS = Integer.MAX_VALUE - 8;
+
+    private final String[] methods;
+    private final int[] entryPoints;
+    private final int[] component;
+    private final int words;
+    private final long[] closure;
+
+    private ReachabilityIndex(String[] methods, int[] entryPoints, int[] component, int words, long[] closure) {
+        this.methods = methods;
+        this.entryPoints = entryPoints;
+        this.component = component;
+        this.words = words;
+        this.closure = closure;
+    }
+
+    public static ReachabilityIndex build(CallGraphSnapshot cg) {
+        return build(cg, m -> true);
+    }
+
+    /** Index over the methods accepted by {@code include}; paths never pass through other methods. */
+    public static ReachabilityIndex build(CallGraphSnapshot cg, Predicate<String> include) {
+        int n = cg.methodCount();
+        String[] methods = new String[n];
+        boolean[] included = new boolean[n];
+        for (int m = 0; m < n; m++) {
+            methods[m] = cg.method(m);
+            included[m] = include.test(methods[m]);
+        }
+        int[] component = new int[n];
+        int count = condense(cg, included, component);
+
+        int words = (count + 63) >>> 6;
+        long size = (long) count * words;
+        if (size > MAX_CLOSURE_WORDS) {
+            throw new IllegalArgumentException("A reachability index over " + count + " components needs "
+                    + size + " closure words, more than one array holds (" + MAX_CLOSURE_WORDS + ")");
+        }
+        long[] closure = new long[(int) size];
+        // Tarjan numbers components in reverse topological order: successors come first.
+        List<int[]> members = membersByComponent(component, count);
+        for (int c = 0; c < count; c++) {
+            closure[c * words + (c >>> 6)] |= 1L << c;
+            for (int m : members.get(c)) {
+                for (int e = cg.firstEdge(m); e < cg.firstEdge(m + 1); e++) {
+                    int d = component[cg.callee(e)];
+                    if (d == EXCLUDED || d == c) continue;
+                    for (int w = 0; w < words; w++) {
+                        closure[c * words + w] |= closure[d * words + w];
+                    }
+                }
+            }
+        }
+        return new ReachabilityIndex(methods, cg.entryPoints(), component, words, closure);
+    }
+
+    /** Accepts methods declared in the given packages or their subpackages, e.g. the application's. */
+    public static Predicate<String> inPackages(String... packages) {
+        return signature -> {
+            for (String p : packages) {
+                if (signature.startsWith("<" + p + ".")) return true;
+            }
+            return false;
+        };
+    }
+
+    /** Iterative Tarjan; writes component ids (or {@link #EXCLUDED}) and returns the component count. */
+    private static int condense(CallGraphSnapshot cg, boolean[] included, int[] component) {
+        int n = included.length;
+        int[] index = new int[n];
+        int[] low = new int[n];
+        boolean[] onStack = new boolean[n];
+        int[] stack = new int[n];
+        int[] callStack = new int[n];
+        int[] nextEdge = new int[n];
+        Arrays.fill(index, -1);
+        Arrays.fill(component, EXCLUDED);
+        int counter = 0, sp = 0, count = 0;
+        for (int root = 0; root < n; root++) {
+            if (!included[root] || index[root] >= 0) continue;
+            int csp = 0;
+            callStack[csp++] = root;
+            index[root] = low[root] = counter++;
+            stack[sp++] = root;
+            onStack[root] = true;
+            nextEdge[root] = cg.firstEdge(root);
+            while (csp > 0) {
+                int v = callStack[csp - 1];
+                if (nextEdge[v] < cg.firstEdge(v + 1)) {
+                    int w = cg.callee(nextEdge[v]++);
+                    if (!included[w]) continue;
+                    if (index[w] < 0) {
+                        index[w] = low[w] = counter++;
+                        stack[sp++] = w;
+                        onStack[w] = true;
+                        nextEdge[w] = cg.firstEdge(w);
+                        callStack[csp++] = w;
+                    } else if (onStack[w]) {
+                        low[v] = Math.min(low[v], index[w]);
+                    }
+                    continue;
+                }
+                csp--;
+                if (csp > 0) {
+                    int parent = callStack[csp - 1];
+                    low[parent] = Math.min(low[parent], low[v]);
+                }
+                if (low[v] == index[v]) {
+                    int w;
+                    do {
+                        w = stack[--sp];
+                        onStack[w] = false;
+                        component[w] = count;
+                    } while (w != v);
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static List<int[]> membersByComponent(int[] component, int count) {
+        int[] sizes = new int[count];
+        for (int c : component) {
+            if (c != EXCLUDED) sizes[c]++;
+        }
+        List<int[]> members = new ArrayList<>(count);
+        for (int c = 0; c < count; c++) {
+            members.add(new int[sizes[c]]);
+        }
+        for (int m = 0; m < component.length; m++) {
+            int c = component[m];
+            if (c != EXCLUDED) members.get(c)[--sizes[c]] = m;
+        }
+        return members;
+    }
+
+    public int methodCount() {
+        return methods.length;
+    }
+
+    public int componentCount() {
+        return words == 0 ? 0 : closure.length / words;
+    }
+
+    /** Method id of the signature, or -1 if the call graph does not contain it. */
+    public int method(String signature) {
+        int m = Arrays.binarySearch(methods, signature);
+        return m < 0 ? -1 : m;
+    }
+
+    /** Whether {@code to} is reachable from {@code from}; false when either is unknown or excluded. */
+    public boolean reaches(String from, String to) {
+        int a = method(from);
+        int b = method(to);
+        return a >= 0 && b >= 0 && reaches(a, b);
+    }
+
+    public boolean reaches(int from, int to) {
+        int c = component[from];
+        int d = component[to];
+        if (c == EXCLUDED || d == EXCLUDED) return false;
+        return (closure[c * words + (d >>> 6)] & (1L << d)) != 0;
+    }
+
+    /** Whether the two methods call each other, directly or not (same component). */
+    public boolean sameComponent(String m1, String m2) {
+        int a = method(m1);
+        int b = method(m2);
+        return a >= 0 && b >= 0 && component[a] != EXCLUDED && component[a] == component[b];
+    }
+
+    /** Signatures of the entry points that reach the method, in signature order. */
+    public List<String> entriesReaching(String signature) {
+        List<String> result = new ArrayList<>();
+        int target = method(signature);
+        if (target < 0) return result;
+        for (int e : entryPoints) {
+            if (reaches(e, target)) result.add(methods[e]);
+        }
+        return result;
+    }
+
+    /** Writes the index next to the call graph it was built from; see {@link #read(File)}. */
+    public void write(File file) {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(methods.length);
+            for (String m : methods) {
+                out.writeUTF(m);
+            }
+            out.writeInt(entryPoints.length);
+            for (int e : entryPoints) {
+                out.writeInt(e);
+            }
+            for (int c : component) {
+                out.writeInt(c);
+            }
+            out.writeInt(words);
+            out.writeInt(closure.length);
+            for (long w : closure) {
+                out.writeLong(w);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write reachability index " + file, e);
+        }
+    }
+
+    public static ReachabilityIndex read(File file) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IllegalArgumentException(file + " is not a reachability index");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IllegalArgumentException(file + " has unsupported index version " + version);
+            }
+            String[] methods = new String[in.readInt()];
+            for (int m = 0; m < methods.length; m++) {
+                methods[m] = in.readUTF();
+            }
+            int[] entryPoints = new int[in.readInt()];
+            for (int e = 0; e < entryPoints.length; e++) {
+                entryPoints[e] = in.readInt();
+            }
+            int[] component = new int[methods.length];
+            for (int m = 0; m < component.length; m++) {
+                component[m] = in.readInt();
+            }
+            int words = in.readInt();
+            long[] closure = new long[in.readInt()];
+            for (int w = 0; w < closure.length; w++) {
+                closure[w] = in.readLong();
+            }
+            return new ReachabilityIndex(methods, entryPoints, component, words, closure);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read reachability index " + file, e);
+        }
+    }
+}
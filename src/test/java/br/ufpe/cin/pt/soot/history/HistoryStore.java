@@ -0,0 +1,83 @@
+package br.ufpe.cin.pt.soot.history;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Append-only run history in one local text file, one {@link RunRecord} per line after a
+ * {@value #HEADER} header. Appends take an exclusive file lock, so parallel worker JVMs and
+ * concurrent CI jobs on one box can share a history file. No server and no driver: the file can
+ * be copied, diffed, archived with build artifacts and read with {@code cut} and {@code awk}.
+ */
+public final class HistoryStore {
+
+    static final String HEADER = "# pt run history v1";
+
+    private final File file;
+
+    private HistoryStore(File file) {
+        this.file = file;
+    }
+
+    /** Store backed by {@code file}, which is created (with its header) on the first append. */
+    public static HistoryStore open(File file) {
+        return new HistoryStore(file);
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public void append(RunRecord record) {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) parent.mkdirs();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw");
+             FileChannel channel = raf.getChannel();
+             FileLock lock = channel.lock()) {
+            String text = (channel.size() == 0 ? HEADER + "\n" : "") + record.toLine() + "\n";
+            channel.position(channel.size());
+            ByteBuffer bytes = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append to run history " + file, e);
+        }
+    }
+
+    /** Every record, oldest first; empty if the file does not exist yet. */
+    public List<RunRecord> records() {
+        return records(r -> true);
+    }
+
+    public List<RunRecord> records(Predicate<RunRecord> filter) {
+        List<RunRecord> records = new ArrayList<>();
+        if (!file.exists()) return records;
+        try {
+            for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                RunRecord record = RunRecord.parse(line);
+                if (filter.test(record)) records.add(record);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read run history " + file, e);
+        }
+        return records;
+    }
+
+    /** Successful runs of one scenario and algorithm on one machine, oldest first. */
+    public List<RunRecord> series(String scenario, String algorithm, String machine) {
+        return records(r -> r.getScenario().equals(scenario) && r.getAlgorithm().equals(algorithm)
+                && r.getMachine().equals(machine) && r.getStatus().equals("OK"));
+    }
+}
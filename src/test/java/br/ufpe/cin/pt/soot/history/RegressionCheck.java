@@ -0,0 +1,279 @@
+package br.ufpe.cin.pt.soot.history;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares the runs of a candidate revision against a baseline window of earlier runs in a
+ * {@link HistoryStore} and flags statistically significant slowdowns, heap growth and precision
+ * loss. Runs are compared only within one (scenario, algorithm, machine) series.
+ * <p>
+ * The baseline is the last {@code window} runs of the series made before the candidate's first run
+ * at other revisions. A measure regresses when its candidate median exceeds the baseline median by
+ * the {@code threshold} ratio and the increase is significant at {@code alpha}. With three or more
+ * candidate runs significance comes from a one-sided Mann-Whitney U test; with fewer it comes from a
+ * robust z-score against the baseline's median absolute deviation. Every measure is
+ * "higher is worse"; a baseline of fewer than three runs is reported but never flagged.
+ * <p>
+ * As a command: {@code RegressionCheck <history> [revision] [--window N] [--threshold R] [--alpha A]}
+ * prints the findings and exits with 1 if anything regressed.
+ */
+public final class RegressionCheck {
+
+    /** One measure of one series. */
+    public static final class Finding {
+        public final String scenario;
+        public final String algorithm;
+        public final String measure;
+        public final int baselineRuns;
+        public final int candidateRuns;
+        public final double baselineMedian;
+        public final double candidateMedian;
+        public final double pValue;
+        public final boolean regression;
+
+        Finding(String scenario, String algorithm, String measure, int baselineRuns, int candidateRuns,
+                double baselineMedian, double candidateMedian, double pValue, boolean regression) {
+            this.scenario = scenario;
+            this.algorithm = algorithm;
+            this.measure = measure;
+            this.baselineRuns = baselineRuns;
+            this.candidateRuns = candidateRuns;
+            this.baselineMedian = baselineMedian;
+            this.candidateMedian = candidateMedian;
+            this.pValue = pValue;
+            this.regression = regression;
+        }
+
+        /** Candidate median over baseline median; 1 when both are zero. */
+        public double ratio() {
+            return RegressionCheck.ratio(baselineMedian, candidateMedian);
+        }
+    }
+
+    public static final List<String> DEFAULT_MEASURES = Arrays.asList("phase.solve", "totalMs", "peakHeapMB",
+            "metric.metrics.app.avgPointsTo", "metric.metrics.app.polymorphicCallSites",
+            "metric.metrics.app.mayFailCasts");
+
+    private final HistoryStore store;
+    private int window = 10;
+    private double threshold = 1.10;
+    private double alpha = 0.05;
+    private List<String> measures = DEFAULT_MEASURES;
+
+    public RegressionCheck(HistoryStore store) {
+        this.store = store;
+    }
+
+    /** Number of earlier runs per series in the baseline. */
+    public RegressionCheck setWindow(int window) {
+        this.window = window;
+        return this;
+    }
+
+    /** Minimum candidate/baseline median ratio that counts as a regression, e.g. 1.10 for 10%. */
+    public RegressionCheck setThreshold(double threshold) {
+        this.threshold = threshold;
+        return this;
+    }
+
+    /** Significance level of the one-sided test. */
+    public RegressionCheck setAlpha(double alpha) {
+        this.alpha = alpha;
+        return this;
+    }
+
+    /** Measures to compare (see {@link RunRecord#measure}). */
+    public RegressionCheck setMeasures(List<String> measures) {
+        this.measures = new ArrayList<>(measures);
+        return this;
+    }
+
+    /** Revision of the newest record, or null for an empty history. */
+    public String latestRevision() {
+        List<RunRecord> all = store.records();
+        return all.isEmpty() ? null : all.get(all.size() - 1).getRevision();
+    }
+
+    /** Findings for every series with successful runs at {@code revision}. */
+    public List<Finding> check(String revision) {
+        Map<String, List<RunRecord>> series = new LinkedHashMap<>();
+        for (RunRecord r : store.records(r -> r.getStatus().equals("OK"))) {
+            series.computeIfAbsent(r.getScenario() + "\t" + r.getAlgorithm() + "\t" + r.getMachine(),
+                    k -> new ArrayList<>()).add(r);
+        }
+        List<Finding> findings = new ArrayList<>();
+        for (List<RunRecord> runs : series.values()) {
+            runs.sort((a, b) -> Long.compare(a.getTimestamp(), b.getTimestamp()));
+            List<RunRecord> candidate = new ArrayList<>();
+            long firstCandidate = Long.MAX_VALUE;
+            for (RunRecord r : runs) {
+                if (r.getRevision().equals(revision)) {
+                    candidate.add(r);
+                    firstCandidate = Math.min(firstCandidate, r.getTimestamp());
+                }
+            }
+            if (candidate.isEmpty()) continue;
+            List<RunRecord> baseline = new ArrayList<>();
+            for (RunRecord r : runs) {
+                if (r.getTimestamp() < firstCandidate && !r.getRevision().equals(revision)) baseline.add(r);
+            }
+            if (baseline.size() > window) {
+                baseline = new ArrayList<>(baseline.subList(baseline.size() - window, baseline.size()));
+            }
+            for (String measure : measures) {
+                double[] c = values(candidate, measure);
+                double[] b = values(baseline, measure);
+                if (c.length == 0 || b.length == 0) continue;
+                findings.add(compare(candidate.get(0), measure, b, c));
+            }
+        }
+        return findings;
+    }
+
+    private Finding compare(RunRecord series, String measure, double[] baseline, double[] candidate) {
+        double bMedian = median(baseline);
+        double cMedian = median(candidate);
+        double p = candidate.length >= 3 ? mannWhitneyGreater(candidate, baseline) : robustZPValue(candidate, baseline);
+        boolean regression = baseline.length >= 3 && ratio(bMedian, cMedian) >= threshold && p < alpha;
+        return new Finding(series.getScenario(), series.getAlgorithm(), measure, baseline.length, candidate.length,
+                bMedian, cMedian, p, regression);
+    }
+
+    private static double ratio(double baseline, double candidate) {
+        if (baseline == 0) return candidate == 0 ? 1.0 : Double.POSITIVE_INFINITY;
+        return candidate / baseline;
+    }
+
+    private static double[] values(List<RunRecord> runs, String measure) {
+        List<Double> values = new ArrayList<>();
+        for (RunRecord r : runs) {
+            Double v = r.measure(measure);
+            if (v != null && !v.isNaN()) values.add(v);
+        }
+        double[] out = new double[values.size()];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = values.get(i);
+        }
+        return out;
+    }
+
+    static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int n = sorted.length;
+        return n % 2 == 1 ? sorted[n / 2] : (sorted[n / 2 - 1] + sorted[n / 2]) / 2;
+    }
+
+    /** One-sided p-value that the candidate median sits above the baseline, from a robust z-score. */
+    static double robustZPValue(double[] candidate, double[] baseline) {
+        double center = median(baseline);
+        double[] deviations = new double[baseline.length];
+        for (int i = 0; i < baseline.length; i++) {
+            deviations[i] = Math.abs(baseline[i] - center);
+        }
+        double scale = 1.4826 * median(deviations);
+        double diff = median(candidate) - center;
+        if (scale == 0) return diff > 0 ? 0.0 : 1.0;
+        return 1 - normalCdf(diff / scale);
+    }
+
+    /**
+     * One-sided Mann-Whitney U test that {@code x} tends to be larger than {@code y}, with the normal
+     * approximation and tie correction.
+     */
+    static double mannWhitneyGreater(double[] x, double[] y) {
+        int n1 = x.length;
+        int n2 = y.length;
+        int n = n1 + n2;
+        double[] all = new double[n];
+        System.arraycopy(x, 0, all, 0, n1);
+        System.arraycopy(y, 0, all, n1, n2);
+        double[] sorted = all.clone();
+        Arrays.sort(sorted);
+        double rankSumX = 0;
+        for (double v : x) {
+            rankSumX += rank(sorted, v);
+        }
+        double u = rankSumX - n1 * (n1 + 1) / 2.0;
+        double tieTerm = 0;
+        for (int i = 0; i < n; ) {
+            int j = i;
+            while (j < n && sorted[j] == sorted[i]) j++;
+            double t = j - i;
+            tieTerm += t * t * t - t;
+            i = j;
+        }
+        double variance = n1 * n2 / 12.0 * ((n + 1) - tieTerm / ((double) n * (n - 1)));
+        if (variance <= 0) return 1.0;
+        double z = (u - n1 * n2 / 2.0 - 0.5) / Math.sqrt(variance);  // continuity correction
+        return 1 - normalCdf(z);
+    }
+
+    /** Average 1-based rank of {@code v} in {@code sorted}. */
+    private static double rank(double[] sorted, double v) {
+        int lo = 0;
+        while (sorted[lo] < v) lo++;
+        int hi = lo;
+        while (hi + 1 < sorted.length && sorted[hi + 1] == v) hi++;
+        return (lo + hi) / 2.0 + 1;
+    }
+
+    static double normalCdf(double z) {
+        return 0.5 * (1 + erf(z / Math.sqrt(2)));
+    }
+
+    /** Abramowitz and Stegun 7.1.26; absolute error below 1.5e-7. */
+    private static double erf(double x) {
+        double t = 1 / (1 + 0.3275911 * Math.abs(x));
+        double y = 1 - t * (0.254829592 + t * (-0.284496736 + t * (1.421413741
+                + t * (-1.453152027 + t * 1.061405429)))) * Math.exp(-x * x);
+        return x >= 0 ? y : -y;
+    }
+
+    public static String format(List<Finding> findings) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-4s %-40s %-18s %-36s %5s %12s %12s %8s %8s%n", "", "scenario", "algorithm",
+                "measure", "runs", "baseline", "candidate", "ratio", "p"));
+        for (Finding f : findings) {
+            sb.append(String.format("%-4s %-40s %-18s %-36s %2d/%-2d %12.2f %12.2f %7.2fx %8.4f%n",
+                    f.regression ? "REG" : "", f.scenario, f.algorithm, f.measure, f.baselineRuns, f.candidateRuns,
+                    f.baselineMedian, f.candidateMedian, f.ratio(), f.pValue));
+        }
+        return sb.toString();
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("usage: RegressionCheck <history> [revision] [--window N] [--threshold R] [--alpha A]");
+            System.exit(2);
+        }
+        RegressionCheck check = new RegressionCheck(HistoryStore.open(new File(args[0])));
+        String revision = null;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--window": check.setWindow(Integer.parseInt(args[++i])); break;
+                case "--threshold": check.setThreshold(Double.parseDouble(args[++i])); break;
+                case "--alpha": check.setAlpha(Double.parseDouble(args[++i])); break;
+                default: revision = args[i];
+            }
+        }
+        if (revision == null) revision = check.latestRevision();
+        if (revision == null) {
+            System.out.println("Empty history " + args[0]);
+            return;
+        }
+        List<Finding> findings = check.check(revision);
+        System.out.println("Revision " + revision + " against its baseline window");
+        System.out.print(format(findings));
+        boolean regressed = false;
+        for (Finding f : findings) {
+            regressed |= f.regression;
+        }
+        System.exit(regressed ? 1 : 0);
+    }
+}
@@ -0,0 +1,225 @@
+package br.ufpe.cin.pt.soot.history;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import br.ufpe.cin.pt.soot.RunReport;
+
+/**
+ * One analysis run as kept by the {@link HistoryStore}: when and where it ran (git revision and
+ * machine), what it analysed (scenario and algorithm), how it ended, and its phase timings, peak
+ * heap and metrics. A record is one tab-separated line: the fixed fields first, then
+ * {@code phase.<name>=} and {@code metric.<name>=} pairs.
+ */
+public final class RunRecord {
+
+    private static volatile String revision;
+    private static volatile String machine;
+
+    private final long timestamp;
+    private final String revisionId;
+    private final String machineId;
+    private final String scenario;
+    private final String algorithm;
+    private final String status;
+    private final long peakHeapMB;
+    private final Map<String, Long> phases;
+    private final Map<String, Number> metrics;
+
+    public RunRecord(long timestamp, String revision, String machine, String scenario, String algorithm,
+                     String status, long peakHeapMB, Map<String, Long> phases, Map<String, Number> metrics) {
+        this.timestamp = timestamp;
+        this.revisionId = revision;
+        this.machineId = machine;
+        this.scenario = scenario;
+        this.algorithm = algorithm;
+        this.status = status;
+        this.peakHeapMB = peakHeapMB;
+        this.phases = new LinkedHashMap<>(phases);
+        this.metrics = new LinkedHashMap<>(metrics);
+    }
+
+    /** Record of a report taken now, at the current revision on this machine. */
+    public static RunRecord of(String scenario, String status, RunReport report, long peakHeapMB) {
+        return new RunRecord(System.currentTimeMillis(), currentRevision(), currentMachine(), scenario,
+                report.getAlgorithm() == null ? "?" : report.getAlgorithm().getName(), status, peakHeapMB,
+                report.getPhases(), report.getMetrics());
+    }
+
+    /**
+     * {@code git rev-parse --short HEAD} of the working directory, with {@code +dirty} when there are
+     * uncommitted changes, or {@code unknown} outside a git checkout. Computed once per JVM.
+     */
+    public static String currentRevision() {
+        if (revision == null) {
+            String head = git("rev-parse", "--short", "HEAD");
+            if (head == null || head.isEmpty()) {
+                revision = "unknown";
+            } else {
+                String changes = git("status", "--porcelain", "--untracked-files=no");
+                revision = changes == null || changes.isEmpty() ? head : head + "+dirty";
+            }
+        }
+        return revision;
+    }
+
+    /**
+     * Host name, OS, architecture, processors, maximum heap and Java version, joined by {@code /}.
+     * Only runs from the same machine string are compared against each other.
+     */
+    public static String currentMachine() {
+        if (machine == null) {
+            String host;
+            try {
+                host = InetAddress.getLocalHost().getHostName();
+            } catch (Exception e) {
+                host = "unknown-host";
+            }
+            machine = String.join("/", host, System.getProperty("os.name"), System.getProperty("os.arch"),
+                    Runtime.getRuntime().availableProcessors() + "cpu",
+                    (ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getMax() >> 20) + "mb",
+                    "java" + System.getProperty("java.specification.version")).replace('\t', ' ');
+        }
+        return machine;
+    }
+
+    private static String git(String... args) {
+        String[] cmd = new String[args.length + 1];
+        cmd[0] = "git";
+        System.arraycopy(args, 0, cmd, 1, args.length);
+        try {
+            Process p = new ProcessBuilder(cmd).directory(new File(".")).redirectErrorStream(true).start();
+            StringBuilder out = new StringBuilder();
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    out.append(line).append('\n');
+                }
+            }
+            if (!p.waitFor(10, TimeUnit.SECONDS) || p.exitValue() != 0) return null;
+            return out.toString().trim();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getRevision() {
+        return revisionId;
+    }
+
+    public String getMachine() {
+        return machineId;
+    }
+
+    public String getScenario() {
+        return scenario;
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public long getPeakHeapMB() {
+        return peakHeapMB;
+    }
+
+    public Map<String, Long> getPhases() {
+        return Collections.unmodifiableMap(phases);
+    }
+
+    public Map<String, Number> getMetrics() {
+        return Collections.unmodifiableMap(metrics);
+    }
+
+    /**
+     * Value of a measure: {@code phase.<name>}, {@code metric.<name>}, {@code peakHeapMB}, or
+     * {@code totalMs} (sum of the phases). Null when the run did not record it.
+     */
+    public Double measure(String name) {
+        if (name.equals("peakHeapMB")) return peakHeapMB < 0 ? null : (double) peakHeapMB;
+        if (name.equals("totalMs")) {
+            if (phases.isEmpty()) return null;
+            long total = 0;
+            for (long millis : phases.values()) {
+                total += millis;
+            }
+            return (double) total;
+        }
+        if (name.startsWith("phase.")) {
+            Long millis = phases.get(name.substring(6));
+            return millis == null ? null : millis.doubleValue();
+        }
+        if (name.startsWith("metric.")) {
+            Number value = metrics.get(name.substring(7));
+            return value == null ? null : value.doubleValue();
+        }
+        throw new IllegalArgumentException("Unknown measure " + name);
+    }
+
+    String toLine() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(timestamp).append('\t').append(clean(revisionId)).append('\t').append(clean(machineId)).append('\t')
+                .append(clean(scenario)).append('\t').append(clean(algorithm)).append('\t').append(clean(status))
+                .append('\t').append(peakHeapMB);
+        for (Map.Entry<String, Long> e : phases.entrySet()) {
+            sb.append("\tphase.").append(clean(e.getKey())).append('=').append(e.getValue());
+        }
+        for (Map.Entry<String, Number> e : metrics.entrySet()) {
+            sb.append("\tmetric.").append(clean(e.getKey())).append('=').append(e.getValue());
+        }
+        return sb.toString();
+    }
+
+    static RunRecord parse(String line) {
+        String[] f = line.split("\t");
+        if (f.length < 7) {
+            throw new IllegalArgumentException("Malformed history record: " + line);
+        }
+        Map<String, Long> phases = new LinkedHashMap<>();
+        Map<String, Number> metrics = new LinkedHashMap<>();
+        for (int i = 7; i < f.length; i++) {
+            int eq = f[i].indexOf('=');
+            String key = f[i].substring(0, eq);
+            String value = f[i].substring(eq + 1);
+            if (key.startsWith("phase.")) {
+                phases.put(key.substring(6), Long.parseLong(value));
+            } else if (key.startsWith("metric.")) {
+                metrics.put(key.substring(7), parseNumber(value));
+            }
+        }
+        return new RunRecord(Long.parseLong(f[0]), f[1], f[2], f[3], f[4], f[5], Long.parseLong(f[6]), phases, metrics);
+    }
+
+    private static Number parseNumber(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return Double.parseDouble(value);
+        }
+    }
+
+    private static String clean(String s) {
+        return s == null ? "" : s.replace('\t', ' ').replace('\n', ' ');
+    }
+
+    @Override
+    public String toString() {
+        return toLine();
+    }
+}
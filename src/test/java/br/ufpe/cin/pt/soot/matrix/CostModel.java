@@ -0,0 +1,101 @@
+package br.ufpe.cin.pt.soot.matrix;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import br.ufpe.cin.pt.soot.CallGraphAlgorithm;
+import br.ufpe.cin.pt.soot.history.HistoryStore;
+import br.ufpe.cin.pt.soot.history.RunRecord;
+
+/**
+ * Duration and heap estimates for matrix jobs. Past runs of the same scenario and algorithm on
+ * this machine (from a {@link HistoryStore}) are used when there are any. Otherwise a prior ranks
+ * the algorithms by context depth, which is enough to start the expensive Qilin variants first.
+ */
+public final class CostModel {
+
+    /** Time a forked run spends outside its phases: JVM startup, class loading and teardown. */
+    public static final long JVM_STARTUP_MILLIS = 2000;
+    static final long BASE_MILLIS = 20_000;
+
+    private final HistoryStore history;
+    private final String machine;
+    private int defaultHeapMB = 4096;
+    private int minHeapMB = 512;
+    private int maxHeapMB = 16384;
+
+    /** Model over {@code history}, which may be null for priors only. */
+    public CostModel(HistoryStore history) {
+        this.history = history;
+        this.machine = RunRecord.currentMachine();
+    }
+
+    /** Heap for jobs without history. */
+    public CostModel setDefaultHeapMB(int defaultHeapMB) {
+        this.defaultHeapMB = defaultHeapMB;
+        return this;
+    }
+
+    /** Bounds of the estimated heap; the maximum also caps retries. */
+    public CostModel setHeapBoundsMB(int minHeapMB, int maxHeapMB) {
+        this.minHeapMB = minHeapMB;
+        this.maxHeapMB = maxHeapMB;
+        return this;
+    }
+
+    public int getMaxHeapMB() {
+        return maxHeapMB;
+    }
+
+    /** Median total time of the past successful runs plus JVM startup, or the prior. */
+    public long estimateMillis(String scenario, CallGraphAlgorithm algorithm) {
+        List<Double> totals = measures(scenario, algorithm, "totalMs");
+        if (totals.isEmpty()) return (long) (BASE_MILLIS * prior(algorithm));
+        return (long) median(totals) + JVM_STARTUP_MILLIS;
+    }
+
+    /**
+     * 1.3 times the median past peak heap, rounded up to 256 MB and kept within the bounds, or the
+     * default heap.
+     */
+    public int estimateHeapMB(String scenario, CallGraphAlgorithm algorithm) {
+        List<Double> peaks = measures(scenario, algorithm, "peakHeapMB");
+        if (peaks.isEmpty()) return defaultHeapMB;
+        int heap = (int) Math.ceil(median(peaks) * 1.3 / 256) * 256;
+        return Math.max(minHeapMB, Math.min(maxHeapMB, heap));
+    }
+
+    private List<Double> measures(String scenario, CallGraphAlgorithm algorithm, String measure) {
+        List<Double> values = new ArrayList<>();
+        if (history == null) return values;
+        for (RunRecord r : history.series(scenario, algorithm.getName(), machine)) {
+            Double v = r.measure(measure);
+            if (v != null) values.add(v);
+        }
+        return values;
+    }
+
+    private static double median(List<Double> values) {
+        List<Double> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        int n = sorted.size();
+        return n % 2 == 1 ? sorted.get(n / 2) : (sorted.get(n / 2 - 1) + sorted.get(n / 2)) / 2;
+    }
+
+    /**
+     * Relative cost prior: Soot algorithms 1, insensitive Qilin 2, {@code k}-limited Qilin {@code 2 * 4^k}
+     * (heap contexts count as one more level), and pre-analysis guided variants half of their 2-level base.
+     * Heap merging ({@code -mh}) is priced as the variant it coarsens.
+     */
+    public static double prior(CallGraphAlgorithm algorithm) {
+        String name = algorithm.getName();
+        if (name.startsWith("soot::")) return 1;
+        String variant = name.substring("qilin::".length()).toLowerCase().replaceAll("-mh$", "");
+        if (variant.equals("insens")) return 2;
+        if (variant.contains("-")) return 16;  // bean-2o, zipper-2c, ...: selective 2-level
+        int k = Character.getNumericValue(variant.charAt(0));
+        if (variant.contains("h")) k++;
+        return 2 * Math.pow(4, k);
+    }
+}
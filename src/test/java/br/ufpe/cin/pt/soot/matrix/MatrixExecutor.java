@@ -0,0 +1,269 @@
+package br.ufpe.cin.pt.soot.matrix;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import br.ufpe.cin.pt.soot.CallGraphAlgorithm;
+import br.ufpe.cin.pt.soot.ForkedRun;
+import br.ufpe.cin.pt.soot.RunReport;
+import br.ufpe.cin.pt.soot.TestConfiguration;
+import br.ufpe.cin.pt.soot.history.HistoryStore;
+import br.ufpe.cin.pt.soot.history.RunRecord;
+
+/**
+ * Runs the algorithm x scenario matrix on a pool of local workers, every job in a fresh JVM
+ * ({@link ForkedRun}), so the wall time approaches the total work divided by the workers.
+ * <ul>
+ *   <li>Longest first: jobs are dealt out by the LPT rule on their {@link CostModel} estimates, and
+ *       every worker runs its own queue longest first, so 3HT-style runs never start last.</li>
+ *   <li>Heap-aware admission: a job starts only while the heaps of the running jobs and its own
+ *       fit the memory budget. A worker whose next job does not fit takes a smaller one. A job
+ *       larger than the whole budget runs once nothing else is running.</li>
+ *   <li>Work stealing: a worker whose own queue has nothing that fits steals the longest fitting
+ *       job of another queue.</li>
+ *   <li>Retries: a run that ran out of memory goes back to the front of its worker's queue with
+ *       twice the heap, up to the model's maximum heap and {@code maxAttempts}.</li>
+ * </ul>
+ */
+public final class MatrixExecutor {
+
+    /** Runs one attempt of a job; the default forks a worker JVM with the job's heap. */
+    public interface JobRunner {
+        ForkedRun.Outcome run(MatrixJob job);
+    }
+
+    private final CostModel model;
+    private int workers = Runtime.getRuntime().availableProcessors();
+    private long memoryBudgetMB = defaultMemoryBudgetMB();
+    private long timeoutSeconds = 3600;
+    private int maxAttempts = 3;
+    private HistoryStore history;
+    private JobRunner runner = job -> new ForkedRun(job.getConfiguration())
+            .setHeapMB(job.getHeapMB())
+            .setTimeoutSeconds(timeoutSeconds)
+            .execute();
+
+    // scheduler state, guarded by this
+    private List<Deque<MatrixJob>> queues;
+    private long usedHeapMB;
+    private int running;
+    private List<MatrixReport.Result> results;
+    private long startNanos;
+
+    public MatrixExecutor(CostModel model) {
+        this.model = model;
+    }
+
+    public MatrixExecutor setWorkers(int workers) {
+        this.workers = workers;
+        return this;
+    }
+
+    /** Total heap of concurrently running jobs; defaults to 80% of physical memory. */
+    public MatrixExecutor setMemoryBudgetMB(long memoryBudgetMB) {
+        this.memoryBudgetMB = memoryBudgetMB;
+        return this;
+    }
+
+    public MatrixExecutor setTimeoutSeconds(long timeoutSeconds) {
+        this.timeoutSeconds = timeoutSeconds;
+        return this;
+    }
+
+    public MatrixExecutor setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+        return this;
+    }
+
+    /** Every attempt is appended here, so the next matrix is scheduled from this one's costs. */
+    public MatrixExecutor setHistory(HistoryStore history) {
+        this.history = history;
+        return this;
+    }
+
+    /** Replaces the forked JVM, e.g. to dry-run a schedule. */
+    public MatrixExecutor setRunner(JobRunner runner) {
+        this.runner = runner;
+        return this;
+    }
+
+    private static long defaultMemoryBudgetMB() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean) {
+            return (long) ((((com.sun.management.OperatingSystemMXBean) os).getTotalPhysicalMemorySize() >> 20) * 0.8);
+        }
+        return 8192;
+    }
+
+    /** One job per scenario and algorithm, each on its own copy of the scenario's configuration. */
+    public List<MatrixJob> plan(List<TestConfiguration> scenarios, List<CallGraphAlgorithm> algorithms) {
+        List<MatrixJob> jobs = new ArrayList<>();
+        for (TestConfiguration scenario : scenarios) {
+            for (CallGraphAlgorithm algorithm : algorithms) {
+                TestConfiguration config = scenario.copy().setCallGraph(algorithm);
+                String name = config.getScenario();
+                jobs.add(new MatrixJob(name, config, model.estimateMillis(name, algorithm),
+                        model.estimateHeapMB(name, algorithm)));
+            }
+        }
+        return jobs;
+    }
+
+    /** Runs every job and blocks until all have a final outcome. */
+    public MatrixReport run(List<MatrixJob> jobs) {
+        List<MatrixJob> sorted = new ArrayList<>(jobs);
+        sorted.sort((a, b) -> Long.compare(b.getEstimatedMillis(), a.getEstimatedMillis()));
+        int n = Math.max(1, Math.min(workers, sorted.size()));
+        synchronized (this) {
+            queues = new ArrayList<>();
+            long[] load = new long[n];
+            for (int w = 0; w < n; w++) {
+                queues.add(new ArrayDeque<>());
+            }
+            for (MatrixJob job : sorted) {
+                int least = 0;
+                for (int w = 1; w < n; w++) {
+                    if (load[w] < load[least]) least = w;
+                }
+                queues.get(least).addLast(job);
+                load[least] += job.getEstimatedMillis();
+            }
+            usedHeapMB = 0;
+            running = 0;
+            results = new ArrayList<>();
+            startNanos = System.nanoTime();
+        }
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < n; w++) {
+            final int worker = w;
+            Thread t = new Thread(() -> work(worker), "matrix-worker-" + w);
+            threads.add(t);
+            t.start();
+        }
+        try {
+            for (Thread t : threads) {
+                t.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while running the matrix", e);
+        }
+        synchronized (this) {
+            return new MatrixReport(results, n, elapsedMillis());
+        }
+    }
+
+    private void work(int worker) {
+        while (true) {
+            Pick pick = take(worker);
+            if (pick == null) return;
+            MatrixJob job = pick.job;
+            long start = elapsedMillis();
+            job.attempted();
+            ForkedRun.Outcome outcome;
+            try {
+                outcome = runner.run(job);
+            } catch (RuntimeException e) {
+                outcome = new ForkedRun.Outcome(ForkedRun.Status.FAILED, null,
+                        new RunReport(job.getConfiguration().getAlgorithm()), -1, elapsedMillis() - start, String.valueOf(e));
+            }
+            long end = elapsedMillis();
+            job.addWork(end - start);
+            if (history != null) {
+                history.append(RunRecord.of(job.getScenario(), outcome.status.name(), outcome.report, outcome.peakHeapMB));
+            }
+            finish(worker, pick, outcome, start, end);
+        }
+    }
+
+    private synchronized void finish(int worker, Pick pick, ForkedRun.Outcome outcome, long start, long end) {
+        MatrixJob job = pick.job;
+        usedHeapMB -= job.getHeapMB();
+        running--;
+        boolean retry = outcome.status == ForkedRun.Status.OUT_OF_MEMORY && job.getAttempts() < maxAttempts
+                && job.getHeapMB() < model.getMaxHeapMB();
+        if (retry) {
+            job.setHeapMB(Math.min(model.getMaxHeapMB(), job.getHeapMB() * 2));
+            queues.get(worker).addFirst(job);
+        } else {
+            results.add(new MatrixReport.Result(job, outcome, worker, pick.stolen, start, end, job.getWorkMillis()));
+        }
+        notifyAll();
+    }
+
+    /** Next job for the worker, admitted against the budget; null once every queue is drained. */
+    private synchronized Pick take(int worker) {
+        while (true) {
+            long free = memoryBudgetMB - usedHeapMB;
+            MatrixJob job = firstFitting(queues.get(worker), free);
+            boolean stolen = false;
+            if (job == null) {
+                job = longestFittingElsewhere(worker, free);
+                stolen = job != null;
+            }
+            if (job == null && running == 0) {
+                job = longestFittingElsewhere(-1, Long.MAX_VALUE);  // too large for the budget: run it alone
+                stolen = job != null && !queues.get(worker).contains(job);
+            }
+            if (job != null) {
+                for (Deque<MatrixJob> q : queues) {
+                    q.remove(job);
+                }
+                usedHeapMB += job.getHeapMB();
+                running++;
+                return new Pick(job, stolen);
+            }
+            if (running == 0) {
+                return null;
+            }
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+    }
+
+    private static MatrixJob firstFitting(Deque<MatrixJob> queue, long free) {
+        for (Iterator<MatrixJob> it = queue.iterator(); it.hasNext(); ) {
+            MatrixJob job = it.next();
+            if (job.getHeapMB() <= free) return job;
+        }
+        return null;
+    }
+
+    /** Longest job that fits among the queues of the other workers (all queues for {@code worker < 0}). */
+    private MatrixJob longestFittingElsewhere(int worker, long free) {
+        MatrixJob best = null;
+        for (int w = 0; w < queues.size(); w++) {
+            if (w == worker) continue;
+            for (MatrixJob job : queues.get(w)) {
+                if (job.getHeapMB() <= free && (best == null || job.getEstimatedMillis() > best.getEstimatedMillis())) {
+                    best = job;
+                }
+            }
+        }
+        return best;
+    }
+
+    private long elapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private static final class Pick {
+        final MatrixJob job;
+        final boolean stolen;
+
+        Pick(MatrixJob job, boolean stolen) {
+            this.job = job;
+            this.stolen = stolen;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package br.ufpe.cin.pt.soot.matrix;
+
+import br.ufpe.cin.pt.soot.TestConfiguration;
+
+/**
+ * One cell of the algorithm x scenario matrix, with the cost estimates the executor schedules by.
+ * The heap grows when a run is retried after running out of memory.
+ */
+public final class MatrixJob {
+
+    private final String scenario;
+    private final TestConfiguration config;
+    private final long estimatedMillis;
+    private int heapMB;
+    private int attempts;
+    private long workMillis;
+
+    MatrixJob(String scenario, TestConfiguration config, long estimatedMillis, int heapMB) {
+        this.scenario = scenario;
+        this.config = config;
+        this.estimatedMillis = estimatedMillis;
+        this.heapMB = heapMB;
+    }
+
+    public String getScenario() {
+        return scenario;
+    }
+
+    public TestConfiguration getConfiguration() {
+        return config;
+    }
+
+    public long getEstimatedMillis() {
+        return estimatedMillis;
+    }
+
+    /** Heap of the next attempt. */
+    public int getHeapMB() {
+        return heapMB;
+    }
+
+    void setHeapMB(int heapMB) {
+        this.heapMB = heapMB;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    void attempted() {
+        attempts++;
+    }
+
+    /** Wall time of all attempts so far. */
+    public long getWorkMillis() {
+        return workMillis;
+    }
+
+    void addWork(long millis) {
+        workMillis += millis;
+    }
+
+    @Override
+    public String toString() {
+        return scenario + " " + config.getAlgorithm().getName();
+    }
+}
@@ -0,0 +1,125 @@
+package br.ufpe.cin.pt.soot.matrix;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import br.ufpe.cin.pt.soot.ForkedRun;
+
+/** Outcome of every job of one {@link MatrixExecutor} run, with the schedule it followed. */
+public final class MatrixReport {
+
+    /** Final outcome of one job. */
+    public static final class Result {
+        public final MatrixJob job;
+        public final ForkedRun.Outcome outcome;
+        public final int worker;
+        public final boolean stolen;
+        public final long startMillis;  // of the last attempt, relative to the start of the matrix
+        public final long endMillis;
+        public final long workMillis;   // wall time of all attempts
+
+        Result(MatrixJob job, ForkedRun.Outcome outcome, int worker, boolean stolen,
+               long startMillis, long endMillis, long workMillis) {
+            this.job = job;
+            this.outcome = outcome;
+            this.worker = worker;
+            this.stolen = stolen;
+            this.startMillis = startMillis;
+            this.endMillis = endMillis;
+            this.workMillis = workMillis;
+        }
+    }
+
+    private final List<Result> results;
+    private final int workers;
+    private final long wallMillis;
+
+    MatrixReport(List<Result> results, int workers, long wallMillis) {
+        List<Result> sorted = new ArrayList<>(results);
+        sorted.sort(Comparator.comparing((Result r) -> r.job.getScenario())
+                .thenComparing(r -> r.job.getConfiguration().getAlgorithm()));
+        this.results = Collections.unmodifiableList(sorted);
+        this.workers = workers;
+        this.wallMillis = wallMillis;
+    }
+
+    /** Results ordered by scenario, then algorithm. */
+    public List<Result> getResults() {
+        return results;
+    }
+
+    public long getWallMillis() {
+        return wallMillis;
+    }
+
+    /** Sum of the wall times of all attempts of all jobs. */
+    public long getWorkMillis() {
+        long work = 0;
+        for (Result r : results) {
+            work += r.workMillis;
+        }
+        return work;
+    }
+
+    /** Work divided by (wall time x workers); 1.0 is a perfectly packed schedule. */
+    public double efficiency() {
+        return wallMillis == 0 ? 1.0 : (double) getWorkMillis() / ((double) wallMillis * workers);
+    }
+
+    public List<Result> failures() {
+        List<Result> failed = new ArrayList<>();
+        for (Result r : results) {
+            if (r.outcome.status != ForkedRun.Status.OK) failed.add(r);
+        }
+        return failed;
+    }
+
+    public String format() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-40s %-18s %-13s %-28s %9s %9s %7s %4s%n", "scenario", "algorithm", "status",
+                "result", "wall ms", "est ms", "heap MB", "try"));
+        for (Result r : results) {
+            sb.append(String.format("%-40s %-18s %-13s %-28s %9d %9d %7d %4d%s%n", r.job.getScenario(),
+                    r.job.getConfiguration().getAlgorithm().getName(), r.outcome.status,
+                    r.outcome.result == null ? "-" : r.outcome.result, r.outcome.wallMillis,
+                    r.job.getEstimatedMillis(), r.job.getHeapMB(), r.job.getAttempts(), r.stolen ? " stolen" : ""));
+        }
+        sb.append(String.format("%d jobs, %d failed, %d workers: wall %d ms, work %d ms, efficiency %.0f%%%n",
+                results.size(), failures().size(), workers, wallMillis, getWorkMillis(), 100 * efficiency()));
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return format();
+    }
+
+    /** One line per job, with the schedule columns (worker, start, end) for plotting. */
+    public void writeTsv(File file) {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) parent.mkdirs();
+        try (BufferedWriter out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            out.write("scenario\talgorithm\tstatus\tresult\twallMs\testimatedMs\theapMB\tpeakHeapMB\tattempts\tworker\tstolen\tstartMs\tendMs");
+            out.newLine();
+            for (Result r : results) {
+                out.write(String.join("\t", r.job.getScenario(), r.job.getConfiguration().getAlgorithm().getName(),
+                        r.outcome.status.name(), r.outcome.result == null ? "" : r.outcome.result.name(),
+                        Long.toString(r.outcome.wallMillis), Long.toString(r.job.getEstimatedMillis()),
+                        Integer.toString(r.job.getHeapMB()), Long.toString(r.outcome.peakHeapMB),
+                        Integer.toString(r.job.getAttempts()), Integer.toString(r.worker), Boolean.toString(r.stolen),
+                        Long.toString(r.startMillis), Long.toString(r.endMillis)));
+                out.newLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write matrix report to " + file, e);
+        }
+    }
+}
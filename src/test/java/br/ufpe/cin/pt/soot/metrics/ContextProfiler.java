@@ -0,0 +1,229 @@
+package br.ufpe.cin.pt.soot.metrics;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+
+import br.ufpe.cin.pt.soot.pta.AllocationSites;
+import qilin.core.PointsToAnalysis;
+import qilin.core.context.Context;
+import qilin.core.pag.AllocNode;
+import qilin.core.pag.ContextAllocNode;
+import qilin.core.pag.ContextVarNode;
+import qilin.core.pag.LocalVarNode;
+import qilin.core.pag.ValNode;
+import qilin.core.pag.VarNode;
+import soot.Local;
+
+/**
+ * Where a Qilin run spent its contexts. One pass over the PAG's value nodes groups the
+ * context-sensitive pointers by method (distinct contexts, cs-pointer count, total points-to
+ * volume), and one pass over the allocation nodes counts heap contexts per allocation site.
+ * The largest cs-pointers by set size are kept in a bounded heap.
+ * <p>
+ * The methods and sites at the top of these rankings are where selective context sensitivity
+ * (or a cheaper context for them) pays off.
+ */
+public final class ContextProfiler {
+
+    /** Totals for the context-sensitive pointers of one method. */
+    public static final class MethodProfile {
+        public final String method;
+        public int contexts;
+        public int csPointers;
+        public long volume;
+        private final Set<Context> seen = new HashSet<>();
+
+        MethodProfile(String method) {
+            this.method = method;
+        }
+    }
+
+    /** Heap contexts of one allocation site. */
+    public static final class HeapProfile {
+        public final String site;
+        public final String type;
+        public int contexts;
+
+        HeapProfile(String site, String type) {
+            this.site = site;
+            this.type = type;
+        }
+    }
+
+    /** One context-sensitive local pointer and the size of its propagated set. */
+    public static final class PointerProfile {
+        public final String method;
+        public final String local;
+        public final String context;
+        public final int size;
+
+        PointerProfile(String method, String local, String context, int size) {
+            this.method = method;
+            this.local = local;
+            this.context = context;
+            this.size = size;
+        }
+    }
+
+    private final List<MethodProfile> methods;
+    private final List<HeapProfile> heap;
+    private final List<PointerProfile> largestPointers;
+    private final long csPointers;
+
+    private ContextProfiler(List<MethodProfile> methods, List<HeapProfile> heap,
+                            List<PointerProfile> largestPointers, long csPointers) {
+        this.methods = methods;
+        this.heap = heap;
+        this.largestPointers = largestPointers;
+        this.csPointers = csPointers;
+    }
+
+    /** Profiles a finished run, keeping the {@code keepPointers} largest cs-pointers. */
+    public static ContextProfiler profile(PointsToAnalysis pta, int keepPointers) {
+        Map<String, MethodProfile> byMethod = new HashMap<>();
+        PriorityQueue<PointerProfile> largest = new PriorityQueue<>(Comparator.comparingInt(p -> p.size));
+        long total = 0;
+        for (ValNode n : pta.getPag().getValNodeNumberer()) {
+            if (!(n instanceof ContextVarNode)) continue;
+            ContextVarNode cvn = (ContextVarNode) n;
+            VarNode base = cvn.base();
+            if (!(base instanceof LocalVarNode) || !(base.getVariable() instanceof Local)) continue;
+            Local local = (Local) base.getVariable();
+            String method = ((LocalVarNode) base).getMethod().getSignature();
+            int size = pta.reachingObjects(cvn.context(), local).size();
+            MethodProfile mp = byMethod.computeIfAbsent(method, MethodProfile::new);
+            if (mp.seen.add(cvn.context())) mp.contexts++;
+            mp.csPointers++;
+            mp.volume += size;
+            total++;
+            if (keepPointers > 0 && (largest.size() < keepPointers || size > largest.peek().size)) {
+                largest.add(new PointerProfile(method, local.getName(), String.valueOf(cvn.context()), size));
+                if (largest.size() > keepPointers) largest.poll();
+            }
+        }
+
+        AllocationSites names = new AllocationSites();
+        Map<String, HeapProfile> bySite = new HashMap<>();
+        for (AllocNode a : pta.getPag().getAllocNodeNumberer()) {
+            AllocNode base = a instanceof ContextAllocNode ? ((ContextAllocNode) a).base() : a;
+            String site = names.of(base.getMethod(), base.getNewExpr(), base.getType()).getSignature();
+            HeapProfile hp = bySite.computeIfAbsent(site, k -> new HeapProfile(k, String.valueOf(base.getType())));
+            if (a instanceof ContextAllocNode) hp.contexts++;
+        }
+
+        List<MethodProfile> methods = new ArrayList<>(byMethod.values());
+        for (MethodProfile mp : methods) mp.seen.clear();
+        List<PointerProfile> pointers = new ArrayList<>(largest);
+        pointers.sort(Comparator.comparingInt((PointerProfile p) -> p.size).reversed());
+        return new ContextProfiler(methods, new ArrayList<>(bySite.values()), pointers, total);
+    }
+
+    public long csPointerCount() {
+        return csPointers;
+    }
+
+    public long contextCount() {
+        long n = 0;
+        for (MethodProfile mp : methods) n += mp.contexts;
+        return n;
+    }
+
+    public long heapContextCount() {
+        long n = 0;
+        for (HeapProfile hp : heap) n += hp.contexts;
+        return n;
+    }
+
+    public List<MethodProfile> methodsByContexts(int limit) {
+        return top(methods, mp -> mp.contexts, limit);
+    }
+
+    public List<MethodProfile> methodsByCsPointers(int limit) {
+        return top(methods, mp -> mp.csPointers, limit);
+    }
+
+    public List<HeapProfile> heapByContexts(int limit) {
+        return top(heap, hp -> hp.contexts, limit);
+    }
+
+    /** The largest cs-pointers by set size, at most as many as were kept by {@link #profile}. */
+    public List<PointerProfile> pointersBySize(int limit) {
+        return largestPointers.size() > limit ? new ArrayList<>(largestPointers.subList(0, limit)) : largestPointers;
+    }
+
+    private static <T> List<T> top(List<T> items, ToLongFunction<T> key, int limit) {
+        List<T> sorted = new ArrayList<>(items);
+        sorted.sort(Comparator.comparingLong(key).reversed());
+        return sorted.size() > limit ? new ArrayList<>(sorted.subList(0, limit)) : sorted;
+    }
+
+    /** Top-{@code n} tables for each ranking. */
+    public String format(int n) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%d contexts over %d cs-pointers, %d heap contexts%n",
+                contextCount(), csPointers, heapContextCount()));
+        sb.append(String.format("methods by contexts%n"));
+        for (MethodProfile mp : methodsByContexts(n)) {
+            sb.append(String.format("  %8d  %s%n", mp.contexts, mp.method));
+        }
+        sb.append(String.format("methods by cs-pointers (volume)%n"));
+        for (MethodProfile mp : methodsByCsPointers(n)) {
+            sb.append(String.format("  %8d  %10d  %s%n", mp.csPointers, mp.volume, mp.method));
+        }
+        sb.append(String.format("allocation sites by heap contexts%n"));
+        for (HeapProfile hp : heapByContexts(n)) {
+            sb.append(String.format("  %8d  %s (%s)%n", hp.contexts, hp.site, hp.type));
+        }
+        sb.append(String.format("cs-pointers by set size%n"));
+        for (PointerProfile p : pointersBySize(n)) {
+            sb.append(String.format("  %8d  %s %s %s%n", p.size, p.method, p.local, p.context));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return format(20);
+    }
+
+    /**
+     * Tab-separated dump of every method and site plus the kept pointers, one row each:
+     * {@code method sig contexts csPointers volume}, {@code heap site type contexts} and
+     * {@code pointer method local context size}.
+     */
+    public void write(File file) {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) parent.mkdirs();
+        try (BufferedWriter out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            out.write("# pt context profile v1");
+            out.newLine();
+            for (MethodProfile mp : methodsByCsPointers(Integer.MAX_VALUE)) {
+                out.write("method\t" + mp.method + "\t" + mp.contexts + "\t" + mp.csPointers + "\t" + mp.volume);
+                out.newLine();
+            }
+            for (HeapProfile hp : heapByContexts(Integer.MAX_VALUE)) {
+                out.write("heap\t" + hp.site + "\t" + hp.type + "\t" + hp.contexts);
+                out.newLine();
+            }
+            for (PointerProfile p : largestPointers) {
+                out.write("pointer\t" + p.method + "\t" + p.local + "\t" + p.context.replace('\t', ' ') + "\t" + p.size);
+                out.newLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write context profile to " + file, e);
+        }
+    }
+}
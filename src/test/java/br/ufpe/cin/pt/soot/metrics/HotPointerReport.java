@@ -0,0 +1,249 @@
+package br.ufpe.cin.pt.soot.metrics;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import br.ufpe.cin.pt.soot.RunReport;
+import br.ufpe.cin.pt.soot.pta.PTA;
+import soot.Local;
+import soot.RefLikeType;
+import soot.SootMethod;
+import soot.Unit;
+import soot.Value;
+import soot.jimple.DefinitionStmt;
+import soot.jimple.IdentityStmt;
+import soot.jimple.Stmt;
+import soot.jimple.toolkits.callgraph.CallGraph;
+
+/**
+ * Distribution of points-to set sizes and the pointers that dominate propagation cost.
+ * <p>
+ * A pointer's propagation work is estimated as its set size times its in-degree: every incoming
+ * flow may deliver the whole set. The in-degree is read from the method body rather than from
+ * solver internals: one per assignment to the local, one per incoming call edge for parameters
+ * and {@code this}, and one per call target for locals assigned from calls. Work is also summed
+ * per declaring class, which points at the library classes worth stubbing or heap-merging.
+ */
+public final class HotPointerReport {
+
+    /** One pointer's contribution. */
+    public static final class HotPointer {
+        public final String method;
+        public final String local;
+        public final String type;
+        public final int size;
+        public final int inDegree;
+
+        HotPointer(String method, String local, String type, int size, int inDegree) {
+            this.method = method;
+            this.local = local;
+            this.type = type;
+            this.size = size;
+            this.inDegree = inDegree;
+        }
+
+        public long work() {
+            return (long) size * inDegree;
+        }
+    }
+
+    private final long[] histogram = new long[33];
+    private final List<HotPointer> hottest;
+    private final Map<String, Long> workByClass;
+    private final long pointers;
+    private final long totalWork;
+    private final int maxSize;
+
+    private HotPointerReport(long[] histogram, List<HotPointer> hottest, Map<String, Long> workByClass,
+                             long pointers, long totalWork, int maxSize) {
+        System.arraycopy(histogram, 0, this.histogram, 0, histogram.length);
+        this.hottest = hottest;
+        this.workByClass = workByClass;
+        this.pointers = pointers;
+        this.totalWork = totalWork;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Measures every reference-typed local of the reachable methods, keeping the {@code top} hottest.
+     * Rejects analyses without points-to sets (CHA), whose every pointer would look cold.
+     */
+    public static HotPointerReport collect(PTA pta, int top) {
+        if (!pta.enumeratesObjects()) {
+            throw new IllegalArgumentException("A hot pointer report needs an analysis with points-to sets");
+        }
+        CallGraph cg = pta.getCallGraph();
+        long[] histogram = new long[33];
+        PriorityQueue<HotPointer> hottest = new PriorityQueue<>(Comparator.comparingLong(HotPointer::work));
+        Map<String, Long> workByClass = new HashMap<>();
+        long pointers = 0;
+        long totalWork = 0;
+        int maxSize = 0;
+        for (SootMethod m : pta.getReachableMethods()) {
+            if (!m.hasActiveBody()) continue;
+            int callers = count(cg.edgesInto(m));
+            Map<Local, Integer> inDegree = new IdentityHashMap<>();
+            for (Unit u : m.getActiveBody().getUnits()) {
+                if (!(u instanceof DefinitionStmt) || !(((DefinitionStmt) u).getLeftOp() instanceof Local)) continue;
+                Local l = (Local) ((DefinitionStmt) u).getLeftOp();
+                int flows;
+                if (u instanceof IdentityStmt) {
+                    flows = Math.max(callers, 1);
+                } else if (((Stmt) u).containsInvokeExpr()) {
+                    flows = Math.max(count(cg.edgesOutOf(u)), 1);
+                } else {
+                    flows = 1;
+                }
+                inDegree.merge(l, flows, Integer::sum);
+            }
+            String declaring = m.getDeclaringClass().getName();
+            for (Local l : m.getActiveBody().getLocals()) {
+                if (!(l.getType() instanceof RefLikeType)) continue;
+                int size = pta.pointsToSet(l).length;
+                int in = inDegree.getOrDefault(l, 0);
+                histogram[bucket(size)]++;
+                pointers++;
+                maxSize = Math.max(maxSize, size);
+                HotPointer p = new HotPointer(m.getSignature(), l.getName(), String.valueOf(l.getType()), size, in);
+                totalWork += p.work();
+                workByClass.merge(declaring, p.work(), Long::sum);
+                if (top > 0 && (hottest.size() < top || p.work() > hottest.peek().work())) {
+                    hottest.add(p);
+                    if (hottest.size() > top) hottest.poll();
+                }
+            }
+        }
+        List<HotPointer> sorted = new ArrayList<>(hottest);
+        sorted.sort(Comparator.comparingLong(HotPointer::work).reversed());
+        return new HotPointerReport(histogram, sorted, workByClass, pointers, totalWork, maxSize);
+    }
+
+    private static int count(Iterator<?> it) {
+        int n = 0;
+        while (it.hasNext()) {
+            it.next();
+            n++;
+        }
+        return n;
+    }
+
+    /** Bucket 0 holds empty sets, bucket {@code k > 0} sizes in {@code [2^(k-1), 2^k)}. */
+    static int bucket(int size) {
+        return size == 0 ? 0 : 32 - Integer.numberOfLeadingZeros(size);
+    }
+
+    /** Number of pointers whose set size falls in the bucket; see {@link #bucket(int)}. */
+    public long histogram(int bucket) {
+        return histogram[bucket];
+    }
+
+    public long pointerCount() {
+        return pointers;
+    }
+
+    public long totalWork() {
+        return totalWork;
+    }
+
+    public int maxSize() {
+        return maxSize;
+    }
+
+    /** Hottest pointers by estimated work, largest first. */
+    public List<HotPointer> hottest() {
+        return hottest;
+    }
+
+    /** Declaring classes by summed work, largest first. */
+    public List<Map.Entry<String, Long>> hottestClasses(int limit) {
+        List<Map.Entry<String, Long>> sorted = new ArrayList<>(workByClass.entrySet());
+        sorted.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        return sorted.size() > limit ? new ArrayList<>(sorted.subList(0, limit)) : sorted;
+    }
+
+    public void addTo(RunReport report) {
+        report.addMetric("hot.pointers", pointers);
+        report.addMetric("hot.maxSize", maxSize);
+        report.addMetric("hot.totalWork", totalWork);
+        if (!hottest.isEmpty() && totalWork > 0) {
+            report.addMetric("hot.topShare", (double) hottest.get(0).work() / totalWork);
+        }
+    }
+
+    public String format(int n) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%d pointers, max set size %d, estimated work %d%n", pointers, maxSize, totalWork));
+        sb.append(String.format("set sizes%n"));
+        for (int b = 0; b < histogram.length; b++) {
+            if (histogram[b] == 0) continue;
+            sb.append(String.format("  %12s  %10d%n", range(b), histogram[b]));
+        }
+        sb.append(String.format("hottest pointers (size x in-degree = work, share)%n"));
+        for (int i = 0; i < Math.min(n, hottest.size()); i++) {
+            HotPointer p = hottest.get(i);
+            sb.append(String.format("  %6d x %4d = %10d  %5.1f%%  %s %s : %s%n", p.size, p.inDegree, p.work(),
+                    share(p.work()), p.method, p.local, p.type));
+        }
+        sb.append(String.format("hottest classes%n"));
+        for (Map.Entry<String, Long> e : hottestClasses(n)) {
+            sb.append(String.format("  %10d  %5.1f%%  %s%n", e.getValue(), share(e.getValue()), e.getKey()));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return format(20);
+    }
+
+    /** Tab-separated {@code histogram lo hi count}, {@code pointer ...} and {@code class name work} rows. */
+    public void write(File file) {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) parent.mkdirs();
+        try (BufferedWriter out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            out.write("# pt hot pointers v1");
+            out.newLine();
+            for (int b = 0; b < histogram.length; b++) {
+                if (histogram[b] == 0) continue;
+                long lo = b == 0 ? 0 : 1L << (b - 1);
+                long hi = b == 0 ? 0 : (1L << b) - 1;
+                out.write("histogram\t" + lo + "\t" + hi + "\t" + histogram[b]);
+                out.newLine();
+            }
+            for (HotPointer p : hottest) {
+                out.write("pointer\t" + p.method + "\t" + p.local + "\t" + p.type + "\t" + p.size + "\t"
+                        + p.inDegree + "\t" + p.work());
+                out.newLine();
+            }
+            for (Map.Entry<String, Long> e : hottestClasses(Integer.MAX_VALUE)) {
+                out.write("class\t" + e.getKey() + "\t" + e.getValue());
+                out.newLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write hot pointer report to " + file, e);
+        }
+    }
+
+    private double share(long work) {
+        return totalWork == 0 ? 0 : 100.0 * work / totalWork;
+    }
+
+    private static String range(int bucket) {
+        if (bucket == 0) return "0";
+        long lo = 1L << (bucket - 1);
+        long hi = (1L << bucket) - 1;
+        return lo == hi ? Long.toString(lo) : lo + "-" + hi;
+    }
+}
@@ -0,0 +1,210 @@
+package br.ufpe.cin.pt.soot.metrics;
+
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import br.ufpe.cin.pt.soot.RunReport;
+import br.ufpe.cin.pt.soot.pta.PTA;
+import soot.FastHierarchy;
+import soot.Local;
+import soot.RefLikeType;
+import soot.Scene;
+import soot.SootMethod;
+import soot.Type;
+import soot.Unit;
+import soot.Value;
+import soot.jimple.AssignStmt;
+import soot.jimple.CastExpr;
+import soot.jimple.InterfaceInvokeExpr;
+import soot.jimple.InvokeExpr;
+import soot.jimple.Stmt;
+import soot.jimple.VirtualInvokeExpr;
+import soot.jimple.toolkits.callgraph.CallGraph;
+import soot.jimple.toolkits.callgraph.Edge;
+
+/**
+ * The usual client precision metrics of a solved run, for application code and for the whole
+ * program: reachable methods, call graph edges, polymorphic virtual call sites, casts that may
+ * fail, and the average and maximum points-to set size of reference-typed locals.
+ * <p>
+ * Everything is collected in one pass over the bodies of the reachable methods. Each local's set
+ * is fetched once through {@link PTA#pointsToSet(Local)} and reused by the cast check. For PTAs
+ * without points-to sets (CHA, see {@link PTA#enumeratesObjects()}), the set-based metrics are left out.
+ */
+public final class PrecisionMetrics {
+
+    /** Counters for one scope (application or whole program). */
+    public static final class Scope {
+        public int reachableMethods;
+        public long callEdges;
+        public int virtualCallSites;
+        public int polymorphicCallSites;
+        public int casts;
+        public int mayFailCasts;
+        public int pointers;
+        public long pointsToTotal;
+        public int pointsToMax;
+
+        public double averagePointsTo() {
+            return pointers == 0 ? 0 : (double) pointsToTotal / pointers;
+        }
+    }
+
+    private final Scope application = new Scope();
+    private final Scope program = new Scope();
+    private final boolean pointsToAvailable;
+
+    private final PTA pta;
+    private final CallGraph cg;
+    private final FastHierarchy hierarchy;
+    private Type[] siteTypes;
+
+    private PrecisionMetrics(PTA pta) {
+        this.pta = pta;
+        this.pointsToAvailable = pta.enumeratesObjects();
+        this.cg = pta.getCallGraph();
+        this.hierarchy = Scene.v().getOrMakeFastHierarchy();
+    }
+
+    public static PrecisionMetrics collect(PTA pta) {
+        PrecisionMetrics metrics = new PrecisionMetrics(pta);
+        for (SootMethod m : pta.getReachableMethods()) {
+            metrics.visit(m, m.getDeclaringClass().isApplicationClass());
+        }
+        return metrics;
+    }
+
+    public Scope application() {
+        return application;
+    }
+
+    public Scope program() {
+        return program;
+    }
+
+    /** False when the PTA has no points-to sets, so casts and set sizes were not measured. */
+    public boolean isPointsToAvailable() {
+        return pointsToAvailable;
+    }
+
+    /** Adds every counter to the report as {@code metrics.app.*} and {@code metrics.all.*}. */
+    public void addTo(RunReport report) {
+        addTo(report, "metrics.app.", application);
+        addTo(report, "metrics.all.", program);
+    }
+
+    private void addTo(RunReport report, String prefix, Scope s) {
+        report.addMetric(prefix + "reachableMethods", s.reachableMethods);
+        report.addMetric(prefix + "callEdges", s.callEdges);
+        report.addMetric(prefix + "virtualCallSites", s.virtualCallSites);
+        report.addMetric(prefix + "polymorphicCallSites", s.polymorphicCallSites);
+        if (pointsToAvailable) {
+            report.addMetric(prefix + "casts", s.casts);
+            report.addMetric(prefix + "mayFailCasts", s.mayFailCasts);
+            report.addMetric(prefix + "avgPointsTo", s.averagePointsTo());
+            report.addMetric(prefix + "maxPointsTo", s.pointsToMax);
+        }
+    }
+
+    private void visit(SootMethod m, boolean app) {
+        count(app, s -> s.reachableMethods++);
+        Iterator<Edge> out = cg.edgesOutOf(m);
+        long edges = 0;
+        while (out.hasNext()) {
+            out.next();
+            edges++;
+        }
+        long edgeCount = edges;
+        count(app, s -> s.callEdges += edgeCount);
+        if (!m.hasActiveBody()) return;
+
+        Map<Local, int[]> sets = new IdentityHashMap<>();
+        if (pointsToAvailable) {
+            for (Local l : m.getActiveBody().getLocals()) {
+                if (!(l.getType() instanceof RefLikeType)) continue;
+                int[] set = pta.pointsToSet(l);
+                sets.put(l, set);
+                count(app, s -> {
+                    s.pointers++;
+                    s.pointsToTotal += set.length;
+                    s.pointsToMax = Math.max(s.pointsToMax, set.length);
+                });
+            }
+        }
+
+        for (Unit u : m.getActiveBody().getUnits()) {
+            Stmt stmt = (Stmt) u;
+            if (stmt.containsInvokeExpr()) {
+                InvokeExpr invoke = stmt.getInvokeExpr();
+                if (invoke instanceof VirtualInvokeExpr || invoke instanceof InterfaceInvokeExpr) {
+                    boolean polymorphic = distinctTargets(u) > 1;
+                    count(app, s -> {
+                        s.virtualCallSites++;
+                        if (polymorphic) s.polymorphicCallSites++;
+                    });
+                }
+            } else if (pointsToAvailable && stmt instanceof AssignStmt
+                    && ((AssignStmt) stmt).getRightOp() instanceof CastExpr) {
+                CastExpr cast = (CastExpr) ((AssignStmt) stmt).getRightOp();
+                Value op = cast.getOp();
+                if (!(cast.getCastType() instanceof RefLikeType) || !(op instanceof Local)) continue;
+                int[] set = sets.get(op);
+                if (set == null) continue;
+                boolean mayFail = mayFail(set, cast.getCastType());
+                count(app, s -> {
+                    s.casts++;
+                    if (mayFail) s.mayFailCasts++;
+                });
+            }
+        }
+    }
+
+    private int distinctTargets(Unit u) {
+        Iterator<Edge> edges = cg.edgesOutOf(u);
+        SootMethod first = null;
+        Set<SootMethod> targets = null;
+        while (edges.hasNext()) {
+            SootMethod tgt = edges.next().tgt();
+            if (first == null) {
+                first = tgt;
+            } else if (tgt != first) {
+                if (targets == null) {
+                    targets = new HashSet<>();
+                    targets.add(first);
+                }
+                targets.add(tgt);
+            }
+        }
+        return targets != null ? targets.size() : first == null ? 0 : 1;
+    }
+
+    /** Whether some object in the set has a type the cast rejects; unknown types count as failing. */
+    private boolean mayFail(int[] set, Type castType) {
+        for (int site : set) {
+            Type t = siteType(site);
+            if (t == null || !hierarchy.canStoreType(t, castType)) return true;
+        }
+        return false;
+    }
+
+    private Type siteType(int site) {
+        if (siteTypes == null || site >= siteTypes.length) {
+            Type[] grown = new Type[Math.max(pta.siteCount(), site + 1)];
+            if (siteTypes != null) System.arraycopy(siteTypes, 0, grown, 0, siteTypes.length);
+            siteTypes = grown;
+        }
+        if (siteTypes[site] == null) {
+            siteTypes[site] = Scene.v().getTypeUnsafe(pta.site(site).getType());
+        }
+        return siteTypes[site];
+    }
+
+    private void count(boolean app, Consumer<Scope> update) {
+        update.accept(program);
+        if (app) update.accept(application);
+    }
+}
@@ -0,0 +1,46 @@
+package br.ufpe.cin.pt.soot.pta;
+
+/**
+ * Backend-neutral name of an abstract object. The signature is stable across runs and
+ * algorithms, so sites from a Spark run and a Qilin run of the same program can be aligned.
+ */
+public final class AllocationSite {
+    private final String signature;
+    private final String type;
+
+    public AllocationSite(String signature, String type) {
+        this.signature = signature;
+        this.type = type;
+    }
+
+    /** {@code <method signature>/<ordinal>} for allocations in a body, the allocation expression otherwise. */
+    public String getSignature() {
+        return signature;
+    }
+
+    /** Signature of the method the allocation is in, or null for objects outside any method body. */
+    public String getMethodSignature() {
+        int end = signature.startsWith("<") ? signature.indexOf(">/") : -1;
+        return end < 0 ? null : signature.substring(0, end + 1);
+    }
+
+    /** Name of the allocated type. */
+    public String getType() {
+        return type;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof AllocationSite && signature.equals(((AllocationSite) o).signature);
+    }
+
+    @Override
+    public int hashCode() {
+        return signature.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return signature;
+    }
+}
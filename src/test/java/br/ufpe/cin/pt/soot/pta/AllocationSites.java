@@ -0,0 +1,57 @@
+package br.ufpe.cin.pt.soot.pta;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import soot.SootMethod;
+import soot.Type;
+import soot.Unit;
+import soot.Value;
+import soot.jimple.AnyNewExpr;
+import soot.jimple.AssignStmt;
+
+/**
+ * Names the allocation nodes of Spark and Qilin as {@link AllocationSite}s. An allocation inside
+ * a method body is identified by the method signature and the ordinal of its allocation
+ * expression in the body, which does not depend on how the PTA numbered its nodes.
+ */
+public final class AllocationSites {
+
+    private final Map<SootMethod, Map<Value, Integer>> ordinals = new HashMap<>();
+    private final Map<Object, AllocationSite> sites = new IdentityHashMap<>();
+
+    /** Site for an allocation node, given the node's method (may be null), allocation expression and type. */
+    public AllocationSite of(SootMethod method, Object newExpr, Type type) {
+        AllocationSite site = sites.get(newExpr);
+        if (site == null) {
+            site = new AllocationSite(signature(method, newExpr), String.valueOf(type));
+            sites.put(newExpr, site);
+        }
+        return site;
+    }
+
+    private String signature(SootMethod method, Object newExpr) {
+        if (method != null && newExpr instanceof Value && method.hasActiveBody()) {
+            Integer ordinal = ordinalsOf(method).get(newExpr);
+            if (ordinal != null) {
+                return method.getSignature() + "/" + ordinal;
+            }
+        }
+        return method == null ? String.valueOf(newExpr) : method.getSignature() + "/" + newExpr;
+    }
+
+    private Map<Value, Integer> ordinalsOf(SootMethod method) {
+        Map<Value, Integer> result = ordinals.get(method);
+        if (result == null) {
+            result = new IdentityHashMap<>();
+            for (Unit u : method.getActiveBody().getUnits()) {
+                if (u instanceof AssignStmt && ((AssignStmt) u).getRightOp() instanceof AnyNewExpr) {
+                    result.put(((AssignStmt) u).getRightOp(), result.size());
+                }
+            }
+            ordinals.put(method, result);
+        }
+        return result;
+    }
+}
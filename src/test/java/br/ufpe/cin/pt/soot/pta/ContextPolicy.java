@@ -0,0 +1,162 @@
+package br.ufpe.cin.pt.soot.pta;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import soot.SootMethod;
+
+/**
+ * Hand-written context sensitivity per method, read from a policy file and applied to a k-limited
+ * Qilin run through a {@link MethodDepthSelector}. One rule per line, first match wins:
+ *
+ * <pre>
+ *   # pattern                              context  [heap depth]
+ *   com.acme.collections.*                 2o
+ *   com.acme.Factory#create                2o       2
+ *   *                                      insens
+ * </pre>
+ *
+ * A pattern is {@code *}, a class pattern in the style of Soot's include list ({@code pkg.*} for a
+ * package prefix, otherwise an exact class name), or a class pattern, {@code #} and a method name.
+ * The context is {@code insens} or a depth and a Qilin context kind ({@code c}, {@code o}, {@code t},
+ * {@code h}, {@code ht}); the heap depth defaults to one less than the depth. Qilin builds every
+ * context of a run with one constructor, so all sensitive rules must share a kind, and the run's
+ * algorithm must have that kind and at least the deepest rule's depth. Methods no rule matches keep
+ * the algorithm's own contexts.
+ */
+public final class ContextPolicy {
+
+    private static final Pattern CONTEXT = Pattern.compile("([1-9])(c|o|t|h|ht)");
+
+    /** One line of the policy. */
+    public static final class Rule {
+        public final String classPattern;
+        public final String methodName;  // null = every method of the matching classes
+        public final int depth;
+        public final int heapDepth;
+
+        Rule(String classPattern, String methodName, int depth, int heapDepth) {
+            this.classPattern = classPattern;
+            this.methodName = methodName;
+            this.depth = depth;
+            this.heapDepth = heapDepth;
+        }
+
+        boolean matches(SootMethod m) {
+            if (methodName != null && !methodName.equals(m.getName())) return false;
+            String className = m.getDeclaringClass().getName();
+            if (classPattern.equals("*")) return true;
+            return classPattern.endsWith(".*") ? className.startsWith(classPattern.substring(0, classPattern.length() - 1))
+                    : className.equals(classPattern);
+        }
+    }
+
+    private static final Rule NONE = new Rule("", null, MethodDepthSelector.UNCHANGED, MethodDepthSelector.UNCHANGED);
+
+    private final List<Rule> rules;
+    private final String kind;  // null when every rule is insens
+    private final Map<SootMethod, Rule> resolved = new ConcurrentHashMap<>();
+
+    private ContextPolicy(List<Rule> rules, String kind) {
+        this.rules = rules;
+        this.kind = kind;
+    }
+
+    public static ContextPolicy read(File file) {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read context policy from " + file, e);
+        }
+        List<Rule> rules = new ArrayList<>();
+        String kind = null;
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            String where = file + ":" + (i + 1) + ": ";
+            String[] parts = line.split("\\s+");
+            if (parts.length < 2 || parts.length > 3) {
+                throw new IllegalArgumentException(where + "expected 'pattern context [heap depth]', got '" + line + "'");
+            }
+            int depth = 0;
+            if (!parts[1].equals("insens")) {
+                Matcher m = CONTEXT.matcher(parts[1]);
+                if (!m.matches()) throw new IllegalArgumentException(where + "unknown context '" + parts[1] + "'");
+                if (kind != null && !kind.equals(m.group(2))) {
+                    throw new IllegalArgumentException(where + "context kind " + m.group(2) + " differs from " + kind
+                            + "; one run has a single context kind");
+                }
+                kind = m.group(2);
+                depth = Integer.parseInt(m.group(1));
+            }
+            int heapDepth = parts.length == 3 ? Integer.parseInt(parts[2]) : Math.max(0, depth - 1);
+            int hash = parts[0].indexOf('#');
+            rules.add(hash < 0 ? new Rule(parts[0], null, depth, heapDepth)
+                    : new Rule(parts[0].substring(0, hash), parts[0].substring(hash + 1), depth, heapDepth));
+        }
+        return new ContextPolicy(rules, kind);
+    }
+
+    public List<Rule> getRules() {
+        return Collections.unmodifiableList(rules);
+    }
+
+    /** Context kind of the sensitive rules ({@code o}, {@code c}, ...), or null if every rule is insens. */
+    public String getKind() {
+        return kind;
+    }
+
+    public int maxDepth() {
+        int max = 0;
+        for (Rule r : rules) {
+            max = Math.max(max, r.depth);
+        }
+        return max;
+    }
+
+    /**
+     * Throws unless a run with the given Qilin pattern (e.g. {@code 2o}) can apply the policy: a
+     * k-limited pattern of the policy's kind, at least as deep as its deepest rule.
+     */
+    public void checkApplicable(String qilinPattern) {
+        Matcher m = CONTEXT.matcher(qilinPattern);
+        if (!m.matches()) {
+            throw new IllegalArgumentException("A context policy needs a k-limited Qilin algorithm, not " + qilinPattern);
+        }
+        if (kind != null && (!kind.equals(m.group(2)) || Integer.parseInt(m.group(1)) < maxDepth())) {
+            throw new IllegalArgumentException("The policy needs kind " + kind + " with depth " + maxDepth()
+                    + " or more, not " + qilinPattern);
+        }
+    }
+
+    /** Rule for {@code m}, or null if no rule matches. */
+    public Rule ruleFor(SootMethod m) {
+        Rule r = resolved.computeIfAbsent(m, this::firstMatch);
+        return r == NONE ? null : r;
+    }
+
+    private Rule firstMatch(SootMethod m) {
+        for (Rule r : rules) {
+            if (r.matches(m)) return r;
+        }
+        return NONE;
+    }
+
+    /** Wraps the selector of {@code pta}, which must not have run yet, with the policy. */
+    public void install(qilin.core.PTA pta) {
+        pta.setContextSelector(new MethodDepthSelector(pta.ctxSelector(),
+                m -> resolved.computeIfAbsent(m, this::firstMatch).depth,
+                m -> resolved.computeIfAbsent(m, this::firstMatch).heapDepth));
+    }
+}
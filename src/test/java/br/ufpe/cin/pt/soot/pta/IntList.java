@@ -0,0 +1,53 @@
+package br.ufpe.cin.pt.soot.pta;
+
+import java.util.Arrays;
+
+/** Growable array of primitive ints, so building points-to sets does not box every element. */
+public final class IntList {
+    private int[] data;
+    private int size;
+
+    public IntList() {
+        this(8);
+    }
+
+    public IntList(int capacity) {
+        data = new int[Math.max(capacity, 1)];
+    }
+
+    public void add(int value) {
+        if (size == data.length) {
+            data = Arrays.copyOf(data, size * 2);
+        }
+        data[size++] = value;
+    }
+
+    public int get(int i) {
+        return data[i];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int[] toArray() {
+        return Arrays.copyOf(data, size);
+    }
+
+    /** Sorted copy without duplicates. */
+    public int[] toSortedSet() {
+        int[] result = toArray();
+        Arrays.sort(result);
+        int n = 0;
+        for (int i = 0; i < result.length; i++) {
+            if (n == 0 || result[n - 1] != result[i]) {
+                result[n++] = result[i];
+            }
+        }
+        return n == result.length ? result : Arrays.copyOf(result, n);
+    }
+}
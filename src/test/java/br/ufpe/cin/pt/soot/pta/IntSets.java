@@ -0,0 +1,130 @@
+package br.ufpe.cin.pt.soot.pta;
+
+/**
+ * Set kernels over points-to sets represented as sorted, duplicate-free int arrays of dense
+ * allocation-site ids (see {@link PTA#pointsToSet(soot.Local)}). The kernels are shared by every
+ * backend and do not allocate: results that are sets are written into a caller-provided buffer.
+ * <p>
+ * When one set is much smaller than the other, membership is checked by binary search in the
+ * larger one instead of a linear merge.
+ */
+public final class IntSets {
+
+    /** Size ratio above which the kernels switch from merging to binary search. */
+    private static final int GALLOP_RATIO = 32;
+
+    private IntSets() {
+    }
+
+    public static int cardinality(int[] set) {
+        return set.length;
+    }
+
+    public static boolean intersects(int[] a, int[] b) {
+        if (a.length > b.length) {
+            int[] t = a;
+            a = b;
+            b = t;
+        }
+        if (a.length == 0) return false;
+        if (a[a.length - 1] < b[0] || b[b.length - 1] < a[0]) return false;
+        if (b.length / a.length > GALLOP_RATIO) {
+            int from = 0;
+            for (int x : a) {
+                int i = search(b, from, x);
+                if (i >= 0) return true;
+                from = -i - 1;
+                if (from == b.length) return false;
+            }
+            return false;
+        }
+        int i = 0, j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) return true;
+            if (a[i] < b[j]) i++;
+            else j++;
+        }
+        return false;
+    }
+
+    public static int intersectionSize(int[] a, int[] b) {
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                n++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return n;
+    }
+
+    /** Whether {@code a} is a subset of {@code b}. */
+    public static boolean isSubset(int[] a, int[] b) {
+        if (a.length > b.length) return false;
+        if (a.length == 0) return true;
+        if (b.length / a.length > GALLOP_RATIO) {
+            int from = 0;
+            for (int x : a) {
+                int i = search(b, from, x);
+                if (i < 0) return false;
+                from = i + 1;
+            }
+            return true;
+        }
+        int j = 0;
+        for (int x : a) {
+            while (j < b.length && b[j] < x) j++;
+            if (j == b.length || b[j] != x) return false;
+            j++;
+        }
+        return true;
+    }
+
+    public static boolean equals(int[] a, int[] b) {
+        return java.util.Arrays.equals(a, b);
+    }
+
+    /** Writes {@code a ∪ b} into {@code out} (at least {@code a.length + b.length} long) and returns its size. */
+    public static int union(int[] a, int[] b, int[] out) {
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                out[n++] = a[i++];
+                j++;
+            } else if (a[i] < b[j]) {
+                out[n++] = a[i++];
+            } else {
+                out[n++] = b[j++];
+            }
+        }
+        while (i < a.length) out[n++] = a[i++];
+        while (j < b.length) out[n++] = b[j++];
+        return n;
+    }
+
+    /** Writes {@code a ∩ b} into {@code out} (at least {@code min(a.length, b.length)} long) and returns its size. */
+    public static int intersection(int[] a, int[] b, int[] out) {
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                out[n++] = a[i++];
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return n;
+    }
+
+    /** Binary search in {@code sorted[from..]}, with the return contract of {@link java.util.Arrays#binarySearch}. */
+    private static int search(int[] sorted, int from, int key) {
+        return java.util.Arrays.binarySearch(sorted, from, sorted.length, key);
+    }
+}
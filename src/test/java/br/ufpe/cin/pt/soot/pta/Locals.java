@@ -0,0 +1,18 @@
+package br.ufpe.cin.pt.soot.pta;
+
+import soot.Local;
+import soot.SootMethod;
+
+/** Looks up locals by name in a method's active body. */
+final class Locals {
+
+    private Locals() {
+    }
+
+    static Local find(SootMethod method, String name) {
+        for (Local l : method.retrieveActiveBody().getLocals()) {
+            if (l.getName().equals(name)) return l;
+        }
+        throw new IllegalArgumentException("No local '" + name + "' in " + method.getSignature());
+    }
+}
@@ -0,0 +1,62 @@
+package br.ufpe.cin.pt.soot.pta;
+
+import java.util.function.ToIntFunction;
+
+import qilin.core.context.Context;
+import qilin.core.pag.AllocNode;
+import qilin.core.pag.FieldValNode;
+import qilin.core.pag.LocalVarNode;
+import qilin.parm.select.CtxSelector;
+import soot.SootMethod;
+
+/**
+ * Qilin context selector that caps the context depth of chosen methods and leaves every other
+ * decision to the selector it wraps (the PTA's own, from {@code ctxSelector()}). A method's depth
+ * applies to the method context and the pointers of its locals, its heap depth to the objects it
+ * allocates; 0 analyses them context-insensitively. Depths can only shorten what the wrapped
+ * selector returns, never lengthen it.
+ */
+public final class MethodDepthSelector extends CtxSelector {
+
+    /** Depth of the methods the wrapped selector decides for. */
+    public static final int UNCHANGED = -1;
+
+    private final CtxSelector base;
+    private final ToIntFunction<SootMethod> depth;
+    private final ToIntFunction<SootMethod> heapDepth;
+
+    public MethodDepthSelector(CtxSelector base, ToIntFunction<SootMethod> depth, ToIntFunction<SootMethod> heapDepth) {
+        if (base == null) {
+            throw new NullPointerException("base selector should not be null");
+        }
+        this.base = base;
+        this.depth = depth;
+        this.heapDepth = heapDepth;
+    }
+
+    @Override
+    public Context select(SootMethod m, Context context) {
+        return tailor(base.select(m, context), depth.applyAsInt(m));
+    }
+
+    @Override
+    public Context select(LocalVarNode lvn, Context context) {
+        Context selected = base.select(lvn, context);
+        return lvn.getMethod() == null ? selected : tailor(selected, depth.applyAsInt(lvn.getMethod()));
+    }
+
+    @Override
+    public Context select(FieldValNode fvn, Context context) {
+        return base.select(fvn, context);
+    }
+
+    @Override
+    public Context select(AllocNode heap, Context context) {
+        Context selected = base.select(heap, context);
+        return heap.getMethod() == null ? selected : tailor(selected, heapDepth.applyAsInt(heap.getMethod()));
+    }
+
+    private Context tailor(Context context, int length) {
+        return length == UNCHANGED ? context : contextTailor(context, length);
+    }
+}
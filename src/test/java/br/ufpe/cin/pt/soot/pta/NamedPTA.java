@@ -0,0 +1,18 @@
+package br.ufpe.cin.pt.soot.pta;
+
+/**
+ * Points-to queries that need no Scene: locals are named by method signature and local name,
+ * allocation sites by dense id. Every {@link PTA} answers them through its Scene; solved results
+ * that outlive the Scene (a memory-mapped store, a frozen index) implement only this interface.
+ */
+public interface NamedPTA {
+
+    /** Whether the two locals of the method may point to a common object; unknown locals point to nothing. */
+    boolean hasIntersectingObjects(String methodSignature, String local1, String local2);
+
+    /** Allocation site behind a site id. */
+    AllocationSite site(int id);
+
+    /** Number of site ids handed out so far; ids are {@code 0..siteCount()-1}. */
+    int siteCount();
+}
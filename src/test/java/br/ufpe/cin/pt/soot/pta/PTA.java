@@ -1,7 +1,87 @@
 package br.ufpe.cin.pt.soot.pta;
 
+import java.util.Collection;
+import java.util.PrimitiveIterator;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
 import soot.Local;
+import soot.Scene;
+import soot.SootMethod;
+import soot.jimple.toolkits.callgraph.CallGraph;
+
+public interface PTA extends NamedPTA {
+    /** Compact id of the empty context; the only context a context-insensitive PTA has. */
+    int EMPTY_CONTEXT = 0;
 
-public interface PTA {
     boolean hasIntersectingObjects(Local l1, Local l2);
+
+    /** Same query, with the names resolved in the method's active body. */
+    @Override
+    default boolean hasIntersectingObjects(String methodSignature, String local1, String local2) {
+        SootMethod m = Scene.v().getMethod(methodSignature);
+        return hasIntersectingObjects(Locals.find(m, local1), Locals.find(m, local2));
+    }
+
+    /**
+     * Whether points-to sets enumerate their allocation sites. CHA answers every query with "any
+     * object", so {@link #forEachAllocationSite} and {@link #pointsToSet} are only usable when true.
+     */
+    default boolean enumeratesObjects() {
+        return true;
+    }
+
+    /**
+     * Visits the (context-insensitive) allocation sites {@code l} may point to.
+     * Throws {@link UnsupportedOperationException} unless {@link #enumeratesObjects()}.
+     */
+    void forEachAllocationSite(Local l, Consumer<AllocationSite> action);
+
+    /**
+     * Points-to set of {@code l} as sorted, dense allocation-site ids, for use with the {@link IntSets}
+     * kernels. The array is cached and shared; callers must not modify it.
+     */
+    int[] pointsToSet(Local l);
+
+    /** Allocation site behind an id returned by {@link #pointsToSet(Local)}. */
+    @Override
+    AllocationSite site(int id);
+
+    /** Call graph the points-to sets were computed with (context-insensitive view). */
+    CallGraph getCallGraph();
+
+    /** Methods reachable from the entry points under this analysis. */
+    Collection<SootMethod> getReachableMethods();
+
+    /** Whether points-to sets can be queried per context; otherwise every local lives in {@link #EMPTY_CONTEXT}. */
+    default boolean isContextSensitive() {
+        return false;
+    }
+
+    /**
+     * Lazily iterates the compact ids of the contexts under which {@code l} has a context-sensitive
+     * pointer. A context-insensitive PTA yields {@link #EMPTY_CONTEXT}, or nothing when {@code l}
+     * points to no object (it never reached the local, or the local only ever holds null).
+     */
+    default PrimitiveIterator.OfInt contexts(Local l) {
+        return pointsToSet(l).length == 0 ? IntStream.empty().iterator() : IntStream.of(EMPTY_CONTEXT).iterator();
+    }
+
+    /** Number of contexts {@code l} was split into (0 if the PTA never reached it, as for {@link #contexts}). */
+    default int contextCount(Local l) {
+        return pointsToSet(l).length == 0 ? 0 : 1;
+    }
+
+    /** May-alias query between {@code l1} under context {@code c1} and {@code l2} under context {@code c2}. */
+    default boolean hasIntersectingObjects(Local l1, int c1, Local l2, int c2) {
+        if (c1 != EMPTY_CONTEXT || c2 != EMPTY_CONTEXT) {
+            throw new IllegalArgumentException("Context-insensitive PTA only knows context " + EMPTY_CONTEXT);
+        }
+        return hasIntersectingObjects(l1, l2);
+    }
+
+    /** Human-readable form of a context id returned by {@link #contexts(Local)}. */
+    default String describeContext(int context) {
+        return "[]";
+    }
 }
@@ -15,7 +15,12 @@ public class PTASingleton {
         singleton = new SootPTA(pta);
     }
 
-    public static void configureQilinPTA(qilin.core.PointsToAnalysis pta) {
-        singleton = new QilinPTA(pta);
+    public static void configureQilinPTA(qilin.core.PointsToAnalysis pta, boolean contextSensitive) {
+        singleton = new QilinPTA(pta, contextSensitive);
+    }
+
+    /** Drops the instance, e.g. once the run is frozen, so nothing here pins the live solver. */
+    public static void release() {
+        singleton = null;
     }
 }
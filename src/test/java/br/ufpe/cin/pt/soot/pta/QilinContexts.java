@@ -0,0 +1,77 @@
+package br.ufpe.cin.pt.soot.pta;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import qilin.core.PointsToAnalysis;
+import qilin.core.context.Context;
+import qilin.core.pag.ContextVarNode;
+import qilin.core.pag.LocalVarNode;
+import qilin.core.pag.PAG;
+import soot.Local;
+
+/**
+ * Index from locals to the Qilin contexts they were analysed under, filled in per local on its
+ * first lookup from the PAG's context variants of that local. Contexts are interned to dense ids
+ * ({@link PTA#EMPTY_CONTEXT} is the empty context); the points-to sets themselves stay inside Qilin
+ * and are never copied.
+ */
+final class QilinContexts {
+
+    private static final int[] NONE = new int[0];
+
+    private final PAG pag;
+    private final List<Context> contexts = new ArrayList<>();
+    private final Map<Context, Integer> ids = new HashMap<>();
+    private final Map<Local, int[]> localContexts = new HashMap<>();
+
+    QilinContexts(PointsToAnalysis pta) {
+        this.pag = pta.getPag();
+        intern(pta.emptyContext());
+    }
+
+    /** Sorted context ids of {@code l}; empty if Qilin never created a pointer for it. */
+    int[] contextsOf(Local l) {
+        int[] result = localContexts.get(l);
+        if (result == null) {
+            LocalVarNode base = pag.findLocalVarNode(l);
+            Map<Context, ContextVarNode> variants = base == null ? null : pag.getContextVarNodeMap().get(base);
+            if (variants == null || variants.isEmpty()) {
+                result = NONE;
+            } else {
+                result = new int[variants.size()];
+                int i = 0;
+                for (Context c : variants.keySet()) {
+                    result[i++] = intern(c);
+                }
+                Arrays.sort(result);
+            }
+            localContexts.put(l, result);
+        }
+        return result;
+    }
+
+    Context context(int id) {
+        if (id < 0 || id >= contexts.size()) {
+            throw new IllegalArgumentException("Unknown context id " + id);
+        }
+        return contexts.get(id);
+    }
+
+    int size() {
+        return contexts.size();
+    }
+
+    private int intern(Context c) {
+        Integer id = ids.get(c);
+        if (id == null) {
+            id = contexts.size();
+            contexts.add(c);
+            ids.put(c, id);
+        }
+        return id;
+    }
+}
@@ -1,18 +1,34 @@
 package br.ufpe.cin.pt.soot.pta;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.PrimitiveIterator;
+import java.util.function.Consumer;
+
 import qilin.core.PointsToAnalysis;
+import qilin.core.pag.AllocNode;
+import qilin.core.pag.ContextAllocNode;
 import qilin.core.sets.PointsToSet;
 import soot.Local;
+import soot.SootMethod;
+import soot.jimple.toolkits.callgraph.CallGraph;
 
 public class QilinPTA implements PTA {
 
     PointsToAnalysis pta;
+    private final boolean contextSensitive;
+    private QilinContexts contexts;  // built on the first context-sensitive query
+    private final AllocationSites sites = new AllocationSites();
+    private final SiteNumbering numbering = new SiteNumbering();
 
-    public QilinPTA(PointsToAnalysis pta) {
+    /** {@code contextSensitive} is false for the insensitive patterns, which only know the empty context. */
+    public QilinPTA(PointsToAnalysis pta, boolean contextSensitive) {
         if(pta == null) {
             throw new NullPointerException("pta should not be null");
         }
         this.pta = pta;
+        this.contextSensitive = contextSensitive;
     }
 
     @Override
@@ -22,4 +38,79 @@ public class QilinPTA implements PTA {
 
         return s1.hasNonEmptyIntersection(s2);
     }
+
+    @Override
+    public void forEachAllocationSite(Local l, Consumer<AllocationSite> action) {
+        for (Iterator<AllocNode> it = pta.reachingObjects(l).toCIPointsToSet().iterator(); it.hasNext(); ) {
+            AllocNode a = it.next();
+            if (a instanceof ContextAllocNode) {
+                a = ((ContextAllocNode) a).base();
+            }
+            action.accept(sites.of(a.getMethod(), a.getNewExpr(), a.getType()));
+        }
+    }
+
+    @Override
+    public int[] pointsToSet(Local l) {
+        return numbering.pointsToSet(this, l);
+    }
+
+    @Override
+    public AllocationSite site(int id) {
+        return numbering.site(id);
+    }
+
+    @Override
+    public int siteCount() {
+        return numbering.size();
+    }
+
+    @Override
+    public CallGraph getCallGraph() {
+        return pta.getCallGraph();
+    }
+
+    @Override
+    public Collection<SootMethod> getReachableMethods() {
+        return pta.getNakedReachableMethods();
+    }
+
+    @Override
+    public boolean isContextSensitive() {
+        return contextSensitive;
+    }
+
+    @Override
+    public PrimitiveIterator.OfInt contexts(Local l) {
+        if (!contextSensitive) return PTA.super.contexts(l);
+        return Arrays.stream(contextIndex().contextsOf(l)).iterator();
+    }
+
+    @Override
+    public int contextCount(Local l) {
+        if (!contextSensitive) return PTA.super.contextCount(l);
+        return contextIndex().contextsOf(l).length;
+    }
+
+    @Override
+    public boolean hasIntersectingObjects(Local l1, int c1, Local l2, int c2) {
+        if (!contextSensitive) return PTA.super.hasIntersectingObjects(l1, c1, l2, c2);
+        QilinContexts index = contextIndex();
+        PointsToSet s1 = pta.reachingObjects(index.context(c1), l1);
+        PointsToSet s2 = pta.reachingObjects(index.context(c2), l2);
+        return s1.hasNonEmptyIntersection(s2);
+    }
+
+    @Override
+    public String describeContext(int context) {
+        if (!contextSensitive) return PTA.super.describeContext(context);
+        return String.valueOf(contextIndex().context(context));
+    }
+
+    private QilinContexts contextIndex() {
+        if (contexts == null) {
+            contexts = new QilinContexts(pta);
+        }
+        return contexts;
+    }
 }
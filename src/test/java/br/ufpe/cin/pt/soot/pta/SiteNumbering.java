@@ -0,0 +1,50 @@
+package br.ufpe.cin.pt.soot.pta;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import soot.Local;
+
+/**
+ * Dense numbering of the {@link AllocationSite}s a backend reports, and the per-local int sets
+ * built from it. Sets are computed once per local and cached, so bulk operations (all-pairs
+ * alias matrices, diffs) only pay for the backend's own iteration the first time.
+ */
+final class SiteNumbering {
+
+    private final Map<AllocationSite, Integer> ids = new HashMap<>();
+    private final List<AllocationSite> sites = new ArrayList<>();
+    private final Map<Local, int[]> sets = new HashMap<>();
+    private final IntList scratch = new IntList();
+
+    int[] pointsToSet(PTA pta, Local l) {
+        int[] set = sets.get(l);
+        if (set == null) {
+            scratch.clear();
+            pta.forEachAllocationSite(l, s -> scratch.add(id(s)));
+            set = scratch.toSortedSet();
+            sets.put(l, set);
+        }
+        return set;
+    }
+
+    AllocationSite site(int id) {
+        return sites.get(id);
+    }
+
+    int size() {
+        return sites.size();
+    }
+
+    private int id(AllocationSite site) {
+        Integer id = ids.get(site);
+        if (id == null) {
+            id = sites.size();
+            ids.put(site, id);
+            sites.add(site);
+        }
+        return id;
+    }
+}
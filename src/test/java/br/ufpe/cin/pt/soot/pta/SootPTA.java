@@ -1,11 +1,28 @@
 package br.ufpe.cin.pt.soot.pta;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
 import soot.Local;
+import soot.MethodOrMethodContext;
 import soot.PointsToAnalysis;
 import soot.PointsToSet;
+import soot.Scene;
+import soot.SootMethod;
+import soot.jimple.spark.pag.AllocNode;
+import soot.jimple.spark.pag.Node;
+import soot.jimple.spark.pag.PAG;
+import soot.jimple.spark.sets.P2SetVisitor;
+import soot.jimple.spark.sets.PointsToSetInternal;
+import soot.jimple.toolkits.callgraph.CallGraph;
+import soot.util.queue.QueueReader;
 
 public class SootPTA implements PTA {
     private PointsToAnalysis pta;
+    private final AllocationSites sites = new AllocationSites();
+    private final SiteNumbering numbering = new SiteNumbering();
 
     public SootPTA(PointsToAnalysis pta) {
         if(pta == null){
@@ -20,4 +37,57 @@ public class SootPTA implements PTA {
         PointsToSet s2 = pta.reachingObjects(l2);
         return s1.hasNonEmptyIntersection(s2);
     }
+
+    /** False for CHA, whose DumbPointerAnalysis has no PAG behind it. */
+    @Override
+    public boolean enumeratesObjects() {
+        return pta instanceof PAG;
+    }
+
+    @Override
+    public void forEachAllocationSite(Local l, Consumer<AllocationSite> action) {
+        PointsToSet set = pta.reachingObjects(l);
+        if (!(set instanceof PointsToSetInternal)) {
+            // e.g. CHA without Spark: DumbPointerAnalysis answers with FullObjectSet
+            throw new UnsupportedOperationException("Points-to set of " + l + " does not enumerate its objects: "
+                    + set.getClass().getName());
+        }
+        ((PointsToSetInternal) set).forall(new P2SetVisitor() {
+            @Override
+            public void visit(Node n) {
+                AllocNode a = (AllocNode) n;
+                action.accept(sites.of(a.getMethod(), a.getNewExpr(), a.getType()));
+            }
+        });
+    }
+
+    @Override
+    public int[] pointsToSet(Local l) {
+        return numbering.pointsToSet(this, l);
+    }
+
+    @Override
+    public AllocationSite site(int id) {
+        return numbering.site(id);
+    }
+
+    @Override
+    public int siteCount() {
+        return numbering.size();
+    }
+
+    @Override
+    public CallGraph getCallGraph() {
+        return Scene.v().getCallGraph();
+    }
+
+    @Override
+    public Collection<SootMethod> getReachableMethods() {
+        List<SootMethod> methods = new ArrayList<>();
+        QueueReader<MethodOrMethodContext> reader = Scene.v().getReachableMethods().listener();
+        while (reader.hasNext()) {
+            methods.add(reader.next().method());
+        }
+        return methods;
+    }
 }
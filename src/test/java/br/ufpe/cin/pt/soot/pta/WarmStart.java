@@ -0,0 +1,209 @@
+package br.ufpe.cin.pt.soot.pta;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+import soot.Kind;
+import soot.Local;
+import soot.RefLikeType;
+import soot.Scene;
+import soot.SootMethod;
+import soot.Unit;
+import soot.jimple.AnyNewExpr;
+import soot.jimple.AssignStmt;
+import soot.jimple.InstanceInvokeExpr;
+import soot.jimple.InvokeExpr;
+import soot.jimple.Stmt;
+import soot.jimple.toolkits.callgraph.CallGraph;
+import soot.jimple.toolkits.callgraph.Edge;
+
+/**
+ * Context pruning for a k-limited Qilin solve, planned from a context-insensitive result of the
+ * same program. A reachable method is pruned (analysed under the empty context only) when contexts
+ * cannot refine anything in it:
+ * <ul>
+ *   <li>every reference local points to at most one object in the insensitive result, and that
+ *       object is context-free, so it has a single context-sensitive version and no context can
+ *       split the local's set, nor the sets it passes to fields, callees and callers;</li>
+ *   <li>it allocates nothing, so no object takes its heap context from the method's;</li>
+ *   <li>none of its calls derives the callee context from the caller's: no call at all under
+ *       call-site or hybrid sensitivity, no static call under object or type sensitivity.</li>
+ * </ul>
+ * An object is context-free when it is allocated outside any method body or in a context-free
+ * method, one the target analysis only ever analyses under the empty context: an entry point, or a
+ * method whose every incoming call is a static call from a context-free method. Under call-site or
+ * hybrid sensitivity every call creates a context, so only entry points nothing calls qualify. A
+ * single insensitive object allocated elsewhere may have one version per heap context, e.g. a
+ * factory's product per factory under object sensitivity, and a pruned getter on it would merge them.
+ * <p>
+ * Unreachable methods and infeasible dispatch targets need no pruning: the context-sensitive solve
+ * builds its call graph on the fly and never reaches more than the insensitive one did.
+ */
+public final class WarmStart {
+
+    private static final String HEADER = "# pt warm start plan v1";
+
+    private final Set<SootMethod> pruned;
+    private final int reachable;
+
+    private WarmStart(Set<SootMethod> pruned, int reachable) {
+        this.pruned = pruned;
+        this.reachable = reachable;
+    }
+
+    /**
+     * Plans the pruning from {@code insensitive}; {@code callSiteContexts} is whether the target
+     * analysis builds callee contexts from call sites (call-site and hybrid sensitivity).
+     */
+    public static WarmStart plan(PTA insensitive, boolean callSiteContexts) {
+        Set<String> contextFree = contextFreeMethods(insensitive, callSiteContexts);
+        Set<SootMethod> pruned = new HashSet<>();
+        int reachable = 0;
+        for (SootMethod m : insensitive.getReachableMethods()) {
+            reachable++;
+            if (m.hasActiveBody() && isContextFree(insensitive, m, callSiteContexts, contextFree)) pruned.add(m);
+        }
+        return new WarmStart(pruned, reachable);
+    }
+
+    /**
+     * Signatures of the methods the target analysis only analyses under the empty context: the
+     * greatest set of reachable methods whose incoming calls are all static calls from the set
+     * (no incoming calls at all under call-site or hybrid sensitivity), which leaves entry points
+     * and what they reach through static calls only.
+     */
+    static Set<String> contextFreeMethods(PTA insensitive, boolean callSiteContexts) {
+        CallGraph cg = insensitive.getCallGraph();
+        Set<SootMethod> free = new HashSet<>(insensitive.getReachableMethods());
+        Deque<SootMethod> work = new ArrayDeque<>(free);
+        while (!work.isEmpty()) {
+            SootMethod m = work.poll();
+            if (!free.contains(m) || !entersWithContext(cg, m, free, callSiteContexts)) continue;
+            free.remove(m);
+            for (Iterator<Edge> out = cg.edgesOutOf(m); out.hasNext(); ) {
+                SootMethod callee = out.next().tgt();
+                if (free.contains(callee)) work.add(callee);
+            }
+        }
+        Set<String> signatures = new HashSet<>();
+        for (SootMethod m : free) {
+            signatures.add(m.getSignature());
+        }
+        return signatures;
+    }
+
+    /** Whether some call into {@code m} may give it a context other than the empty one. */
+    private static boolean entersWithContext(CallGraph cg, SootMethod m, Set<SootMethod> free, boolean callSiteContexts) {
+        for (Iterator<Edge> in = cg.edgesInto(m); in.hasNext(); ) {
+            Edge e = in.next();
+            if (callSiteContexts || e.kind() != Kind.STATIC || !free.contains(e.src())) return true;
+        }
+        return false;
+    }
+
+    private static boolean isContextFree(PTA insensitive, SootMethod m, boolean callSiteContexts, Set<String> contextFree) {
+        for (Local l : m.getActiveBody().getLocals()) {
+            if (!(l.getType() instanceof RefLikeType)) continue;
+            int[] set = insensitive.pointsToSet(l);
+            if (set.length > 1) return false;
+            if (set.length == 1) {
+                String allocator = insensitive.site(set[0]).getMethodSignature();
+                if (allocator != null && !contextFree.contains(allocator)) return false;
+            }
+        }
+        for (Unit u : m.getActiveBody().getUnits()) {
+            Stmt stmt = (Stmt) u;
+            if (stmt.containsInvokeExpr()) {
+                InvokeExpr invoke = stmt.getInvokeExpr();
+                if (callSiteContexts || !(invoke instanceof InstanceInvokeExpr)) return false;
+            } else if (stmt instanceof AssignStmt && ((AssignStmt) stmt).getRightOp() instanceof AnyNewExpr) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes the plans for both kinds of target analysis, by method signature, so a pre-solve in
+     * another JVM can hand them over: {@code reachable <n>}, then one {@code o <signature>} line per
+     * method pruned under object or type sensitivity and one {@code c <signature>} line per method
+     * pruned under call-site or hybrid sensitivity.
+     */
+    public static void write(PTA insensitive, File file) {
+        WarmStart objects = plan(insensitive, false);
+        WarmStart callSites = plan(insensitive, true);
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) parent.mkdirs();
+        try (BufferedWriter out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            out.write(HEADER);
+            out.newLine();
+            out.write("reachable\t" + objects.reachable);
+            out.newLine();
+            for (SootMethod m : objects.pruned) {
+                out.write("o\t" + m.getSignature());
+                out.newLine();
+            }
+            for (SootMethod m : callSites.pruned) {
+                out.write("c\t" + m.getSignature());
+                out.newLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write warm start plan to " + file, e);
+        }
+    }
+
+    /**
+     * Reads the plan for the target analysis from a file written by {@link #write}, resolving the
+     * signatures in the current Scene; methods the Scene does not have are skipped.
+     */
+    public static WarmStart read(File file, boolean callSiteContexts) {
+        String kind = callSiteContexts ? "c" : "o";
+        Set<SootMethod> pruned = new HashSet<>();
+        int reachable = 0;
+        try (BufferedReader in = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            if (!HEADER.equals(in.readLine())) {
+                throw new IllegalArgumentException(file + " is not a warm start plan");
+            }
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] parts = line.split("\t", 2);
+                if (parts[0].equals("reachable")) {
+                    reachable = Integer.parseInt(parts[1]);
+                } else if (parts[0].equals(kind)) {
+                    SootMethod m = Scene.v().grabMethod(parts[1]);
+                    if (m != null) pruned.add(m);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read warm start plan from " + file, e);
+        }
+        return new WarmStart(pruned, reachable);
+    }
+
+    public Set<SootMethod> getPrunedMethods() {
+        return Collections.unmodifiableSet(pruned);
+    }
+
+    /** Methods reachable in the insensitive result the plan was made from. */
+    public int getReachableMethodCount() {
+        return reachable;
+    }
+
+    /** Wraps the selector of {@code pta}, which must not have run yet, with the pruning. */
+    public void install(qilin.core.PTA pta) {
+        ToIntFunction<SootMethod> depth = m -> pruned.contains(m) ? 0 : MethodDepthSelector.UNCHANGED;
+        pta.setContextSelector(new MethodDepthSelector(pta.ctxSelector(), depth, depth));
+    }
+}
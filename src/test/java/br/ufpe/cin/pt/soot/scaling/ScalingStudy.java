@@ -0,0 +1,216 @@
+package br.ufpe.cin.pt.soot.scaling;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+import br.ufpe.cin.pt.soot.AliasTransformer;
+import br.ufpe.cin.pt.soot.CallGraphAlgorithm;
+import br.ufpe.cin.pt.soot.Driver;
+import br.ufpe.cin.pt.soot.RunReport;
+
+/**
+ * Sweeps {@link SyntheticProgram} shapes across call graph algorithms and records solve time,
+ * retained heap and whether the distinct-chain query was answered precisely.
+ * <p>
+ * Runs share one JVM, so for Qilin algorithms the usual caveat about Qilin static state applies;
+ * sweep one Qilin algorithm per JVM. Heap is measured after a GC at the end of each run, while
+ * the solved Scene is still reachable, i.e. it is the memory the result retains, not the peak.
+ */
+public final class ScalingStudy {
+
+    /** One program analysed by one algorithm. */
+    public static final class Row {
+        public final SyntheticProgram program;
+        public final CallGraphAlgorithm algorithm;
+        public final AliasTransformer.Result result;  // null if the run failed
+        public final long solveMillis;
+        public final long totalMillis;
+        public final long reachableMethods;
+        public final long heapMB;
+        public final String error;
+
+        Row(SyntheticProgram program, CallGraphAlgorithm algorithm, AliasTransformer.Result result,
+            long solveMillis, long totalMillis, long reachableMethods, long heapMB, String error) {
+            this.program = program;
+            this.algorithm = algorithm;
+            this.result = result;
+            this.solveMillis = solveMillis;
+            this.totalMillis = totalMillis;
+            this.reachableMethods = reachableMethods;
+            this.heapMB = heapMB;
+            this.error = error;
+        }
+
+        /** The chains never alias, so only "no evidence of alias" matches the ground truth. */
+        public boolean isPrecise() {
+            return result == AliasTransformer.Result.PTA_NO_EVIDENCE_OF_ALIAS;
+        }
+    }
+
+    /** Shape parameter plotted on the x axis. */
+    public enum Axis {
+        COPIES(p -> p.getCopies()),
+        STATEMENTS(p -> p.getStatementCount()),
+        WRAPPER_DEPTH(p -> p.getWrapperDepth()),
+        DISPATCH_DEPTH(p -> p.getDispatchDepth()),
+        CONTAINER_DEPTH(p -> p.getContainerDepth()),
+        ALLOCATIONS(p -> p.getAllocations());
+
+        final ToDoubleFunction<SyntheticProgram> value;
+
+        Axis(ToDoubleFunction<SyntheticProgram> value) {
+            this.value = value;
+        }
+    }
+
+    /** Measurement plotted on the y axis. */
+    public enum Measure {
+        SOLVE_MS(r -> r.solveMillis),
+        TOTAL_MS(r -> r.totalMillis),
+        HEAP_MB(r -> r.heapMB),
+        REACHABLE_METHODS(r -> r.reachableMethods);
+
+        final ToDoubleFunction<Row> value;
+
+        Measure(ToDoubleFunction<Row> value) {
+            this.value = value;
+        }
+    }
+
+    private final List<CallGraphAlgorithm> algorithms;
+    private final List<Row> rows = new ArrayList<>();
+
+    public ScalingStudy(List<CallGraphAlgorithm> algorithms) {
+        this.algorithms = new ArrayList<>(algorithms);
+    }
+
+    /** Generates every program (if needed) and runs the distinct-chain query with every algorithm. */
+    public List<Row> run(List<SyntheticProgram> programs) {
+        for (SyntheticProgram program : programs) {
+            program.generate();
+            for (CallGraphAlgorithm algorithm : algorithms) {
+                rows.add(runOne(program, algorithm));
+            }
+        }
+        return getRows();
+    }
+
+    private static Row runOne(SyntheticProgram program, CallGraphAlgorithm algorithm) {
+        Driver driver = new Driver();
+        try {
+            AliasTransformer.Result result = driver.runAnalysis(program.distinctQuery(algorithm)
+                    .setApplicationPath(Collections.singletonList(program.getClassesDir()), Collections.<File>emptyList()));
+            RunReport report = driver.getReport();
+            long total = 0;
+            for (long millis : report.getPhases().values()) {
+                total += millis;
+            }
+            Number reachable = report.getMetric("reachableMethods");
+            return new Row(program, algorithm, result, report.getPhase("solve"), total,
+                    reachable == null ? -1 : reachable.longValue(), usedHeapMB(), null);
+        } catch (RuntimeException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            return new Row(program, algorithm, null, -1, -1, -1, usedHeapMB(), String.valueOf(cause));
+        }
+    }
+
+    private static long usedHeapMB() {
+        Runtime rt = Runtime.getRuntime();
+        System.gc();
+        return (rt.totalMemory() - rt.freeMemory()) >> 20;
+    }
+
+    public List<Row> getRows() {
+        return Collections.unmodifiableList(rows);
+    }
+
+    /** One line per row; failed runs have an empty result and an {@code error} column. */
+    public void writeCsv(File file) {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) parent.mkdirs();
+        try (BufferedWriter out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            out.write("program,copies,wrapperDepth,dispatchDepth,containerDepth,allocations,statements,"
+                    + "algorithm,result,precise,solveMs,totalMs,reachableMethods,heapMB,error");
+            out.newLine();
+            for (Row r : rows) {
+                SyntheticProgram p = r.program;
+                out.write(String.join(",", p.getId(), Integer.toString(p.getCopies()),
+                        Integer.toString(p.getWrapperDepth()), Integer.toString(p.getDispatchDepth()),
+                        Integer.toString(p.getContainerDepth()), Integer.toString(p.getAllocations()),
+                        Integer.toString(p.getStatementCount()), r.algorithm.getName(),
+                        r.result == null ? "" : r.result.name(), Boolean.toString(r.isPrecise()),
+                        Long.toString(r.solveMillis), Long.toString(r.totalMillis),
+                        Long.toString(r.reachableMethods), Long.toString(r.heapMB),
+                        r.error == null ? "" : '"' + r.error.replace("\"", "'") + '"'));
+                out.newLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write scaling study to " + file, e);
+        }
+    }
+
+    /**
+     * Scatter plot of {@code measure} against {@code axis} in a {@code width} x {@code height}
+     * character grid. Each algorithm is drawn with its own letter (see the legend); overlapping
+     * points show {@code *}. Failed runs are left out.
+     */
+    public String plot(Axis axis, Measure measure, int width, int height) {
+        double xMax = 0;
+        double yMax = 0;
+        for (Row r : rows) {
+            if (r.result == null) continue;
+            xMax = Math.max(xMax, axis.value.applyAsDouble(r.program));
+            yMax = Math.max(yMax, measure.value.applyAsDouble(r));
+        }
+        char[][] grid = new char[height][width];
+        for (char[] line : grid) {
+            Arrays.fill(line, ' ');
+        }
+        for (Row r : rows) {
+            if (r.result == null) continue;
+            int col = xMax == 0 ? 0 : (int) Math.round(axis.value.applyAsDouble(r.program) / xMax * (width - 1));
+            int row = yMax == 0 ? 0 : (int) Math.round(measure.value.applyAsDouble(r) / yMax * (height - 1));
+            char mark = (char) ('a' + algorithms.indexOf(r.algorithm) % 26);
+            char[] line = grid[height - 1 - row];
+            line[col] = line[col] == ' ' || line[col] == mark ? mark : '*';
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%s by %s%n", measure, axis));
+        for (int i = 0; i < height; i++) {
+            String label = i == 0 ? String.format("%.0f", yMax) : i == height - 1 ? "0" : "";
+            sb.append(String.format("%8s |", label)).append(grid[i]).append(String.format("%n"));
+        }
+        sb.append(String.format("%8s +", "")).append(repeat('-', width)).append(String.format("%n"));
+        sb.append(String.format("%8s  0%" + (width - 1) + ".0f%n", "", xMax));
+        for (int i = 0; i < algorithms.size(); i++) {
+            sb.append(String.format("  %c = %s%n", (char) ('a' + i % 26), algorithms.get(i).getName()));
+        }
+        return sb.toString();
+    }
+
+    private static String repeat(char c, int n) {
+        char[] chars = new char[n];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-16s %-24s %-28s %10s %8s%n", "program", "algorithm", "result", "solve ms", "heap MB"));
+        for (Row r : rows) {
+            sb.append(String.format("%-16s %-24s %-28s %10d %8d%n", r.program.getId(), r.algorithm.getName(),
+                    r.result == null ? "FAILED" : r.result, r.solveMillis, r.heapMB));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,277 @@
+package br.ufpe.cin.pt.soot.scaling;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import br.ufpe.cin.pt.soot.CallGraphAlgorithm;
+import br.ufpe.cin.pt.soot.TestConfiguration;
+
+/**
+ * Parameterised variant of the {@code samples.context} scenario, generated as Java source and
+ * compiled into its own {@link #getClassesDir() directory} under {@code target/synthetic}, which a
+ * run analyses through {@code TestConfiguration.setApplicationPath}. Keeping the programs out of
+ * {@code target/test-classes} keeps them out of every other run's application classes.
+ * <p>
+ * {@code Main.main} runs {@link #getCopies() copies} independent chains. Chain {@code i} allocates
+ * its payload {@code o<i>} (at {@link #getAllocations() allocations} sites) and passes it through
+ * {@code B.foo(o, a)} behind {@link #getWrapperDepth() wrapper-depth} static wrappers into
+ * {@code v<i>}, through a virtual {@code id} call on a receiver from a
+ * {@link #getDispatchDepth() dispatch-depth} deep class hierarchy into {@code d<i>}, and through
+ * {@link #getContainerDepth() container-depth} {@code Box.set}/{@code get} field flows into
+ * {@code r<i>}. Nothing crosses chains, so the ground truth is simple: two of these locals alias
+ * iff they belong to the same chain ({@link #mustAlias}). Every merge an analysis reports between
+ * chains is imprecision caused by the depth it failed to distinguish.
+ */
+public final class SyntheticProgram {
+
+    public static final String PACKAGE_PREFIX = "br.ufpe.cin.pt.generated";
+
+    private final int copies;
+    private final int wrapperDepth;
+    private final int dispatchDepth;
+    private final int containerDepth;
+    private final int allocations;
+
+    private SyntheticProgram(int copies, int wrapperDepth, int dispatchDepth, int containerDepth, int allocations) {
+        if (copies < 1 || allocations < 1 || wrapperDepth < 0 || dispatchDepth < 0 || containerDepth < 0) {
+            throw new IllegalArgumentException("Need at least one copy and one allocation, and non-negative depths");
+        }
+        this.copies = copies;
+        this.wrapperDepth = wrapperDepth;
+        this.dispatchDepth = dispatchDepth;
+        this.containerDepth = containerDepth;
+        this.allocations = allocations;
+    }
+
+    /** {@code copies} chains of the bare {@code B.foo} pattern, as in {@code samples.context.Main}. */
+    public static SyntheticProgram of(int copies) {
+        return new SyntheticProgram(copies, 0, 0, 0, 1);
+    }
+
+    public SyntheticProgram withCopies(int n) {
+        return new SyntheticProgram(n, wrapperDepth, dispatchDepth, containerDepth, allocations);
+    }
+
+    public SyntheticProgram withWrapperDepth(int k) {
+        return new SyntheticProgram(copies, k, dispatchDepth, containerDepth, allocations);
+    }
+
+    public SyntheticProgram withDispatchDepth(int d) {
+        return new SyntheticProgram(copies, wrapperDepth, d, containerDepth, allocations);
+    }
+
+    public SyntheticProgram withContainerDepth(int c) {
+        return new SyntheticProgram(copies, wrapperDepth, dispatchDepth, c, allocations);
+    }
+
+    public SyntheticProgram withAllocations(int a) {
+        return new SyntheticProgram(copies, wrapperDepth, dispatchDepth, containerDepth, a);
+    }
+
+    public int getCopies() {
+        return copies;
+    }
+
+    public int getWrapperDepth() {
+        return wrapperDepth;
+    }
+
+    public int getDispatchDepth() {
+        return dispatchDepth;
+    }
+
+    public int getContainerDepth() {
+        return containerDepth;
+    }
+
+    public int getAllocations() {
+        return allocations;
+    }
+
+    /** Package-safe name of the shape, e.g. {@code n8k2d1c1a1}. */
+    public String getId() {
+        return "n" + copies + "k" + wrapperDepth + "d" + dispatchDepth + "c" + containerDepth + "a" + allocations;
+    }
+
+    public String getPackage() {
+        return PACKAGE_PREFIX + "." + getId();
+    }
+
+    public String getMainClass() {
+        return getPackage() + ".Main";
+    }
+
+    /** Program size proxy: allocation sites, calls and field accesses in {@code main}. */
+    public int getStatementCount() {
+        return copies * (allocations + 3 + Math.min(wrapperDepth, 1) + (dispatchDepth > 0 ? 2 : 0) + 3 * containerDepth);
+    }
+
+    /** Ground truth: the chain a generated local of {@code main} belongs to, e.g. 3 for {@code r3}. */
+    public static int chainOf(String local) {
+        if (local.length() < 2 || "ovdr".indexOf(local.charAt(0)) < 0) {
+            throw new IllegalArgumentException("Not a chain local: " + local);
+        }
+        return Integer.parseInt(local.substring(1));
+    }
+
+    /** Ground truth for two chain locals ({@code o}, {@code v}, {@code d} or {@code r} plus the chain index). */
+    public static boolean mustAlias(String local1, String local2) {
+        return chainOf(local1) == chainOf(local2);
+    }
+
+    /**
+     * Query whose ground truth is "no alias": the results of the first and the last chain. Every
+     * analysis that merges the chains anywhere answers it imprecisely.
+     */
+    public TestConfiguration distinctQuery(CallGraphAlgorithm algorithm) {
+        if (copies < 2) {
+            throw new IllegalStateException("The distinct-chain query needs at least two copies");
+        }
+        return new TestConfiguration(getMainClass(), "main", getMainClass(), "main",
+                "r0", "r" + (copies - 1), "java.lang.Object").setCallGraph(algorithm);
+    }
+
+    /**
+     * Query whose ground truth is "alias": the {@code B.foo} result and the final result of the first
+     * chain ({@code o0} may be reassigned, and so split, when there are several allocations).
+     */
+    public TestConfiguration sameChainQuery(CallGraphAlgorithm algorithm) {
+        return new TestConfiguration(getMainClass(), "main", getMainClass(), "main",
+                "v0", "r0", "java.lang.Object").setCallGraph(algorithm);
+    }
+
+    /** Generated compilation units, keyed by simple class name. */
+    public Map<String, String> sources() {
+        Map<String, String> units = new LinkedHashMap<>();
+        String pkg = "package " + getPackage() + ";\n\n";
+        units.put("A", pkg + "public class A {\n    Object f;\n}\n");
+        units.put("B", pkg + "public class B {\n"
+                + "    Object foo(Object x, A a) {\n"
+                + "        a.f = x;\n"
+                + "        Object t = a.f;\n"
+                + "        System.out.println(t);\n"
+                + "        return x;\n"
+                + "    }\n}\n");
+        for (int k = 0; k < wrapperDepth; k++) {
+            String next = k + 1 < wrapperDepth ? "W" + (k + 1) + ".call(b, x, a)" : "b.foo(x, a)";
+            units.put("W" + k, pkg + "public class W" + k + " {\n"
+                    + "    static Object call(B b, Object x, A a) {\n"
+                    + "        return " + next + ";\n"
+                    + "    }\n}\n");
+        }
+        for (int d = 0; d <= dispatchDepth && dispatchDepth > 0; d++) {
+            String header = d == 0 ? "public class D0" : "public class D" + d + " extends D" + (d - 1);
+            units.put("D" + d, pkg + header + " {\n"
+                    + "    Object id(Object x) {\n"
+                    + "        return x;\n"
+                    + "    }\n}\n");
+        }
+        if (containerDepth > 0) {
+            units.put("Box", pkg + "public class Box {\n"
+                    + "    private Object value;\n\n"
+                    + "    void set(Object value) {\n"
+                    + "        this.value = value;\n"
+                    + "    }\n\n"
+                    + "    Object get() {\n"
+                    + "        return value;\n"
+                    + "    }\n}\n");
+        }
+        units.put("Main", pkg + mainSource());
+        return units;
+    }
+
+    private String mainSource() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("public class Main {\n    public static void main(String[] args) {\n");
+        for (int i = 0; i < copies; i++) {
+            sb.append("        Object o").append(i).append(" = new Object();\n");
+            for (int a = 1; a < allocations; a++) {
+                sb.append("        if (args.length == ").append(a).append(") o").append(i).append(" = new Object();\n");
+            }
+            sb.append("        B b").append(i).append(" = new B();\n");
+            sb.append("        A a").append(i).append(" = new A();\n");
+            String call = wrapperDepth > 0 ? "W0.call(b" + i + ", o" + i + ", a" + i + ")" : "b" + i + ".foo(o" + i + ", a" + i + ")";
+            sb.append("        Object v").append(i).append(" = ").append(call).append(";\n");
+            String current = "v" + i;
+            if (dispatchDepth > 0) {
+                sb.append("        D0 h").append(i).append(" = new D").append(i % (dispatchDepth + 1)).append("();\n");
+                sb.append("        Object d").append(i).append(" = h").append(i).append(".id(").append(current).append(");\n");
+                current = "d" + i;
+            }
+            for (int c = 0; c < containerDepth; c++) {
+                String box = "box" + i + "_" + c;
+                sb.append("        Box ").append(box).append(" = new Box();\n");
+                sb.append("        ").append(box).append(".set(").append(current).append(");\n");
+                String next = c + 1 < containerDepth ? "t" + i + "_" + c : "r" + i;
+                sb.append("        Object ").append(next).append(" = ").append(box).append(".get();\n");
+                current = next;
+            }
+            if (containerDepth == 0) {
+                sb.append("        Object r").append(i).append(" = ").append(current).append(";\n");
+            }
+            sb.append("        System.out.println(r").append(i).append(");\n");
+        }
+        sb.append("    }\n}\n");
+        return sb.toString();
+    }
+
+    /** Directory the program's classes are compiled into, {@code target/synthetic/<id>}. */
+    public File getClassesDir() {
+        return new File("target/synthetic", getId());
+    }
+
+    /** Generates and compiles into {@link #getClassesDir()}. */
+    public SyntheticProgram generate() {
+        return generate(new File("target/generated-test-sources/synthetic"), getClassesDir());
+    }
+
+    /**
+     * Writes the sources under {@code sourceRoot} and compiles them with debug info (the query
+     * finds locals by their source names) into {@code classesDir}. Skips the compilation when the
+     * main class is already there; shapes never change once generated.
+     */
+    public SyntheticProgram generate(File sourceRoot, File classesDir) {
+        String path = getPackage().replace('.', File.separatorChar);
+        if (new File(classesDir, path + File.separator + "Main.class").isFile()) {
+            return this;
+        }
+        JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+        if (javac == null) {
+            throw new IllegalStateException("Generating programs needs a JDK; no system Java compiler found");
+        }
+        File dir = new File(sourceRoot, path);
+        dir.mkdirs();
+        classesDir.mkdirs();
+        List<String> args = new ArrayList<>(Arrays.asList("-g", "-nowarn", "-source", "1.8", "-target", "1.8",
+                "-d", classesDir.getPath()));
+        try {
+            for (Map.Entry<String, String> unit : sources().entrySet()) {
+                File file = new File(dir, unit.getKey() + ".java");
+                Files.write(file.toPath(), unit.getValue().getBytes(StandardCharsets.UTF_8));
+                args.add(file.getPath());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write generated program " + getId(), e);
+        }
+        if (javac.run(null, null, null, args.toArray(new String[0])) != 0) {
+            throw new IllegalStateException("Generated program " + getId() + " does not compile");
+        }
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return getId();
+    }
+}
@@ -0,0 +1,191 @@
+package br.ufpe.cin.pt.soot.select;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import br.ufpe.cin.pt.soot.CallGraphAlgorithm;
+import br.ufpe.cin.pt.soot.ForkedRun;
+import br.ufpe.cin.pt.soot.TestConfiguration;
+import br.ufpe.cin.pt.soot.history.HistoryStore;
+import br.ufpe.cin.pt.soot.history.RunRecord;
+import br.ufpe.cin.pt.soot.matrix.CostModel;
+
+/**
+ * Picks the most precise algorithm expected to finish within a time budget. A forked CHA probe
+ * measures the {@link ProgramFeatures} of the scenario, the {@link LearnedCostModel} predicts time
+ * and heap of every candidate, and the candidate with the highest {@link #precisionRank precision
+ * rank} whose pessimistic time (one deviation above the prediction) fits what is left of the
+ * budget, and whose heap fits the heap limit, runs in a fresh JVM. The run is reported next to its
+ * prediction, and both runs go to the history when one is set, so the model improves with use.
+ */
+public final class AlgorithmSelector {
+
+    /** Predictions for every candidate and the one chosen. */
+    public static final class Choice {
+        public final List<LearnedCostModel.Prediction> predictions;
+        public final LearnedCostModel.Prediction chosen;
+
+        Choice(List<LearnedCostModel.Prediction> predictions, LearnedCostModel.Prediction chosen) {
+            this.predictions = predictions;
+            this.chosen = chosen;
+        }
+    }
+
+    /** A probed, chosen and executed run. */
+    public static final class Selection {
+        public final ProgramFeatures features;
+        public final long probeMillis;
+        public final Choice choice;
+        public final ForkedRun.Outcome outcome;
+
+        Selection(ProgramFeatures features, long probeMillis, Choice choice, ForkedRun.Outcome outcome) {
+            this.features = features;
+            this.probeMillis = probeMillis;
+            this.choice = choice;
+            this.outcome = outcome;
+        }
+
+        /**
+         * Features, every prediction, and the chosen algorithm's predicted against actual cost. The
+         * model learns from the phases a run reports, so the prediction is set against their total;
+         * the wall time with JVM startup is shown next to it.
+         */
+        public String format() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("features: %s (probe %d ms)%n", features, probeMillis));
+            for (LearnedCostModel.Prediction p : choice.predictions) {
+                sb.append(p == choice.chosen ? "* " : "  ").append(p).append(System.lineSeparator());
+            }
+            LearnedCostModel.Prediction p = choice.chosen;
+            sb.append(String.format("%s: %s, predicted %d ms / %d MB, actual %d ms (wall %d ms) / %d MB%n",
+                    p.algorithm.getName(), outcome.status, p.millis, p.heapMB, outcome.report.totalMillis(),
+                    outcome.wallMillis, outcome.peakHeapMB));
+            return sb.toString();
+        }
+    }
+
+    private final LearnedCostModel model;
+    private List<CallGraphAlgorithm> candidates = Arrays.asList(CallGraphAlgorithm.values());
+    private long heapLimitMB = 16384;
+    private int minHeapMB = 512;
+    private HistoryStore history;
+
+    public AlgorithmSelector(LearnedCostModel model) {
+        this.model = model;
+    }
+
+    /** Algorithms to choose from; all of them by default. */
+    public AlgorithmSelector setCandidates(List<CallGraphAlgorithm> candidates) {
+        this.candidates = candidates;
+        return this;
+    }
+
+    /** Largest heap a run may be given; candidates predicted to need more are skipped. */
+    public AlgorithmSelector setHeapLimitMB(long heapLimitMB) {
+        this.heapLimitMB = heapLimitMB;
+        return this;
+    }
+
+    /** History the probe and the chosen run are appended to. */
+    public AlgorithmSelector setHistory(HistoryStore history) {
+        this.history = history;
+        return this;
+    }
+
+    /**
+     * Static precision order of the algorithms, from their heap and context abstraction: CHA, RTA,
+     * VTA and fully coarse Spark, Spark with a type-based heap or field-based fields, Qilin INSENS
+     * with merged builders, insensitive points-to (Spark, Qilin INSENS), then 1-call-site/type,
+     * 1-object, selective, merged and plain 2-call-site/type, 2-object and heap-context variants,
+     * and the 3-level variants likewise.
+     */
+    public static int precisionRank(CallGraphAlgorithm algorithm) {
+        switch (algorithm) {
+            case SOOT_CHA: return 0;
+            case SOOT_RTA: return 1;
+            case SOOT_VTA:
+            case SOOT_SPARK_COARSE: return 2;
+            case SOOT_SPARK_TYPES:
+            case SOOT_SPARK_FIELDS: return 3;
+            case QILIN_INSENS_MH: return 4;
+            case SOOT_SPARK:
+            case QILIN_INSENS: return 5;
+            case QILIN_1C:
+            case QILIN_1T: return 6;
+            case QILIN_1O: return 7;
+            case QILIN_2C:
+            case QILIN_2T:
+            case QILIN_2O_MH:
+            case QILIN_B2O:
+            case QILIN_D2O:
+            case QILIN_D2C:
+            case QILIN_E2O:
+            case QILIN_T2O:
+            case QILIN_M2O:
+            case QILIN_M2C:
+            case QILIN_Z2O:
+            case QILIN_Z2C: return 8;
+            case QILIN_2O:
+            case QILIN_2H:
+            case QILIN_2HT: return 9;
+            case QILIN_3C:
+            case QILIN_3T: return 10;
+            default: return 11;  // 3O, 3H, 3HT
+        }
+    }
+
+    /**
+     * The most precise candidate whose pessimistic time fits {@code budgetMillis} and whose heap fits
+     * the limit; ties go to the fastest. If nothing fits, the candidate predicted to be fastest.
+     */
+    public Choice choose(ProgramFeatures features, long budgetMillis) {
+        List<LearnedCostModel.Prediction> predictions = new ArrayList<>();
+        LearnedCostModel.Prediction best = null;
+        LearnedCostModel.Prediction fastest = null;
+        for (CallGraphAlgorithm algorithm : candidates) {
+            LearnedCostModel.Prediction p = model.predict(features, algorithm);
+            predictions.add(p);
+            if (fastest == null || p.millis < fastest.millis) fastest = p;
+            if (p.millisAt(1) > budgetMillis || p.heapMB > heapLimitMB) continue;
+            if (best == null || precisionRank(algorithm) > precisionRank(best.algorithm)
+                    || precisionRank(algorithm) == precisionRank(best.algorithm) && p.millis < best.millis) {
+                best = p;
+            }
+        }
+        return new Choice(predictions, best != null ? best : fastest);
+    }
+
+    /**
+     * Probes the scenario with forked CHA, chooses with what is left of {@code budgetMillis}, and runs
+     * the choice forked with that remainder plus JVM startup as its timeout and 1.5 times its predicted
+     * heap. Predictions cover the phases only, so the startup allowance keeps a run that fits the
+     * remainder from being killed.
+     */
+    public Selection run(TestConfiguration config, long budgetMillis) {
+        TestConfiguration probeConfig = config.copy().setCallGraph(CallGraphAlgorithm.SOOT_CHA).setProgramFeatures(true);
+        ForkedRun.Outcome probe = new ForkedRun(probeConfig)
+                .setTimeoutSeconds(Math.max(1, budgetMillis / 1000))
+                .execute();
+        record(config, probe);
+        if (probe.status != ForkedRun.Status.OK) {
+            throw new IllegalStateException("Feature probe failed for " + config.getScenario() + ": " + probe);
+        }
+        ProgramFeatures features = ProgramFeatures.fromMetrics(probe.report.getMetrics());
+        long remaining = Math.max(1000, budgetMillis - probe.wallMillis);
+        Choice choice = choose(features, remaining);
+        int heapMB = (int) Math.min(heapLimitMB, Math.max(minHeapMB, (long) (choice.chosen.heapMB * 1.5)));
+        ForkedRun.Outcome outcome = new ForkedRun(config.copy().setCallGraph(choice.chosen.algorithm))
+                .setHeapMB(heapMB)
+                .setTimeoutSeconds(Math.max(1, (remaining + CostModel.JVM_STARTUP_MILLIS) / 1000))
+                .execute();
+        record(config, outcome);
+        return new Selection(features, probe.wallMillis, choice, outcome);
+    }
+
+    private void record(TestConfiguration config, ForkedRun.Outcome outcome) {
+        if (history != null && outcome.status == ForkedRun.Status.OK) {
+            history.append(RunRecord.of(config.getScenario(), outcome.status.name(), outcome.report, outcome.peakHeapMB));
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package br.ufpe.cin.pt.soot.select;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import br.ufpe.cin.pt.soot.CallGraphAlgorithm;
+import br.ufpe.cin.pt.soot.history.HistoryStore;
+import br.ufpe.cin.pt.soot.history.RunRecord;
+import br.ufpe.cin.pt.soot.matrix.CostModel;
+
+/**
+ * Time and heap predictions per algorithm from {@link ProgramFeatures}, learned from the run history.
+ * <p>
+ * Every successful run of a scenario whose features are known (the latest record of the scenario
+ * carrying {@code features.*} metrics, usually a probe) is one sample. For each algorithm with
+ * enough samples, log total time and log peak heap are fitted by ridge least squares on the log
+ * features ({@link ProgramFeatures#regressors()}). Algorithms with few samples share one pooled fit
+ * in which the {@link CostModel#prior cost prior} of the algorithm is a fixed offset (its square root
+ * for the heap); without any usable history only the prior remains. Every prediction carries the
+ * residual standard deviation of its fit (in log space), so callers can ask for a safety margin.
+ */
+public final class LearnedCostModel {
+
+    static final int MIN_SAMPLES_PER_ALGORITHM = 10;
+    static final double RIDGE = 1e-3;
+    static final double PRIOR_SIGMA = Math.log(4);  // the prior is a rough order of magnitude
+    static final double PRIOR_BASE_MILLIS = 20_000;
+    static final double PRIOR_HEAP_MB = 4096;
+
+    /** How a prediction was obtained. */
+    public enum Basis { ALGORITHM, POOLED, PRIOR }
+
+    /** Predicted cost of one algorithm on one program. */
+    public static final class Prediction {
+        public final CallGraphAlgorithm algorithm;
+        public final long millis;
+        public final long heapMB;
+        public final double sigma;  // residual standard deviation of the fit, in log space
+        public final Basis basis;
+
+        Prediction(CallGraphAlgorithm algorithm, long millis, long heapMB, double sigma, Basis basis) {
+            this.algorithm = algorithm;
+            this.millis = millis;
+            this.heapMB = heapMB;
+            this.sigma = sigma;
+            this.basis = basis;
+        }
+
+        /** Predicted time at {@code z} standard deviations above the fit, e.g. 1 for a safety margin. */
+        public long millisAt(double z) {
+            return (long) (millis * Math.exp(z * sigma));
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d ms (x%.2f), %d MB, %s", algorithm.getName(), millis, Math.exp(sigma), heapMB,
+                    basis.name().toLowerCase());
+        }
+    }
+
+    /** Fitted coefficients of log time and log heap, and the residual deviation of log time. */
+    private static final class Fit {
+        final double[] time;
+        final double[] heap;
+        final double timeSigma;
+
+        Fit(double[] time, double[] heap, double timeSigma) {
+            this.time = time;
+            this.heap = heap;
+            this.timeSigma = timeSigma;
+        }
+    }
+
+    private final Map<CallGraphAlgorithm, Fit> fits;
+    private final Fit pooled;  // null when there are too few samples overall
+    private final int samples;
+
+    private LearnedCostModel(Map<CallGraphAlgorithm, Fit> fits, Fit pooled, int samples) {
+        this.fits = fits;
+        this.pooled = pooled;
+        this.samples = samples;
+    }
+
+    /** Model over the runs of this machine in {@code history}. */
+    public static LearnedCostModel fit(HistoryStore history) {
+        String machine = RunRecord.currentMachine();
+        return fit(history.records(r -> r.getMachine().equals(machine)));
+    }
+
+    /** Model over the given records, which should all come from one machine. */
+    public static LearnedCostModel fit(List<RunRecord> records) {
+        Map<String, ProgramFeatures> features = new HashMap<>();
+        for (RunRecord r : records) {  // oldest first, so the latest features win
+            ProgramFeatures f = ProgramFeatures.fromMetrics(r.getMetrics());
+            if (f != null) features.put(r.getScenario(), f);
+        }
+        Map<CallGraphAlgorithm, List<double[]>> rows = new HashMap<>();
+        Map<CallGraphAlgorithm, List<double[]>> targets = new HashMap<>();
+        int samples = 0;
+        for (RunRecord r : records) {
+            ProgramFeatures f = features.get(r.getScenario());
+            CallGraphAlgorithm algorithm = byName(r.getAlgorithm());
+            Double millis = r.measure("totalMs");
+            Double heap = r.measure("peakHeapMB");
+            if (f == null || algorithm == null || !r.getStatus().equals("OK") || millis == null || heap == null) continue;
+            rows.computeIfAbsent(algorithm, k -> new ArrayList<>()).add(f.regressors());
+            targets.computeIfAbsent(algorithm, k -> new ArrayList<>())
+                    .add(new double[] {Math.log(Math.max(1, millis)), Math.log(Math.max(1, heap))});
+            samples++;
+        }
+
+        Map<CallGraphAlgorithm, Fit> fits = new HashMap<>();
+        List<double[]> pooledRows = new ArrayList<>();
+        List<double[]> pooledTargets = new ArrayList<>();
+        for (Map.Entry<CallGraphAlgorithm, List<double[]>> e : rows.entrySet()) {
+            List<double[]> y = targets.get(e.getKey());
+            if (e.getValue().size() >= MIN_SAMPLES_PER_ALGORITHM) {
+                fits.put(e.getKey(), solve(e.getValue(), y));
+            }
+            double offset = Math.log(CostModel.prior(e.getKey()));
+            for (int i = 0; i < y.size(); i++) {
+                pooledRows.add(e.getValue().get(i));
+                pooledTargets.add(new double[] {y.get(i)[0] - offset, y.get(i)[1] - offset / 2});
+            }
+        }
+        Fit pooled = pooledRows.size() >= MIN_SAMPLES_PER_ALGORITHM ? solve(pooledRows, pooledTargets) : null;
+        return new LearnedCostModel(fits, pooled, samples);
+    }
+
+    /** Number of runs the model was fitted on. */
+    public int getSamples() {
+        return samples;
+    }
+
+    public Prediction predict(ProgramFeatures features, CallGraphAlgorithm algorithm) {
+        double[] x = features.regressors();
+        Fit fit = fits.get(algorithm);
+        if (fit != null) {
+            return new Prediction(algorithm, (long) Math.exp(dot(fit.time, x)), heapMB(dot(fit.heap, x)),
+                    fit.timeSigma, Basis.ALGORITHM);
+        }
+        double prior = CostModel.prior(algorithm);
+        if (pooled != null) {
+            return new Prediction(algorithm, (long) (prior * Math.exp(dot(pooled.time, x))),
+                    heapMB(dot(pooled.heap, x) + Math.log(prior) / 2), pooled.timeSigma, Basis.POOLED);
+        }
+        return new Prediction(algorithm, (long) (PRIOR_BASE_MILLIS * prior), (long) PRIOR_HEAP_MB, PRIOR_SIGMA,
+                Basis.PRIOR);
+    }
+
+    private static long heapMB(double logHeap) {
+        return (long) Math.ceil(Math.exp(logHeap));
+    }
+
+    /**
+     * Ridge least squares of both target columns on the rows, through the normal equations. The
+     * intercept (column 0) is not penalised.
+     */
+    private static Fit solve(List<double[]> rows, List<double[]> targets) {
+        int p = rows.get(0).length;
+        double[][] xtx = new double[p][p];
+        double[][] xty = new double[2][p];
+        for (int i = 0; i < rows.size(); i++) {
+            double[] x = rows.get(i);
+            for (int a = 0; a < p; a++) {
+                for (int b = 0; b < p; b++) {
+                    xtx[a][b] += x[a] * x[b];
+                }
+                xty[0][a] += x[a] * targets.get(i)[0];
+                xty[1][a] += x[a] * targets.get(i)[1];
+            }
+        }
+        for (int a = 1; a < p; a++) {
+            xtx[a][a] += RIDGE * rows.size();
+        }
+        double[] time = gauss(xtx, xty[0]);
+        double[] heap = gauss(xtx, xty[1]);
+        double rss = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            rss += square(targets.get(i)[0] - dot(time, rows.get(i)));
+        }
+        return new Fit(time, heap, Math.sqrt(rss / Math.max(1, rows.size() - p)));
+    }
+
+    /** Solution of {@code a x = b} by Gaussian elimination with partial pivoting; inputs are not modified. */
+    static double[] gauss(double[][] a, double[] b) {
+        int n = b.length;
+        double[][] m = new double[n][n + 1];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(a[i], 0, m[i], 0, n);
+            m[i][n] = b[i];
+        }
+        for (int col = 0; col < n; col++) {
+            int pivot = col;
+            for (int row = col + 1; row < n; row++) {
+                if (Math.abs(m[row][col]) > Math.abs(m[pivot][col])) pivot = row;
+            }
+            double[] tmp = m[col];
+            m[col] = m[pivot];
+            m[pivot] = tmp;
+            if (Math.abs(m[col][col]) < 1e-12) continue;  // singular direction: leave its coefficient at 0
+            for (int row = 0; row < n; row++) {
+                if (row == col) continue;
+                double f = m[row][col] / m[col][col];
+                for (int k = col; k <= n; k++) {
+                    m[row][k] -= f * m[col][k];
+                }
+            }
+        }
+        double[] x = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = Math.abs(m[i][i]) < 1e-12 ? 0 : m[i][n] / m[i][i];
+        }
+        return x;
+    }
+
+    private static double dot(double[] a, double[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    private static double square(double x) {
+        return x * x;
+    }
+
+    private static CallGraphAlgorithm byName(String name) {
+        for (CallGraphAlgorithm algorithm : CallGraphAlgorithm.values()) {
+            if (algorithm.getName().equals(name)) return algorithm;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,135 @@
+package br.ufpe.cin.pt.soot.select;
+
+import java.util.Iterator;
+import java.util.Map;
+
+import br.ufpe.cin.pt.soot.RunReport;
+import br.ufpe.cin.pt.soot.pta.PTA;
+import soot.FastHierarchy;
+import soot.RefType;
+import soot.Scene;
+import soot.SootMethod;
+import soot.Type;
+import soot.Unit;
+import soot.Value;
+import soot.jimple.AssignStmt;
+import soot.jimple.InterfaceInvokeExpr;
+import soot.jimple.InvokeExpr;
+import soot.jimple.NewExpr;
+import soot.jimple.Stmt;
+import soot.jimple.VirtualInvokeExpr;
+import soot.jimple.toolkits.callgraph.CallGraph;
+import soot.jimple.toolkits.callgraph.Edge;
+
+/**
+ * Cheap size and shape features of a program, measured over the reachable methods of a fast
+ * (CHA or insensitive) run: how much code the precise analyses will see, how much dispatch they
+ * must resolve, how many objects they must track, and how much of it flows through containers,
+ * where context sensitivity costs the most.
+ * <p>
+ * Features travel in the run report as {@code features.*} metrics, so they end up in the
+ * {@code HistoryStore} next to the costs they are used to predict.
+ */
+public final class ProgramFeatures {
+
+    static final String PREFIX = "features.";
+
+    public final long reachableMethods;
+    public final long statements;
+    public final long virtualCallSites;
+    public final long polymorphicCallSites;
+    public final long allocationSites;
+    public final long containerSites;  // container allocations plus calls on Collection and Map receivers
+
+    public ProgramFeatures(long reachableMethods, long statements, long virtualCallSites, long polymorphicCallSites,
+                           long allocationSites, long containerSites) {
+        this.reachableMethods = reachableMethods;
+        this.statements = statements;
+        this.virtualCallSites = virtualCallSites;
+        this.polymorphicCallSites = polymorphicCallSites;
+        this.allocationSites = allocationSites;
+        this.containerSites = containerSites;
+    }
+
+    /** One pass over the bodies of the PTA's reachable methods; methods without bodies only count as reachable. */
+    public static ProgramFeatures extract(PTA pta) {
+        CallGraph cg = pta.getCallGraph();
+        FastHierarchy hierarchy = Scene.v().getOrMakeFastHierarchy();
+        Type collection = RefType.v("java.util.Collection");
+        Type map = RefType.v("java.util.Map");
+        long methods = 0, statements = 0, virtualSites = 0, polymorphic = 0, allocations = 0, containers = 0;
+        for (SootMethod m : pta.getReachableMethods()) {
+            methods++;
+            if (!m.hasActiveBody()) continue;
+            for (Unit u : m.getActiveBody().getUnits()) {
+                statements++;
+                Stmt stmt = (Stmt) u;
+                if (stmt.containsInvokeExpr()) {
+                    InvokeExpr invoke = stmt.getInvokeExpr();
+                    if (invoke instanceof VirtualInvokeExpr || invoke instanceof InterfaceInvokeExpr) {
+                        virtualSites++;
+                        if (hasSeveralTargets(cg, u)) polymorphic++;
+                    }
+                    Type owner = invoke.getMethodRef().getDeclaringClass().getType();
+                    if (isContainer(hierarchy, owner, collection, map)) containers++;
+                } else if (stmt instanceof AssignStmt) {
+                    Value rhs = ((AssignStmt) stmt).getRightOp();
+                    if (rhs instanceof NewExpr) {
+                        allocations++;
+                        if (isContainer(hierarchy, rhs.getType(), collection, map)) containers++;
+                    }
+                }
+            }
+        }
+        return new ProgramFeatures(methods, statements, virtualSites, polymorphic, allocations, containers);
+    }
+
+    private static boolean hasSeveralTargets(CallGraph cg, Unit u) {
+        Iterator<Edge> edges = cg.edgesOutOf(u);
+        SootMethod first = null;
+        while (edges.hasNext()) {
+            SootMethod tgt = edges.next().tgt();
+            if (first == null) first = tgt;
+            else if (tgt != first) return true;
+        }
+        return false;
+    }
+
+    private static boolean isContainer(FastHierarchy hierarchy, Type type, Type collection, Type map) {
+        return hierarchy.canStoreType(type, collection) || hierarchy.canStoreType(type, map);
+    }
+
+    public void addTo(RunReport report) {
+        report.addMetric(PREFIX + "reachableMethods", reachableMethods);
+        report.addMetric(PREFIX + "statements", statements);
+        report.addMetric(PREFIX + "virtualCallSites", virtualCallSites);
+        report.addMetric(PREFIX + "polymorphicCallSites", polymorphicCallSites);
+        report.addMetric(PREFIX + "allocationSites", allocationSites);
+        report.addMetric(PREFIX + "containerSites", containerSites);
+    }
+
+    /** Features recorded by {@link #addTo}, or null if the metrics do not have them. */
+    public static ProgramFeatures fromMetrics(Map<String, Number> metrics) {
+        if (!metrics.containsKey(PREFIX + "reachableMethods")) return null;
+        return new ProgramFeatures(get(metrics, "reachableMethods"), get(metrics, "statements"),
+                get(metrics, "virtualCallSites"), get(metrics, "polymorphicCallSites"),
+                get(metrics, "allocationSites"), get(metrics, "containerSites"));
+    }
+
+    private static long get(Map<String, Number> metrics, String name) {
+        Number value = metrics.get(PREFIX + name);
+        return value == null ? 0 : value.longValue();
+    }
+
+    /** Regressors of the cost model: an intercept, then the log of every size feature. */
+    double[] regressors() {
+        return new double[] {1, Math.log1p(statements), Math.log1p(polymorphicCallSites),
+                Math.log1p(allocationSites), Math.log1p(containerSites)};
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d methods, %d statements, %d/%d polymorphic call sites, %d allocation sites, %d container sites",
+                reachableMethods, statements, polymorphicCallSites, virtualCallSites, allocationSites, containerSites);
+    }
+}
@@ -0,0 +1,223 @@
+package br.ufpe.cin.pt.soot.spark;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+import br.ufpe.cin.pt.soot.CallGraphAlgorithm;
+import br.ufpe.cin.pt.soot.ForkedRun;
+import br.ufpe.cin.pt.soot.TestConfiguration;
+import br.ufpe.cin.pt.soot.store.MappedPointsToStore;
+import br.ufpe.cin.pt.soot.store.PointsToDiff;
+import br.ufpe.cin.pt.soot.store.PointsToRelation;
+
+/**
+ * Sweeps {@link SparkOptions} on one workload and finds the fastest and the leanest configuration
+ * that computes exactly the points-to relation of Spark's defaults.
+ * <p>
+ * Every trial runs in a fresh JVM ({@link ForkedRun}) and exports its relation; the relation is
+ * diffed against the baseline's ({@link PointsToDiff}), so a configuration only qualifies if no
+ * pointer's set changed. Solve time is the minimum over the repetitions, peak heap the maximum.
+ * {@link #tune()} sweeps one knob at a time and then tries the combination of the knob values that
+ * beat the baseline, once for time and once for heap.
+ */
+public final class SparkExplorer {
+
+    /** One configuration run on the workload. */
+    public static final class Trial {
+        public final SparkOptions options;
+        public final ForkedRun.Outcome outcome;  // the last repetition
+        public final long solveMillis;           // minimum over the repetitions, -1 if a run failed
+        public final long peakHeapMB;            // maximum over the repetitions, -1 if a run failed
+        public final int changedPointers;        // against the baseline, -1 if a run failed
+
+        Trial(SparkOptions options, ForkedRun.Outcome outcome, long solveMillis, long peakHeapMB, int changedPointers) {
+            this.options = options;
+            this.outcome = outcome;
+            this.solveMillis = solveMillis;
+            this.peakHeapMB = peakHeapMB;
+            this.changedPointers = changedPointers;
+        }
+
+        /** Whether the trial succeeded with the baseline's relation. */
+        public boolean isIdentical() {
+            return changedPointers == 0;
+        }
+    }
+
+    private final TestConfiguration workload;
+    private File workDir = new File("target/spark-explorer");
+    private int heapMB = 4096;
+    private long timeoutSeconds = 1800;
+    private int repetitions = 1;
+    private final List<Trial> trials = new ArrayList<>();
+    private PointsToRelation baseline;
+
+    /** Explorer over the workload's scenario; the algorithm is always SOOT_SPARK. */
+    public SparkExplorer(TestConfiguration workload) {
+        this.workload = workload.copy().setCallGraph(CallGraphAlgorithm.SOOT_SPARK);
+    }
+
+    /** Where the trials export their relations; defaults to {@code target/spark-explorer}. */
+    public SparkExplorer setWorkDir(File workDir) {
+        this.workDir = workDir;
+        return this;
+    }
+
+    /** Heap budget of each run ({@code -Xmx} of the worker JVM). */
+    public SparkExplorer setHeapMB(int heapMB) {
+        this.heapMB = heapMB;
+        return this;
+    }
+
+    /** Time budget of each run; slower configurations fail with TIMEOUT. */
+    public SparkExplorer setTimeoutSeconds(long timeoutSeconds) {
+        this.timeoutSeconds = timeoutSeconds;
+        return this;
+    }
+
+    /** Runs per configuration, to take the noise out of the solve time. */
+    public SparkExplorer setRepetitions(int repetitions) {
+        this.repetitions = repetitions;
+        return this;
+    }
+
+    /** Runs every configuration not tried yet; the defaults run first and become the baseline. */
+    public List<Trial> run(List<SparkOptions> space) {
+        if (baseline == null) {
+            trial(SparkOptions.defaults());
+            if (baseline == null) {
+                throw new IllegalStateException("Spark's default configuration failed: " + trials.get(0).outcome);
+            }
+        }
+        for (SparkOptions options : space) {
+            if (find(options) == null) trial(options);
+        }
+        return getTrials();
+    }
+
+    /**
+     * One knob at a time, then the combination of every knob value that was identical and faster
+     * than the baseline, and likewise for heap.
+     */
+    public List<Trial> tune() {
+        run(SparkOptions.oneAtATime());
+        run(Collections.singletonList(combinationOfWinners(t -> t.solveMillis)));
+        run(Collections.singletonList(combinationOfWinners(t -> t.peakHeapMB)));
+        return getTrials();
+    }
+
+    /** Identical trials better than the baseline on the measure, folded so the best value wins each knob. */
+    private SparkOptions combinationOfWinners(ToLongFunction<Trial> measure) {
+        long base = measure.applyAsLong(trials.get(0));
+        List<Trial> winners = new ArrayList<>();
+        for (Trial t : trials) {
+            if (t.isIdentical() && measure.applyAsLong(t) < base) winners.add(t);
+        }
+        winners.sort(Comparator.comparingLong(measure).reversed());
+        SparkOptions combined = SparkOptions.defaults();
+        for (Trial t : winners) {
+            combined = SparkOptions.combine(combined, t.options);
+        }
+        return combined;
+    }
+
+    private void trial(SparkOptions options) {
+        File export = new File(workDir, "trial-" + trials.size() + ".pts");
+        export.getParentFile().mkdirs();
+        TestConfiguration config = workload.copy().setSparkOptions(options).setPointsToExport(export);
+        ForkedRun.Outcome outcome = null;
+        long solve = Long.MAX_VALUE;
+        long peak = 0;
+        for (int i = 0; i < repetitions; i++) {
+            outcome = new ForkedRun(config).setHeapMB(heapMB).setTimeoutSeconds(timeoutSeconds).execute();
+            if (outcome.status != ForkedRun.Status.OK) break;
+            solve = Math.min(solve, outcome.report.getPhase("solve"));
+            peak = Math.max(peak, outcome.peakHeapMB);
+        }
+        if (outcome.status != ForkedRun.Status.OK) {
+            trials.add(new Trial(options, outcome, -1, -1, -1));
+            return;
+        }
+        PointsToRelation relation = MappedPointsToStore.read(export);
+        export.delete();
+        int changed = 0;
+        if (baseline == null) {
+            baseline = relation;
+        } else {
+            changed = PointsToDiff.compute(baseline, relation).total().changed();
+        }
+        trials.add(new Trial(options, outcome, solve, peak, changed));
+    }
+
+    private Trial find(SparkOptions options) {
+        for (Trial t : trials) {
+            if (t.options.equals(options)) return t;
+        }
+        return null;
+    }
+
+    public List<Trial> getTrials() {
+        return Collections.unmodifiableList(trials);
+    }
+
+    /** Identical trial with the lowest solve time, or null before any run. */
+    public Trial fastest() {
+        return best(t -> t.solveMillis);
+    }
+
+    /** Identical trial with the lowest peak heap, or null before any run. */
+    public Trial leanest() {
+        return best(t -> t.peakHeapMB);
+    }
+
+    private Trial best(ToLongFunction<Trial> measure) {
+        Trial best = null;
+        for (Trial t : trials) {
+            if (t.isIdentical() && (best == null || measure.applyAsLong(t) < measure.applyAsLong(best))) best = t;
+        }
+        return best;
+    }
+
+    /** Tab-separated table with a header line; the options column is {@link SparkOptions#toString()}. */
+    public void writeTsv(File file) {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) parent.mkdirs();
+        try (BufferedWriter out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            out.write("label\tstatus\tsolveMs\tpeakHeapMB\tchangedPointers\toptions");
+            out.newLine();
+            for (Trial t : trials) {
+                out.write(t.options.label() + '\t' + t.outcome.status + '\t' + t.solveMillis + '\t' + t.peakHeapMB
+                        + '\t' + t.changedPointers + '\t' + t.options);
+                out.newLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write Spark exploration to " + file, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-36s %-13s %10s %9s %9s%n", "configuration", "status", "solve ms", "heap MB", "changed"));
+        for (Trial t : trials) {
+            sb.append(String.format("%-36s %-13s %10d %9d %9d%n", t.options.label(), t.outcome.status, t.solveMillis,
+                    t.peakHeapMB, t.changedPointers));
+        }
+        Trial fastest = fastest();
+        Trial leanest = leanest();
+        if (fastest != null) {
+            sb.append(String.format("fastest: %s (%d ms)%nleanest: %s (%d MB)%n", fastest.options.label(),
+                    fastest.solveMillis, leanest.options.label(), leanest.peakHeapMB));
+        }
+        return sb.toString();
+    }
+}
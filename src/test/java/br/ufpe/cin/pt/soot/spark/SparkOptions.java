@@ -0,0 +1,236 @@
+package br.ufpe.cin.pt.soot.spark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import soot.options.Options;
+
+/**
+ * Spark's performance knobs as one immutable value: the propagator, the points-to set
+ * implementation (and for {@code double} sets, the implementations of the old and new halves),
+ * SCC collapsing, offline variable substitution, and type filtering. The defaults are Soot's.
+ * <p>
+ * {@link #toString()} is the list of {@code cg.spark} phase options and {@link #parse} reads it
+ * back, so an options value can be handed to a worker JVM or stored next to a measurement.
+ * {@code ignore-types} makes sets larger, so configurations with it never give Spark's normal result.
+ * Spark only runs its SCC and offline simplifications when it builds the call graph ahead of the
+ * solve, so {@link #apply} turns {@code on-fly-cg} off when either is set; that trades the on-the-fly
+ * call graph for a CHA one, which changes the result, and the sweeps leave both switches out.
+ */
+public final class SparkOptions {
+
+    public enum Propagator { WORKLIST, ITER, ALIAS, MERGE }
+
+    public enum SetImpl { HYBRID, BIT, HASH, SHAREDLIST, DOUBLE }
+
+    private static final List<SetImpl> DOUBLE_HALVES = Arrays.asList(SetImpl.HYBRID, SetImpl.BIT, SetImpl.HASH);
+
+    private final Propagator propagator;
+    private final SetImpl setImpl;
+    private final SetImpl doubleSetOld;
+    private final SetImpl doubleSetNew;
+    private final boolean simplifySccs;
+    private final boolean simplifyOffline;
+    private final boolean ignoreTypes;
+
+    private SparkOptions(Propagator propagator, SetImpl setImpl, SetImpl doubleSetOld, SetImpl doubleSetNew,
+                         boolean simplifySccs, boolean simplifyOffline, boolean ignoreTypes) {
+        if (doubleSetOld == SetImpl.DOUBLE || doubleSetNew == SetImpl.DOUBLE) {
+            throw new IllegalArgumentException("The halves of a double set cannot be double sets");
+        }
+        this.propagator = propagator;
+        this.setImpl = setImpl;
+        this.doubleSetOld = doubleSetOld;
+        this.doubleSetNew = doubleSetNew;
+        this.simplifySccs = simplifySccs;
+        this.simplifyOffline = simplifyOffline;
+        this.ignoreTypes = ignoreTypes;
+    }
+
+    /** Soot's defaults: worklist propagation over hybrid/hybrid double sets, no simplification, types on. */
+    public static SparkOptions defaults() {
+        return new SparkOptions(Propagator.WORKLIST, SetImpl.DOUBLE, SetImpl.HYBRID, SetImpl.HYBRID, false, false, false);
+    }
+
+    public SparkOptions withPropagator(Propagator propagator) {
+        return new SparkOptions(propagator, setImpl, doubleSetOld, doubleSetNew, simplifySccs, simplifyOffline, ignoreTypes);
+    }
+
+    public SparkOptions withSetImpl(SetImpl setImpl) {
+        return new SparkOptions(propagator, setImpl, doubleSetOld, doubleSetNew, simplifySccs, simplifyOffline, ignoreTypes);
+    }
+
+    /** Implementations of the two halves of a {@code double} set; ignored for the other set kinds. */
+    public SparkOptions withDoubleSets(SetImpl oldSet, SetImpl newSet) {
+        return new SparkOptions(propagator, setImpl, oldSet, newSet, simplifySccs, simplifyOffline, ignoreTypes);
+    }
+
+    public SparkOptions withSimplifySccs(boolean simplifySccs) {
+        return new SparkOptions(propagator, setImpl, doubleSetOld, doubleSetNew, simplifySccs, simplifyOffline, ignoreTypes);
+    }
+
+    public SparkOptions withSimplifyOffline(boolean simplifyOffline) {
+        return new SparkOptions(propagator, setImpl, doubleSetOld, doubleSetNew, simplifySccs, simplifyOffline, ignoreTypes);
+    }
+
+    public SparkOptions withIgnoreTypes(boolean ignoreTypes) {
+        return new SparkOptions(propagator, setImpl, doubleSetOld, doubleSetNew, simplifySccs, simplifyOffline, ignoreTypes);
+    }
+
+    public Propagator getPropagator() {
+        return propagator;
+    }
+
+    public SetImpl getSetImpl() {
+        return setImpl;
+    }
+
+    public boolean isIgnoreTypes() {
+        return ignoreTypes;
+    }
+
+    /**
+     * Every value of one knob at a time, the others at their defaults: the four propagators, the
+     * plain set kinds, the double-set halves, and {@code ignore-types}. The simplifications are left
+     * out because they need the call graph built ahead of the solve (see {@link #apply}).
+     */
+    public static List<SparkOptions> oneAtATime() {
+        SparkOptions base = defaults();
+        List<SparkOptions> space = new ArrayList<>();
+        space.add(base);
+        for (Propagator p : Propagator.values()) {
+            if (p != base.propagator) space.add(base.withPropagator(p));
+        }
+        for (SetImpl s : SetImpl.values()) {
+            if (s != SetImpl.DOUBLE) space.add(base.withSetImpl(s));
+        }
+        for (SetImpl oldSet : DOUBLE_HALVES) {
+            for (SetImpl newSet : DOUBLE_HALVES) {
+                if (oldSet != base.doubleSetOld || newSet != base.doubleSetNew) space.add(base.withDoubleSets(oldSet, newSet));
+            }
+        }
+        space.add(base.withIgnoreTypes(true));
+        return space;
+    }
+
+    /** The full product of the knobs except the simplifications (104 configurations), for small workloads. */
+    public static List<SparkOptions> product() {
+        List<SparkOptions> space = new ArrayList<>();
+        for (Propagator p : Propagator.values()) {
+            for (SetImpl s : SetImpl.values()) {
+                List<SetImpl> olds = s == SetImpl.DOUBLE ? DOUBLE_HALVES : Arrays.asList(SetImpl.HYBRID);
+                List<SetImpl> news = s == SetImpl.DOUBLE ? DOUBLE_HALVES : Arrays.asList(SetImpl.HYBRID);
+                for (SetImpl oldSet : olds) {
+                    for (SetImpl newSet : news) {
+                        space.add(new SparkOptions(p, s, oldSet, newSet, false, false, false));
+                        space.add(new SparkOptions(p, s, oldSet, newSet, false, false, true));
+                    }
+                }
+            }
+        }
+        return space;
+    }
+
+    /**
+     * Combines the knob values of {@code a} and {@code b} that differ from the defaults, {@code b}
+     * winning where both change the same knob. Used to merge the winners of a one-at-a-time sweep.
+     */
+    public static SparkOptions combine(SparkOptions a, SparkOptions b) {
+        SparkOptions d = defaults();
+        return new SparkOptions(
+                b.propagator != d.propagator ? b.propagator : a.propagator,
+                b.setImpl != d.setImpl ? b.setImpl : a.setImpl,
+                b.doubleSetOld != d.doubleSetOld || b.doubleSetNew != d.doubleSetNew ? b.doubleSetOld : a.doubleSetOld,
+                b.doubleSetOld != d.doubleSetOld || b.doubleSetNew != d.doubleSetNew ? b.doubleSetNew : a.doubleSetNew,
+                a.simplifySccs || b.simplifySccs,
+                a.simplifyOffline || b.simplifyOffline,
+                a.ignoreTypes || b.ignoreTypes);
+    }
+
+    /**
+     * Sets the options on the {@code cg.spark} phase; call after the algorithm has enabled Spark.
+     * With {@code simplify-sccs} or {@code simplify-offline} it also sets {@code on-fly-cg:false},
+     * without which Spark skips both simplifications.
+     */
+    public void apply() {
+        for (String option : toOptions()) {
+            Options.v().setPhaseOption("cg.spark", option);
+        }
+        if (simplifySccs || simplifyOffline) {
+            Options.v().setPhaseOption("cg.spark", "on-fly-cg:false");
+        }
+    }
+
+    /** The {@code cg.spark} phase options, e.g. {@code propagator:worklist}. */
+    public List<String> toOptions() {
+        return Arrays.asList(
+                "propagator:" + name(propagator),
+                "set-impl:" + name(setImpl),
+                "double-set-old:" + name(doubleSetOld),
+                "double-set-new:" + name(doubleSetNew),
+                "simplify-sccs:" + simplifySccs,
+                "simplify-offline:" + simplifyOffline,
+                "ignore-types:" + ignoreTypes);
+    }
+
+    /** Short label with the non-default knobs only, e.g. {@code iter,set=bit,sccs}; {@code default} for none. */
+    public String label() {
+        SparkOptions d = defaults();
+        List<String> parts = new ArrayList<>();
+        if (propagator != d.propagator) parts.add(name(propagator));
+        if (setImpl != d.setImpl) parts.add("set=" + name(setImpl));
+        if (setImpl == SetImpl.DOUBLE && (doubleSetOld != d.doubleSetOld || doubleSetNew != d.doubleSetNew)) {
+            parts.add("double=" + name(doubleSetOld) + "/" + name(doubleSetNew));
+        }
+        if (simplifySccs) parts.add("sccs");
+        if (simplifyOffline) parts.add("offline");
+        if (ignoreTypes) parts.add("ignore-types");
+        return parts.isEmpty() ? "default" : String.join(",", parts);
+    }
+
+    /** Inverse of {@link #toString()}; options left out keep their defaults. */
+    public static SparkOptions parse(String options) {
+        SparkOptions o = defaults();
+        SetImpl oldSet = o.doubleSetOld;
+        SetImpl newSet = o.doubleSetNew;
+        for (String option : options.split(",")) {
+            int colon = option.indexOf(':');
+            if (colon < 0) throw new IllegalArgumentException("Expected name:value, got " + option);
+            String name = option.substring(0, colon).trim();
+            String value = option.substring(colon + 1).trim();
+            switch (name) {
+                case "propagator": o = o.withPropagator(Propagator.valueOf(value.toUpperCase(Locale.ROOT))); break;
+                case "set-impl": o = o.withSetImpl(SetImpl.valueOf(value.toUpperCase(Locale.ROOT))); break;
+                case "double-set-old": oldSet = SetImpl.valueOf(value.toUpperCase(Locale.ROOT)); break;
+                case "double-set-new": newSet = SetImpl.valueOf(value.toUpperCase(Locale.ROOT)); break;
+                case "simplify-sccs": o = o.withSimplifySccs(Boolean.parseBoolean(value)); break;
+                case "simplify-offline": o = o.withSimplifyOffline(Boolean.parseBoolean(value)); break;
+                case "ignore-types": o = o.withIgnoreTypes(Boolean.parseBoolean(value)); break;
+                default: throw new IllegalArgumentException("Unknown Spark option " + name);
+            }
+        }
+        return o.withDoubleSets(oldSet, newSet);
+    }
+
+    private static String name(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof SparkOptions && toString().equals(o.toString());
+    }
+
+    @Override
+    public int hashCode() {
+        return toString().hashCode();
+    }
+
+    /** The phase options joined by commas. */
+    @Override
+    public String toString() {
+        return String.join(",", toOptions());
+    }
+}
@@ -0,0 +1,201 @@
+package br.ufpe.cin.pt.soot.store;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * Inverted index over a {@link PointsToRelation}: for every allocation site, the sorted ids of
+ * the pointers that may point to it (compressed rows, one int per relation entry).
+ * <p>
+ * Alias pairs are streamed to a {@link PairVisitor} as they are found, each once, at the smallest
+ * site both pointers share, in ascending site order. The rows of the sites reached from the
+ * pointer range are walked in ascending site order; within a row, pointers with identical sets
+ * are grouped by set id, and a pair of groups is emitted at the row's site when their sets share
+ * no smaller site. Beyond the reported pairs the work is one short sorted merge per (group pair,
+ * shared site), and nothing is kept between sites but a row-sized scratch buffer.
+ * Methods are sorted by signature and pointers by method, so a method or a package is a
+ * contiguous pointer range, and its slice of each row is found by binary search.
+ */
+public final class AliasIndex {
+
+    /** Receives alias pairs; {@code pointer1 < pointer2} and {@code site} is their smallest shared site. */
+    @FunctionalInterface
+    public interface PairVisitor {
+        void visit(int pointer1, int pointer2, int site);
+    }
+
+    private final PointsToRelation relation;
+    private final int[] siteOffsets;
+    private final int[] sitePointers;
+    private Map<String, Integer> siteIds;
+
+    public AliasIndex(PointsToRelation relation) {
+        this.relation = relation;
+        int sites = relation.siteCount();
+        this.siteOffsets = new int[sites + 1];
+        for (int p = 0; p < relation.pointerCount(); p++) {
+            for (int site : relation.pointsTo(p)) {
+                siteOffsets[site + 1]++;
+            }
+        }
+        for (int s = 0; s < sites; s++) {
+            siteOffsets[s + 1] += siteOffsets[s];
+        }
+        this.sitePointers = new int[siteOffsets[sites]];
+        int[] fill = Arrays.copyOf(siteOffsets, sites);
+        for (int p = 0; p < relation.pointerCount(); p++) {
+            for (int site : relation.pointsTo(p)) {
+                sitePointers[fill[site]++] = p;  // ascending p keeps every row sorted
+            }
+        }
+    }
+
+    public PointsToRelation getRelation() {
+        return relation;
+    }
+
+    /** Site id of the allocation-site signature, or -1 if no pointer reaches it. */
+    public int site(String signature) {
+        if (siteIds == null) {
+            Map<String, Integer> ids = new HashMap<>();
+            for (int s = 0; s < relation.siteCount(); s++) {
+                ids.put(relation.site(s), s);
+            }
+            siteIds = ids;
+        }
+        Integer id = siteIds.get(signature);
+        return id == null ? -1 : id;
+    }
+
+    /** Number of pointers that may point to the site. */
+    public int pointerCount(int site) {
+        return siteOffsets[site + 1] - siteOffsets[site];
+    }
+
+    /** Streams, in ascending order, every pointer that may point to the site. */
+    public void forEachPointer(int site, IntConsumer action) {
+        for (int i = siteOffsets[site]; i < siteOffsets[site + 1]; i++) {
+            action.accept(sitePointers[i]);
+        }
+    }
+
+    /** Every may-alias pair of the whole program. */
+    public void forEachAliasPair(PairVisitor visitor) {
+        forEachAliasPair(0, relation.pointerCount(), visitor);
+    }
+
+    /** May-alias pairs between locals of one method; nothing if the method is unknown. */
+    public void forEachAliasPairInMethod(String methodSignature, PairVisitor visitor) {
+        int m = relation.method(methodSignature);
+        if (m < 0) return;
+        forEachAliasPair(relation.firstPointer(m), relation.firstPointer(m + 1), visitor);
+    }
+
+    /** May-alias pairs between locals of methods declared in one class (nested classes excluded). */
+    public void forEachAliasPairInClass(String className, PairVisitor visitor) {
+        int[] methods = methodRange("<" + className + ":");
+        forEachAliasPair(relation.firstPointer(methods[0]), relation.firstPointer(methods[1]), visitor);
+    }
+
+    /** May-alias pairs between locals of methods declared in the package or its subpackages. */
+    public void forEachAliasPairInPackage(String packageName, PairVisitor visitor) {
+        int[] methods = methodRange("<" + packageName + ".");
+        forEachAliasPair(relation.firstPointer(methods[0]), relation.firstPointer(methods[1]), visitor);
+    }
+
+    /** May-alias pairs with both pointers in {@code [from, to)}. */
+    public void forEachAliasPair(int from, int to, PairVisitor visitor) {
+        if (from >= to) return;
+        BitSet reached = new BitSet(relation.siteCount());
+        for (int p = from; p < to; p++) {
+            for (int site : relation.pointsTo(p)) {
+                reached.set(site);
+            }
+        }
+        long[] members = new long[0];
+        int[] groups = new int[1];
+        for (int site = reached.nextSetBit(0); site >= 0; site = reached.nextSetBit(site + 1)) {
+            int start = lowerBound(siteOffsets[site], siteOffsets[site + 1], from);
+            int end = lowerBound(start, siteOffsets[site + 1], to);
+            int n = end - start;
+            if (members.length < n) {
+                members = new long[n];
+                groups = new int[n + 1];
+            }
+            // Pointers with one set alias each other and the same other pointers: group the row by set id.
+            for (int i = 0; i < n; i++) {
+                int p = sitePointers[start + i];
+                members[i] = ((long) relation.setId(p) << 32) | p;
+            }
+            Arrays.sort(members, 0, n);
+            int groupCount = 0;
+            for (int i = 0; i < n; i++) {
+                if (i == 0 || members[i] >>> 32 != members[i - 1] >>> 32) groups[groupCount++] = i;
+            }
+            groups[groupCount] = n;
+
+            // A pair of groups is reported at this site only if their sets share no smaller one.
+            for (int a = 0; a < groupCount; a++) {
+                int[] setA = relation.pointsTo((int) members[groups[a]]);
+                if (setA[0] == site) {
+                    for (int x = groups[a]; x < groups[a + 1]; x++) {
+                        for (int y = x + 1; y < groups[a + 1]; y++) {
+                            visitor.visit((int) members[x], (int) members[y], site);
+                        }
+                    }
+                }
+                for (int b = a + 1; b < groupCount; b++) {
+                    if (sharesBelow(setA, relation.pointsTo((int) members[groups[b]]), site)) continue;
+                    for (int x = groups[a]; x < groups[a + 1]; x++) {
+                        for (int y = groups[b]; y < groups[b + 1]; y++) {
+                            int p1 = (int) members[x], p2 = (int) members[y];
+                            visitor.visit(Math.min(p1, p2), Math.max(p1, p2), site);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /** True if the sorted sets have a common element smaller than {@code site}. */
+    private static boolean sharesBelow(int[] a, int[] b, int site) {
+        int i = 0, j = 0;
+        while (i < a.length && j < b.length && a[i] < site && b[j] < site) {
+            if (a[i] == b[j]) return true;
+            if (a[i] < b[j]) i++;
+            else j++;
+        }
+        return false;
+    }
+
+    /** Methods whose signature starts with {@code prefix}, as {@code [first, end)}. */
+    private int[] methodRange(String prefix) {
+        int lo = 0;
+        int hi = relation.methodCount();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (relation.method(mid).compareTo(prefix) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        int end = lo;
+        while (end < relation.methodCount() && relation.method(end).startsWith(prefix)) {
+            end++;
+        }
+        return new int[] {lo, end};
+    }
+
+    /** First position in {@code sitePointers[from, to)} holding a pointer id not below {@code pointer}. */
+    private int lowerBound(int from, int to, int pointer) {
+        int lo = from;
+        int hi = to;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sitePointers[mid] < pointer) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
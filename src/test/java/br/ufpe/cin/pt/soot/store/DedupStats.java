@@ -0,0 +1,29 @@
+package br.ufpe.cin.pt.soot.store;
+
+/** Size of a points-to relation before and after hash-consing identical sets. */
+public final class DedupStats {
+    public final int pointers;
+    public final int uniqueSets;
+    /** Site ids over all pointers, as if every pointer kept its own copy. */
+    public final long totalElements;
+    /** Site ids actually stored, one copy per unique set. */
+    public final long storedElements;
+
+    DedupStats(int pointers, int uniqueSets, long totalElements, long storedElements) {
+        this.pointers = pointers;
+        this.uniqueSets = uniqueSets;
+        this.totalElements = totalElements;
+        this.storedElements = storedElements;
+    }
+
+    /** How many times smaller the set data got; 1.0 means nothing was shared. */
+    public double ratio() {
+        return storedElements == 0 ? 1.0 : (double) totalElements / storedElements;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d pointers -> %d unique sets, %d -> %d site ids (%.1fx)",
+                pointers, uniqueSets, totalElements, storedElements, ratio());
+    }
+}
@@ -0,0 +1,124 @@
+package br.ufpe.cin.pt.soot.store;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+import br.ufpe.cin.pt.soot.pta.AllocationSite;
+import br.ufpe.cin.pt.soot.pta.IntList;
+import br.ufpe.cin.pt.soot.pta.IntSets;
+import br.ufpe.cin.pt.soot.pta.NamedPTA;
+import br.ufpe.cin.pt.soot.pta.PTA;
+import soot.SootMethod;
+import soot.jimple.toolkits.callgraph.CallGraph;
+import soot.jimple.toolkits.callgraph.Edge;
+
+/**
+ * Heap-resident snapshot of a solved analysis: the {@link PointsToRelation} plus the call graph
+ * between reachable methods, all in primitive arrays and strings. It holds no Soot or Qilin
+ * objects, so once a run is frozen the Scene, the PAG and the solver's context structures can
+ * be released and the query side keeps only this index.
+ * <p>
+ * Like {@link MappedPTA}, it answers only the Scene-free {@link NamedPTA} queries; the call graph
+ * is kept as signatures ({@link #callees}, {@link #isReachable}).
+ */
+public final class FrozenPTA implements NamedPTA {
+
+    private final PointsToRelation relation;
+    private final String[] methods;
+    private final int[] calleeOffsets;
+    private final int[] callees;
+
+    private FrozenPTA(PointsToRelation relation, String[] methods, int[] calleeOffsets, int[] callees) {
+        this.relation = relation;
+        this.methods = methods;
+        this.calleeOffsets = calleeOffsets;
+        this.callees = callees;
+    }
+
+    /** Copies everything the query side needs out of a live PTA. The PTA is not modified. */
+    public static FrozenPTA freeze(PTA pta) {
+        PointsToRelation relation = PointsToExtractor.extract(pta);
+        Collection<SootMethod> reachable = pta.getReachableMethods();
+        String[] methods = new String[reachable.size()];
+        int n = 0;
+        for (SootMethod m : reachable) {
+            methods[n++] = m.getSignature();
+        }
+        Arrays.sort(methods);
+
+        IntList[] targets = new IntList[methods.length];
+        CallGraph cg = pta.getCallGraph();
+        for (int i = 0; i < methods.length; i++) {
+            targets[i] = new IntList();
+        }
+        for (SootMethod m : reachable) {
+            int src = Arrays.binarySearch(methods, m.getSignature());
+            Iterator<Edge> edges = cg.edgesOutOf(m);
+            while (edges.hasNext()) {
+                int tgt = Arrays.binarySearch(methods, edges.next().tgt().getSignature());
+                if (tgt >= 0) targets[src].add(tgt);
+            }
+        }
+        int[] offsets = new int[methods.length + 1];
+        int[][] rows = new int[methods.length][];
+        for (int i = 0; i < methods.length; i++) {
+            rows[i] = targets[i].toSortedSet();
+            offsets[i + 1] = offsets[i] + rows[i].length;
+        }
+        int[] callees = new int[offsets[methods.length]];
+        for (int i = 0; i < methods.length; i++) {
+            System.arraycopy(rows[i], 0, callees, offsets[i], rows[i].length);
+        }
+        return new FrozenPTA(relation, methods, offsets, callees);
+    }
+
+    public PointsToRelation getRelation() {
+        return relation;
+    }
+
+    public int reachableMethodCount() {
+        return methods.length;
+    }
+
+    public boolean isReachable(String methodSignature) {
+        return Arrays.binarySearch(methods, methodSignature) >= 0;
+    }
+
+    /** Signatures of the methods the given method may call, sorted; empty if it is not reachable. */
+    public List<String> callees(String methodSignature) {
+        List<String> result = new ArrayList<>();
+        int m = Arrays.binarySearch(methods, methodSignature);
+        if (m < 0) return result;
+        for (int i = calleeOffsets[m]; i < calleeOffsets[m + 1]; i++) {
+            result.add(methods[callees[i]]);
+        }
+        return result;
+    }
+
+    public int callEdgeCount() {
+        return callees.length;
+    }
+
+    /** Locals missing from the relation were never reached, i.e. they have empty points-to sets. */
+    @Override
+    public boolean hasIntersectingObjects(String methodSignature, String local1, String local2) {
+        int p1 = relation.pointer(methodSignature, local1);
+        int p2 = relation.pointer(methodSignature, local2);
+        if (p1 < 0 || p2 < 0) return false;
+        if (relation.setId(p1) == relation.setId(p2)) return relation.pointsTo(p1).length > 0;
+        return IntSets.intersects(relation.pointsTo(p1), relation.pointsTo(p2));
+    }
+
+    @Override
+    public AllocationSite site(int id) {
+        return new AllocationSite(relation.site(id), relation.siteType(id));
+    }
+
+    @Override
+    public int siteCount() {
+        return relation.siteCount();
+    }
+}
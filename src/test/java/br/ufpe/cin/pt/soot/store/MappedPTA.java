@@ -0,0 +1,221 @@
+package br.ufpe.cin.pt.soot.store;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import br.ufpe.cin.pt.soot.pta.AllocationSite;
+import br.ufpe.cin.pt.soot.pta.NamedPTA;
+
+/**
+ * {@link NamedPTA} over a memory-mapped {@link MappedPointsToStore}. Nothing is copied onto the heap:
+ * lookups encode the key once and binary-search the mapped UTF-8 bytes of the symbol tables, and set
+ * operations walk the mapped site ids, so many processes can share one solved result through the
+ * page cache. Pointers with identical
+ * points-to sets share one stored set, so {@link #sameObjects} is a single id comparison.
+ * <p>
+ * There is no Scene behind this store, so locals are named by method signature and local name,
+ * and there is no call graph.
+ */
+public final class MappedPTA implements NamedPTA {
+
+    private final ByteBuffer buffer;
+    private final int methodCount;
+    private final int pointerCount;
+    private final int siteCount;
+    private final int setCount;
+    private final StringTable methods;
+    private final int pointerMethodsPos;
+    private final StringTable pointerLocals;
+    private final StringTable sites;
+    private final StringTable siteTypes;
+    private final int pointerSetsPos;
+    private final int setOffsetsPos;
+    private final int setDataPos;
+
+    MappedPTA(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.methodCount = buffer.getInt(8);
+        this.pointerCount = buffer.getInt(12);
+        this.siteCount = buffer.getInt(16);
+        this.setCount = buffer.getInt(20);
+        this.methods = new StringTable(buffer.getInt(24));
+        this.pointerMethodsPos = buffer.getInt(28);
+        this.pointerLocals = new StringTable(buffer.getInt(32));
+        this.sites = new StringTable(buffer.getInt(36));
+        this.siteTypes = new StringTable(buffer.getInt(40));
+        this.pointerSetsPos = buffer.getInt(44);
+        this.setOffsetsPos = buffer.getInt(48);
+        this.setDataPos = buffer.getInt(52);
+    }
+
+    public int methodCount() {
+        return methodCount;
+    }
+
+    public int pointerCount() {
+        return pointerCount;
+    }
+
+    @Override
+    public int siteCount() {
+        return siteCount;
+    }
+
+    /** Number of distinct points-to sets in the store. */
+    public int setCount() {
+        return setCount;
+    }
+
+    /** Id of the pointer's stored set; equal ids mean equal sets. */
+    public int setId(int pointer) {
+        return buffer.getInt(pointerSetsPos + 4 * pointer);
+    }
+
+    /** True when both pointers have the same points-to set. */
+    public boolean sameObjects(int p1, int p2) {
+        return setId(p1) == setId(p2);
+    }
+
+    /** Pointer id of the local, or -1 if the store has no such pointer. */
+    public int pointer(String methodSignature, String local) {
+        int m = methods.binarySearch(methodSignature, 0, methodCount);
+        if (m < 0) return -1;
+        int lo = lowerBoundMethod(m);
+        int hi = lowerBoundMethod(m + 1);
+        int p = pointerLocals.binarySearch(local, lo, hi);
+        return p < 0 ? -1 : p;
+    }
+
+    public String pointerMethod(int pointer) {
+        return methods.get(buffer.getInt(pointerMethodsPos + 4 * pointer));
+    }
+
+    public String pointerLocal(int pointer) {
+        return pointerLocals.get(pointer);
+    }
+
+    public String siteSignature(int id) {
+        return sites.get(id);
+    }
+
+    public String siteType(int id) {
+        return siteTypes.get(id);
+    }
+
+    /** Number of sites the pointer may point to. */
+    public int pointsToSize(int pointer) {
+        int set = setId(pointer);
+        return setStart(set + 1) - setStart(set);
+    }
+
+    /** The {@code i}-th smallest site id of the pointer. */
+    public int pointsTo(int pointer, int i) {
+        return buffer.getInt(setDataPos + 4 * (setStart(setId(pointer)) + i));
+    }
+
+    /** Sorted-merge intersection test over the two mapped sets. */
+    public boolean intersects(int p1, int p2) {
+        int s1 = setId(p1);
+        int s2 = setId(p2);
+        if (s1 == s2) return setStart(s1 + 1) > setStart(s1);
+        int i = setStart(s1), iEnd = setStart(s1 + 1);
+        int j = setStart(s2), jEnd = setStart(s2 + 1);
+        while (i < iEnd && j < jEnd) {
+            int a = buffer.getInt(setDataPos + 4 * i);
+            int b = buffer.getInt(setDataPos + 4 * j);
+            if (a == b) return true;
+            if (a < b) i++;
+            else j++;
+        }
+        return false;
+    }
+
+    /** Locals missing from the store were never reached, i.e. they have empty points-to sets. */
+    @Override
+    public boolean hasIntersectingObjects(String methodSignature, String local1, String local2) {
+        int p1 = pointer(methodSignature, local1);
+        int p2 = pointer(methodSignature, local2);
+        return p1 >= 0 && p2 >= 0 && intersects(p1, p2);
+    }
+
+    @Override
+    public AllocationSite site(int id) {
+        return new AllocationSite(siteSignature(id), siteType(id));
+    }
+
+    private int setStart(int set) {
+        return buffer.getInt(setOffsetsPos + 4 * set);
+    }
+
+    private int lowerBoundMethod(int method) {
+        int lo = 0;
+        int hi = pointerCount;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (buffer.getInt(pointerMethodsPos + 4 * mid) < method) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /** View of a mapped string table; lookups compare the mapped UTF-8 bytes in place, {@link #get} decodes. */
+    private final class StringTable {
+        private final int offsetsPos;
+        private final int bytesPos;
+
+        StringTable(int pos) {
+            int count = buffer.getInt(pos);
+            this.offsetsPos = pos + 4;
+            this.bytesPos = offsetsPos + 4 * (count + 1);
+        }
+
+        String get(int i) {
+            int start = buffer.getInt(offsetsPos + 4 * i);
+            int end = buffer.getInt(offsetsPos + 4 * (i + 1));
+            byte[] bytes = new byte[end - start];
+            ByteBuffer view = buffer.duplicate();
+            view.position(bytesPos + start);
+            view.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        /** Binary search in {@code [from, to)}, with the contract of {@link java.util.Arrays#binarySearch}. */
+        int binarySearch(String key, int from, int to) {
+            byte[] encoded = key.getBytes(StandardCharsets.UTF_8);
+            int lo = from;
+            int hi = to - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                int cmp = compare(mid, encoded);
+                if (cmp < 0) lo = mid + 1;
+                else if (cmp > 0) hi = mid - 1;
+                else return mid;
+            }
+            return -(lo + 1);
+        }
+
+        /** Compares entry {@code i} with an encoded key in {@link String#compareTo} order, without decoding. */
+        private int compare(int i, byte[] key) {
+            int start = buffer.getInt(offsetsPos + 4 * i);
+            int length = buffer.getInt(offsetsPos + 4 * (i + 1)) - start;
+            int pos = bytesPos + start;
+            int n = Math.min(length, key.length);
+            for (int k = 0; k < n; k++) {
+                int a = buffer.get(pos + k) & 0xFF;
+                int b = key[k] & 0xFF;
+                if (a != b) return utf16Rank(a) - utf16Rank(b);
+            }
+            return length - key.length;
+        }
+    }
+
+    /**
+     * Orders the first differing bytes of two UTF-8 strings the way their UTF-16 forms compare. Both
+     * are then lead bytes of characters, or continuation bytes of characters of the same length. UTF-8
+     * orders by code point, which agrees with UTF-16 except that supplementary characters (lead bytes
+     * 0xF0-0xF4, surrogate pairs in UTF-16) sort before U+E000-U+FFFF (lead bytes 0xEE and 0xEF).
+     */
+    private static int utf16Rank(int b) {
+        return b >= 0xF0 ? 0xED * 8 + 1 + (b - 0xF0) : b * 8;
+    }
+}
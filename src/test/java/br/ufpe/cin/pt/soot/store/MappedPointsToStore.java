@@ -0,0 +1,159 @@
+package br.ufpe.cin.pt.soot.store;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.function.IntFunction;
+
+/**
+ * On-disk format for a {@link PointsToRelation}, read back through a memory map by {@link MappedPTA}.
+ * All integers are big-endian; every section starts at a 4-byte aligned position recorded in the header.
+ *
+ * <pre>
+ *   header:   magic, version, methodCount, pointerCount, siteCount, setCount,
+ *             positions of the eight sections below
+ *   methods:        string table, sorted
+ *   pointerMethods: int[pointerCount], non-decreasing
+ *   pointerLocals:  string table, sorted within each method
+ *   sites:          string table
+ *   siteTypes:      string table
+ *   pointerSets:    int[pointerCount], the set id of every pointer
+ *   setOffsets:     int[setCount + 1], index into setData
+ *   setData:        int[], the sorted site ids of every unique set back to back
+ *
+ *   string table: count, int[count + 1] byte offsets, UTF-8 bytes
+ * </pre>
+ *
+ * Identical sets are stored once (see {@link PointsToRelation#setId}), so the set data grows with
+ * the number of distinct sets rather than with the number of pointers. Positions are ints, so a
+ * store is limited to 2 GB (one mapping).
+ */
+public final class MappedPointsToStore {
+
+    static final int MAGIC = 0x50545354;  // "PTST"
+    static final int VERSION = 2;
+    static final int SECTIONS = 8;
+    static final int HEADER_BYTES = 4 * (6 + SECTIONS);
+
+    private MappedPointsToStore() {
+    }
+
+    /** Writes the relation to {@code file} and returns the file size in bytes. */
+    public static long write(PointsToRelation r, File file) {
+        int[] positions = new int[SECTIONS];
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(r.methodCount());
+            out.writeInt(r.pointerCount());
+            out.writeInt(r.siteCount());
+            out.writeInt(r.uniqueSetCount());
+            for (int i = 0; i < SECTIONS; i++) {
+                out.writeInt(0);  // patched below
+            }
+            positions[0] = writeStrings(out, r.methodCount(), r::method);
+            positions[1] = align(out);
+            for (int p = 0; p < r.pointerCount(); p++) {
+                out.writeInt(r.pointerMethod(p));
+            }
+            positions[2] = writeStrings(out, r.pointerCount(), r::pointerLocal);
+            positions[3] = writeStrings(out, r.siteCount(), r::site);
+            positions[4] = writeStrings(out, r.siteCount(), r::siteType);
+            positions[5] = align(out);
+            for (int p = 0; p < r.pointerCount(); p++) {
+                out.writeInt(r.setId(p));
+            }
+            positions[6] = align(out);
+            int offset = 0;
+            for (int set = 0; set < r.uniqueSetCount(); set++) {
+                out.writeInt(offset);
+                offset += r.set(set).length;
+            }
+            out.writeInt(offset);
+            positions[7] = align(out);
+            for (int set = 0; set < r.uniqueSetCount(); set++) {
+                for (int site : r.set(set)) {
+                    out.writeInt(site);
+                }
+            }
+            if (out.size() == Integer.MAX_VALUE) {  // DataOutputStream.size() saturates at 2 GB
+                throw new IllegalArgumentException("Relation does not fit in a 2 GB store");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write points-to store " + file, e);
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(4 * 6);
+            for (int pos : positions) {
+                raf.writeInt(pos);
+            }
+            return raf.length();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write points-to store " + file, e);
+        }
+    }
+
+    /** Maps the store read-only. The mapping stays valid after the file channel is closed. */
+    public static MappedPTA open(File file) {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IllegalArgumentException(file + " is not a points-to store");
+            }
+            if (buffer.getInt(4) != VERSION) {
+                throw new IllegalArgumentException(file + " has unsupported store version " + buffer.getInt(4));
+            }
+            return new MappedPTA(buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not map points-to store " + file, e);
+        }
+    }
+
+    /** Reads a store back into a heap {@link PointsToRelation}, e.g. to diff runs made in other JVMs. */
+    public static PointsToRelation read(File file) {
+        MappedPTA store = open(file);
+        PointsToRelation.Builder builder = new PointsToRelation.Builder();
+        for (int s = 0; s < store.siteCount(); s++) {
+            builder.site(store.siteSignature(s), store.siteType(s));
+        }
+        for (int p = 0; p < store.pointerCount(); p++) {
+            int[] sites = new int[store.pointsToSize(p)];
+            for (int i = 0; i < sites.length; i++) {
+                sites[i] = store.pointsTo(p, i);
+            }
+            builder.addPointer(store.pointerMethod(p), store.pointerLocal(p), sites);
+        }
+        return builder.build();
+    }
+
+    private static int writeStrings(DataOutputStream out, int count, IntFunction<String> strings) throws IOException {
+        int pos = align(out);
+        byte[][] encoded = new byte[count][];
+        out.writeInt(count);
+        int offset = 0;
+        for (int i = 0; i < count; i++) {
+            encoded[i] = strings.apply(i).getBytes(StandardCharsets.UTF_8);
+            out.writeInt(offset);
+            offset += encoded[i].length;
+        }
+        out.writeInt(offset);
+        for (byte[] bytes : encoded) {
+            out.write(bytes);
+        }
+        return pos;
+    }
+
+    private static int align(DataOutputStream out) throws IOException {
+        while (out.size() % 4 != 0) {
+            out.writeByte(0);
+        }
+        return out.size();
+    }
+}
@@ -0,0 +1,267 @@
+package br.ufpe.cin.pt.soot.store;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import br.ufpe.cin.pt.soot.pta.IntSets;
+
+/**
+ * Set-level diff between two solved runs, e.g. {@code SOOT_SPARK} (left) against {@code QILIN_2O}
+ * (right). Allocation sites are aligned by signature and pointers by (method signature, local
+ * name); a pointer present in only one run has an empty set in the other.
+ * <p>
+ * Both relations keep pointers sorted by that key, so alignment is one sorted merge. Set
+ * comparisons run on the hash-consed sets and are cached per pair of set ids, so pointers that
+ * share sets on both sides (most JDK locals) are compared once.
+ */
+public final class PointsToDiff {
+
+    /** How the left set relates to the right set. */
+    public enum Kind {
+        EQUAL,
+        /** Left is a strict subset: the right run is less precise for this pointer. */
+        SUBSET,
+        /** Left is a strict superset: the right run is more precise for this pointer. */
+        SUPERSET,
+        INCOMPARABLE
+    }
+
+    /** Counts and set sizes over a group of pointers. */
+    public static final class Summary {
+        private final int[] counts = new int[Kind.values().length];
+        private long leftSize;
+        private long rightSize;
+
+        void add(Kind kind, int left, int right) {
+            counts[kind.ordinal()]++;
+            leftSize += left;
+            rightSize += right;
+        }
+
+        public int count(Kind kind) {
+            return counts[kind.ordinal()];
+        }
+
+        public int pointers() {
+            int n = 0;
+            for (int c : counts) n += c;
+            return n;
+        }
+
+        /** Pointers whose sets differ. */
+        public int changed() {
+            return pointers() - count(Kind.EQUAL);
+        }
+
+        public long leftSize() {
+            return leftSize;
+        }
+
+        public long rightSize() {
+            return rightSize;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d pointers: %d equal, %d subset, %d superset, %d incomparable; sizes %d -> %d (%+d)",
+                    pointers(), count(Kind.EQUAL), count(Kind.SUBSET), count(Kind.SUPERSET),
+                    count(Kind.INCOMPARABLE), leftSize, rightSize, rightSize - leftSize);
+        }
+    }
+
+    private final String[] methods;
+    private final String[] locals;
+    private final Kind[] kinds;
+    private final int[] leftSizes;
+    private final int[] rightSizes;
+    private int size;
+    private final Summary total = new Summary();
+    private final Map<String, Summary> byMethod = new LinkedHashMap<>();
+
+    private PointsToDiff(int capacity) {
+        methods = new String[capacity];
+        locals = new String[capacity];
+        kinds = new Kind[capacity];
+        leftSizes = new int[capacity];
+        rightSizes = new int[capacity];
+    }
+
+    public static PointsToDiff compute(PointsToRelation left, PointsToRelation right) {
+        int[][] rightSets = translateSites(left, right);
+        PointsToDiff diff = new PointsToDiff(left.pointerCount() + right.pointerCount());
+        Map<Long, Kind> cache = new HashMap<>();
+        int[] empty = new int[0];
+        int i = 0, j = 0, n = 0;
+        while (i < left.pointerCount() || j < right.pointerCount()) {
+            int cmp;
+            if (i == left.pointerCount()) cmp = 1;
+            else if (j == right.pointerCount()) cmp = -1;
+            else cmp = compareKeys(left, i, right, j);
+
+            String method;
+            String local;
+            int[] a;
+            int[] b;
+            Kind kind;
+            if (cmp == 0) {
+                method = left.method(left.pointerMethod(i));
+                local = left.pointerLocal(i);
+                a = left.pointsTo(i);
+                b = rightSets[right.setId(j)];
+                long key = ((long) left.setId(i) << 32) | right.setId(j);
+                kind = cache.get(key);
+                if (kind == null) {
+                    kind = compare(a, b);
+                    cache.put(key, kind);
+                }
+                i++;
+                j++;
+            } else if (cmp < 0) {
+                method = left.method(left.pointerMethod(i));
+                local = left.pointerLocal(i);
+                a = left.pointsTo(i);
+                b = empty;
+                kind = compare(a, b);
+                i++;
+            } else {
+                method = right.method(right.pointerMethod(j));
+                local = right.pointerLocal(j);
+                a = empty;
+                b = rightSets[right.setId(j)];
+                kind = compare(a, b);
+                j++;
+            }
+            diff.methods[n] = method;
+            diff.locals[n] = local;
+            diff.kinds[n] = kind;
+            diff.leftSizes[n] = a.length;
+            diff.rightSizes[n] = b.length;
+            diff.total.add(kind, a.length, b.length);
+            diff.byMethod.computeIfAbsent(method, k -> new Summary()).add(kind, a.length, b.length);
+            n++;
+        }
+        diff.size = n;
+        return diff;
+    }
+
+    /** Number of aligned pointers (the union of both runs). */
+    public int size() {
+        return size;
+    }
+
+    public String method(int i) {
+        return methods[i];
+    }
+
+    public String local(int i) {
+        return locals[i];
+    }
+
+    public Kind kind(int i) {
+        return kinds[i];
+    }
+
+    public int leftSize(int i) {
+        return leftSizes[i];
+    }
+
+    public int rightSize(int i) {
+        return rightSizes[i];
+    }
+
+    /** Entry of the pointer, or -1 if neither run has it. Entries are sorted by (method, local). */
+    public int indexOf(String method, String local) {
+        int lo = 0;
+        int hi = size - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = methods[mid].compareTo(method);
+            if (cmp == 0) cmp = locals[mid].compareTo(local);
+            if (cmp < 0) lo = mid + 1;
+            else if (cmp > 0) hi = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    public Summary total() {
+        return total;
+    }
+
+    /** Per-method summaries, in method signature order. */
+    public Map<String, Summary> byMethod() {
+        return Collections.unmodifiableMap(byMethod);
+    }
+
+    /** Methods with the most changed pointers first; ties keep signature order. */
+    public List<String> mostChangedMethods(int limit) {
+        List<String> result = new ArrayList<>(byMethod.keySet());
+        result.removeIf(m -> byMethod.get(m).changed() == 0);
+        result.sort((m1, m2) -> Integer.compare(byMethod.get(m2).changed(), byMethod.get(m1).changed()));
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    /** Aggregate summary plus the {@code topMethods} methods with the most changed pointers. */
+    public String format(int topMethods) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("total  ").append(total).append(System.lineSeparator());
+        for (String m : mostChangedMethods(topMethods)) {
+            sb.append("  ").append(m).append(System.lineSeparator());
+            sb.append("      ").append(byMethod.get(m)).append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return format(10);
+    }
+
+    static Kind compare(int[] a, int[] b) {
+        int common = IntSets.intersectionSize(a, b);
+        boolean aInB = common == a.length;
+        boolean bInA = common == b.length;
+        if (aInB && bInA) return Kind.EQUAL;
+        if (aInB) return Kind.SUBSET;
+        if (bInA) return Kind.SUPERSET;
+        return Kind.INCOMPARABLE;
+    }
+
+    private static int compareKeys(PointsToRelation left, int i, PointsToRelation right, int j) {
+        int cmp = left.method(left.pointerMethod(i)).compareTo(right.method(right.pointerMethod(j)));
+        return cmp != 0 ? cmp : left.pointerLocal(i).compareTo(right.pointerLocal(j));
+    }
+
+    /**
+     * The right relation's unique sets rewritten into the left relation's site ids. Sites only the
+     * right run knows get fresh ids after the left ones, so they never match a left site.
+     */
+    private static int[][] translateSites(PointsToRelation left, PointsToRelation right) {
+        Map<String, Integer> leftIds = new HashMap<>();
+        for (int s = 0; s < left.siteCount(); s++) {
+            leftIds.put(left.site(s), s);
+        }
+        int[] toLeft = new int[right.siteCount()];
+        int next = left.siteCount();
+        for (int s = 0; s < right.siteCount(); s++) {
+            Integer id = leftIds.get(right.site(s));
+            toLeft[s] = id != null ? id : next++;
+        }
+        int[][] sets = new int[right.uniqueSetCount()][];
+        for (int set = 0; set < sets.length; set++) {
+            int[] original = right.set(set);
+            int[] translated = new int[original.length];
+            for (int k = 0; k < original.length; k++) {
+                translated[k] = toLeft[original[k]];
+            }
+            Arrays.sort(translated);
+            sets[set] = translated;
+        }
+        return sets;
+    }
+}
@@ -0,0 +1,32 @@
+package br.ufpe.cin.pt.soot.store;
+
+import br.ufpe.cin.pt.soot.pta.IntList;
+import br.ufpe.cin.pt.soot.pta.PTA;
+import soot.Local;
+import soot.RefLikeType;
+import soot.SootMethod;
+
+/**
+ * Reads the solved relation out of a live {@link PTA}: every reference-typed local of every
+ * reachable method with a body becomes a pointer, named by method signature and local name.
+ */
+public final class PointsToExtractor {
+
+    private PointsToExtractor() {
+    }
+
+    public static PointsToRelation extract(PTA pta) {
+        PointsToRelation.Builder builder = new PointsToRelation.Builder();
+        IntList sites = new IntList();
+        for (SootMethod m : pta.getReachableMethods()) {
+            if (!m.hasActiveBody()) continue;
+            for (Local l : m.getActiveBody().getLocals()) {
+                if (!(l.getType() instanceof RefLikeType)) continue;
+                sites.clear();
+                pta.forEachAllocationSite(l, s -> sites.add(builder.site(s.getSignature(), s.getType())));
+                builder.addPointer(m.getSignature(), l.getName(), sites.toArray());
+            }
+        }
+        return builder.build();
+    }
+}
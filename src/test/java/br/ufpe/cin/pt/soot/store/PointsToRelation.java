@@ -0,0 +1,199 @@
+package br.ufpe.cin.pt.soot.store;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import br.ufpe.cin.pt.soot.pta.IntList;
+
+/**
+ * Solved points-to relation as plain arrays: pointer id to sorted allocation-site ids, plus the
+ * symbol tables naming methods, locals and sites. It holds no Soot or Qilin objects, so it can
+ * be written to disk, diffed against other runs or kept after the Scene is gone.
+ * <p>
+ * Methods are sorted by signature and pointers by (method, local name), which makes
+ * {@link #pointer(String, String)} a binary search. Identical points-to sets are hash-consed:
+ * pointers reference one canonical copy by {@link #setId(int) set id}, so equal sets share storage
+ * and set equality is an id comparison.
+ */
+public final class PointsToRelation {
+
+    private final String[] methods;
+    private final int[] pointerMethods;
+    private final String[] pointerLocals;
+    private final String[] sites;
+    private final String[] siteTypes;
+    private final int[] pointerSets;
+    private final int[][] sets;
+
+    PointsToRelation(String[] methods, int[] pointerMethods, String[] pointerLocals,
+                     String[] sites, String[] siteTypes, int[] pointerSets, int[][] sets) {
+        this.methods = methods;
+        this.pointerMethods = pointerMethods;
+        this.pointerLocals = pointerLocals;
+        this.sites = sites;
+        this.siteTypes = siteTypes;
+        this.pointerSets = pointerSets;
+        this.sets = sets;
+    }
+
+    public int methodCount() {
+        return methods.length;
+    }
+
+    public String method(int id) {
+        return methods[id];
+    }
+
+    public int pointerCount() {
+        return pointerLocals.length;
+    }
+
+    /** Method id of the given pointer. */
+    public int pointerMethod(int pointer) {
+        return pointerMethods[pointer];
+    }
+
+    public String pointerLocal(int pointer) {
+        return pointerLocals[pointer];
+    }
+
+    public int siteCount() {
+        return sites.length;
+    }
+
+    public String site(int id) {
+        return sites[id];
+    }
+
+    public String siteType(int id) {
+        return siteTypes[id];
+    }
+
+    /** Sorted site ids of the pointer. The array is shared; callers must not modify it. */
+    public int[] pointsTo(int pointer) {
+        return sets[pointerSets[pointer]];
+    }
+
+    /** Id of the pointer's canonical set; two pointers have equal sets iff their set ids are equal. */
+    public int setId(int pointer) {
+        return pointerSets[pointer];
+    }
+
+    public int uniqueSetCount() {
+        return sets.length;
+    }
+
+    /** Canonical set with the given id. The array is shared; callers must not modify it. */
+    public int[] set(int setId) {
+        return sets[setId];
+    }
+
+    /** Deduplication achieved by hash-consing the sets of this relation. */
+    public DedupStats dedupStats() {
+        long total = 0;
+        for (int p = 0; p < pointerSets.length; p++) {
+            total += sets[pointerSets[p]].length;
+        }
+        long stored = 0;
+        for (int[] set : sets) {
+            stored += set.length;
+        }
+        return new DedupStats(pointerSets.length, sets.length, total, stored);
+    }
+
+    /** Method id of the signature, or -1 if the relation has no such method. */
+    public int method(String signature) {
+        int m = Arrays.binarySearch(methods, signature);
+        return m < 0 ? -1 : m;
+    }
+
+    /**
+     * First pointer of the method; the pointers of method {@code m} are
+     * {@code [firstPointer(m), firstPointer(m + 1))}, and {@code m} may be {@link #methodCount()}.
+     */
+    public int firstPointer(int method) {
+        return lowerBound(pointerMethods, method);
+    }
+
+    /** Pointer id of the local, or -1 if the relation has no such pointer. */
+    public int pointer(String methodSignature, String local) {
+        int m = Arrays.binarySearch(methods, methodSignature);
+        if (m < 0) return -1;
+        int lo = lowerBound(pointerMethods, m);
+        int hi = lowerBound(pointerMethods, m + 1);
+        int i = Arrays.binarySearch(pointerLocals, lo, hi, local);
+        return i < 0 ? -1 : i;
+    }
+
+    private static int lowerBound(int[] sorted, int key) {
+        int lo = 0;
+        int hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /** Collects pointers in any order and interns site signatures; {@link #build()} sorts everything. */
+    public static final class Builder {
+        private final Map<String, Integer> siteIds = new HashMap<>();
+        private final List<String> sites = new ArrayList<>();
+        private final List<String> siteTypes = new ArrayList<>();
+        private final Map<String, Map<String, IntList>> pointers = new HashMap<>();
+
+        /** Id of the site with this signature, assigning the next free id on first use. */
+        public int site(String signature, String type) {
+            Integer id = siteIds.get(signature);
+            if (id == null) {
+                id = sites.size();
+                siteIds.put(signature, id);
+                sites.add(signature);
+                siteTypes.add(type);
+            }
+            return id;
+        }
+
+        /** Adds (or extends, if the local was already added) the points-to set of a pointer. */
+        public Builder addPointer(String methodSignature, String local, int... siteIds) {
+            IntList set = pointers.computeIfAbsent(methodSignature, k -> new HashMap<>())
+                    .computeIfAbsent(local, k -> new IntList());
+            for (int s : siteIds) {
+                set.add(s);
+            }
+            return this;
+        }
+
+        public PointsToRelation build() {
+            String[] methods = pointers.keySet().toArray(new String[0]);
+            Arrays.sort(methods);
+            int count = 0;
+            for (Map<String, IntList> locals : pointers.values()) {
+                count += locals.size();
+            }
+            int[] pointerMethods = new int[count];
+            String[] pointerLocals = new String[count];
+            int[] pointerSets = new int[count];
+            SetInterner interner = new SetInterner();
+            int p = 0;
+            for (int m = 0; m < methods.length; m++) {
+                Map<String, IntList> locals = pointers.get(methods[m]);
+                List<String> names = new ArrayList<>(locals.keySet());
+                names.sort(Comparator.naturalOrder());
+                for (String name : names) {
+                    pointerMethods[p] = m;
+                    pointerLocals[p] = name;
+                    pointerSets[p] = interner.intern(locals.get(name).toSortedSet());
+                    p++;
+                }
+            }
+            return new PointsToRelation(methods, pointerMethods, pointerLocals,
+                    sites.toArray(new String[0]), siteTypes.toArray(new String[0]), pointerSets, interner.sets());
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package br.ufpe.cin.pt.soot.store;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Hash-conses sorted int sets: equal contents get the same id and share one canonical array. */
+final class SetInterner {
+
+    /** Content-based key around an int array. */
+    private static final class Key {
+        final int[] set;
+        final int hash;
+
+        Key(int[] set) {
+            this.set = set;
+            this.hash = Arrays.hashCode(set);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && hash == ((Key) o).hash && Arrays.equals(set, ((Key) o).set);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private final Map<Key, Integer> ids = new HashMap<>();
+    private final List<int[]> sets = new ArrayList<>();
+
+    int intern(int[] set) {
+        Key key = new Key(set);
+        Integer id = ids.get(key);
+        if (id == null) {
+            id = sets.size();
+            ids.put(key, id);
+            sets.add(set);
+        }
+        return id;
+    }
+
+    int[][] sets() {
+        return sets.toArray(new int[0][]);
+    }
+}
@@ -0,0 +1,68 @@
+package br.ufpe.cin.pt.soot.summary;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import soot.Scene;
+import soot.SootClass;
+import soot.SootMethod;
+import soot.jimple.JimpleBody;
+
+/**
+ * Library stub mode: summaries of selected library methods are derived once from their bodies,
+ * stored on disk, and installed as the methods' active bodies in later runs. Methods without a
+ * summary ({@link SummaryExtractor} says when) keep their bodies.
+ * <p>
+ * Classes are selected with the same pattern style as Soot's include list: {@code java.io.*}
+ * matches every class whose name starts with {@code java.io.}, anything else is an exact name.
+ */
+public final class LibrarySummaries {
+
+    private LibrarySummaries() {
+    }
+
+    /**
+     * Summarises every concrete method of the selected classes in the Scene whose body can be
+     * retrieved, and writes the result to {@code file}. Returns the number of summaries.
+     */
+    public static int derive(List<String> classPatterns, File file) {
+        List<SootMethod> methods = new ArrayList<>();
+        for (SootClass c : new ArrayList<>(Scene.v().getClasses())) {
+            if (c.isPhantom() || !matches(classPatterns, c.getName())) continue;
+            for (SootMethod m : new ArrayList<>(c.getMethods())) {
+                if (m.isConcrete()) methods.add(m);
+            }
+        }
+        List<MethodSummary> summaries = new SummaryExtractor(m -> matches(classPatterns, m.getDeclaringClass().getName()))
+                .extract(methods);
+        SummaryFile.write(file, summaries);
+        return summaries.size();
+    }
+
+    /**
+     * Replaces the bodies of the summarised methods found in the Scene. Must run after the classes
+     * are loaded and before the PTA builds its PAG. Returns the number of installed stubs.
+     */
+    public static int install(File file) {
+        int installed = 0;
+        for (MethodSummary summary : SummaryFile.read(file)) {
+            SootMethod m = Scene.v().grabMethod(summary.getSignature());
+            if (m == null || !m.isConcrete()) continue;
+            JimpleBody stub = StubBodies.create(m, summary);
+            if (stub == null) continue;
+            m.setActiveBody(stub);
+            installed++;
+        }
+        return installed;
+    }
+
+    static boolean matches(List<String> patterns, String className) {
+        for (String p : patterns) {
+            if (p.endsWith(".*") ? className.startsWith(p.substring(0, p.length() - 1)) : className.equals(p)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
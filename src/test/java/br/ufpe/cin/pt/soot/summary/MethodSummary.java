@@ -0,0 +1,211 @@
+package br.ufpe.cin.pt.soot.summary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Pointer effects of a library method, read off its body and the bodies it inlines, over access
+ * paths. A path starts at a root and follows field signatures or {@link #ELEMENT} steps; the roots
+ * are {@link #THIS}, the parameters ({@code p0..pn-1}) and the {@link Root roots} the summary
+ * declares (objects the method allocates, loads from static fields, or gets back from calls it
+ * keeps). A set of paths stands for every object any of them may point to.
+ */
+public final class MethodSummary {
+
+    public static final String THIS = "this";
+    public static final String ELEMENT = "[]";
+
+    static String parameter(int i) {
+        return "p" + i;
+    }
+
+    /** A root and a sequence of field loads ({@link #ELEMENT} for array elements). */
+    public static final class Path {
+        public final String root;
+        public final List<String> steps;
+
+        public Path(String root) {
+            this(root, Collections.emptyList());
+        }
+
+        private Path(String root, List<String> steps) {
+            this.root = root;
+            this.steps = steps;
+        }
+
+        Path append(String step) {
+            List<String> s = new ArrayList<>(steps);
+            s.add(step);
+            return new Path(root, Collections.unmodifiableList(s));
+        }
+
+        /** This path followed by the steps of {@code suffix}, whose root it replaces. */
+        Path extend(Path suffix) {
+            if (suffix.steps.isEmpty()) return this;
+            List<String> s = new ArrayList<>(steps);
+            s.addAll(suffix.steps);
+            return new Path(root, Collections.unmodifiableList(s));
+        }
+
+        /** The path without its last step; must not be called on a bare root. */
+        Path prefix() {
+            return new Path(root, steps.subList(0, steps.size() - 1));
+        }
+
+        static Path parse(String text) {
+            String[] parts = text.split("/");
+            return new Path(parts[0], Collections.unmodifiableList(Arrays.asList(parts).subList(1, parts.length)));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Path)) return false;
+            Path other = (Path) o;
+            return root.equals(other.root) && steps.equals(other.steps);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * root.hashCode() + steps.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(root);
+            for (String s : steps) {
+                sb.append('/').append(s);
+            }
+            return sb.toString();
+        }
+    }
+
+    /** Kinds of declared roots; the detail is the allocated type, the field signature or the class constant. */
+    public enum RootKind { NEW, STATIC, STRING, CLASS }
+
+    /** An object source inside the summarised method. */
+    public static final class Root {
+        public final String name;
+        public final RootKind kind;
+        public final String detail;  // null for STRING
+
+        public Root(String name, RootKind kind, String detail) {
+            this.name = name;
+            this.kind = kind;
+            this.detail = detail;
+        }
+    }
+
+    /**
+     * A call the summary keeps because its target depends on the receiver or lies outside the
+     * summarised classes. Arguments of primitive type are null; the result, if used, is a root.
+     */
+    public static final class Call {
+        public final String kind;  // virtual, interface, special or static
+        public final String method;
+        public final Set<Path> base;  // null for static calls
+        public final List<Set<Path>> args;
+        public final String result;  // null when the result is unused or not a reference
+
+        public Call(String kind, String method, Set<Path> base, List<Set<Path>> args, String result) {
+            this.kind = kind;
+            this.method = method;
+            this.base = base;
+            this.args = args;
+            this.result = result;
+        }
+    }
+
+    /** {@code base.field = value}; the field is {@link #ELEMENT} for array stores. */
+    public static final class Store {
+        public final Set<Path> base;
+        public final String field;
+        public final Set<Path> value;
+
+        public Store(Set<Path> base, String field, Set<Path> value) {
+            this.base = base;
+            this.field = field;
+            this.value = value;
+        }
+    }
+
+    /** {@code C.field = value}: the value escapes into a static field. */
+    public static final class StaticStore {
+        public final String field;
+        public final Set<Path> value;
+
+        public StaticStore(String field, Set<Path> value) {
+            this.field = field;
+            this.value = value;
+        }
+    }
+
+    private final String signature;
+    private final List<Root> roots = new ArrayList<>();
+    private final List<Call> calls = new ArrayList<>();
+    private final List<Store> stores = new ArrayList<>();
+    private final List<StaticStore> staticStores = new ArrayList<>();
+    private final Set<Path> returns = new LinkedHashSet<>();
+    private final Set<Path> thrown = new LinkedHashSet<>();
+
+    public MethodSummary(String signature) {
+        this.signature = signature;
+    }
+
+    public String getSignature() {
+        return signature;
+    }
+
+    public List<Root> getRoots() {
+        return Collections.unmodifiableList(roots);
+    }
+
+    public List<Call> getCalls() {
+        return Collections.unmodifiableList(calls);
+    }
+
+    public List<Store> getStores() {
+        return Collections.unmodifiableList(stores);
+    }
+
+    public List<StaticStore> getStaticStores() {
+        return Collections.unmodifiableList(staticStores);
+    }
+
+    /** Paths the method may return; empty for void and primitive methods. */
+    public Set<Path> getReturns() {
+        return Collections.unmodifiableSet(returns);
+    }
+
+    /** Paths the method may throw, including what the methods it inlines throw. */
+    public Set<Path> getThrown() {
+        return Collections.unmodifiableSet(thrown);
+    }
+
+    void addRoot(Root root) {
+        roots.add(root);
+    }
+
+    void addCall(Call call) {
+        calls.add(call);
+    }
+
+    void addStore(Set<Path> base, String field, Set<Path> value) {
+        stores.add(new Store(base, field, value));
+    }
+
+    void addStaticStore(String field, Set<Path> value) {
+        staticStores.add(new StaticStore(field, value));
+    }
+
+    void addReturns(Set<Path> paths) {
+        returns.addAll(paths);
+    }
+
+    void addThrown(Set<Path> paths) {
+        thrown.addAll(paths);
+    }
+}
@@ -0,0 +1,300 @@
+package br.ufpe.cin.pt.soot.summary;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import br.ufpe.cin.pt.soot.summary.MethodSummary.Path;
+import soot.ArrayType;
+import soot.BooleanType;
+import soot.ByteType;
+import soot.CharType;
+import soot.DoubleType;
+import soot.FloatType;
+import soot.IntType;
+import soot.Local;
+import soot.LongType;
+import soot.RefLikeType;
+import soot.RefType;
+import soot.Scene;
+import soot.ShortType;
+import soot.SootClass;
+import soot.SootField;
+import soot.SootMethod;
+import soot.Type;
+import soot.Unit;
+import soot.Value;
+import soot.VoidType;
+import soot.jimple.ClassConstant;
+import soot.jimple.DoubleConstant;
+import soot.jimple.FloatConstant;
+import soot.jimple.IntConstant;
+import soot.jimple.InvokeExpr;
+import soot.jimple.Jimple;
+import soot.jimple.JimpleBody;
+import soot.jimple.LongConstant;
+import soot.jimple.NullConstant;
+import soot.jimple.StringConstant;
+
+/**
+ * Generates the Jimple stand-in body for a summarised method. Every path of the summary becomes a
+ * chain of loads from its root, each set of paths a local assigned from all of them (typed like the
+ * operand it replaces, so the PTA filters it the same way), and the summary's allocations, static
+ * loads, kept calls, stores, return and throw are emitted over those locals. The throw sits behind
+ * an opaque branch. Assignments are emitted in sequence; for a flow-insensitive PTA that is the
+ * same as a nondeterministic choice.
+ */
+final class StubBodies {
+
+    private StubBodies() {
+    }
+
+    /** Signals a field, method or type of the summary that the Scene cannot resolve. */
+    private static final class Unresolved extends Exception {
+        Unresolved() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * Builds the stub body for {@code m}, or returns null if the summary refers to something the
+     * Scene does not have; the caller installs it with {@code m.setActiveBody}.
+     */
+    static JimpleBody create(SootMethod m, MethodSummary summary) {
+        try {
+            return new Builder(m).build(summary);
+        } catch (Unresolved e) {
+            return null;
+        }
+    }
+
+    private static final class Builder {
+        private final Jimple j = Jimple.v();
+        private final SootMethod method;
+        private final JimpleBody body;
+        private final Map<String, Local> roots = new HashMap<>();
+        private final Map<Path, Local> paths = new HashMap<>();
+
+        Builder(SootMethod method) {
+            this.method = method;
+            this.body = j.newBody(method);
+        }
+
+        JimpleBody build(MethodSummary summary) throws Unresolved {
+            if (!method.isStatic()) {
+                RefType declaring = method.getDeclaringClass().getType();
+                Local self = local(declaring);
+                body.getUnits().add(j.newIdentityStmt(self, j.newThisRef(declaring)));
+                roots.put(MethodSummary.THIS, self);
+            }
+            for (int i = 0; i < method.getParameterCount(); i++) {
+                Type t = method.getParameterType(i);
+                Local p = local(t);
+                body.getUnits().add(j.newIdentityStmt(p, j.newParameterRef(t, i)));
+                roots.put(MethodSummary.parameter(i), p);
+            }
+
+            for (MethodSummary.Root r : summary.getRoots()) {
+                roots.put(r.name, root(r));
+            }
+            List<SootMethod> targets = new ArrayList<>();
+            for (MethodSummary.Call c : summary.getCalls()) {
+                SootMethod target = findMethod(c.method);
+                targets.add(target);
+                if (c.result != null) roots.put(c.result, local(target.getReturnType()));
+            }
+            for (int i = 0; i < targets.size(); i++) {
+                call(summary.getCalls().get(i), targets.get(i));
+            }
+            for (MethodSummary.Store s : summary.getStores()) {
+                if (s.field.equals(MethodSummary.ELEMENT)) {
+                    Local base = merge(s.base, ArrayType.v(objectType(), 1));
+                    Local value = merge(s.value, objectType());
+                    body.getUnits().add(j.newAssignStmt(j.newArrayRef(base, IntConstant.v(0)), value));
+                } else {
+                    SootField field = field(s.field, false);
+                    Local base = merge(s.base, field.getDeclaringClass().getType());
+                    Local value = merge(s.value, field.getType());
+                    body.getUnits().add(j.newAssignStmt(j.newInstanceFieldRef(base, field.makeRef()), value));
+                }
+            }
+            for (MethodSummary.StaticStore s : summary.getStaticStores()) {
+                SootField field = field(s.field, true);
+                body.getUnits().add(j.newAssignStmt(j.newStaticFieldRef(field.makeRef()), merge(s.value, field.getType())));
+            }
+
+            Type returnType = method.getReturnType();
+            Unit exit;
+            if (returnType instanceof VoidType) {
+                exit = j.newReturnVoidStmt();
+            } else if (returnType instanceof RefLikeType) {
+                Local ret = merge(summary.getReturns(), returnType);
+                exit = j.newReturnStmt(ret == null ? NullConstant.v() : ret);
+            } else {
+                exit = j.newReturnStmt(defaultValue(returnType));
+            }
+            Local thrown = merge(summary.getThrown(), RefType.v("java.lang.Throwable"));
+            if (thrown != null) {
+                Local opaque = local(IntType.v());
+                body.getUnits().add(j.newAssignStmt(opaque, IntConstant.v(0)));
+                body.getUnits().add(j.newIfStmt(j.newEqExpr(opaque, IntConstant.v(0)), exit));
+                body.getUnits().add(j.newThrowStmt(thrown));
+            }
+            body.getUnits().add(exit);
+            return body;
+        }
+
+        private Local root(MethodSummary.Root r) throws Unresolved {
+            Value value;
+            Type type;
+            switch (r.kind) {
+                case NEW:
+                    type = Scene.v().getTypeUnsafe(r.detail);
+                    if (type instanceof RefType) {
+                        value = j.newNewExpr((RefType) type);
+                    } else if (type instanceof ArrayType) {
+                        value = j.newNewArrayExpr(elementType((ArrayType) type), IntConstant.v(1));
+                    } else {
+                        throw new Unresolved();
+                    }
+                    break;
+                case STATIC:
+                    SootField field = field(r.detail, true);
+                    type = field.getType();
+                    value = j.newStaticFieldRef(field.makeRef());
+                    break;
+                case STRING:
+                    type = RefType.v("java.lang.String");
+                    value = StringConstant.v("");
+                    break;
+                default:
+                    type = RefType.v("java.lang.Class");
+                    value = ClassConstant.v(r.detail);
+            }
+            Local l = local(type);
+            body.getUnits().add(j.newAssignStmt(l, value));
+            return l;
+        }
+
+        private void call(MethodSummary.Call c, SootMethod target) throws Unresolved {
+            List<Value> args = new ArrayList<>();
+            for (int i = 0; i < c.args.size(); i++) {
+                Type t = target.getParameterType(i);
+                Local arg = c.args.get(i) == null ? null : merge(c.args.get(i), t);
+                args.add(arg != null ? arg : t instanceof RefLikeType ? NullConstant.v() : defaultValue(t));
+            }
+            InvokeExpr invoke;
+            if (c.base == null) {
+                invoke = j.newStaticInvokeExpr(target.makeRef(), args);
+            } else {
+                Local base = merge(c.base, target.getDeclaringClass().getType());
+                if (c.kind.equals("special")) {
+                    invoke = j.newSpecialInvokeExpr(base, target.makeRef(), args);
+                } else if (target.getDeclaringClass().isInterface()) {
+                    invoke = j.newInterfaceInvokeExpr(base, target.makeRef(), args);
+                } else {
+                    invoke = j.newVirtualInvokeExpr(base, target.makeRef(), args);
+                }
+            }
+            body.getUnits().add(c.result == null ? j.newInvokeStmt(invoke) : j.newAssignStmt(roots.get(c.result), invoke));
+        }
+
+        /** A fresh local of {@code type} assigned from every path of {@code set}; null for an empty set. */
+        private Local merge(Set<Path> set, Type type) throws Unresolved {
+            if (set.isEmpty()) return null;
+            Local merged = local(type);
+            for (Path p : set) {
+                body.getUnits().add(j.newAssignStmt(merged, load(p)));
+            }
+            return merged;
+        }
+
+        /** The local holding {@code p}, emitting the loads along it on first use. */
+        private Local load(Path p) throws Unresolved {
+            if (p.steps.isEmpty()) {
+                Local root = roots.get(p.root);
+                if (root == null) throw new Unresolved();
+                return root;
+            }
+            Local result = paths.get(p);
+            if (result != null) return result;
+            Local base = load(p.prefix());
+            String step = p.steps.get(p.steps.size() - 1);
+            if (step.equals(MethodSummary.ELEMENT)) {
+                if (!(base.getType() instanceof ArrayType)) {
+                    Local array = local(ArrayType.v(objectType(), 1));
+                    body.getUnits().add(j.newAssignStmt(array, j.newCastExpr(base, array.getType())));
+                    base = array;
+                }
+                result = local(elementType((ArrayType) base.getType()));
+                body.getUnits().add(j.newAssignStmt(result, j.newArrayRef(base, IntConstant.v(0))));
+            } else {
+                SootField field = field(step, false);
+                result = local(field.getType());
+                body.getUnits().add(j.newAssignStmt(result, j.newInstanceFieldRef(base, field.makeRef())));
+            }
+            paths.put(p, result);
+            return result;
+        }
+
+        private Local local(Type type) {
+            Local l = j.newLocal("$s" + body.getLocals().size(), type);
+            body.getLocals().add(l);
+            return l;
+        }
+    }
+
+    private static SootField field(String signature, boolean isStatic) throws Unresolved {
+        SootField field = Scene.v().grabField(signature);
+        if (field == null || field.isStatic() != isStatic) throw new Unresolved();
+        return field;
+    }
+
+    /**
+     * The method with {@code signature}, looked up in the named class and then its supertypes,
+     * since a call's method reference may name a class that only inherits the method.
+     */
+    private static SootMethod findMethod(String signature) throws Unresolved {
+        SootMethod m = Scene.v().grabMethod(signature);
+        if (m != null) return m;
+        int colon = signature.indexOf(": ");
+        SootClass start = Scene.v().getSootClassUnsafe(signature.substring(1, colon));
+        String subSignature = signature.substring(colon + 2, signature.length() - 1);
+        Deque<SootClass> work = new ArrayDeque<>();
+        Set<SootClass> seen = new HashSet<>();
+        if (start != null) work.add(start);
+        while (!work.isEmpty()) {
+            SootClass c = work.poll();
+            if (!seen.add(c)) continue;
+            m = c.getMethodUnsafe(subSignature);
+            if (m != null) return m;
+            if (c.hasSuperclass()) work.add(c.getSuperclass());
+            work.addAll(c.getInterfaces());
+        }
+        throw new Unresolved();
+    }
+
+    private static Type elementType(ArrayType t) {
+        return t.numDimensions == 1 ? t.baseType : ArrayType.v(t.baseType, t.numDimensions - 1);
+    }
+
+    private static RefType objectType() {
+        return RefType.v("java.lang.Object");
+    }
+
+    private static Value defaultValue(Type t) {
+        if (t instanceof LongType) return LongConstant.v(0);
+        if (t instanceof FloatType) return FloatConstant.v(0);
+        if (t instanceof DoubleType) return DoubleConstant.v(0);
+        if (t instanceof BooleanType || t instanceof ByteType || t instanceof CharType
+                || t instanceof ShortType || t instanceof IntType) {
+            return IntConstant.v(0);
+        }
+        throw new IllegalArgumentException("No default value for type " + t);
+    }
+}
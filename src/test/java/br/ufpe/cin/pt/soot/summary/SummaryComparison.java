@@ -0,0 +1,87 @@
+package br.ufpe.cin.pt.soot.summary;
+
+import java.io.File;
+import java.util.List;
+
+import br.ufpe.cin.pt.soot.AliasTransformer;
+import br.ufpe.cin.pt.soot.Driver;
+import br.ufpe.cin.pt.soot.RunReport;
+import br.ufpe.cin.pt.soot.TestConfiguration;
+
+/**
+ * Runs the same configuration against the full library and against the stored summaries, and
+ * reports the alias answer, solve time and reachable methods of both runs side by side.
+ * <p>
+ * The full run derives the summaries when {@code summaryFile} does not exist yet. Both runs share
+ * one JVM, so for Qilin algorithms the usual caveat about Qilin static state applies.
+ */
+public final class SummaryComparison {
+
+    private final AliasTransformer.Result fullResult;
+    private final RunReport fullReport;
+    private final AliasTransformer.Result summaryResult;
+    private final RunReport summaryReport;
+
+    private SummaryComparison(AliasTransformer.Result fullResult, RunReport fullReport,
+                              AliasTransformer.Result summaryResult, RunReport summaryReport) {
+        this.fullResult = fullResult;
+        this.fullReport = fullReport;
+        this.summaryResult = summaryResult;
+        this.summaryReport = summaryReport;
+    }
+
+    public static SummaryComparison run(TestConfiguration config, File summaryFile, List<String> classPatterns) {
+        Driver driver = new Driver();
+        boolean derive = !summaryFile.exists();
+        AliasTransformer.Result full = driver.runAnalysis(derive
+                ? config.copy().setLibrarySummaries(summaryFile, classPatterns)
+                : config.copy().setLibrarySummaries(null, null));
+        RunReport fullReport = driver.getReport();
+        AliasTransformer.Result summarised = driver.runAnalysis(
+                config.copy().setLibrarySummaries(summaryFile, classPatterns));
+        return new SummaryComparison(full, fullReport, summarised, driver.getReport());
+    }
+
+    /** True when the summaries did not change the alias answer. */
+    public boolean samePrecision() {
+        return fullResult == summaryResult;
+    }
+
+    /** Solve time of the full run divided by the solve time of the summarised run. */
+    public double solveSpeedup() {
+        long summarised = summaryReport.getPhase("solve");
+        return summarised <= 0 ? 1.0 : (double) fullReport.getPhase("solve") / summarised;
+    }
+
+    public AliasTransformer.Result getFullResult() {
+        return fullResult;
+    }
+
+    public AliasTransformer.Result getSummaryResult() {
+        return summaryResult;
+    }
+
+    public RunReport getFullReport() {
+        return fullReport;
+    }
+
+    public RunReport getSummaryReport() {
+        return summaryReport;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-20s %26s %26s%n", "", "full library", "summaries"));
+        sb.append(String.format("%-20s %26s %26s%n", "alias result", fullResult, summaryResult));
+        sb.append(String.format("%-20s %23d ms %23d ms%n", "solve",
+                fullReport.getPhase("solve"), summaryReport.getPhase("solve")));
+        sb.append(String.format("%-20s %26s %26s%n", "reachable methods",
+                fullReport.getMetric("reachableMethods"), summaryReport.getMetric("reachableMethods")));
+        sb.append(String.format("%-20s %26s %26s%n", "stubs installed", "-",
+                summaryReport.getMetric("summaries.installed")));
+        sb.append(String.format("solve speedup %.2fx, precision %s%n", solveSpeedup(),
+                samePrecision() ? "unchanged" : "CHANGED"));
+        return sb.toString();
+    }
+}
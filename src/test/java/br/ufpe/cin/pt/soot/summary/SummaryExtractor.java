@@ -0,0 +1,401 @@
+package br.ufpe.cin.pt.soot.summary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import br.ufpe.cin.pt.soot.summary.MethodSummary.Path;
+import br.ufpe.cin.pt.soot.summary.MethodSummary.RootKind;
+import soot.Body;
+import soot.Local;
+import soot.RefLikeType;
+import soot.ResolutionFailedException;
+import soot.SootMethod;
+import soot.Unit;
+import soot.Value;
+import soot.jimple.ArrayRef;
+import soot.jimple.AssignStmt;
+import soot.jimple.CastExpr;
+import soot.jimple.CaughtExceptionRef;
+import soot.jimple.ClassConstant;
+import soot.jimple.Constant;
+import soot.jimple.DefinitionStmt;
+import soot.jimple.DynamicInvokeExpr;
+import soot.jimple.FieldRef;
+import soot.jimple.InstanceFieldRef;
+import soot.jimple.InstanceInvokeExpr;
+import soot.jimple.InterfaceInvokeExpr;
+import soot.jimple.InvokeExpr;
+import soot.jimple.NewArrayExpr;
+import soot.jimple.NewExpr;
+import soot.jimple.ParameterRef;
+import soot.jimple.ReturnStmt;
+import soot.jimple.SpecialInvokeExpr;
+import soot.jimple.StaticFieldRef;
+import soot.jimple.StaticInvokeExpr;
+import soot.jimple.Stmt;
+import soot.jimple.StringConstant;
+import soot.jimple.ThisRef;
+import soot.jimple.ThrowStmt;
+
+/**
+ * Derives {@link MethodSummary summaries} from method bodies alone, so a summary holds for every
+ * program that links against the method.
+ * <p>
+ * Each reference local gets the set of access paths it may hold, computed flow-insensitively to a
+ * fixpoint over copies, casts, field and array loads, allocations, static loads and call results.
+ * Calls to statically bound methods of the selected classes (static, special, private or final
+ * targets) are inlined by substituting the callee's summary; every other call is kept, so
+ * callbacks into application code and dispatch on the receiver's type stay in the summary. A
+ * method whose effects cannot be expressed this way (paths longer than {@link #MAX_PATH_LENGTH},
+ * more than {@link #MAX_PATHS} paths in a local, invokedynamic, multi-dimensional allocation, a
+ * caught exception used for anything but a rethrow, no source to build a body from, a field
+ * missing from the scene) gets no summary and keeps its body. Any other failure is a bug and
+ * propagates.
+ */
+public final class SummaryExtractor {
+
+    static final int MAX_PATH_LENGTH = 3;
+    static final int MAX_PATHS = 16;
+
+    private static final String CAUGHT = "caught";
+    private static final MethodSummary NONE = new MethodSummary("");
+
+    private final Predicate<SootMethod> selected;
+    private final Map<SootMethod, MethodSummary> summaries = new HashMap<>();
+    private final Set<SootMethod> inProgress = new HashSet<>();
+
+    public SummaryExtractor(Predicate<SootMethod> selected) {
+        this.selected = selected;
+    }
+
+    /** Summaries of the selected concrete methods among {@code methods} that can be summarised. */
+    public List<MethodSummary> extract(Collection<SootMethod> methods) {
+        List<MethodSummary> result = new ArrayList<>();
+        for (SootMethod m : methods) {
+            if (!selected.test(m)) continue;
+            MethodSummary s = summaryOf(m);
+            if (s != null) result.add(s);
+        }
+        return result;
+    }
+
+    /** The summary of {@code m}, or null if it has no body or its effects cannot be expressed. */
+    MethodSummary summaryOf(SootMethod m) {
+        MethodSummary s = summaries.get(m);
+        if (s != null) return s == NONE ? null : s;
+        if (!m.isConcrete() || !inProgress.add(m)) return null;
+        try {
+            s = new Extraction(m, body(m)).run();
+        } catch (Unsummarisable e) {
+            s = null;
+        } finally {
+            inProgress.remove(m);
+        }
+        summaries.put(m, s == null ? NONE : s);
+        return s;
+    }
+
+    /** The body of {@code m}; methods of phantom classes and methods without a source have none. */
+    private static Body body(SootMethod m) throws Unsummarisable {
+        if (m.hasActiveBody()) return m.getActiveBody();
+        if (m.isPhantom() || m.getDeclaringClass().isPhantom() || m.getSource() == null) {
+            throw new Unsummarisable();
+        }
+        return m.retrieveActiveBody();
+    }
+
+    /** Signature of the field {@code ref} resolves to; a field missing from the scene has no summary. */
+    private static String field(FieldRef ref) throws Unsummarisable {
+        try {
+            return ref.getField().getSignature();
+        } catch (ResolutionFailedException e) {
+            throw new Unsummarisable();
+        }
+    }
+
+    /** Thrown while extracting a method whose effects have no summary. */
+    private static final class Unsummarisable extends Exception {
+        Unsummarisable() {
+            super(null, null, false, false);
+        }
+    }
+
+    /** Extraction state of one method. */
+    private final class Extraction {
+        private final Body body;
+        private final MethodSummary summary;
+        private final Map<Local, Set<Path>> values = new HashMap<>();
+        private final Map<Object, String> rootNames = new HashMap<>();
+        private final Map<Unit, MethodSummary> inlined = new HashMap<>();
+
+        Extraction(SootMethod method, Body body) {
+            this.body = body;
+            this.summary = new MethodSummary(method.getSignature());
+        }
+
+        MethodSummary run() throws Unsummarisable {
+            for (Unit u : body.getUnits()) {
+                Stmt stmt = (Stmt) u;
+                if (stmt.containsInvokeExpr()) {
+                    InvokeExpr invoke = stmt.getInvokeExpr();
+                    if (invoke instanceof DynamicInvokeExpr) throw new Unsummarisable();
+                    SootMethod target = inlineTarget(invoke);
+                    MethodSummary callee = target == null ? null : summaryOf(target);
+                    if (callee != null) inlined.put(u, callee);
+                }
+            }
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+                for (Unit u : body.getUnits()) {
+                    if (!(u instanceof DefinitionStmt)) continue;
+                    DefinitionStmt def = (DefinitionStmt) u;
+                    if (!(def.getLeftOp() instanceof Local) || !isReference(def.getLeftOp())) continue;
+                    Set<Path> paths = values.computeIfAbsent((Local) def.getLeftOp(), l -> new LinkedHashSet<>());
+                    if (paths.addAll(define(def))) {
+                        if (paths.size() > MAX_PATHS) throw new Unsummarisable();
+                        changed = true;
+                    }
+                }
+            }
+            for (Unit u : body.getUnits()) {
+                effects((Stmt) u);
+            }
+            return summary;
+        }
+
+        /** Paths the right-hand side of {@code def} may evaluate to under the current values. */
+        private Set<Path> define(DefinitionStmt def) throws Unsummarisable {
+            Value rhs = def.getRightOp();
+            if (rhs instanceof ThisRef) return Collections.singleton(new Path(MethodSummary.THIS));
+            if (rhs instanceof ParameterRef) {
+                return Collections.singleton(new Path(MethodSummary.parameter(((ParameterRef) rhs).getIndex())));
+            }
+            if (rhs instanceof CaughtExceptionRef) return Collections.singleton(new Path(CAUGHT));
+            if (rhs instanceof InstanceFieldRef) {
+                InstanceFieldRef ref = (InstanceFieldRef) rhs;
+                return append(eval(ref.getBase()), field(ref));
+            }
+            if (rhs instanceof ArrayRef) return append(eval(((ArrayRef) rhs).getBase()), MethodSummary.ELEMENT);
+            if (rhs instanceof StaticFieldRef) {
+                String field = field((StaticFieldRef) rhs);
+                return Collections.singleton(new Path(root(field, RootKind.STATIC, field)));
+            }
+            if (rhs instanceof NewExpr) {
+                return Collections.singleton(new Path(root(def, RootKind.NEW, ((NewExpr) rhs).getBaseType().toString())));
+            }
+            if (rhs instanceof NewArrayExpr) {
+                return Collections.singleton(new Path(root(def, RootKind.NEW, rhs.getType().toString())));
+            }
+            if (rhs instanceof InvokeExpr) {
+                MethodSummary callee = inlined.get(def);
+                if (callee != null) return substitute(callee.getReturns(), def, (InvokeExpr) rhs);
+                return Collections.singleton(new Path(callResult(def)));
+            }
+            if (rhs instanceof Local || rhs instanceof CastExpr || rhs instanceof Constant) {
+                return eval(rhs);
+            }
+            throw new Unsummarisable();
+        }
+
+        /** Paths of an immediate operand: a local, a constant or a cast of one. */
+        private Set<Path> eval(Value v) {
+            if (v instanceof CastExpr) return eval(((CastExpr) v).getOp());
+            if (v instanceof Local) return values.getOrDefault(v, Collections.emptySet());
+            if (v instanceof StringConstant) return Collections.singleton(new Path(root(RootKind.STRING, RootKind.STRING, null)));
+            if (v instanceof ClassConstant) {
+                String name = ((ClassConstant) v).getValue();
+                return Collections.singleton(new Path(root(Arrays.asList(RootKind.CLASS, name), RootKind.CLASS, name)));
+            }
+            return Collections.emptySet();
+        }
+
+        private void effects(Stmt stmt) throws Unsummarisable {
+            if (stmt.containsInvokeExpr()) {
+                InvokeExpr invoke = stmt.getInvokeExpr();
+                MethodSummary callee = inlined.get(stmt);
+                if (callee != null) {
+                    inline(stmt, invoke, callee);
+                } else {
+                    String result = stmt instanceof AssignStmt && isReference(((AssignStmt) stmt).getLeftOp())
+                            ? callResult(stmt) : null;
+                    Set<Path> base = invoke instanceof InstanceInvokeExpr
+                            ? escaping(eval(((InstanceInvokeExpr) invoke).getBase())) : null;
+                    if (base == null || !base.isEmpty()) {
+                        List<Set<Path>> args = new ArrayList<>();
+                        for (Value arg : invoke.getArgs()) {
+                            args.add(isReference(arg) ? escaping(eval(arg)) : null);
+                        }
+                        summary.addCall(new MethodSummary.Call(kind(invoke), invoke.getMethodRef().getSignature(),
+                                base, args, result));
+                    }
+                }
+            } else if (stmt instanceof AssignStmt && isReference(((AssignStmt) stmt).getRightOp())) {
+                Value lhs = ((AssignStmt) stmt).getLeftOp();
+                Set<Path> value = eval(((AssignStmt) stmt).getRightOp());
+                if (lhs instanceof InstanceFieldRef) {
+                    InstanceFieldRef ref = (InstanceFieldRef) lhs;
+                    store(eval(ref.getBase()), field(ref), value);
+                } else if (lhs instanceof ArrayRef) {
+                    store(eval(((ArrayRef) lhs).getBase()), MethodSummary.ELEMENT, value);
+                } else if (lhs instanceof StaticFieldRef && !value.isEmpty()) {
+                    summary.addStaticStore(field((StaticFieldRef) lhs), escaping(value));
+                }
+            } else if (stmt instanceof ReturnStmt && isReference(((ReturnStmt) stmt).getOp())) {
+                summary.addReturns(escaping(eval(((ReturnStmt) stmt).getOp())));
+            } else if (stmt instanceof ThrowStmt) {
+                // Rethrowing a caught exception adds nothing: it escaped from a callee that is kept
+                // or inlined, and escapes from the summary the same way.
+                Set<Path> thrown = new LinkedHashSet<>(eval(((ThrowStmt) stmt).getOp()));
+                thrown.remove(new Path(CAUGHT));
+                summary.addThrown(escaping(thrown));
+            }
+        }
+
+        private void store(Set<Path> base, String field, Set<Path> value) throws Unsummarisable {
+            if (base.isEmpty() || value.isEmpty()) return;
+            summary.addStore(escaping(base), field, escaping(value));
+        }
+
+        /** Copies the callee's effects into the summary with its roots and parameters rebound at {@code site}. */
+        private void inline(Unit site, InvokeExpr invoke, MethodSummary callee) throws Unsummarisable {
+            for (MethodSummary.Store s : callee.getStores()) {
+                store(substitute(s.base, site, invoke), s.field, substitute(s.value, site, invoke));
+            }
+            for (MethodSummary.StaticStore s : callee.getStaticStores()) {
+                Set<Path> value = substitute(s.value, site, invoke);
+                if (!value.isEmpty()) summary.addStaticStore(s.field, value);
+            }
+            for (MethodSummary.Call c : callee.getCalls()) {
+                Set<Path> base = c.base == null ? null : substitute(c.base, site, invoke);
+                if (base != null && base.isEmpty()) continue;
+                List<Set<Path>> args = new ArrayList<>();
+                for (Set<Path> a : c.args) {
+                    args.add(a == null ? null : substitute(a, site, invoke));
+                }
+                String result = c.result == null ? null : calleeRoot(site, callee, c.result);
+                summary.addCall(new MethodSummary.Call(c.kind, c.method, base, args, result));
+            }
+            summary.addThrown(substitute(callee.getThrown(), site, invoke));
+        }
+
+        /** Rebinds the callee's paths: receiver and parameters to the call's operands, roots to the caller's. */
+        private Set<Path> substitute(Set<Path> paths, Unit site, InvokeExpr invoke) throws Unsummarisable {
+            MethodSummary callee = inlined.get(site);
+            Set<Path> result = new LinkedHashSet<>();
+            for (Path p : paths) {
+                Set<Path> bound;
+                if (p.root.equals(MethodSummary.THIS)) {
+                    bound = eval(((InstanceInvokeExpr) invoke).getBase());
+                } else if (isParameter(p.root, invoke.getArgCount())) {
+                    bound = eval(invoke.getArg(Integer.parseInt(p.root.substring(1))));
+                } else {
+                    bound = Collections.singleton(new Path(calleeRoot(site, callee, p.root)));
+                }
+                for (Path b : bound) {
+                    Path extended = b.extend(p);
+                    if (extended.steps.size() > MAX_PATH_LENGTH) throw new Unsummarisable();
+                    result.add(extended);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * The caller's root for a root of an inlined callee. Static loads, strings and class
+         * constants are shared; allocations and call results are renamed per call site.
+         */
+        private String calleeRoot(Unit site, MethodSummary callee, String name) {
+            for (MethodSummary.Root r : callee.getRoots()) {
+                if (!r.name.equals(name)) continue;
+                switch (r.kind) {
+                    case STATIC:
+                        return root(r.detail, RootKind.STATIC, r.detail);
+                    case STRING:
+                        return root(RootKind.STRING, RootKind.STRING, null);
+                    case CLASS:
+                        return root(Arrays.asList(RootKind.CLASS, r.detail), RootKind.CLASS, r.detail);
+                    default:
+                        return root(Arrays.asList(site, name), RootKind.NEW, r.detail);
+                }
+            }
+            return rootNames.computeIfAbsent(Arrays.asList(site, name), k -> "r" + rootNames.size());
+        }
+
+        /** Declares (once per key) a root of the summary and returns its name. */
+        private String root(Object key, RootKind kind, String detail) {
+            String name = rootNames.get(key);
+            if (name == null) {
+                name = "r" + rootNames.size();
+                rootNames.put(key, name);
+                summary.addRoot(new MethodSummary.Root(name, kind, detail));
+            }
+            return name;
+        }
+
+        /** Name of the root that stands for the result of the call kept at {@code site}. */
+        private String callResult(Unit site) {
+            return rootNames.computeIfAbsent(site, k -> "r" + rootNames.size());
+        }
+
+        private Set<Path> append(Set<Path> paths, String step) throws Unsummarisable {
+            Set<Path> result = new LinkedHashSet<>();
+            for (Path p : paths) {
+                if (p.steps.size() == MAX_PATH_LENGTH) throw new Unsummarisable();
+                result.add(p.append(step));
+            }
+            return result;
+        }
+
+        /** Fails unless none of {@code paths} starts at a caught exception. */
+        private Set<Path> escaping(Set<Path> paths) throws Unsummarisable {
+            for (Path p : paths) {
+                if (p.root.equals(CAUGHT)) throw new Unsummarisable();
+            }
+            return paths;
+        }
+    }
+
+    /** Statically bound callee of {@code invoke} in the selected classes, or null to keep the call. */
+    private SootMethod inlineTarget(InvokeExpr invoke) {
+        SootMethod target;
+        try {
+            target = invoke.getMethod();
+        } catch (ResolutionFailedException e) {
+            return null;
+        }
+        boolean bound = invoke instanceof StaticInvokeExpr || invoke instanceof SpecialInvokeExpr
+                || target.isFinal() || target.isPrivate() || target.getDeclaringClass().isFinal()
+                || invoke.getMethodRef().getDeclaringClass().isFinal();
+        return bound && selected.test(target) ? target : null;
+    }
+
+    private static String kind(InvokeExpr invoke) {
+        if (invoke instanceof StaticInvokeExpr) return "static";
+        if (invoke instanceof SpecialInvokeExpr) return "special";
+        return invoke instanceof InterfaceInvokeExpr ? "interface" : "virtual";
+    }
+
+    private static boolean isParameter(String root, int count) {
+        if (!root.startsWith("p")) return false;
+        try {
+            int i = Integer.parseInt(root.substring(1));
+            return i >= 0 && i < count;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static boolean isReference(Value v) {
+        return v.getType() instanceof RefLikeType;
+    }
+}
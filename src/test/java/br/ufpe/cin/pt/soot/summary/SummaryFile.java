@@ -0,0 +1,166 @@
+package br.ufpe.cin.pt.soot.summary;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import br.ufpe.cin.pt.soot.summary.MethodSummary.Path;
+
+/**
+ * Line-based, tab-separated on-disk format for {@link MethodSummary} lists:
+ *
+ * <pre>
+ *   method  &lt;signature&gt;
+ *   root    &lt;name&gt;  NEW|STATIC|STRING|CLASS  [&lt;type, field signature or class constant&gt;]
+ *   call    &lt;kind&gt;  &lt;method signature&gt;  &lt;result&gt;  &lt;base&gt;  &lt;arg&gt;...
+ *   store   &lt;base&gt;  &lt;field signature or []&gt;  &lt;value&gt;
+ *   static  &lt;field signature&gt;  &lt;value&gt;
+ *   return  &lt;paths&gt;
+ *   throw   &lt;paths&gt;
+ *   end
+ * </pre>
+ *
+ * A path is written as its root and steps separated by {@code /} (e.g.
+ * {@code this/<java.util.ArrayList: java.lang.Object[] elementData>/[]}), a set of paths as paths
+ * separated by {@code |} (nothing for an empty set), and an absent result, receiver or primitive
+ * argument as {@code -}. Tabs are used because method and field signatures contain spaces.
+ */
+public final class SummaryFile {
+
+    private static final String HEADER = "# pt library summaries v2";
+    private static final String NONE = "-";
+
+    private SummaryFile() {
+    }
+
+    public static void write(File file, List<MethodSummary> summaries) {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) parent.mkdirs();
+        try (BufferedWriter out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            out.write(HEADER);
+            out.newLine();
+            for (MethodSummary s : summaries) {
+                out.write("method\t" + s.getSignature());
+                out.newLine();
+                for (MethodSummary.Root r : s.getRoots()) {
+                    out.write("root\t" + r.name + "\t" + r.kind + (r.detail == null ? "" : "\t" + r.detail));
+                    out.newLine();
+                }
+                for (MethodSummary.Call c : s.getCalls()) {
+                    StringBuilder line = new StringBuilder("call\t").append(c.kind).append('\t').append(c.method)
+                            .append('\t').append(c.result == null ? NONE : c.result).append('\t').append(format(c.base));
+                    for (Set<Path> arg : c.args) {
+                        line.append('\t').append(format(arg));
+                    }
+                    out.write(line.toString());
+                    out.newLine();
+                }
+                for (MethodSummary.Store st : s.getStores()) {
+                    out.write("store\t" + format(st.base) + "\t" + st.field + "\t" + format(st.value));
+                    out.newLine();
+                }
+                for (MethodSummary.StaticStore ss : s.getStaticStores()) {
+                    out.write("static\t" + ss.field + "\t" + format(ss.value));
+                    out.newLine();
+                }
+                if (!s.getReturns().isEmpty()) {
+                    out.write("return\t" + format(s.getReturns()));
+                    out.newLine();
+                }
+                if (!s.getThrown().isEmpty()) {
+                    out.write("throw\t" + format(s.getThrown()));
+                    out.newLine();
+                }
+                out.write("end");
+                out.newLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write summaries to " + file, e);
+        }
+    }
+
+    public static List<MethodSummary> read(File file) {
+        List<MethodSummary> result = new ArrayList<>();
+        try (BufferedReader in = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            if (!HEADER.equals(in.readLine())) {
+                throw new IllegalArgumentException(file + " is not a summaries file in the current format; derive it again");
+            }
+            MethodSummary current = null;
+            String line;
+            int lineNo = 1;
+            while ((line = in.readLine()) != null) {
+                lineNo++;
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] parts = line.split("\t", -1);
+                switch (parts[0]) {
+                    case "method":
+                        current = new MethodSummary(parts[1]);
+                        break;
+                    case "root":
+                        current.addRoot(new MethodSummary.Root(parts[1], MethodSummary.RootKind.valueOf(parts[2]),
+                                parts.length > 3 ? parts[3] : null));
+                        break;
+                    case "call":
+                        List<Set<Path>> args = new ArrayList<>();
+                        for (String arg : Arrays.asList(parts).subList(5, parts.length)) {
+                            args.add(parse(arg));
+                        }
+                        current.addCall(new MethodSummary.Call(parts[1], parts[2], parse(parts[4]), args,
+                                parts[3].equals(NONE) ? null : parts[3]));
+                        break;
+                    case "store":
+                        current.addStore(parse(parts[1]), parts[2], parse(parts[3]));
+                        break;
+                    case "static":
+                        current.addStaticStore(parts[1], parse(parts[2]));
+                        break;
+                    case "return":
+                        current.addReturns(parse(parts[1]));
+                        break;
+                    case "throw":
+                        current.addThrown(parse(parts[1]));
+                        break;
+                    case "end":
+                        result.add(current);
+                        current = null;
+                        break;
+                    default:
+                        throw new IllegalArgumentException(file + ":" + lineNo + ": unknown entry '" + parts[0] + "'");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read summaries from " + file, e);
+        }
+        return result;
+    }
+
+    private static String format(Set<Path> paths) {
+        if (paths == null) return NONE;
+        StringBuilder sb = new StringBuilder();
+        for (Path p : paths) {
+            if (sb.length() > 0) sb.append('|');
+            sb.append(p);
+        }
+        return sb.toString();
+    }
+
+    private static Set<Path> parse(String text) {
+        if (text.equals(NONE)) return null;
+        Set<Path> paths = new LinkedHashSet<>();
+        if (text.isEmpty()) return paths;
+        for (String p : text.split("\\|")) {
+            paths.add(Path.parse(p));
+        }
+        return Collections.unmodifiableSet(paths);
+    }
+}
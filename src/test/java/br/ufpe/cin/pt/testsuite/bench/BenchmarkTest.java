@@ -0,0 +1,67 @@
+package br.ufpe.cin.pt.testsuite.bench;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import br.ufpe.cin.pt.soot.bench.Benchmark;
+import br.ufpe.cin.pt.soot.bench.EntryHarness;
+import br.ufpe.cin.pt.soot.scaling.SyntheticProgram;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Jar resolution against a fake local repository, and harness generation over compiled classes. */
+public class BenchmarkTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private void install(File repo, String path) throws Exception {
+        File jar = new File(repo, path);
+        jar.getParentFile().mkdirs();
+        Files.write(jar.toPath(), new byte[0]);
+    }
+
+    @Test
+    public void testMavenResolution() throws Exception {
+        File repo = tmp.getRoot();
+        install(repo, "junit/junit/4.9/junit-4.9.jar");
+        install(repo, "junit/junit/4.13.2/junit-4.13.2.jar");
+        install(repo, "org/hamcrest/hamcrest-core/1.3/hamcrest-core-1.3.jar");
+        new File(repo, "junit/junit/5.0").mkdirs();  // no jar: not a candidate
+
+        assertEquals(new File(repo, "junit/junit/4.13.2/junit-4.13.2.jar"), Benchmark.resolve(repo, "junit:junit"));
+        assertEquals(new File(repo, "junit/junit/4.9/junit-4.9.jar"), Benchmark.resolve(repo, "junit:junit:4.9"));
+
+        Benchmark junit = Benchmark.maven(repo, "junit", "junit:junit", "org.hamcrest:hamcrest-core");
+        assertTrue(junit.isAvailable());
+        assertEquals(1, junit.getLibraries().size());
+        assertFalse(Benchmark.maven(repo, "guava", "com.google.guava:guava").isAvailable());
+    }
+
+    @Test
+    public void testHarnessCallsPublicApi() throws Exception {
+        SyntheticProgram program = SyntheticProgram.of(2).withContainerDepth(1);
+        File app = tmp.newFolder("app");
+        program.generate(tmp.newFolder("appsrc"), app);
+
+        File src = tmp.newFolder("src");
+        File classes = tmp.newFolder("classes");
+        int exercised = new EntryHarness().generate("synthetic", Collections.singletonList(app),
+                Collections.<File>emptyList(), src, classes);
+        assertTrue("Public classes with a public constructor or method are exercised.", exercised >= 4);
+        String main = EntryHarness.mainClass("synthetic");
+        assertTrue(new File(classes, main.replace('.', File.separatorChar) + ".class").isFile());
+
+        StringBuilder all = new StringBuilder();
+        for (File f : new File(src, main.substring(0, main.lastIndexOf('.')).replace('.', File.separatorChar)).listFiles()) {
+            all.append(new String(Files.readAllBytes(f.toPath()), "UTF-8"));
+        }
+        assertTrue(all.toString().contains(program.getMainClass() + ".main((java.lang.String[]) Harness.any())"));
+    }
+}
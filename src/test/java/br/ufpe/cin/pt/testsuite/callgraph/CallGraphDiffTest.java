@@ -0,0 +1,113 @@
+package br.ufpe.cin.pt.testsuite.callgraph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import br.ufpe.cin.pt.soot.callgraph.CallGraphDiff;
+import br.ufpe.cin.pt.soot.callgraph.CallGraphSnapshot;
+import br.ufpe.cin.pt.soot.store.PointsToDiff;
+import br.ufpe.cin.pt.soot.store.PointsToRelation;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Hand-built call graphs of the context scenario: the precise run resolves {@code a.foo()} in
+ * {@code main} to {@code B.foo} only, the coarse run also reaches {@code C.foo} because the
+ * receiver {@code a} points to both allocations.
+ */
+public class CallGraphDiffTest {
+
+    private static final String MAIN = "<ctx.Main: void main(java.lang.String[])>";
+    private static final String B_FOO = "<ctx.B: void foo(java.lang.Object)>";
+    private static final String C_FOO = "<ctx.C: void foo(java.lang.Object)>";
+    private static final String B_INIT = "<ctx.B: void <init>()>";
+    private static final String C_INIT = "<ctx.C: void <init>()>";
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private CallGraphSnapshot precise() {
+        return new CallGraphSnapshot.Builder()
+                .entryPoint(MAIN)
+                .edge(MAIN, 0, B_INIT, "SPECIAL", "b")
+                .edge(MAIN, 1, C_INIT, "SPECIAL", "c")
+                .edge(MAIN, 2, B_FOO, "VIRTUAL", "a")
+                .build();
+    }
+
+    private CallGraphSnapshot coarse() {
+        return new CallGraphSnapshot.Builder()
+                .entryPoint(MAIN)
+                .edge(MAIN, 2, C_FOO, "VIRTUAL", "a")
+                .edge(MAIN, 2, B_FOO, "VIRTUAL", "a")
+                .edge(MAIN, 1, C_INIT, "SPECIAL", "c")
+                .edge(MAIN, 0, B_INIT, "SPECIAL", "b")
+                .edge(MAIN, 0, B_INIT, "SPECIAL", "b")
+                .build();
+    }
+
+    @Test
+    public void testSnapshotRoundTrip() throws Exception {
+        File file = new File(tmp.getRoot(), "cg.tsv");
+        coarse().write(file);
+        CallGraphSnapshot read = CallGraphSnapshot.read(file);
+        assertEquals("The duplicate edge is stored once.", 4, read.edgeCount());
+        assertEquals(MAIN + "@2", read.callSite(3));
+        assertEquals("a", read.receiver(3));
+        assertEquals(2, read.targetCount(read.method(MAIN), 2));
+        assertEquals(MAIN, read.entryPointSignatures().get(0));
+    }
+
+    @Test
+    public void testExtraEdgesAreAttributedToThePolymorphicSite() {
+        CallGraphDiff diff = CallGraphDiff.compute(precise(), coarse());
+        assertEquals(3, diff.commonEdges());
+        assertTrue(diff.onlyLeft().isEmpty());
+        assertEquals(1, diff.onlyRight().size());
+        CallGraphDiff.SiteDelta site = diff.onlyRight().get(0);
+        assertEquals(2, site.site);
+        assertEquals(1, site.leftTargets);
+        assertEquals(2, site.rightTargets);
+        assertTrue(site.isPolymorphic());
+        assertEquals(C_FOO, site.getCallees().get(0));
+
+        PointsToRelation.Builder left = new PointsToRelation.Builder();
+        left.addPointer(MAIN, "a", left.site(MAIN + "/0", "ctx.B"));
+        PointsToRelation.Builder right = new PointsToRelation.Builder();
+        right.addPointer(MAIN, "a", right.site(MAIN + "/0", "ctx.B"), right.site(MAIN + "/1", "ctx.C"));
+        diff.link(PointsToDiff.compute(left.build(), right.build()));
+        assertEquals("The receiver's set grew, which explains the extra callee.",
+                PointsToDiff.Kind.SUBSET, site.getReceiverKind());
+        assertEquals(2, site.getReceiverRightSize());
+    }
+
+    @Test
+    public void testEdgesAreMatchedPerKind() {
+        String run = "<ctx.T: void run()>";
+        CallGraphSnapshot both = new CallGraphSnapshot.Builder()
+                .entryPoint(MAIN)
+                .edge(MAIN, 3, run, "VIRTUAL", "t")
+                .edge(MAIN, 3, run, "THREAD", "t")
+                .build();
+        CallGraphSnapshot virtualOnly = new CallGraphSnapshot.Builder()
+                .entryPoint(MAIN)
+                .edge(MAIN, 3, run, "VIRTUAL", "t")
+                .build();
+        assertEquals(2, both.edgeCount());
+        assertEquals("Kinds of one callee count as one target.", 1, both.targetCount(both.method(MAIN), 3));
+
+        CallGraphDiff diff = CallGraphDiff.compute(both, virtualOnly);
+        assertEquals(1, diff.commonEdges());
+        assertTrue(diff.onlyRight().isEmpty());
+        assertEquals(1, CallGraphDiff.edgeCount(diff.onlyLeft()));
+        assertEquals(1, diff.onlyLeft().get(0).leftTargets);
+
+        CallGraphDiff same = CallGraphDiff.compute(both, both);
+        assertEquals(2, same.commonEdges());
+        assertTrue(same.onlyLeft().isEmpty());
+        assertTrue(same.onlyRight().isEmpty());
+    }
+}
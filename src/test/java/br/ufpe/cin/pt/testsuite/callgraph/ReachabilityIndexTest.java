@@ -0,0 +1,71 @@
+package br.ufpe.cin.pt.testsuite.callgraph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+
+import br.ufpe.cin.pt.soot.callgraph.CallGraphSnapshot;
+import br.ufpe.cin.pt.soot.callgraph.ReachabilityIndex;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Reachability on a hand-built call graph: {@code main} calls {@code A.run}, which is mutually
+ * recursive with {@code A.step}; {@code B.foo} is only reached through a library callback.
+ */
+public class ReachabilityIndexTest {
+
+    private static final String MAIN = "<app.Main: void main(java.lang.String[])>";
+    private static final String TEST = "<app.Main: void test()>";
+    private static final String RUN = "<app.A: void run()>";
+    private static final String STEP = "<app.A: void step()>";
+    private static final String FOO = "<app.B: void foo()>";
+    private static final String FOR_EACH = "<java.util.ArrayList: void forEach(java.util.function.Consumer)>";
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private CallGraphSnapshot callGraph() {
+        return new CallGraphSnapshot.Builder()
+                .entryPoint(MAIN)
+                .entryPoint(TEST)
+                .edge(MAIN, 0, RUN, "VIRTUAL", "a")
+                .edge(RUN, 0, STEP, "VIRTUAL", "this")
+                .edge(STEP, 0, RUN, "VIRTUAL", "this")
+                .edge(STEP, 1, FOR_EACH, "VIRTUAL", "list")
+                .edge(FOR_EACH, 0, FOO, "INTERFACE", "action")
+                .build();
+    }
+
+    @Test
+    public void testWholeProgramReachability() {
+        ReachabilityIndex index = ReachabilityIndex.build(callGraph());
+        assertEquals("run and step form one component.", 5, index.componentCount());
+        assertTrue(index.sameComponent(RUN, STEP));
+        assertTrue(index.reaches(MAIN, FOO));
+        assertTrue(index.reaches(STEP, STEP));
+        assertFalse(index.reaches(FOO, MAIN));
+        assertFalse(index.reaches(TEST, RUN));
+        assertEquals(Arrays.asList(MAIN), index.entriesReaching(FOO));
+        assertEquals(Arrays.asList(TEST), index.entriesReaching(TEST));
+    }
+
+    @Test
+    public void testApplicationOnlyPaths() throws Exception {
+        ReachabilityIndex index = ReachabilityIndex.build(callGraph(), ReachabilityIndex.inPackages("app"));
+        assertTrue(index.reaches(MAIN, STEP));
+        assertFalse("B.foo is only reachable through library code.", index.reaches(MAIN, FOO));
+        assertFalse(index.reaches(FOR_EACH, FOO));
+
+        File file = new File(tmp.getRoot(), "cg.reach");
+        index.write(file);
+        ReachabilityIndex read = ReachabilityIndex.read(file);
+        assertTrue(read.reaches(MAIN, STEP));
+        assertFalse(read.reaches(MAIN, FOO));
+        assertEquals(index.componentCount(), read.componentCount());
+    }
+}
@@ -0,0 +1,47 @@
+package br.ufpe.cin.pt.testsuite.context;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import br.ufpe.cin.pt.soot.CallGraphAlgorithm;
+import br.ufpe.cin.pt.soot.Driver;
+import br.ufpe.cin.pt.soot.TestConfiguration;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import soot.Scene;
+
+/**
+ * Context profile of {@code br.ufpe.cin.pt.samples.context.Main#main(String[])} under Qilin 1C:
+ * {@code B.foo} is called from two call sites, so the dump must show it with two contexts.
+ */
+public class QILIN1C_ContextProfileTest {
+
+    private static final String MAIN = "br.ufpe.cin.pt.samples.context.Main";
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testQilin1C_profileCountsFooContexts() throws Exception {
+        File dump = new File(tmp.getRoot(), "1c-profile.tsv");
+        TestConfiguration config = new TestConfiguration(MAIN, "main", MAIN, "main", "v1", "v2", "java.lang.Object")
+                .setCallGraph(CallGraphAlgorithm.QILIN_1C)
+                .setContextProfile(dump);
+        Driver driver = new Driver();
+        driver.runAnalysis(config);
+
+        String foo = Scene.v().getSootClass("br.ufpe.cin.pt.samples.context.B").getMethodByName("foo").getSignature();
+        String row = null;
+        for (String line : Files.readAllLines(dump.toPath(), StandardCharsets.UTF_8)) {
+            if (line.startsWith("method\t" + foo + "\t")) row = line;
+        }
+        assertTrue("The dump should have a row for B.foo.", row != null);
+        assertEquals("B.foo should be analysed under its two call sites.", "2", row.split("\t")[2]);
+        assertTrue(driver.getReport().getMetric("profile.csPointers").longValue() > 0);
+    }
+}
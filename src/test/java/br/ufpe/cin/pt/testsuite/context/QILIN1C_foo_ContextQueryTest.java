@@ -0,0 +1,57 @@
+package br.ufpe.cin.pt.testsuite.context;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.PrimitiveIterator;
+
+import br.ufpe.cin.pt.soot.CallGraphAlgorithm;
+import br.ufpe.cin.pt.soot.Driver;
+import br.ufpe.cin.pt.soot.TestConfiguration;
+import br.ufpe.cin.pt.soot.pta.PTA;
+import br.ufpe.cin.pt.soot.pta.PTASingleton;
+import org.junit.Test;
+import soot.Body;
+import soot.Local;
+import soot.Scene;
+
+/**
+ * Context-qualified queries on {@code br.ufpe.cin.pt.samples.context.Main#main(String[])} under Qilin 1C.
+ *
+ * {@code B.foo(x, a)} is called from two call sites, so its parameter {@code x} is split into two
+ * contexts: under one it points only to {@code o1}, under the other only to {@code o2}.
+ */
+public class QILIN1C_foo_ContextQueryTest {
+
+    private static final String MAIN = "br.ufpe.cin.pt.samples.context.Main";
+    private static final String B = "br.ufpe.cin.pt.samples.context.B";
+
+    @Test
+    public void testQilin1C_fooParameter_splitPerCallSite() {
+        TestConfiguration config = new TestConfiguration(MAIN, "main", MAIN, "main", "v1", "v2", "java.lang.Object");
+        new Driver().runAnalysis(config.setCallGraph(CallGraphAlgorithm.QILIN_1C));
+        PTA pta = PTASingleton.getInstance();
+
+        Local x = local(B, "foo", "x");
+        Local o1 = local(MAIN, "main", "o1");
+        Local o2 = local(MAIN, "main", "o2");
+
+        assertEquals("1-callsite sensitivity should analyse B.foo's x under its two call sites.", 2, pta.contextCount(x));
+        int aliasO1 = 0;
+        int aliasO2 = 0;
+        for (PrimitiveIterator.OfInt it = pta.contexts(x); it.hasNext(); ) {
+            int c = it.nextInt();
+            if (pta.hasIntersectingObjects(x, c, o1, PTA.EMPTY_CONTEXT)) aliasO1++;
+            if (pta.hasIntersectingObjects(x, c, o2, PTA.EMPTY_CONTEXT)) aliasO2++;
+        }
+        assertEquals("Exactly one context of x should point to o1.", 1, aliasO1);
+        assertEquals("Exactly one context of x should point to o2.", 1, aliasO2);
+    }
+
+    private static Local local(String className, String methodName, String localName) {
+        Body body = Scene.v().getSootClass(className).getMethodByName(methodName).retrieveActiveBody();
+        for (Local l : body.getLocals()) {
+            if (l.getName().equals(localName)) return l;
+        }
+        throw new AssertionError("No local " + localName + " in " + className + "." + methodName);
+    }
+}
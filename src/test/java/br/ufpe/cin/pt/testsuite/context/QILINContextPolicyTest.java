@@ -0,0 +1,100 @@
+package br.ufpe.cin.pt.testsuite.context;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import br.ufpe.cin.pt.soot.AliasTransformer;
+import br.ufpe.cin.pt.soot.CallGraphAlgorithm;
+import br.ufpe.cin.pt.soot.Driver;
+import br.ufpe.cin.pt.soot.RunReport;
+import br.ufpe.cin.pt.soot.TestConfiguration;
+import br.ufpe.cin.pt.soot.pta.ContextPolicy;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Per-method context policies on {@code br.ufpe.cin.pt.samples.context.Main}: {@code v1} and
+ * {@code o2} are only told apart when {@code B.foo} keeps its object contexts, whatever the policy
+ * does to the rest of the program.
+ */
+public class QILINContextPolicyTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private TestConfiguration config() {
+        return new TestConfiguration("br.ufpe.cin.pt.samples.context.Main", "main",
+                "br.ufpe.cin.pt.samples.context.Main", "main", "v1", "o2", "java.lang.Object")
+                .setCallGraph(CallGraphAlgorithm.QILIN_2O);
+    }
+
+    private File policy(String... lines) throws IOException {
+        File file = tmp.newFile();
+        Files.write(file.toPath(), Arrays.asList(lines), StandardCharsets.UTF_8);
+        return file;
+    }
+
+    @Test
+    public void testSampleSensitiveElsewhereInsensitive() throws IOException {
+        Driver driver = new Driver();
+        File file = policy("# only the sample is analysed with contexts", "br.ufpe.cin.pt.samples.context.*  2o", "*  insens");
+        assertEquals(AliasTransformer.Result.PTA_NO_EVIDENCE_OF_ALIAS, driver.runAnalysis(config().setContextPolicy(file)));
+
+        RunReport report = driver.getReport();
+        assertEquals(2, report.getMetric("policy.rules").intValue());
+        assertTrue(report.getMetric("policy.sensitiveMethods").longValue() > 0);
+        assertTrue(report.getMetric("policy.insensitiveMethods").longValue() > 0);
+        assertEquals(0, report.getMetric("policy.unmatchedMethods").longValue());
+    }
+
+    @Test
+    public void testInsensitiveFooLosesPrecision() throws IOException {
+        File file = policy("br.ufpe.cin.pt.samples.context.B#foo  insens");
+        assertEquals(AliasTransformer.Result.PTA_SUGGESTS_ALIAS, new Driver().runAnalysis(config().setContextPolicy(file)));
+    }
+
+    @Test
+    public void testPolicyParsing() throws IOException {
+        ContextPolicy policy = ContextPolicy.read(policy("java.util.*  2o", "com.acme.Factory#create  1o  1", "*  insens"));
+        assertEquals("o", policy.getKind());
+        assertEquals(2, policy.maxDepth());
+        ContextPolicy.Rule create = policy.getRules().get(1);
+        assertEquals("com.acme.Factory", create.classPattern);
+        assertEquals("create", create.methodName);
+        assertEquals(1, create.depth);
+        assertEquals(1, create.heapDepth);
+        assertEquals(1, policy.getRules().get(0).heapDepth);  // one less than the depth by default
+        assertNull(policy.getRules().get(2).methodName);
+
+        policy.checkApplicable("2o");
+        policy.checkApplicable("3o");
+        for (String pattern : Arrays.asList("1o", "2c", "insens", "zipper-2o")) {
+            try {
+                policy.checkApplicable(pattern);
+                fail("The policy should not apply to " + pattern);
+            } catch (IllegalArgumentException expected) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testMixedKindsRejected() throws IOException {
+        File file = policy("java.util.*  2o", "com.acme.*  1c");
+        try {
+            ContextPolicy.read(file);
+            fail("A policy cannot mix object and call-site contexts");
+        } catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains(file + ":2"));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package br.ufpe.cin.pt.testsuite.context;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import br.ufpe.cin.pt.soot.AliasTransformer;
+import br.ufpe.cin.pt.soot.CallGraphAlgorithm;
+import br.ufpe.cin.pt.soot.Driver;
+import br.ufpe.cin.pt.soot.RunReport;
+import br.ufpe.cin.pt.soot.TestConfiguration;
+import br.ufpe.cin.pt.soot.bench.WarmStartValidation;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * k-limited Qilin runs warm-started from an insensitive pre-solve keep the precision of cold runs
+ * on {@code br.ufpe.cin.pt.samples.context.Main}: {@code B.foo} sees both argument objects, so it
+ * keeps its contexts and {@code v1} still does not alias {@code o2}. On
+ * {@code br.ufpe.cin.pt.samples.factory.Main} every local of {@code Box.get} points to one object,
+ * but 2O keeps one {@code Box} per factory, so the getter keeps its contexts and {@code x} still
+ * does not alias {@code b}.
+ */
+public class QILINWarmStartTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private static final String FACTORY_MAIN = "br.ufpe.cin.pt.samples.factory.Main";
+
+    private TestConfiguration config(String local1, String local2) {
+        return new TestConfiguration("br.ufpe.cin.pt.samples.context.Main", "main",
+                "br.ufpe.cin.pt.samples.context.Main", "main", local1, local2, "java.lang.Object");
+    }
+
+    @Test
+    public void testWarmStart2O_v1_o2_noAlias() {
+        Driver driver = new Driver();
+        assertEquals(AliasTransformer.Result.PTA_NO_EVIDENCE_OF_ALIAS,
+                driver.runAnalysis(config("v1", "o2").setCallGraph(CallGraphAlgorithm.QILIN_2O).setWarmStart(true)));
+
+        RunReport report = driver.getReport();
+        assertTrue(report.getPhase("warmStart") >= 0);
+        long pruned = report.getMetric("warmStart.prunedMethods").longValue();
+        long reachable = report.getMetric("warmStart.reachableMethods").longValue();
+        assertTrue("pruned " + pruned + " of " + reachable, pruned >= 0 && pruned <= reachable);
+    }
+
+    private TestConfiguration factoryConfig() {
+        return new TestConfiguration(FACTORY_MAIN, "main", FACTORY_MAIN, "main", "x", "b", "java.lang.Object");
+    }
+
+    @Test
+    public void testWarmStart2O_factory_x_b_noAlias() {
+        Driver driver = new Driver();
+        assertEquals("The boxes of the two factories must stay apart.", AliasTransformer.Result.PTA_NO_EVIDENCE_OF_ALIAS,
+                driver.runAnalysis(factoryConfig().setCallGraph(CallGraphAlgorithm.QILIN_2O).setWarmStart(true)));
+    }
+
+    @Test
+    public void testWarmStartMatchesColdStart() {
+        WarmStartValidation validation = new WarmStartValidation(
+                Arrays.asList(CallGraphAlgorithm.QILIN_1C, CallGraphAlgorithm.QILIN_2O))
+                .setWorkDir(tmp.getRoot())
+                .setHeapMB(2048)
+                .setTimeoutSeconds(600);
+        validation.run(Arrays.asList(config("v1", "v2"), factoryConfig()));
+        assertTrue(validation.toString(), validation.isIdentical());
+    }
+}
@@ -0,0 +1,46 @@
+package br.ufpe.cin.pt.testsuite.context;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+import br.ufpe.cin.pt.soot.AliasTransformer;
+import br.ufpe.cin.pt.soot.CallGraphAlgorithm;
+import br.ufpe.cin.pt.soot.TestConfiguration;
+import br.ufpe.cin.pt.soot.summary.SummaryComparison;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Spark on {@code br.ufpe.cin.pt.samples.context.Main#main(String[])} with the JDK classes behind
+ * {@code System.out.println} replaced by generated summaries.
+ *
+ * The summaries only drop library internals, so the v1/v2 answer must match the full-library run.
+ */
+public class SPARKLibrarySummaryContextTest {
+
+    private static final List<String> STUBBED = Arrays.asList("java.io.*", "sun.nio.cs.*", "java.nio.charset.*");
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testSPARK_v1_v2_summariesKeepPrecision() throws Exception {
+        TestConfiguration config = new TestConfiguration(
+                "br.ufpe.cin.pt.samples.context.Main", "main",
+                "br.ufpe.cin.pt.samples.context.Main", "main",
+                "v1", "v2", "java.lang.Object").setCallGraph(CallGraphAlgorithm.SOOT_SPARK);
+        File summaries = new File(tmp.getRoot(), "jdk-summaries.tsv");
+
+        SummaryComparison comparison = SummaryComparison.run(config, summaries, STUBBED);
+
+        assertTrue("The full run should derive the summaries file.", summaries.exists());
+        assertEquals("Spark should still report MAY_ALIAS for v1/v2 against the summaries.",
+                AliasTransformer.Result.PTA_SUGGESTS_ALIAS, comparison.getSummaryResult());
+        assertTrue("Summaries should not change the alias answer:\n" + comparison, comparison.samePrecision());
+    }
+}
@@ -0,0 +1,86 @@
+package br.ufpe.cin.pt.testsuite.history;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import br.ufpe.cin.pt.soot.history.HistoryStore;
+import br.ufpe.cin.pt.soot.history.RegressionCheck;
+import br.ufpe.cin.pt.soot.history.RunRecord;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** History round trip and regression detection against a noisy baseline window. */
+public class RegressionCheckTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private long clock = 1_000_000L;
+
+    private void run(HistoryStore store, String revision, String algorithm, long solveMs, long heapMB, double avgPointsTo) {
+        Map<String, Long> phases = new TreeMap<>();
+        phases.put("load", 50L);
+        phases.put("solve", solveMs);
+        Map<String, Number> metrics = new TreeMap<>();
+        metrics.put("metrics.app.avgPointsTo", avgPointsTo);
+        metrics.put("reachableMethods", 1200L);
+        store.append(new RunRecord(clock++, revision, "box", "Main.main:r0/r1", algorithm, "OK", heapMB, phases, metrics));
+    }
+
+    private RegressionCheck.Finding find(List<RegressionCheck.Finding> findings, String algorithm, String measure) {
+        for (RegressionCheck.Finding f : findings) {
+            if (f.algorithm.equals(algorithm) && f.measure.equals(measure)) return f;
+        }
+        throw new AssertionError("No finding for " + algorithm + " " + measure);
+    }
+
+    @Test
+    public void testSlowdownIsFlaggedAndNoiseIsNot() {
+        HistoryStore store = HistoryStore.open(new File(tmp.getRoot(), "history.tsv"));
+        long[] noise = {0, 4, -3, 6, -5, 2, -1, 3};
+        for (int i = 0; i < noise.length; i++) {
+            run(store, "aaa" + i, "qilin::2O", 1000 + 10 * noise[i], 800, 2.5);
+            run(store, "aaa" + i, "soot::SPARK", 300 + noise[i], 400, 3.0);
+        }
+        for (int i = 0; i < 3; i++) {
+            run(store, "bbb", "qilin::2O", 1400 + 10 * noise[i], 800, 2.5);
+            run(store, "bbb", "soot::SPARK", 302 + noise[i], 400, 3.5);
+        }
+
+        List<RunRecord> records = store.records();
+        assertEquals(22, records.size());
+        assertEquals(Long.valueOf(50), records.get(0).getPhases().get("load"));
+        assertEquals(2.5, records.get(0).getMetrics().get("metrics.app.avgPointsTo").doubleValue(), 0);
+
+        RegressionCheck check = new RegressionCheck(HistoryStore.open(store.getFile())).setWindow(8);
+        assertEquals("bbb", check.latestRevision());
+        List<RegressionCheck.Finding> findings = check.check("bbb");
+
+        RegressionCheck.Finding slow = find(findings, "qilin::2O", "phase.solve");
+        assertTrue("40% slower is a regression: " + RegressionCheck.format(findings), slow.regression);
+        assertEquals(1.4, slow.ratio(), 0.05);
+        assertFalse(find(findings, "qilin::2O", "peakHeapMB").regression);
+        assertFalse("1% is noise.", find(findings, "soot::SPARK", "phase.solve").regression);
+        assertTrue("Larger points-to sets are a precision regression.",
+                find(findings, "soot::SPARK", "metric.metrics.app.avgPointsTo").regression);
+    }
+
+    @Test
+    public void testShortBaselineIsNeverFlagged() {
+        HistoryStore store = HistoryStore.open(new File(tmp.getRoot(), "history.tsv"));
+        run(store, "aaa", "soot::SPARK", 100, 100, 1.0);
+        run(store, "bbb", "soot::SPARK", 900, 100, 1.0);
+        RegressionCheck.Finding f = find(new RegressionCheck(store)
+                .setMeasures(Collections.singletonList("phase.solve")).check("bbb"), "soot::SPARK", "phase.solve");
+        assertEquals(1, f.baselineRuns);
+        assertFalse(f.regression);
+    }
+}
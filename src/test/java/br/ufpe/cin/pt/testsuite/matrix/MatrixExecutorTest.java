@@ -0,0 +1,103 @@
+package br.ufpe.cin.pt.testsuite.matrix;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import br.ufpe.cin.pt.soot.AliasTransformer;
+import br.ufpe.cin.pt.soot.CallGraphAlgorithm;
+import br.ufpe.cin.pt.soot.ForkedRun;
+import br.ufpe.cin.pt.soot.RunReport;
+import br.ufpe.cin.pt.soot.TestConfiguration;
+import br.ufpe.cin.pt.soot.history.HistoryStore;
+import br.ufpe.cin.pt.soot.history.RunRecord;
+import br.ufpe.cin.pt.soot.matrix.CostModel;
+import br.ufpe.cin.pt.soot.matrix.MatrixExecutor;
+import br.ufpe.cin.pt.soot.matrix.MatrixJob;
+import br.ufpe.cin.pt.soot.matrix.MatrixReport;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Scheduling with a simulated runner: longest first, heap admission and retry with more heap. */
+public class MatrixExecutorTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private static final List<TestConfiguration> SCENARIOS = Arrays.asList(
+            new TestConfiguration("br.ufpe.cin.pt.samples.PointsToAnalysisEntry", "main",
+                    "br.ufpe.cin.pt.samples.PointTest", "testPoints", "point1", "point2", "br.ufpe.cin.pt.samples.Point"),
+            new TestConfiguration("br.ufpe.cin.pt.samples.context.Main", "main",
+                    "br.ufpe.cin.pt.samples.context.Main", "main", "v1", "v2", "java.lang.Object"));
+
+    private static final List<CallGraphAlgorithm> ALGORITHMS = Arrays.asList(CallGraphAlgorithm.SOOT_CHA,
+            CallGraphAlgorithm.SOOT_SPARK, CallGraphAlgorithm.QILIN_INSENS, CallGraphAlgorithm.QILIN_2O,
+            CallGraphAlgorithm.QILIN_3HT);
+
+    @Test
+    public void testSchedule() {
+        CostModel model = new CostModel(null).setDefaultHeapMB(1024).setHeapBoundsMB(512, 4096);
+        AtomicLong heapInUse = new AtomicLong();
+        AtomicLong peakHeapInUse = new AtomicLong();
+        List<String> startOrder = Collections.synchronizedList(new ArrayList<String>());
+        MatrixExecutor executor = new MatrixExecutor(model).setWorkers(3).setMemoryBudgetMB(2048).setRunner(job -> {
+            startOrder.add(job.toString());
+            long inUse = heapInUse.addAndGet(job.getHeapMB());
+            peakHeapInUse.accumulateAndGet(inUse, Math::max);
+            try {
+                Thread.sleep(job.getEstimatedMillis() / 2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            heapInUse.addAndGet(-job.getHeapMB());
+            boolean oom = job.getConfiguration().getAlgorithm() == CallGraphAlgorithm.QILIN_3HT && job.getHeapMB() < 2048;
+            return new ForkedRun.Outcome(oom ? ForkedRun.Status.OUT_OF_MEMORY : ForkedRun.Status.OK,
+                    oom ? null : AliasTransformer.Result.PTA_SUGGESTS_ALIAS,
+                    new RunReport(job.getConfiguration().getAlgorithm()), oom ? -1 : 100, 1, null);
+        });
+
+        List<MatrixJob> jobs = executor.plan(SCENARIOS, ALGORITHMS);
+        assertEquals(10, jobs.size());
+        MatrixReport report = executor.run(jobs);
+
+        assertEquals(10, report.getResults().size());
+        assertEquals(report.format(), 0, report.failures().size());
+        // only two 1 GB jobs fit the budget, and the workers' first picks race, so a 3HT is among the first two
+        assertTrue("The most expensive algorithm starts first: " + startOrder,
+                startOrder.get(0).endsWith("qilin::3HT") || startOrder.get(1).endsWith("qilin::3HT"));
+        assertTrue("Running heaps never exceed the budget.", peakHeapInUse.get() <= 2048);
+        for (MatrixReport.Result r : report.getResults()) {
+            if (r.job.getConfiguration().getAlgorithm() == CallGraphAlgorithm.QILIN_3HT) {
+                assertEquals(2, r.job.getAttempts());
+                assertEquals(2048, r.job.getHeapMB());
+            } else {
+                assertEquals(1, r.job.getAttempts());
+            }
+        }
+    }
+
+    @Test
+    public void testEstimatesComeFromHistory() {
+        HistoryStore history = HistoryStore.open(new File(tmp.getRoot(), "history.tsv"));
+        for (long solve : new long[] {9000, 11000, 10000}) {
+            Map<String, Long> phases = new TreeMap<>();
+            phases.put("solve", solve);
+            history.append(new RunRecord(solve, "abc", RunRecord.currentMachine(), SCENARIOS.get(0).getScenario(),
+                    "qilin::2O", "OK", 1000, phases, new TreeMap<String, Number>()));
+        }
+        CostModel model = new CostModel(history).setHeapBoundsMB(512, 8192);
+        assertEquals(10000 + 2000, model.estimateMillis(SCENARIOS.get(0).getScenario(), CallGraphAlgorithm.QILIN_2O));
+        assertEquals(1536, model.estimateHeapMB(SCENARIOS.get(0).getScenario(), CallGraphAlgorithm.QILIN_2O));
+        assertTrue("Without history, deeper contexts are expected to cost more.",
+                model.estimateMillis("other", CallGraphAlgorithm.QILIN_3O) > model.estimateMillis("other", CallGraphAlgorithm.QILIN_1O));
+    }
+}
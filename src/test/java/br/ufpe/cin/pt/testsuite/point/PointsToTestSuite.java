@@ -13,7 +13,7 @@ import org.junit.Test;
 
 /**
  * Tests that use Soot to analyze {@link PointTest#testPointsFromSources()} with different
- * call graph / points-to algorithms (CHA, RTA, VTA, Spark) and check whether
+ * call graph / points-to algorithms (CHA, RTA, VTA, Spark and its coarse-heap variants) and check whether
  * <code>p1</code> and <code>p2</code> may point to the same objects.
  * <p>
  * In testPointsFromSources(): p1 from PointSourceA.getPoint(), p2 from PointSourceB.getPoint().
@@ -62,7 +62,31 @@ public class PointsToTestSuite {
                 new Driver().runAnalysis(configTestAliasForPoint2Point3.setCallGraph(CallGraphAlgorithm.SOOT_SPARK)));
     }
 
-   
+    @Test
+    public void testPointsToWithSparkTypesP1P2() {
+        assertEquals(
+                "Spark with types-for-sites should report MAY_ALIAS for p1/p2: both allocations are of type Point, so they become one abstract object. " +
+                "This is the price of the type-based heap.",
+                AliasTransformer.Result.PTA_SUGGESTS_ALIAS,
+                new Driver().runAnalysis(configTestAliasForPoint1Point2.setCallGraph(CallGraphAlgorithm.SOOT_SPARK_TYPES)));
+    }
+
+    @Test
+    public void testPointsToWithSparkFieldsP1P2() {
+        assertEquals(
+                "Field-based Spark should still report NO_ALIAS for p1/p2: the locals are assigned directly from distinct allocations, and only field accesses are merged.",
+                AliasTransformer.Result.PTA_NO_EVIDENCE_OF_ALIAS,
+                new Driver().runAnalysis(configTestAliasForPoint1Point2.setCallGraph(CallGraphAlgorithm.SOOT_SPARK_FIELDS)));
+    }
+
+    @Test
+    public void testPointsToWithSparkCoarseP2P3() {
+        assertEquals(
+                "Coarsening only adds aliases, so the fully coarse Spark must keep MAY_ALIAS for p2/p3 (p3 = p2).",
+                AliasTransformer.Result.PTA_SUGGESTS_ALIAS,
+                new Driver().runAnalysis(configTestAliasForPoint2Point3.setCallGraph(CallGraphAlgorithm.SOOT_SPARK_COARSE)));
+    }
+
     @Test
     public void testPointsToWithRTAP1P2() {
         assertEquals(
@@ -0,0 +1,36 @@
+package br.ufpe.cin.pt.testsuite.point;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import br.ufpe.cin.pt.soot.AliasTransformer;
+import br.ufpe.cin.pt.soot.CallGraphAlgorithm;
+import br.ufpe.cin.pt.soot.Driver;
+import br.ufpe.cin.pt.soot.RunReport;
+import br.ufpe.cin.pt.soot.TestConfiguration;
+import org.junit.Test;
+
+/**
+ * Qilin 1C on {@code PointTest.testPoints()} answered from the frozen index: the answer must
+ * match the live run (p3 = p2), and tearing the Scene and the solver down must free heap.
+ * One Qilin run per class, since Qilin keeps static state between runs in one JVM.
+ */
+public class QILINFrozenPointsToTest {
+
+    @Test
+    public void testFrozenQilin1CP2P3() {
+        TestConfiguration config = new TestConfiguration("br.ufpe.cin.pt.samples.PointsToAnalysisEntry", "main",
+                "br.ufpe.cin.pt.samples.PointTest", "testPoints", "point2", "point3", "br.ufpe.cin.pt.samples.Point")
+                .setCallGraph(CallGraphAlgorithm.QILIN_1C)
+                .setFreeze(true);
+        Driver driver = new Driver();
+
+        assertEquals("The frozen index should keep Qilin 1C's MAY_ALIAS for p2/p3.",
+                AliasTransformer.Result.PTA_SUGGESTS_ALIAS, driver.runAnalysis(config));
+        RunReport report = driver.getReport();
+        long before = report.getMetric("freeze.heapBeforeMB").longValue();
+        long after = report.getMetric("freeze.heapAfterMB").longValue();
+        assertTrue("Releasing the Qilin solver should free heap: " + before + " MB before, " + after + " MB after.",
+                after < before);
+    }
+}
@@ -0,0 +1,32 @@
+package br.ufpe.cin.pt.testsuite.point;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import br.ufpe.cin.pt.soot.CallGraphAlgorithm;
+import br.ufpe.cin.pt.soot.TestConfiguration;
+import br.ufpe.cin.pt.soot.bench.CoarseningStudy;
+import org.junit.Test;
+
+/** Coarse Spark variants against Spark on the Point scenario: the type-based heap changes the p1/p2 answer. */
+public class SPARKCoarseningStudyTest {
+
+    @Test
+    public void testCoarseningAgainstSpark() {
+        TestConfiguration p1p2 = new TestConfiguration("br.ufpe.cin.pt.samples.PointsToAnalysisEntry", "main",
+                "br.ufpe.cin.pt.samples.PointTest", "testPoints", "point1", "point2", "br.ufpe.cin.pt.samples.Point");
+        CoarseningStudy study = new CoarseningStudy(Arrays.asList(CallGraphAlgorithm.SOOT_SPARK_TYPES,
+                CallGraphAlgorithm.SOOT_SPARK_FIELDS)).setHeapMB(2048).setTimeoutSeconds(600);
+        List<CoarseningStudy.Row> rows = study.run(Arrays.asList(p1p2));
+
+        assertEquals(2, rows.size());
+        assertTrue(study.toString(), rows.get(0).isComplete() && rows.get(1).isComplete());
+        assertTrue("The type-based heap merges the two Point objects.", rows.get(0).isAnswerChanged());
+        assertFalse("Merging fields keeps locals apart.", rows.get(1).isAnswerChanged());
+        assertTrue(rows.get(0).timeRatio() > 0);
+    }
+}
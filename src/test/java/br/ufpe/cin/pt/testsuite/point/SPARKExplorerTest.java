@@ -0,0 +1,65 @@
+package br.ufpe.cin.pt.testsuite.point;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import br.ufpe.cin.pt.soot.CallGraphAlgorithm;
+import br.ufpe.cin.pt.soot.TestConfiguration;
+import br.ufpe.cin.pt.soot.spark.SparkExplorer;
+import br.ufpe.cin.pt.soot.spark.SparkOptions;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Spark option round trips, and a small sweep of the Point scenario checked against the defaults. */
+public class SPARKExplorerTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testOptionsRoundTrip() {
+        SparkOptions options = SparkOptions.defaults()
+                .withPropagator(SparkOptions.Propagator.ITER)
+                .withDoubleSets(SparkOptions.SetImpl.BIT, SparkOptions.SetImpl.HASH)
+                .withSimplifySccs(true);
+        assertEquals(options, SparkOptions.parse(options.toString()));
+        assertEquals("iter,double=bit/hash,sccs", options.label());
+        assertEquals("default", SparkOptions.defaults().label());
+        assertTrue(SparkOptions.defaults().toOptions().contains("set-impl:double"));
+
+        SparkOptions combined = SparkOptions.combine(options,
+                SparkOptions.defaults().withPropagator(SparkOptions.Propagator.WORKLIST).withSimplifyOffline(true));
+        assertEquals("iter,double=bit/hash,sccs,offline", combined.label());
+
+        assertEquals(104, SparkOptions.product().size());
+        List<SparkOptions> oneAtATime = SparkOptions.oneAtATime();
+        assertEquals(SparkOptions.defaults(), oneAtATime.get(0));
+        assertEquals(oneAtATime.size(), oneAtATime.stream().distinct().count());
+    }
+
+    @Test
+    public void testSweepKeepsTheRelation() throws Exception {
+        TestConfiguration config = new TestConfiguration("br.ufpe.cin.pt.samples.PointsToAnalysisEntry", "main",
+                "br.ufpe.cin.pt.samples.PointTest", "testPoints", "point1", "point2", "br.ufpe.cin.pt.samples.Point")
+                .setCallGraph(CallGraphAlgorithm.SOOT_SPARK);
+        SparkExplorer explorer = new SparkExplorer(config).setWorkDir(tmp.newFolder("explorer"))
+                .setHeapMB(2048).setTimeoutSeconds(600);
+        List<SparkExplorer.Trial> trials = explorer.run(Arrays.asList(
+                SparkOptions.defaults().withPropagator(SparkOptions.Propagator.ITER),
+                SparkOptions.defaults().withSetImpl(SparkOptions.SetImpl.BIT)));
+
+        assertEquals(3, trials.size());
+        assertEquals("default", trials.get(0).options.label());
+        for (SparkExplorer.Trial t : trials) {
+            assertTrue("Propagation order and set representation do not change the result: " + explorer,
+                    t.isIdentical());
+        }
+        assertNotNull(explorer.fastest());
+        assertNotNull(explorer.leanest());
+    }
+}
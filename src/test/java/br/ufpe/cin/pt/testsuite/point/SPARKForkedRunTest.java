@@ -0,0 +1,36 @@
+package br.ufpe.cin.pt.testsuite.point;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import br.ufpe.cin.pt.soot.AliasTransformer;
+import br.ufpe.cin.pt.soot.CallGraphAlgorithm;
+import br.ufpe.cin.pt.soot.ForkedRun;
+import br.ufpe.cin.pt.soot.TestConfiguration;
+import org.junit.Test;
+
+/** The Point scenario in a child JVM gives the in-process answer, and budgets are enforced. */
+public class SPARKForkedRunTest {
+
+    private TestConfiguration config() {
+        return new TestConfiguration("br.ufpe.cin.pt.samples.PointsToAnalysisEntry", "main",
+                "br.ufpe.cin.pt.samples.PointTest", "testPoints", "point1", "point2", "br.ufpe.cin.pt.samples.Point")
+                .setCallGraph(CallGraphAlgorithm.SOOT_SPARK);
+    }
+
+    @Test
+    public void testForkedSpark() {
+        ForkedRun.Outcome outcome = new ForkedRun(config()).setHeapMB(2048).setTimeoutSeconds(600).execute();
+        assertEquals(outcome.toString(), ForkedRun.Status.OK, outcome.status);
+        assertEquals(AliasTransformer.Result.PTA_NO_EVIDENCE_OF_ALIAS, outcome.result);
+        assertTrue(outcome.report.getPhase("solve") >= 0);
+        assertTrue(outcome.report.getMetric("reachableMethods").longValue() > 0);
+        assertTrue(outcome.peakHeapMB > 0);
+    }
+
+    @Test
+    public void testTimeoutKillsTheWorker() {
+        ForkedRun.Outcome outcome = new ForkedRun(config()).setTimeoutSeconds(0).execute();
+        assertEquals(ForkedRun.Status.TIMEOUT, outcome.status);
+    }
+}
@@ -0,0 +1,38 @@
+package br.ufpe.cin.pt.testsuite.point;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import br.ufpe.cin.pt.soot.AliasTransformer;
+import br.ufpe.cin.pt.soot.CallGraphAlgorithm;
+import br.ufpe.cin.pt.soot.Driver;
+import br.ufpe.cin.pt.soot.TestConfiguration;
+import org.junit.Test;
+
+/**
+ * Spark on {@code PointTest.testPoints()} answered from the frozen index after the Scene has been
+ * reset: the answers must match the live run (p1/p2 distinct, p3 = p2).
+ */
+public class SPARKFrozenPointsToTest {
+
+    private TestConfiguration config(String local1, String local2) {
+        return new TestConfiguration("br.ufpe.cin.pt.samples.PointsToAnalysisEntry", "main",
+                "br.ufpe.cin.pt.samples.PointTest", "testPoints", local1, local2, "br.ufpe.cin.pt.samples.Point")
+                .setCallGraph(CallGraphAlgorithm.SOOT_SPARK)
+                .setFreeze(true);
+    }
+
+    @Test
+    public void testFrozenSparkP1P2() {
+        Driver driver = new Driver();
+        assertEquals("The frozen index should keep Spark's NO_ALIAS for p1/p2.",
+                AliasTransformer.Result.PTA_NO_EVIDENCE_OF_ALIAS, driver.runAnalysis(config("point1", "point2")));
+        assertTrue("The freeze phase should be recorded.", driver.getReport().getPhase("freeze") >= 0);
+    }
+
+    @Test
+    public void testFrozenSparkP2P3() {
+        assertEquals("The frozen index should keep Spark's MAY_ALIAS for p2/p3.",
+                AliasTransformer.Result.PTA_SUGGESTS_ALIAS, new Driver().runAnalysis(config("point2", "point3")));
+    }
+}
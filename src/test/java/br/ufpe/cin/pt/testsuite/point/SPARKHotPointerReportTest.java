@@ -0,0 +1,71 @@
+package br.ufpe.cin.pt.testsuite.point;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+
+import br.ufpe.cin.pt.soot.CallGraphAlgorithm;
+import br.ufpe.cin.pt.soot.Driver;
+import br.ufpe.cin.pt.soot.RunReport;
+import br.ufpe.cin.pt.soot.TestConfiguration;
+import br.ufpe.cin.pt.soot.metrics.HotPointerReport;
+import br.ufpe.cin.pt.soot.pta.PTASingleton;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Hot-pointer report for the Point scenario: the histogram accounts for every pointer, the ranked
+ * pointers are ordered by size times in-degree, and {@code this} of {@code Point.distance}, called
+ * on p1 and p3 (= p2), has both points and two incoming calls.
+ */
+public class SPARKHotPointerReportTest {
+
+    private static final String DISTANCE = "<br.ufpe.cin.pt.samples.Point: double distance(br.ufpe.cin.pt.samples.Point)>";
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testSparkHotPointers() throws Exception {
+        File dump = new File(tmp.getRoot(), "hot.tsv");
+        Driver driver = new Driver();
+        driver.runAnalysis(new TestConfiguration("br.ufpe.cin.pt.samples.PointsToAnalysisEntry", "main",
+                "br.ufpe.cin.pt.samples.PointTest", "testPoints", "point1", "point2", "br.ufpe.cin.pt.samples.Point")
+                .setCallGraph(CallGraphAlgorithm.SOOT_SPARK)
+                .setHotPointerReport(dump));
+        RunReport report = driver.getReport();
+        long pointers = report.getMetric("hot.pointers").longValue();
+        assertTrue(pointers > 0);
+        assertTrue(report.getMetric("hot.totalWork").longValue() > 0);
+
+        List<String> lines = Files.readAllLines(dump.toPath());
+        assertEquals("# pt hot pointers v1", lines.get(0));
+        long histogram = 0;
+        long previous = Long.MAX_VALUE;
+        for (String line : lines) {
+            String[] cols = line.split("\t");
+            if (cols[0].equals("histogram")) histogram += Long.parseLong(cols[3]);
+            if (cols[0].equals("pointer")) {
+                long work = Long.parseLong(cols[6]);
+                assertEquals(Long.parseLong(cols[4]) * Long.parseLong(cols[5]), work);
+                assertTrue("Pointers are ranked by work.", work <= previous);
+                previous = work;
+            }
+        }
+        assertEquals("Every pointer falls in exactly one bucket.", pointers, histogram);
+
+        HotPointerReport all = HotPointerReport.collect(PTASingleton.getInstance(), (int) pointers);
+        HotPointerReport.HotPointer distanceThis = null;
+        for (HotPointerReport.HotPointer p : all.hottest()) {
+            if (p.method.equals(DISTANCE) && p.local.equals("this")) distanceThis = p;
+        }
+        assertTrue("Point.distance's this should be measured.", distanceThis != null);
+        assertEquals("this points to p1's and p2's allocations.", 2, distanceThis.size);
+        assertEquals("distance is called on p1 and on p3.", 2, distanceThis.inDegree);
+        assertEquals(4, distanceThis.work());
+    }
+}
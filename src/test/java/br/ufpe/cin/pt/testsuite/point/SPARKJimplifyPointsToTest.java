@@ -0,0 +1,39 @@
+package br.ufpe.cin.pt.testsuite.point;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import br.ufpe.cin.pt.soot.AliasTransformer;
+import br.ufpe.cin.pt.soot.CallGraphAlgorithm;
+import br.ufpe.cin.pt.soot.Driver;
+import br.ufpe.cin.pt.soot.RunReport;
+import br.ufpe.cin.pt.soot.TestConfiguration;
+import org.junit.Test;
+
+/** Building the bodies on several threads before the solve leaves Spark's Point answers unchanged. */
+public class SPARKJimplifyPointsToTest {
+
+    private TestConfiguration config(String local1, String local2) {
+        return new TestConfiguration("br.ufpe.cin.pt.samples.PointsToAnalysisEntry", "main",
+                "br.ufpe.cin.pt.samples.PointTest", "testPoints", local1, local2, "br.ufpe.cin.pt.samples.Point")
+                .setCallGraph(CallGraphAlgorithm.SOOT_SPARK);
+    }
+
+    @Test
+    public void testParallelJimplifyKeepsAnswers() {
+        String[][] pairs = {{"point1", "point2"}, {"point2", "point3"}};
+        for (String[] pair : pairs) {
+            AliasTransformer.Result onDemand = new Driver().runAnalysis(config(pair[0], pair[1]));
+
+            Driver driver = new Driver();
+            AliasTransformer.Result parallel = driver.runAnalysis(config(pair[0], pair[1]).setJimplifyThreads(4));
+            assertEquals(pair[0] + "/" + pair[1], onDemand, parallel);
+
+            RunReport report = driver.getReport();
+            assertTrue(report.getPhase("jimplify") >= 0);
+            assertEquals(4, report.getMetric("jimplify.threads").intValue());
+            assertTrue(report.getMetric("jimplify.methods").longValue() > 0);
+            assertTrue(report.getMetric("jimplify.parallelism").doubleValue() >= 0);
+        }
+    }
+}
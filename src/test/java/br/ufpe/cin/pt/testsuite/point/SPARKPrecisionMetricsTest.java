@@ -0,0 +1,48 @@
+package br.ufpe.cin.pt.testsuite.point;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import br.ufpe.cin.pt.soot.CallGraphAlgorithm;
+import br.ufpe.cin.pt.soot.Driver;
+import br.ufpe.cin.pt.soot.RunReport;
+import br.ufpe.cin.pt.soot.TestConfiguration;
+import org.junit.Test;
+
+/**
+ * Precision metrics for the Point scenario. The application is a handful of methods inside a
+ * much larger JDK closure, so every application count is bounded by the whole-program count.
+ */
+public class SPARKPrecisionMetricsTest {
+
+    private TestConfiguration config(CallGraphAlgorithm algorithm) {
+        return new TestConfiguration("br.ufpe.cin.pt.samples.PointsToAnalysisEntry", "main",
+                "br.ufpe.cin.pt.samples.PointTest", "testPoints", "point1", "point2", "br.ufpe.cin.pt.samples.Point")
+                .setCallGraph(algorithm)
+                .setPrecisionMetrics(true);
+    }
+
+    @Test
+    public void testSparkMetrics() {
+        Driver driver = new Driver();
+        driver.runAnalysis(config(CallGraphAlgorithm.SOOT_SPARK));
+        RunReport report = driver.getReport();
+        long appMethods = report.getMetric("metrics.app.reachableMethods").longValue();
+        assertTrue("testPoints and the Point methods are reachable.", appMethods >= 3);
+        assertTrue(appMethods < report.getMetric("metrics.all.reachableMethods").longValue());
+        assertTrue(report.getMetric("metrics.app.polymorphicCallSites").longValue()
+                <= report.getMetric("metrics.app.virtualCallSites").longValue());
+        assertEquals("Point.distance's receiver sees point1's and point2's allocations, nothing sees more.",
+                2, report.getMetric("metrics.app.maxPointsTo").intValue());
+        assertTrue(report.getPhase("metrics") >= 0);
+    }
+
+    @Test
+    public void testCHAHasNoSetMetrics() {
+        Driver driver = new Driver();
+        driver.runAnalysis(config(CallGraphAlgorithm.SOOT_CHA));
+        assertTrue(driver.getReport().getMetric("metrics.all.callEdges").longValue() > 0);
+        assertNull("CHA has no points-to sets.", driver.getReport().getMetric("metrics.all.maxPointsTo"));
+    }
+}
@@ -0,0 +1,113 @@
+package br.ufpe.cin.pt.testsuite.point;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+import br.ufpe.cin.pt.soot.AliasTransformer;
+import br.ufpe.cin.pt.soot.CallGraphAlgorithm;
+import br.ufpe.cin.pt.soot.Driver;
+import br.ufpe.cin.pt.soot.TestConfiguration;
+import br.ufpe.cin.pt.soot.callgraph.CallGraphSnapshot;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Spark over a call graph exported by CHA: the call graph is coarser, but p1/p2 in
+ * {@code PointTest.testPoints()} are separate allocations in the same method, so Spark's PAG
+ * still tells them apart. A pruned seed checks that the run keeps exactly the seed's call graph.
+ */
+public class SPARKSeededPointsToTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private TestConfiguration config(String local1, String local2) {
+        return new TestConfiguration("br.ufpe.cin.pt.samples.PointsToAnalysisEntry", "main",
+                "br.ufpe.cin.pt.samples.PointTest", "testPoints", local1, local2, "br.ufpe.cin.pt.samples.Point");
+    }
+
+    private File exportCHACallGraph() {
+        File file = new File(tmp.getRoot(), "cha-cg.tsv");
+        new Driver().runAnalysis(config("point1", "point2")
+                .setCallGraph(CallGraphAlgorithm.SOOT_CHA)
+                .setCallGraphExport(file));
+        assertTrue("The CHA run should export its call graph.", file.exists());
+        return file;
+    }
+
+    @Test
+    public void testSparkOverCHACallGraphP1P2() {
+        Driver driver = new Driver();
+        assertEquals("Spark's PAG should keep p1/p2 apart over CHA's call graph.",
+                AliasTransformer.Result.PTA_NO_EVIDENCE_OF_ALIAS,
+                driver.runAnalysis(config("point1", "point2")
+                        .setCallGraph(CallGraphAlgorithm.SOOT_SPARK)
+                        .setCallGraphSeed(exportCHACallGraph())));
+        assertEquals("Both runs build bodies the same way, so every edge should resolve.",
+                0, driver.getReport().getMetric("seed.unresolvedEdges").intValue());
+    }
+
+    @Test
+    public void testSparkOverCHACallGraphP2P3() {
+        assertEquals("p3 = p2, so Spark should report MAY_ALIAS over any call graph.",
+                AliasTransformer.Result.PTA_SUGGESTS_ALIAS,
+                new Driver().runAnalysis(config("point2", "point3")
+                        .setCallGraph(CallGraphAlgorithm.SOOT_SPARK)
+                        .setCallGraphSeed(exportCHACallGraph())));
+    }
+
+    @Test
+    public void testSparkKeepsAPrunedSeed() {
+        CallGraphSnapshot cha = CallGraphSnapshot.read(exportCHACallGraph());
+        String dropped = "<org.junit.Assert: void assertEquals(double,double,double)>";
+        CallGraphSnapshot.Builder pruned = new CallGraphSnapshot.Builder();
+        for (String entry : cha.entryPointSignatures()) {
+            pruned.entryPoint(entry);
+        }
+        for (int e = 0; e < cha.edgeCount(); e++) {
+            if (cha.method(cha.callee(e)).equals(dropped)) continue;
+            pruned.edge(cha.method(cha.caller(e)), cha.site(e), cha.method(cha.callee(e)), cha.kind(e), cha.receiver(e));
+        }
+        File seedFile = new File(tmp.getRoot(), "pruned-cg.tsv");
+        CallGraphSnapshot seed = pruned.build();
+        seed.write(seedFile);
+
+        File exported = new File(tmp.getRoot(), "seeded-cg.tsv");
+        new Driver().runAnalysis(config("point1", "point2")
+                .setCallGraph(CallGraphAlgorithm.SOOT_SPARK)
+                .setCallGraphSeed(seedFile)
+                .setCallGraphExport(exported));
+        CallGraphSnapshot run = CallGraphSnapshot.read(exported);
+        Set<String> reachable = reachable(seed);
+        assertTrue("The pruned callee must not come back.", run.method(dropped) < 0);
+        assertEquals("The run should reach exactly the seed's methods.", reachable.size(), run.methodCount());
+        int seedEdges = 0;
+        for (int e = 0; e < seed.edgeCount(); e++) {
+            if (reachable.contains(seed.method(seed.caller(e)))) seedEdges++;
+        }
+        assertEquals("The run should keep exactly the seed's edges.", seedEdges, run.edgeCount());
+    }
+
+    /** Methods reachable from the snapshot's entry points along its edges. */
+    private static Set<String> reachable(CallGraphSnapshot cg) {
+        Set<String> seen = new HashSet<>(cg.entryPointSignatures());
+        Deque<Integer> work = new ArrayDeque<>();
+        for (int m : cg.entryPoints()) {
+            work.add(m);
+        }
+        while (!work.isEmpty()) {
+            int m = work.poll();
+            for (int e = cg.firstEdge(m); e < cg.firstEdge(m + 1); e++) {
+                if (seen.add(cg.method(cg.callee(e)))) work.add(cg.callee(e));
+            }
+        }
+        return seen;
+    }
+}
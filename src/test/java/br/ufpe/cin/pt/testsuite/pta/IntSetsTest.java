@@ -0,0 +1,59 @@
+package br.ufpe.cin.pt.testsuite.pta;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import br.ufpe.cin.pt.soot.pta.IntSets;
+import org.junit.Test;
+
+/**
+ * Kernels over sorted site-id arrays, covering both the merge path and the binary-search path
+ * taken when one set is much larger than the other.
+ */
+public class IntSetsTest {
+
+    private static final int[] EMPTY = {};
+    private static final int[] A = {1, 4, 7, 9};
+    private static final int[] B = {2, 4, 9, 12};
+    private static final int[] C = {4, 9};
+
+    private static int[] range(int from, int to) {
+        int[] r = new int[to - from];
+        for (int i = 0; i < r.length; i++) r[i] = from + i;
+        return r;
+    }
+
+    @Test
+    public void testIntersects() {
+        assertTrue(IntSets.intersects(A, B));
+        assertFalse(IntSets.intersects(new int[]{1, 3}, new int[]{2, 4}));
+        assertFalse(IntSets.intersects(A, EMPTY));
+        assertTrue("Binary-search path", IntSets.intersects(new int[]{500}, range(0, 1000)));
+        assertFalse("Binary-search path", IntSets.intersects(new int[]{-1, 1000}, range(0, 1000)));
+    }
+
+    @Test
+    public void testSubsetAndCardinality() {
+        assertTrue(IntSets.isSubset(C, A));
+        assertTrue(IntSets.isSubset(EMPTY, A));
+        assertFalse(IntSets.isSubset(A, C));
+        assertFalse(IntSets.isSubset(new int[]{1, 2}, A));
+        assertTrue("Binary-search path", IntSets.isSubset(new int[]{3, 700}, range(0, 1000)));
+        assertFalse("Binary-search path", IntSets.isSubset(new int[]{3, 1700}, range(0, 1000)));
+        assertEquals(4, IntSets.cardinality(A));
+        assertEquals(2, IntSets.intersectionSize(A, B));
+    }
+
+    @Test
+    public void testUnionAndIntersectionWriteIntoBuffer() {
+        int[] out = new int[A.length + B.length];
+        int n = IntSets.union(A, B, out);
+        assertArrayEquals(new int[]{1, 2, 4, 7, 9, 12}, Arrays.copyOf(out, n));
+        n = IntSets.intersection(A, B, out);
+        assertArrayEquals(C, Arrays.copyOf(out, n));
+    }
+}
@@ -0,0 +1,48 @@
+package br.ufpe.cin.pt.testsuite.scaling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import br.ufpe.cin.pt.soot.CallGraphAlgorithm;
+import br.ufpe.cin.pt.soot.scaling.ScalingStudy;
+import br.ufpe.cin.pt.soot.scaling.SyntheticProgram;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Small Spark sweep over generated programs. Spark is context-insensitive, so {@code B.foo}
+ * merges the chains and the distinct-chain query is answered imprecisely at every size.
+ */
+public class SPARKScalingStudyTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void testSparkSweep() throws Exception {
+        ScalingStudy study = new ScalingStudy(Collections.singletonList(CallGraphAlgorithm.SOOT_SPARK));
+        List<ScalingStudy.Row> rows = study.run(Arrays.asList(
+                SyntheticProgram.of(2), SyntheticProgram.of(8).withWrapperDepth(2)));
+        assertEquals(2, rows.size());
+        for (ScalingStudy.Row row : rows) {
+            assertNull(row.error);
+            assertFalse("Insensitive analysis merges the chains in B.foo.", row.isPrecise());
+            assertTrue(row.reachableMethods > 0);
+        }
+
+        File csv = new File(tmp.getRoot(), "study.csv");
+        study.writeCsv(csv);
+        assertEquals(3, Files.readAllLines(csv.toPath()).size());
+        assertTrue(study.plot(ScalingStudy.Axis.COPIES, ScalingStudy.Measure.SOLVE_MS, 40, 10)
+                .contains("a = soot::SPARK"));
+    }
+}
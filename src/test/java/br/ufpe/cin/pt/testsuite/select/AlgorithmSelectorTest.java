@@ -0,0 +1,110 @@
+package br.ufpe.cin.pt.testsuite.select;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import br.ufpe.cin.pt.soot.CallGraphAlgorithm;
+import br.ufpe.cin.pt.soot.RunReport;
+import br.ufpe.cin.pt.soot.history.RunRecord;
+import br.ufpe.cin.pt.soot.select.AlgorithmSelector;
+import br.ufpe.cin.pt.soot.select.LearnedCostModel;
+import br.ufpe.cin.pt.soot.select.ProgramFeatures;
+import org.junit.Test;
+
+/** Cost model fitted on a synthetic history, and budget-driven choices over its predictions. */
+public class AlgorithmSelectorTest {
+
+    private static final double[] NOISE = {1.03, 0.97, 1.05, 0.96, 1.01, 0.99, 1.04, 0.95, 1.02, 0.98, 1.0, 1.03};
+
+    private static ProgramFeatures features(long statements) {
+        return new ProgramFeatures(statements / 20, statements, statements / 50, statements / 400, statements / 30,
+                statements / 200);
+    }
+
+    private static RunRecord record(long time, String scenario, String algorithm, long millis, long heapMB,
+                                    ProgramFeatures features) {
+        Map<String, Long> phases = new TreeMap<>();
+        phases.put("solve", millis);
+        RunReport report = new RunReport(null);
+        if (features != null) features.addTo(report);
+        return new RunRecord(time, "aaa", "box", scenario, algorithm, "OK", heapMB, phases, report.getMetrics());
+    }
+
+    /** Twelve programs; Spark costs 0.05 ms per statement, 2O grows as statements^1.3, 1O has three runs. */
+    private static List<RunRecord> history() {
+        List<RunRecord> records = new ArrayList<>();
+        long time = 0;
+        for (int i = 0; i < NOISE.length; i++) {
+            long statements = (long) (1000 * Math.pow(100, i / (NOISE.length - 1.0)));
+            String scenario = "P" + i + ".main:a/b";
+            records.add(record(time++, scenario, "soot::CHA", 100, 200, features(statements)));
+            records.add(record(time++, scenario, "soot::SPARK", (long) (0.05 * statements * NOISE[i]),
+                    (long) (0.02 * statements), null));
+            records.add(record(time++, scenario, "qilin::2O", (long) (0.05 * Math.pow(statements, 1.3) * NOISE[i]),
+                    (long) (0.1 * statements), null));
+            if (i % 4 == 0) {
+                records.add(record(time++, scenario, "qilin::1O", (long) (0.2 * statements), 500, null));
+            }
+        }
+        return records;
+    }
+
+    @Test
+    public void testModelRecoversCostsAndFallsBack() {
+        LearnedCostModel model = LearnedCostModel.fit(history());
+        assertEquals(12 * 3 + 3, model.getSamples());
+
+        LearnedCostModel.Prediction spark = model.predict(features(20000), CallGraphAlgorithm.SOOT_SPARK);
+        assertEquals(LearnedCostModel.Basis.ALGORITHM, spark.basis);
+        assertEquals(1000, spark.millis, 150);
+        assertEquals(400, spark.heapMB, 60);
+        assertTrue("Noise of a few percent: " + spark, spark.sigma < 0.1);
+
+        LearnedCostModel.Prediction twoObject = model.predict(features(20000), CallGraphAlgorithm.QILIN_2O);
+        assertEquals(0.05 * Math.pow(20000, 1.3), twoObject.millis, 0.15 * 0.05 * Math.pow(20000, 1.3));
+
+        LearnedCostModel.Prediction pooled = model.predict(features(20000), CallGraphAlgorithm.QILIN_3HT);
+        assertEquals(LearnedCostModel.Basis.POOLED, pooled.basis);
+        assertTrue("The prior ranks 3HT above 1O.",
+                pooled.millis > model.predict(features(20000), CallGraphAlgorithm.QILIN_1O).millis);
+
+        LearnedCostModel empty = LearnedCostModel.fit(Collections.<RunRecord>emptyList());
+        assertEquals(LearnedCostModel.Basis.PRIOR, empty.predict(features(20000), CallGraphAlgorithm.QILIN_2O).basis);
+    }
+
+    @Test
+    public void testChoiceFollowsBudget() {
+        AlgorithmSelector selector = new AlgorithmSelector(LearnedCostModel.fit(history()))
+                .setCandidates(Arrays.asList(CallGraphAlgorithm.SOOT_CHA, CallGraphAlgorithm.SOOT_SPARK,
+                        CallGraphAlgorithm.QILIN_2O));
+        ProgramFeatures program = features(20000);  // Spark about 1 s, 2O about 20 s
+
+        assertEquals(CallGraphAlgorithm.QILIN_2O, selector.choose(program, 60_000).chosen.algorithm);
+        assertEquals(CallGraphAlgorithm.SOOT_SPARK, selector.choose(program, 5_000).chosen.algorithm);
+        assertEquals(3, selector.choose(program, 5_000).predictions.size());
+        assertEquals("Nothing fits: the fastest.", CallGraphAlgorithm.SOOT_CHA,
+                selector.choose(program, 10).chosen.algorithm);
+
+        selector.setHeapLimitMB(1000);  // 2O needs about 2 GB
+        assertEquals(CallGraphAlgorithm.SOOT_SPARK, selector.choose(program, 60_000).chosen.algorithm);
+    }
+
+    @Test
+    public void testPrecisionRank() {
+        assertTrue(AlgorithmSelector.precisionRank(CallGraphAlgorithm.SOOT_CHA)
+                < AlgorithmSelector.precisionRank(CallGraphAlgorithm.SOOT_SPARK));
+        assertEquals(AlgorithmSelector.precisionRank(CallGraphAlgorithm.SOOT_SPARK),
+                AlgorithmSelector.precisionRank(CallGraphAlgorithm.QILIN_INSENS));
+        assertTrue(AlgorithmSelector.precisionRank(CallGraphAlgorithm.QILIN_Z2O)
+                < AlgorithmSelector.precisionRank(CallGraphAlgorithm.QILIN_2O));
+        assertTrue(AlgorithmSelector.precisionRank(CallGraphAlgorithm.QILIN_2HT)
+                < AlgorithmSelector.precisionRank(CallGraphAlgorithm.QILIN_3HT));
+    }
+}
@@ -0,0 +1,126 @@
+package br.ufpe.cin.pt.testsuite.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import br.ufpe.cin.pt.soot.store.AliasIndex;
+import br.ufpe.cin.pt.soot.store.PointsToRelation;
+import org.junit.Test;
+
+/**
+ * Inverted index over a hand-built relation for the Point scenario. {@code this} and
+ * {@code that} in {@code distance} share both allocations, so their pair must be reported once.
+ */
+public class AliasIndexTest {
+
+    private static final String TEST_POINTS = "<br.ufpe.cin.pt.samples.PointTest: void testPoints()>";
+    private static final String DISTANCE = "<br.ufpe.cin.pt.samples.Point: double distance(br.ufpe.cin.pt.samples.Point)>";
+
+    private AliasIndex index() {
+        PointsToRelation.Builder b = new PointsToRelation.Builder();
+        int p1 = b.site(TEST_POINTS + "/0", "br.ufpe.cin.pt.samples.Point");
+        int p2 = b.site(TEST_POINTS + "/1", "br.ufpe.cin.pt.samples.Point");
+        b.addPointer(TEST_POINTS, "point1", p1);
+        b.addPointer(TEST_POINTS, "point2", p2);
+        b.addPointer(TEST_POINTS, "point3", p2);
+        b.addPointer(DISTANCE, "this", p1, p2);
+        b.addPointer(DISTANCE, "that", p1, p2);
+        b.addPointer(DISTANCE, "other", p2);
+        return new AliasIndex(b.build());
+    }
+
+    private static List<String> pairs(AliasIndex index, List<int[]> raw) {
+        List<String> result = new ArrayList<>();
+        for (int[] pair : raw) {
+            result.add(index.getRelation().pointerLocal(pair[0]) + "~" + index.getRelation().pointerLocal(pair[1]));
+        }
+        return result;
+    }
+
+    @Test
+    public void testPointersOfSite() {
+        AliasIndex index = index();
+        int site = index.site(TEST_POINTS + "/1");
+        assertEquals(5, index.pointerCount(site));
+        assertEquals(-1, index.site(TEST_POINTS + "/2"));
+        List<String> locals = new ArrayList<>();
+        index.forEachPointer(site, p -> locals.add(index.getRelation().pointerLocal(p)));
+        assertEquals("[other, that, this, point2, point3]", locals.toString());
+    }
+
+    @Test
+    public void testAliasPairsPerMethod() {
+        AliasIndex index = index();
+        List<int[]> raw = new ArrayList<>();
+        index.forEachAliasPairInMethod(TEST_POINTS, (a, b, site) -> raw.add(new int[] {a, b}));
+        assertEquals("[point2~point3]", pairs(index, raw).toString());
+    }
+
+    @Test
+    public void testAliasPairsPerClassAndPackage() {
+        AliasIndex index = index();
+        List<int[]> raw = new ArrayList<>();
+        index.forEachAliasPairInClass("br.ufpe.cin.pt.samples.Point", (a, b, site) -> raw.add(new int[] {a, b}));
+        assertEquals("[that~this, other~that, other~this]", pairs(index, raw).toString());
+
+        int[] count = new int[1];
+        index.forEachAliasPairInPackage("br.ufpe.cin.pt.samples", (a, b, site) -> count[0]++);
+        assertEquals("3 pairs at the first site, 10 at the second minus this~that.", 12, count[0]);
+        index.forEachAliasPair((a, b, site) -> count[0]--);
+        assertEquals(0, count[0]);
+        index.forEachAliasPairInPackage("br.ufpe.cin.pt.sample", (a, b, site) -> count[0]++);
+        assertEquals(0, count[0]);
+    }
+
+    @Test
+    public void testAliasPairsMatchPairwiseIntersection() {
+        // Few distinct sets over many pointers, so most pairs come from shared set ids.
+        Random random = new Random(42);
+        PointsToRelation.Builder b = new PointsToRelation.Builder();
+        int[] sites = new int[6];
+        for (int s = 0; s < sites.length; s++) {
+            sites[s] = b.site("<C: void m()>/" + s, "C");
+        }
+        int[][] shapes = {{}, {0}, {0, 3}, {1, 2, 5}, {3, 4}, {5}};
+        for (int p = 0; p < 40; p++) {
+            int[] shape = shapes[random.nextInt(shapes.length)];
+            int[] ids = new int[shape.length];
+            for (int i = 0; i < shape.length; i++) {
+                ids[i] = sites[shape[i]];
+            }
+            b.addPointer("<C: void m" + (p % 3) + "()>", "l" + p, ids);
+        }
+        AliasIndex index = new AliasIndex(b.build());
+        PointsToRelation relation = index.getRelation();
+
+        Set<String> expected = new TreeSet<>();
+        for (int p1 = 0; p1 < relation.pointerCount(); p1++) {
+            for (int p2 = p1 + 1; p2 < relation.pointerCount(); p2++) {
+                int shared = -1;
+                for (int site : relation.pointsTo(p1)) {
+                    if (Arrays.binarySearch(relation.pointsTo(p2), site) >= 0) {
+                        shared = site;
+                        break;
+                    }
+                }
+                if (shared >= 0) expected.add(p1 + "~" + p2 + "@" + shared);
+            }
+        }
+        List<String> actual = new ArrayList<>();
+        int[] lastSite = {-1};
+        index.forEachAliasPair((p1, p2, site) -> {
+            assertTrue("Pairs should come in ascending site order.", site >= lastSite[0]);
+            lastSite[0] = site;
+            actual.add(p1 + "~" + p2 + "@" + site);
+        });
+        assertEquals("Every pair should be reported once.", actual.size(), new TreeSet<>(actual).size());
+        assertEquals(expected, new TreeSet<>(actual));
+    }
+}
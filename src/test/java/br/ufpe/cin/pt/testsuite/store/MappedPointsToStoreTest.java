@@ -0,0 +1,106 @@
+package br.ufpe.cin.pt.testsuite.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import br.ufpe.cin.pt.soot.store.DedupStats;
+import br.ufpe.cin.pt.soot.store.MappedPTA;
+import br.ufpe.cin.pt.soot.store.MappedPointsToStore;
+import br.ufpe.cin.pt.soot.store.PointsToRelation;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Round trip of a hand-built relation for {@code PointTest.testPoints()} through the
+ * memory-mapped store: point2/point3 share an allocation, point1 does not. The relation has
+ * five pointers but only three distinct sets.
+ */
+public class MappedPointsToStoreTest {
+
+    private static final String TEST_POINTS = "<br.ufpe.cin.pt.samples.PointTest: void testPoints()>";
+    private static final String DISTANCE = "<br.ufpe.cin.pt.samples.Point: double distance(br.ufpe.cin.pt.samples.Point)>";
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private PointsToRelation relation() {
+        PointsToRelation.Builder b = new PointsToRelation.Builder();
+        int p1 = b.site(TEST_POINTS + "/0", "br.ufpe.cin.pt.samples.Point");
+        int p2 = b.site(TEST_POINTS + "/1", "br.ufpe.cin.pt.samples.Point");
+        b.addPointer(TEST_POINTS, "point1", p1);
+        b.addPointer(TEST_POINTS, "point2", p2);
+        b.addPointer(TEST_POINTS, "point3", p2);
+        b.addPointer(DISTANCE, "this", p1, p2);
+        b.addPointer(DISTANCE, "other", p2);
+        return b.build();
+    }
+
+    @Test
+    public void testMappedStoreAnswersLikeTheRelation() throws Exception {
+        File file = new File(tmp.getRoot(), "points-to.bin");
+        MappedPointsToStore.write(relation(), file);
+        MappedPTA pta = MappedPointsToStore.open(file);
+
+        assertEquals(2, pta.methodCount());
+        assertEquals(5, pta.pointerCount());
+        assertEquals(2, pta.siteCount());
+        assertFalse("point1 and point2 come from different allocations.",
+                pta.hasIntersectingObjects(TEST_POINTS, "point1", "point2"));
+        assertTrue("point3 = point2, so they share an allocation.",
+                pta.hasIntersectingObjects(TEST_POINTS, "point2", "point3"));
+        assertFalse("Locals missing from the store have empty points-to sets.",
+                pta.hasIntersectingObjects(TEST_POINTS, "point2", "unknown"));
+
+        int self = pta.pointer(DISTANCE, "this");
+        assertEquals(2, pta.pointsToSize(self));
+        assertEquals(DISTANCE, pta.pointerMethod(self));
+        assertEquals(TEST_POINTS + "/1", pta.siteSignature(pta.pointsTo(self, 1)));
+        assertEquals("br.ufpe.cin.pt.samples.Point", pta.siteType(pta.pointsTo(self, 0)));
+    }
+
+    @Test
+    public void testIdenticalSetsAreStoredOnce() throws Exception {
+        PointsToRelation relation = relation();
+        DedupStats dedup = relation.dedupStats();
+        assertEquals(5, dedup.pointers);
+        assertEquals("{p1}, {p2} and {p1, p2}.", 3, dedup.uniqueSets);
+        assertEquals(6, dedup.totalElements);
+        assertEquals(4, dedup.storedElements);
+
+        File file = new File(tmp.getRoot(), "points-to.bin");
+        MappedPointsToStore.write(relation, file);
+        MappedPTA pta = MappedPointsToStore.open(file);
+        assertEquals(3, pta.setCount());
+        int point2 = pta.pointer(TEST_POINTS, "point2");
+        int other = pta.pointer(DISTANCE, "other");
+        assertTrue("Pointers in different methods share the stored {p2}.", pta.sameObjects(point2, other));
+        assertFalse(pta.sameObjects(point2, pta.pointer(DISTANCE, "this")));
+        assertTrue(pta.intersects(point2, other));
+    }
+
+    @Test
+    public void testLookupsFollowStringOrderBeyondAscii() throws Exception {
+        // U+E000 sorts after the surrogate pair of U+1F600 as a String, but before it in UTF-8.
+        String[] locals = {"a", "\u00e9", "\ud83d\ude00", "\ue000", "z"};
+        PointsToRelation.Builder b = new PointsToRelation.Builder();
+        int site = b.site(TEST_POINTS + "/0", "br.ufpe.cin.pt.samples.Point");
+        for (String local : locals) {
+            b.addPointer(TEST_POINTS, local, site);
+        }
+        File file = new File(tmp.getRoot(), "points-to.bin");
+        MappedPointsToStore.write(b.build(), file);
+        MappedPTA pta = MappedPointsToStore.open(file);
+
+        for (String local : locals) {
+            int p = pta.pointer(TEST_POINTS, local);
+            assertTrue("Pointer " + local + " should be found.", p >= 0);
+            assertEquals(local, pta.pointerLocal(p));
+        }
+        assertEquals(-1, pta.pointer(TEST_POINTS, "\ue001"));
+        assertEquals(-1, pta.pointer(TEST_POINTS, "\u00e9x"));
+    }
+}
@@ -0,0 +1,80 @@
+package br.ufpe.cin.pt.testsuite.store;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+
+import br.ufpe.cin.pt.soot.store.MappedPointsToStore;
+import br.ufpe.cin.pt.soot.store.PointsToDiff;
+import br.ufpe.cin.pt.soot.store.PointsToRelation;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Diff of two hand-built runs of the Point scenario: a precise one, where {@code this} in
+ * {@code distance} sees only the receiver allocation, and a coarse one that merges both
+ * allocations and misses {@code point1}. Site ids are deliberately numbered differently.
+ */
+public class PointsToDiffTest {
+
+    private static final String TEST_POINTS = "<br.ufpe.cin.pt.samples.PointTest: void testPoints()>";
+    private static final String DISTANCE = "<br.ufpe.cin.pt.samples.Point: double distance(br.ufpe.cin.pt.samples.Point)>";
+    private static final String POINT = "br.ufpe.cin.pt.samples.Point";
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private PointsToRelation precise() {
+        PointsToRelation.Builder b = new PointsToRelation.Builder();
+        int p1 = b.site(TEST_POINTS + "/0", POINT);
+        int p2 = b.site(TEST_POINTS + "/1", POINT);
+        b.addPointer(TEST_POINTS, "point1", p1);
+        b.addPointer(TEST_POINTS, "point2", p2);
+        b.addPointer(TEST_POINTS, "point3", p2);
+        b.addPointer(DISTANCE, "this", p1);
+        b.addPointer(DISTANCE, "other", p2);
+        return b.build();
+    }
+
+    private PointsToRelation coarse() {
+        PointsToRelation.Builder b = new PointsToRelation.Builder();
+        int p2 = b.site(TEST_POINTS + "/1", POINT);
+        int p1 = b.site(TEST_POINTS + "/0", POINT);
+        int p3 = b.site(DISTANCE + "/0", POINT);
+        b.addPointer(TEST_POINTS, "point2", p2);
+        b.addPointer(TEST_POINTS, "point3", p2);
+        b.addPointer(DISTANCE, "this", p1, p2);
+        b.addPointer(DISTANCE, "other", p3);
+        return b.build();
+    }
+
+    @Test
+    public void testClassifiesEveryPointer() {
+        PointsToDiff diff = PointsToDiff.compute(precise(), coarse());
+        assertEquals(5, diff.size());
+        PointsToDiff.Summary total = diff.total();
+        assertEquals(2, total.count(PointsToDiff.Kind.EQUAL));
+        assertEquals("this grows from {p1} to {p1, p2}.", 1, total.count(PointsToDiff.Kind.SUBSET));
+        assertEquals("point1 is missing on the right, i.e. empty.", 1, total.count(PointsToDiff.Kind.SUPERSET));
+        assertEquals("other moves to a site the left run never saw.", 1, total.count(PointsToDiff.Kind.INCOMPARABLE));
+        assertEquals(5, total.leftSize());
+        assertEquals(5, total.rightSize());
+
+        PointsToDiff.Summary distance = diff.byMethod().get(DISTANCE);
+        assertEquals(2, distance.changed());
+        assertEquals(DISTANCE, diff.mostChangedMethods(1).get(0));
+    }
+
+    @Test
+    public void testDiffOfStoredRunsMatchesInMemoryDiff() throws Exception {
+        File left = new File(tmp.getRoot(), "left.bin");
+        File right = new File(tmp.getRoot(), "right.bin");
+        MappedPointsToStore.write(precise(), left);
+        MappedPointsToStore.write(coarse(), right);
+        PointsToDiff stored = PointsToDiff.compute(MappedPointsToStore.read(left), MappedPointsToStore.read(right));
+        assertEquals(PointsToDiff.compute(precise(), coarse()).total().toString(), stored.total().toString());
+        assertEquals("A run diffed against itself has no changes.",
+                0, PointsToDiff.compute(MappedPointsToStore.read(left), precise()).total().changed());
+    }
+}
@@ -0,0 +1,72 @@
+package br.ufpe.cin.pt.testsuite.summary;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+
+import br.ufpe.cin.pt.soot.AliasTransformer;
+import br.ufpe.cin.pt.soot.CallGraphAlgorithm;
+import br.ufpe.cin.pt.soot.TestConfiguration;
+import br.ufpe.cin.pt.soot.summary.SummaryComparison;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Spark on {@code br.ufpe.cin.pt.samples.summary.Main#main(String[])} with {@code java.util}
+ * replaced by summaries: an {@code ArrayList} add/get pair and the {@code List} returned by
+ * {@code Collections.singletonList} must keep the answers of the full-library run.
+ */
+public class SPARKContainerSummaryTest {
+
+    private static final List<String> STUBBED = Collections.singletonList("java.util.*");
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private SummaryComparison compare(String v1, String v2) {
+        TestConfiguration config = new TestConfiguration(
+                "br.ufpe.cin.pt.samples.summary.Main", "main",
+                "br.ufpe.cin.pt.samples.summary.Main", "main",
+                v1, v2, "java.lang.Object").setCallGraph(CallGraphAlgorithm.SOOT_SPARK);
+        return SummaryComparison.run(config, new File(tmp.getRoot(), "util-summaries.tsv"), STUBBED);
+    }
+
+    @Test
+    public void testSPARK_got_a_listGetReturnsWhatAddStored() throws Exception {
+        SummaryComparison comparison = compare("got", "a");
+
+        assertEquals("The summarised ArrayList should still return the added object:\n" + comparison,
+                AliasTransformer.Result.PTA_SUGGESTS_ALIAS, comparison.getSummaryResult());
+        assertTrue(comparison.toString(), comparison.samePrecision());
+        assertTrue("Summaries should be installed.",
+                comparison.getSummaryReport().getMetric("summaries.installed").intValue() > 0);
+        String summaries = new String(Files.readAllBytes(new File(tmp.getRoot(), "util-summaries.tsv").toPath()),
+                StandardCharsets.UTF_8);
+        assertTrue(summaries.contains("method\t<java.util.ArrayList: java.lang.Object get(int)>"));
+        assertTrue(summaries.contains("method\t<java.util.Collections: java.util.List singletonList(java.lang.Object)>"));
+    }
+
+    @Test
+    public void testSPARK_only_b_interfaceFactoryKeepsItsElement() throws Exception {
+        SummaryComparison comparison = compare("only", "b");
+
+        assertEquals("The List from the summarised singletonList should hold b:\n" + comparison,
+                AliasTransformer.Result.PTA_SUGGESTS_ALIAS, comparison.getSummaryResult());
+        assertTrue(comparison.toString(), comparison.samePrecision());
+    }
+
+    @Test
+    public void testSPARK_got_b_summariesKeepContainersApart() throws Exception {
+        SummaryComparison comparison = compare("got", "b");
+
+        assertEquals("b never enters the ArrayList:\n" + comparison,
+                AliasTransformer.Result.PTA_NO_EVIDENCE_OF_ALIAS, comparison.getSummaryResult());
+        assertTrue(comparison.toString(), comparison.samePrecision());
+    }
+}